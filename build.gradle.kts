@@ -1,5 +1,6 @@
 plugins {
     java
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "com.github.lukesky19"
@@ -16,18 +17,39 @@ repositories {
     maven("https://jitpack.io") {
         name = "Vault Repo"
     }
+
+    maven("https://repo.extendedclip.com/releases/") {
+        name = "placeholderapi"
+    }
 }
 
 dependencies {
     compileOnly("io.papermc.paper:paper-api:1.21.9-R0.1-SNAPSHOT")
     compileOnly("com.github.lukesky19:SkyLib:1.3.1.0")
     compileOnly("com.github.MilkBowl:VaultAPI:1.7.1")
+    compileOnly("me.clip:placeholderapi:2.11.6")
+
+    // Benchmarks run against a MockBukkit server, so the plugin's compileOnly dependencies are needed at runtime.
+    jmh("org.mockbukkit.mockbukkit:mockbukkit-v1.21:4.98.0")
+    jmh("io.papermc.paper:paper-api:1.21.9-R0.1-SNAPSHOT")
+    jmh("com.github.lukesky19:SkyLib:1.3.1.0")
+    jmh("com.github.MilkBowl:VaultAPI:1.7.1")
 }
 
 java {
     toolchain.languageVersion.set(JavaLanguageVersion.of(21))
 }
 
+jmh {
+    jmhVersion.set("1.37")
+    // Record the allocation rate of each benchmark alongside its throughput.
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("reports/jmh/results.json"))
+    // Allows a subset of benchmarks to be run with -Pjmh.includes=<regex>
+    providers.gradleProperty("jmh.includes").orNull?.let { includes.add(it) }
+}
+
 tasks {
     processResources {
         val props = mapOf("version" to version)
@@ -38,6 +60,31 @@ tasks {
         }
     }
 
+    // Copies the latest benchmark results to benchmarks/<version>.json so they can be compared with previous releases.
+    register<Copy>("jmhBaseline") {
+        group = "benchmark"
+        description = "Saves the latest JMH results as the baseline for the current version."
+        dependsOn("jmh")
+        from(layout.buildDirectory.file("reports/jmh/results.json"))
+        into(layout.projectDirectory.dir("benchmarks"))
+        rename { "${project.version}.json" }
+    }
+
+    // Simulates many players using the markets at once. Configure with -PloadTest.players, -PloadTest.ticks, -PloadTest.clickChance,
+    // -PloadTest.chestShare, -PloadTest.chestSlots, -PloadTest.merchantTrades and -PloadTest.timeScale.
+    register<JavaExec>("loadTest") {
+        group = "benchmark"
+        description = "Runs the load harness against a mock server and reports tick times, allocations and GC pauses."
+        classpath = sourceSets["jmh"].runtimeClasspath
+        mainClass.set("com.github.lukesky19.skymarket.benchmark.LoadHarness")
+        maxHeapSize = "2g"
+
+        listOf("players", "ticks", "clickChance", "chestShare", "chestSlots", "merchantTrades", "timeScale").forEach { name ->
+            providers.gradleProperty("loadTest.$name").orNull?.let { systemProperty("skymarket.load.$name", it) }
+        }
+        systemProperty("skymarket.load.report", layout.buildDirectory.file("reports/load/report.txt").get().asFile.absolutePath)
+    }
+
     jar {
         manifest {
             attributes["paperweight-mappings-namespace"] = "mojang"
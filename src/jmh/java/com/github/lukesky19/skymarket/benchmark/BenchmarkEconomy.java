@@ -0,0 +1,191 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.benchmark;
+
+import net.milkbowl.vault.economy.AbstractEconomy;
+import net.milkbowl.vault.economy.EconomyResponse;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An in-memory Vault economy used by the benchmarks so transactions do not depend on an economy plugin.
+ * Every account starts with a balance large enough to never run out during a benchmark.
+ */
+public class BenchmarkEconomy extends AbstractEconomy {
+    private static final double STARTING_BALANCE = 1_000_000_000D;
+
+    private final @NotNull Map<String, Double> balances = new ConcurrentHashMap<>();
+
+    /**
+     * Default Constructor.
+     */
+    public BenchmarkEconomy() {}
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public String getName() {
+        return "BenchmarkEconomy";
+    }
+
+    @Override
+    public boolean hasBankSupport() {
+        return false;
+    }
+
+    @Override
+    public int fractionalDigits() {
+        return 2;
+    }
+
+    @Override
+    public String format(double amount) {
+        return String.valueOf(amount);
+    }
+
+    @Override
+    public String currencyNamePlural() {
+        return "Dollars";
+    }
+
+    @Override
+    public String currencyNameSingular() {
+        return "Dollar";
+    }
+
+    @Override
+    public boolean hasAccount(String playerName) {
+        return true;
+    }
+
+    @Override
+    public boolean hasAccount(String playerName, String worldName) {
+        return true;
+    }
+
+    @Override
+    public double getBalance(String playerName) {
+        return balances.computeIfAbsent(playerName, name -> STARTING_BALANCE);
+    }
+
+    @Override
+    public double getBalance(String playerName, String world) {
+        return getBalance(playerName);
+    }
+
+    @Override
+    public boolean has(String playerName, double amount) {
+        return getBalance(playerName) >= amount;
+    }
+
+    @Override
+    public boolean has(String playerName, String worldName, double amount) {
+        return has(playerName, amount);
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayer(String playerName, double amount) {
+        double balance = balances.merge(playerName, STARTING_BALANCE - amount, (current, ignored) -> current - amount);
+        return new EconomyResponse(amount, balance, EconomyResponse.ResponseType.SUCCESS, null);
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayer(String playerName, String worldName, double amount) {
+        return withdrawPlayer(playerName, amount);
+    }
+
+    @Override
+    public EconomyResponse depositPlayer(String playerName, double amount) {
+        double balance = balances.merge(playerName, STARTING_BALANCE + amount, (current, ignored) -> current + amount);
+        return new EconomyResponse(amount, balance, EconomyResponse.ResponseType.SUCCESS, null);
+    }
+
+    @Override
+    public EconomyResponse depositPlayer(String playerName, String worldName, double amount) {
+        return depositPlayer(playerName, amount);
+    }
+
+    @Override
+    public EconomyResponse createBank(String name, String player) {
+        return notImplemented();
+    }
+
+    @Override
+    public EconomyResponse deleteBank(String name) {
+        return notImplemented();
+    }
+
+    @Override
+    public EconomyResponse bankBalance(String name) {
+        return notImplemented();
+    }
+
+    @Override
+    public EconomyResponse bankHas(String name, double amount) {
+        return notImplemented();
+    }
+
+    @Override
+    public EconomyResponse bankWithdraw(String name, double amount) {
+        return notImplemented();
+    }
+
+    @Override
+    public EconomyResponse bankDeposit(String name, double amount) {
+        return notImplemented();
+    }
+
+    @Override
+    public EconomyResponse isBankOwner(String name, String playerName) {
+        return notImplemented();
+    }
+
+    @Override
+    public EconomyResponse isBankMember(String name, String playerName) {
+        return notImplemented();
+    }
+
+    @Override
+    public List<String> getBanks() {
+        return List.of();
+    }
+
+    @Override
+    public boolean createPlayerAccount(String playerName) {
+        return true;
+    }
+
+    @Override
+    public boolean createPlayerAccount(String playerName, String worldName) {
+        return true;
+    }
+
+    /**
+     * Creates the response returned by the unsupported bank methods.
+     * @return An {@link EconomyResponse} with the type {@link EconomyResponse.ResponseType#NOT_IMPLEMENTED}.
+     */
+    private @NotNull EconomyResponse notImplemented() {
+        return new EconomyResponse(0, 0, EconomyResponse.ResponseType.NOT_IMPLEMENTED, "Banks are not supported.");
+    }
+}
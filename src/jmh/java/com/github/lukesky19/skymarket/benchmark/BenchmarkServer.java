@@ -0,0 +1,305 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.benchmark;
+
+import com.github.lukesky19.skymarket.SkyMarket;
+import com.github.lukesky19.skymarket.configuration.LocaleManager;
+import com.github.lukesky19.skymarket.configuration.MarketConfigManager;
+import com.github.lukesky19.skymarket.configuration.SettingsManager;
+import com.github.lukesky19.skymarket.manager.*;
+import net.milkbowl.vault.economy.Economy;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.ServicePriority;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+import org.mockbukkit.mockbukkit.MockBukkit;
+import org.mockbukkit.mockbukkit.ServerMock;
+import org.mockbukkit.mockbukkit.entity.PlayerMock;
+
+/**
+ * This class starts a MockBukkit server with SkyMarket loaded and creates the managers used by the benchmarks.
+ * The managers are created the same way {@link SkyMarket#onEnable()} creates them, using the shipped configuration files.
+ * Market timing uses a {@link FakeMarketScheduler}, so market time only moves when it is advanced.
+ */
+public final class BenchmarkServer {
+    private final @NotNull ServerMock server;
+    private final @NotNull SkyMarket skyMarket;
+    private final @NotNull FakeMarketScheduler marketScheduler;
+    private final @NotNull SettingsManager settingsManager;
+    private final @NotNull LocaleManager localeManager;
+    private final @NotNull GUIManager guiManager;
+    private final @NotNull MarketConfigManager marketConfigManager;
+    private final @NotNull MarketDataManager marketDataManager;
+    private final @NotNull EconomyManager economyManager;
+    private final @NotNull CommandManager commandManager;
+    private final @NotNull ClickLimitManager clickLimitManager;
+    private final @NotNull MetricsManager metricsManager;
+    private final @NotNull TransactionManager transactionManager;
+    private final @NotNull TransactionSequencer transactionSequencer;
+    private final @NotNull PricingManager pricingManager;
+    private final @NotNull ButtonManager buttonManager;
+    private final @NotNull TradeManager tradeManager;
+    private final @NotNull BroadcastManager broadcastManager;
+    private final @NotNull SearchManager searchManager;
+    private final @NotNull MarketManager marketManager;
+
+    /**
+     * Constructor
+     * @param server The {@link ServerMock} SkyMarket is loaded on.
+     * @param skyMarket The loaded {@link SkyMarket} instance.
+     */
+    private BenchmarkServer(@NotNull ServerMock server, @NotNull SkyMarket skyMarket) {
+        this.server = server;
+        this.skyMarket = skyMarket;
+        this.marketScheduler = new FakeMarketScheduler(System.currentTimeMillis());
+
+        settingsManager = new SettingsManager(skyMarket);
+        settingsManager.reload();
+        localeManager = new LocaleManager(skyMarket, settingsManager);
+        localeManager.reload();
+        guiManager = new GUIManager(skyMarket);
+        marketConfigManager = new MarketConfigManager(skyMarket);
+        marketConfigManager.reload();
+        marketDataManager = new MarketDataManager();
+        economyManager = new EconomyManager(skyMarket, marketScheduler, settingsManager);
+        economyManager.reload();
+        commandManager = new CommandManager(skyMarket, marketScheduler, settingsManager);
+        clickLimitManager = new ClickLimitManager(settingsManager);
+        clickLimitManager.reload();
+        metricsManager = new MetricsManager(skyMarket, marketScheduler, settingsManager, clickLimitManager);
+        transactionManager = new TransactionManager(marketScheduler, localeManager, guiManager, economyManager, commandManager);
+        transactionSequencer = new TransactionSequencer(skyMarket);
+        pricingManager = new PricingManager(marketScheduler, settingsManager);
+        buttonManager = new ButtonManager(skyMarket, marketScheduler, marketDataManager, transactionManager, transactionSequencer, guiManager, pricingManager, commandManager, metricsManager);
+        tradeManager = new TradeManager(skyMarket);
+        broadcastManager = new BroadcastManager(skyMarket, marketScheduler, settingsManager);
+        searchManager = new SearchManager(skyMarket);
+        marketManager = new MarketManager(skyMarket, marketScheduler, settingsManager, localeManager, guiManager, marketConfigManager, marketDataManager, buttonManager, tradeManager, broadcastManager, metricsManager, searchManager);
+        marketManager.reload();
+    }
+
+    /**
+     * Starts a MockBukkit server, registers the {@link BenchmarkEconomy} and loads SkyMarket.
+     * SkyLib and Vault are represented by empty plugins so SkyMarket's dependency checks pass.
+     * @return A {@link BenchmarkServer}.
+     */
+    public static @NotNull BenchmarkServer start() {
+        ServerMock server = MockBukkit.mock();
+        server.addSimpleWorld("world");
+
+        MockBukkit.loadWith(DependencyPlugin.class, new PluginDescriptionFile("SkyLib", "1.3.1.0", DependencyPlugin.class.getName()));
+        DependencyPlugin vault = MockBukkit.loadWith(DependencyPlugin.class, new PluginDescriptionFile("Vault", "1.7.3", DependencyPlugin.class.getName()));
+        server.getServicesManager().register(Economy.class, new BenchmarkEconomy(), vault, ServicePriority.Normal);
+
+        SkyMarket skyMarket = MockBukkit.load(SkyMarket.class);
+
+        return new BenchmarkServer(server, skyMarket);
+    }
+
+    /**
+     * Stops the managers that own background work and shuts down the MockBukkit server.
+     */
+    public void stop() {
+        guiManager.closeOpenGUIs(true);
+        transactionSequencer.stop();
+        broadcastManager.stop();
+        commandManager.stop();
+        economyManager.stop();
+        pricingManager.stop();
+        marketManager.stop();
+        MockBukkit.unmock();
+    }
+
+    /**
+     * Adds a player to the server.
+     * @return The added {@link PlayerMock}.
+     */
+    public @NotNull PlayerMock addPlayer() {
+        return server.addPlayer();
+    }
+
+    /**
+     * Get the {@link ServerMock}.
+     * @return The {@link ServerMock}.
+     */
+    public @NotNull ServerMock getServer() {
+        return server;
+    }
+
+    /**
+     * Get the loaded {@link SkyMarket} instance.
+     * @return The {@link SkyMarket} instance.
+     */
+    public @NotNull SkyMarket getSkyMarket() {
+        return skyMarket;
+    }
+
+    /**
+     * Get the {@link FakeMarketScheduler} used for market timing.
+     * @return The {@link FakeMarketScheduler}.
+     */
+    public @NotNull FakeMarketScheduler getMarketScheduler() {
+        return marketScheduler;
+    }
+
+    /**
+     * Get the {@link SettingsManager}.
+     * @return The {@link SettingsManager}.
+     */
+    public @NotNull SettingsManager getSettingsManager() {
+        return settingsManager;
+    }
+
+    /**
+     * Get the {@link LocaleManager}.
+     * @return The {@link LocaleManager}.
+     */
+    public @NotNull LocaleManager getLocaleManager() {
+        return localeManager;
+    }
+
+    /**
+     * Get the {@link GUIManager}.
+     * @return The {@link GUIManager}.
+     */
+    public @NotNull GUIManager getGuiManager() {
+        return guiManager;
+    }
+
+    /**
+     * Get the {@link MarketConfigManager}.
+     * @return The {@link MarketConfigManager}.
+     */
+    public @NotNull MarketConfigManager getMarketConfigManager() {
+        return marketConfigManager;
+    }
+
+    /**
+     * Get the {@link MarketDataManager}.
+     * @return The {@link MarketDataManager}.
+     */
+    public @NotNull MarketDataManager getMarketDataManager() {
+        return marketDataManager;
+    }
+
+    /**
+     * Get the {@link EconomyManager}.
+     * @return The {@link EconomyManager}.
+     */
+    public @NotNull EconomyManager getEconomyManager() {
+        return economyManager;
+    }
+
+    /**
+     * Get the {@link CommandManager}.
+     * @return The {@link CommandManager}.
+     */
+    public @NotNull CommandManager getCommandManager() {
+        return commandManager;
+    }
+
+    /**
+     * Get the {@link ClickLimitManager}.
+     * @return The {@link ClickLimitManager}.
+     */
+    public @NotNull ClickLimitManager getClickLimitManager() {
+        return clickLimitManager;
+    }
+
+    /**
+     * Get the {@link MetricsManager}.
+     * @return The {@link MetricsManager}.
+     */
+    public @NotNull MetricsManager getMetricsManager() {
+        return metricsManager;
+    }
+
+    /**
+     * Get the {@link TransactionManager}.
+     * @return The {@link TransactionManager}.
+     */
+    public @NotNull TransactionManager getTransactionManager() {
+        return transactionManager;
+    }
+
+    /**
+     * Get the {@link TransactionSequencer}.
+     * @return The {@link TransactionSequencer}.
+     */
+    public @NotNull TransactionSequencer getTransactionSequencer() {
+        return transactionSequencer;
+    }
+
+    /**
+     * Get the {@link PricingManager}.
+     * @return The {@link PricingManager}.
+     */
+    public @NotNull PricingManager getPricingManager() {
+        return pricingManager;
+    }
+
+    /**
+     * Get the {@link ButtonManager}.
+     * @return The {@link ButtonManager}.
+     */
+    public @NotNull ButtonManager getButtonManager() {
+        return buttonManager;
+    }
+
+    /**
+     * Get the {@link TradeManager}.
+     * @return The {@link TradeManager}.
+     */
+    public @NotNull TradeManager getTradeManager() {
+        return tradeManager;
+    }
+
+    /**
+     * Get the {@link BroadcastManager}.
+     * @return The {@link BroadcastManager}.
+     */
+    public @NotNull BroadcastManager getBroadcastManager() {
+        return broadcastManager;
+    }
+
+    /**
+     * Get the {@link SearchManager}.
+     * @return The {@link SearchManager}.
+     */
+    public @NotNull SearchManager getSearchManager() {
+        return searchManager;
+    }
+
+    /**
+     * Get the {@link MarketManager}.
+     * @return The {@link MarketManager}.
+     */
+    public @NotNull MarketManager getMarketManager() {
+        return marketManager;
+    }
+
+    /**
+     * An empty plugin used to stand in for SkyMarket's dependencies.
+     */
+    public static class DependencyPlugin extends JavaPlugin {
+        /**
+         * Default Constructor.
+         */
+        public DependencyPlugin() {}
+    }
+}
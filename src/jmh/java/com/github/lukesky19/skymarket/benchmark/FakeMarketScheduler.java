@@ -0,0 +1,174 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.benchmark;
+
+import com.github.lukesky19.skymarket.scheduler.MarketScheduler;
+import com.github.lukesky19.skymarket.scheduler.MarketTask;
+import org.bukkit.entity.Entity;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * A {@link MarketScheduler} with a fake clock that only moves when {@link #advance(long)} is called.
+ * Every tick is exactly 50 milliseconds, and tasks run in the order they are due and then in the order they were scheduled,
+ * so runs are repeatable and hours of market time can be simulated in a few server ticks.
+ * Tasks run on the thread that calls {@link #advance(long)}, including tasks scheduled to run on a background thread.
+ */
+public final class FakeMarketScheduler implements MarketScheduler {
+    private static final long MILLIS_PER_TICK = 50L;
+
+    private final @NotNull PriorityQueue<Task> tasks = new PriorityQueue<>(Comparator.comparingLong(Task::getRunAt).thenComparingLong(Task::getOrder));
+    private final long startMillis;
+    private long currentTick;
+    private long nextOrder;
+
+    /**
+     * Constructor
+     * @param startMillis The milliseconds since epoch the clock starts at.
+     */
+    public FakeMarketScheduler(long startMillis) {
+        this.startMillis = startMillis;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return startMillis + currentTick * MILLIS_PER_TICK;
+    }
+
+    @Override
+    public @NotNull MarketTask run(@NotNull Runnable task) {
+        return schedule(task, 1L, 0L);
+    }
+
+    @Override
+    public @NotNull MarketTask runLater(@NotNull Runnable task, long delayTicks) {
+        return schedule(task, delayTicks, 0L);
+    }
+
+    @Override
+    public @NotNull MarketTask runTimer(@NotNull Runnable task, long delayTicks, long periodTicks) {
+        return schedule(task, delayTicks, Math.max(1L, periodTicks));
+    }
+
+    @Override
+    public @NotNull MarketTask runTimerAsync(@NotNull Runnable task, long delayTicks, long periodTicks) {
+        return schedule(task, delayTicks, Math.max(1L, periodTicks));
+    }
+
+    @Override
+    public @NotNull MarketTask runLater(@NotNull Entity entity, @NotNull Runnable task, long delayTicks) {
+        return schedule(task, delayTicks, 0L);
+    }
+
+    /**
+     * Moves the clock forward, running every task that becomes due on each tick.
+     * @param ticks The number of ticks to move forward.
+     */
+    public void advance(long ticks) {
+        for(long i = 0; i < ticks; i++) {
+            currentTick++;
+
+            while(!tasks.isEmpty() && tasks.peek().getRunAt() <= currentTick) {
+                Task task = tasks.poll();
+                if(task.isCancelled()) continue;
+
+                task.runnable.run();
+
+                if(task.periodTicks > 0 && !task.isCancelled()) {
+                    task.runAt += task.periodTicks;
+                    task.order = nextOrder++;
+                    tasks.add(task);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the number of ticks the clock has moved forward.
+     * @return The current tick.
+     */
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Schedules a task. Like the Bukkit scheduler, a delay below one tick runs the task on the next tick.
+     * @param runnable The task to run.
+     * @param delayTicks The delay in ticks.
+     * @param periodTicks The ticks between each run, or 0 to run once.
+     * @return The scheduled {@link Task}.
+     */
+    private @NotNull Task schedule(@NotNull Runnable runnable, long delayTicks, long periodTicks) {
+        Task task = new Task(runnable, currentTick + Math.max(1L, delayTicks), periodTicks, nextOrder++);
+        tasks.add(task);
+        return task;
+    }
+
+    /**
+     * A task waiting in the queue. Tasks are removed from the queue before their run time is changed.
+     */
+    private static final class Task implements MarketTask {
+        private final @NotNull Runnable runnable;
+        private final long periodTicks;
+        private long runAt;
+        private long order;
+        private boolean cancelled;
+
+        /**
+         * Constructor
+         * @param runnable The task to run.
+         * @param runAt The tick the task runs on.
+         * @param periodTicks The ticks between each run, or 0 to run once.
+         * @param order The order the task was scheduled in.
+         */
+        private Task(@NotNull Runnable runnable, long runAt, long periodTicks, long order) {
+            this.runnable = runnable;
+            this.runAt = runAt;
+            this.periodTicks = periodTicks;
+            this.order = order;
+        }
+
+        /**
+         * Gets the tick the task runs on next.
+         * @return The tick.
+         */
+        private long getRunAt() {
+            return runAt;
+        }
+
+        /**
+         * Gets the order the task was scheduled in. Tasks due on the same tick run in this order.
+         * @return The order.
+         */
+        private long getOrder() {
+            return order;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
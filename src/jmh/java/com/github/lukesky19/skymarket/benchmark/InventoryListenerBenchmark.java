@@ -0,0 +1,107 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.benchmark;
+
+import com.github.lukesky19.skymarket.listener.InventoryListener;
+import org.bukkit.Material;
+import org.bukkit.event.inventory.*;
+import org.bukkit.inventory.InventoryView;
+import org.bukkit.inventory.ItemStack;
+import org.mockbukkit.mockbukkit.entity.PlayerMock;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks how the {@link InventoryListener} handles inventory events from players that are not viewing a market.
+ * Run with the gc profiler, which is enabled in build.gradle.kts, and check that gc.alloc.rate.norm is 0 B/op for these benchmarks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class InventoryListenerBenchmark {
+    private BenchmarkServer server;
+    private InventoryListener listener;
+    private InventoryClickEvent clickEvent;
+    private InventoryDragEvent dragEvent;
+    private InventoryCloseEvent closeEvent;
+
+    /**
+     * Default Constructor.
+     */
+    public InventoryListenerBenchmark() {}
+
+    /**
+     * Starts the server and opens a chest that is not a market for a player.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        server = BenchmarkServer.start();
+        listener = new InventoryListener(server.getGuiManager(), server.getClickLimitManager());
+
+        PlayerMock player = server.addPlayer();
+        player.openInventory(server.getServer().createInventory(null, 27));
+        InventoryView view = player.getOpenInventory();
+
+        clickEvent = new InventoryClickEvent(view, InventoryType.SlotType.CONTAINER, 0, ClickType.LEFT, InventoryAction.PICKUP_ALL);
+        dragEvent = new InventoryDragEvent(view, null, new ItemStack(Material.STONE), false, Map.of(0, new ItemStack(Material.STONE)));
+        closeEvent = new InventoryCloseEvent(view);
+    }
+
+    /**
+     * Stops the server.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop();
+    }
+
+    /**
+     * Benchmarks a click in an inventory that is not a market.
+     * @return The event, so the call is not optimized away.
+     */
+    @Benchmark
+    public InventoryClickEvent clickOtherInventory() {
+        listener.onClick(clickEvent);
+        return clickEvent;
+    }
+
+    /**
+     * Benchmarks a drag in an inventory that is not a market.
+     * @return The event, so the call is not optimized away.
+     */
+    @Benchmark
+    public InventoryDragEvent dragOtherInventory() {
+        listener.onDrag(dragEvent);
+        return dragEvent;
+    }
+
+    /**
+     * Benchmarks closing an inventory that is not a market.
+     * @return The event, so the call is not optimized away.
+     */
+    @Benchmark
+    public InventoryCloseEvent closeOtherInventory() {
+        listener.onClose(closeEvent);
+        return closeEvent;
+    }
+}
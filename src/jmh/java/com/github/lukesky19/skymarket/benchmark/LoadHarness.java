@@ -0,0 +1,394 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.benchmark;
+
+import com.github.lukesky19.skymarket.data.MarketData;
+import com.github.lukesky19.skymarket.data.config.gui.ChestConfig;
+import com.github.lukesky19.skymarket.data.config.gui.MerchantConfig;
+import com.github.lukesky19.skymarket.listener.InventoryListener;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import io.papermc.paper.event.player.PlayerTradeEvent;
+import org.bukkit.World;
+import org.bukkit.entity.Villager;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.event.inventory.InventoryAction;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.InventoryView;
+import org.bukkit.inventory.MerchantInventory;
+import org.bukkit.inventory.MerchantRecipe;
+import org.jetbrains.annotations.NotNull;
+import org.mockbukkit.mockbukkit.entity.PlayerMock;
+
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Simulates a large number of players opening the chest and merchant markets right after they refresh and then spamming clicks and trades.
+ * Every tick the virtual players act first and then the server ticks, and the whole tick is timed.
+ * Reports tick time percentiles, the bytes allocated on the main thread, and GC pauses.
+ * <p>
+ * Configured with system properties, which the loadTest Gradle task sets from -PloadTest.&lt;name&gt; properties:
+ * <ul>
+ *     <li>skymarket.load.players - The number of virtual players. Default 500.</li>
+ *     <li>skymarket.load.ticks - The number of ticks to simulate. Default 600.</li>
+ *     <li>skymarket.load.clickChance - The chance each player clicks or trades each tick. Default 0.5.</li>
+ *     <li>skymarket.load.chestShare - The share of players using the chest market instead of the merchant market. Default 0.5.</li>
+ *     <li>skymarket.load.chestSlots - The number of item slots in the chest market. Defaults to the configured number.</li>
+ *     <li>skymarket.load.merchantTrades - The number of trades in the merchant market. Defaults to the configured number.</li>
+ *     <li>skymarket.load.timeScale - The ticks of market time that pass each server tick. Above 1, markets refresh during the run with their configured sizes. Default 1.</li>
+ *     <li>skymarket.load.report - A file to also write the report to.</li>
+ * </ul>
+ */
+public final class LoadHarness {
+    private static final String CHEST_MARKET_ID = "skymarket";
+    private static final String MERCHANT_MARKET_ID = "villagers";
+
+    private final @NotNull BenchmarkServer server;
+    private final @NotNull InventoryListener listener;
+    private final @NotNull Random random = new Random(19L);
+    private final @NotNull List<VirtualPlayer> players = new ArrayList<>();
+    private final @NotNull List<Integer> chestSlots;
+    private final int ticks;
+    private final double clickChance;
+    private final long timeScale;
+    private final @NotNull Villager villager;
+
+    /**
+     * Constructor
+     * @param server The {@link BenchmarkServer} to run against.
+     */
+    private LoadHarness(@NotNull BenchmarkServer server) {
+        this.server = server;
+        this.listener = new InventoryListener(server.getGuiManager(), server.getClickLimitManager());
+        this.ticks = Integer.getInteger("skymarket.load.ticks", 600);
+        this.clickChance = Double.parseDouble(System.getProperty("skymarket.load.clickChance", "0.5"));
+        this.timeScale = Math.max(1L, Long.getLong("skymarket.load.timeScale", 1L));
+
+        World world = Objects.requireNonNull(server.getServer().getWorld("world"));
+        this.villager = world.spawn(world.getSpawnLocation(), Villager.class);
+
+        int playerCount = Integer.getInteger("skymarket.load.players", 500);
+        double chestShare = Double.parseDouble(System.getProperty("skymarket.load.chestShare", "0.5"));
+        for(int i = 0; i < playerCount; i++) {
+            boolean chest = i < Math.round(playerCount * chestShare);
+            players.add(new VirtualPlayer(server.addPlayer(), chest ? CHEST_MARKET_ID : MERCHANT_MARKET_ID, chest));
+        }
+
+        // Refresh both markets so the refresh broadcast is queued for every player, then everyone opens the market at once on the first tick.
+        server.getMarketManager().refreshMarket(CHEST_MARKET_ID);
+        server.getMarketManager().refreshMarket(MERCHANT_MARKET_ID);
+
+        ChestConfig chestConfig = Objects.requireNonNull(server.getMarketConfigManager().getChestConfig(CHEST_MARKET_ID));
+        MerchantConfig merchantConfig = Objects.requireNonNull(server.getMarketConfigManager().getMerchantConfig(MERCHANT_MARKET_ID));
+        this.chestSlots = resizeMarkets(chestConfig, merchantConfig);
+    }
+
+    /**
+     * Runs the harness.
+     * @param args Unused.
+     * @throws IOException if the report could not be written.
+     */
+    public static void main(String[] args) throws IOException {
+        BenchmarkServer server = BenchmarkServer.start();
+        try {
+            String report = new LoadHarness(server).run();
+            System.out.println(report);
+
+            String reportFile = System.getProperty("skymarket.load.report");
+            if(reportFile != null) {
+                Path path = Path.of(reportFile);
+                Files.createDirectories(path.toAbsolutePath().getParent());
+                Files.writeString(path, report);
+            }
+        } finally {
+            server.stop();
+        }
+    }
+
+    /**
+     * Rebuilds the markets using the configured market sizes.
+     * The chest market can have at most as many slots as it has configured items, and the merchant market at most as many trades as it has configured.
+     * @param chestConfig The {@link ChestConfig} of the chest market.
+     * @param merchantConfig The {@link MerchantConfig} of the merchant market.
+     * @return The slots of the chest market that contain items.
+     */
+    private @NotNull List<Integer> resizeMarkets(@NotNull ChestConfig chestConfig, @NotNull MerchantConfig merchantConfig) {
+        ChestConfig.GuiData guiData = chestConfig.guiData();
+        int chestSlotCount = Math.min(Integer.getInteger("skymarket.load.chestSlots", guiData.placeholderSlots().size()), Math.min(guiData.placeholderSlots().size(), chestConfig.items().size()));
+        List<Integer> slots = List.copyOf(guiData.placeholderSlots().subList(0, chestSlotCount));
+
+        ChestConfig resizedChestConfig = new ChestConfig(chestConfig.configVersion(), chestConfig.refreshTime(), chestConfig.marketName(), chestConfig.broadcastPermission(),
+                new ChestConfig.GuiData(guiData.guiType(), guiData.guiName(), guiData.filler(), guiData.exit(), slots, guiData.dummyButtons(), guiData.pages(), guiData.previousPage(), guiData.nextPage()),
+                chestConfig.items());
+
+        MarketData chestData = Objects.requireNonNull(server.getMarketDataManager().getMarketData(CHEST_MARKET_ID));
+        server.getButtonManager().prepareRotation(Objects.requireNonNull(guiData.guiType()), resizedChestConfig, chestData);
+        chestData.setPageButtons(0, server.getButtonManager().createButtons(Objects.requireNonNull(guiData.guiType()), resizedChestConfig, CHEST_MARKET_ID, chestData, 0));
+        chestData.setMaterialized();
+
+        int tradeCount = Math.min(Integer.getInteger("skymarket.load.merchantTrades", merchantConfig.numOfTrades()), merchantConfig.trades().size());
+        MerchantConfig resizedMerchantConfig = new MerchantConfig(merchantConfig.configVersion(), merchantConfig.refreshTime(), merchantConfig.marketName(), merchantConfig.broadcastPermission(),
+                merchantConfig.guiName(), tradeCount, merchantConfig.trades());
+
+        MarketData merchantData = Objects.requireNonNull(server.getMarketDataManager().getMarketData(MERCHANT_MARKET_ID));
+        merchantData.setTrades(server.getTradeManager().createTrades(resizedMerchantConfig, new Random(merchantData.getRotationSeed())));
+        merchantData.setMaterialized();
+
+        return slots;
+    }
+
+    /**
+     * Has every player open their market on the first tick and then simulates clicks and trades.
+     * @return The report.
+     */
+    private @NotNull String run() {
+        GcRecorder gcRecorder = new GcRecorder();
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+
+        long[] tickNanos = new long[ticks];
+        long opens = 0;
+        long clicks = 0;
+        long trades = 0;
+
+        gcRecorder.start();
+        long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+
+        for(int tick = 0; tick < ticks; tick++) {
+            long start = System.nanoTime();
+
+            for(VirtualPlayer virtualPlayer : players) {
+                PlayerMock player = virtualPlayer.player();
+
+                // Players whose GUI was closed, for example after a failed purchase, open the market again.
+                if(server.getGuiManager().getOpenGUI(player.getUniqueId()).isEmpty()) {
+                    server.getMarketManager().openMarket(virtualPlayer.marketId(), player);
+                    opens++;
+                    continue;
+                }
+
+                if(random.nextDouble() >= clickChance) continue;
+
+                if(virtualPlayer.chest()) {
+                    if(click(player)) clicks++;
+                } else {
+                    if(trade(player)) trades++;
+                }
+            }
+
+            server.getServer().getScheduler().performOneTick();
+            server.getMarketScheduler().advance(timeScale);
+            // MockBukkit does not fire ServerTickEndEvent, so run the queued clicks the same way the TickListener would.
+            server.getTransactionSequencer().drain();
+
+            tickNanos[tick] = System.nanoTime() - start;
+        }
+
+        long allocatedBytes = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        gcRecorder.stop();
+
+        return createReport(tickNanos, allocatedBytes, gcRecorder, opens, clicks, trades);
+    }
+
+    /**
+     * Left or right clicks a random item slot in the player's open chest market.
+     * @param player The {@link PlayerMock} clicking.
+     * @return true if a click was sent, otherwise false.
+     */
+    private boolean click(@NotNull PlayerMock player) {
+        if(chestSlots.isEmpty()) return false;
+
+        InventoryView view = player.getOpenInventory();
+        int slot = chestSlots.get(random.nextInt(chestSlots.size()));
+        ClickType clickType = random.nextBoolean() ? ClickType.LEFT : ClickType.RIGHT;
+
+        InventoryClickEvent event = new InventoryClickEvent(view, InventoryType.SlotType.CONTAINER, slot, clickType, InventoryAction.PICKUP_ALL);
+        listener.onClick(event);
+
+        return true;
+    }
+
+    /**
+     * Uses a random trade from the player's open merchant market.
+     * @param player The {@link PlayerMock} trading.
+     * @return true if a trade was sent, otherwise false.
+     */
+    private boolean trade(@NotNull PlayerMock player) {
+        if(!(player.getOpenInventory().getTopInventory() instanceof MerchantInventory merchantInventory)) return false;
+
+        List<MerchantRecipe> recipes = merchantInventory.getMerchant().getRecipes();
+        if(recipes.isEmpty()) return false;
+
+        MerchantRecipe recipe = recipes.get(random.nextInt(recipes.size()));
+        PlayerTradeEvent event = new PlayerTradeEvent(player, villager, recipe, false, true);
+        listener.onPlayerTrade(event);
+
+        return true;
+    }
+
+    /**
+     * Creates the report.
+     * @param tickNanos The duration of each tick in nanoseconds.
+     * @param allocatedBytes The bytes allocated on the main thread.
+     * @param gcRecorder The {@link GcRecorder} used during the run.
+     * @param opens The number of times a market was opened.
+     * @param clicks The number of chest market clicks.
+     * @param trades The number of merchant market trades.
+     * @return The report.
+     */
+    private @NotNull String createReport(long @NotNull [] tickNanos, long allocatedBytes, @NotNull GcRecorder gcRecorder, long opens, long clicks, long trades) {
+        long[] sorted = tickNanos.clone();
+        Arrays.sort(sorted);
+
+        StringBuilder builder = new StringBuilder();
+        builder.append("SkyMarket load harness\n");
+        builder.append("  players: ").append(players.size())
+                .append(", ticks: ").append(ticks)
+                .append(", click chance: ").append(clickChance)
+                .append(", time scale: ").append(timeScale)
+                .append(", chest slots: ").append(chestSlots.size())
+                .append(", merchant trades: ").append(Objects.requireNonNull(server.getMarketDataManager().getMarketData(MERCHANT_MARKET_ID)).getTrades().size())
+                .append('\n');
+        builder.append("  market opens: ").append(opens).append(", clicks: ").append(clicks).append(", trades: ").append(trades).append('\n');
+        builder.append("Tick time (ms)\n");
+        builder.append("  p50: ").append(millis(percentile(sorted, 0.50))).append('\n');
+        builder.append("  p90: ").append(millis(percentile(sorted, 0.90))).append('\n');
+        builder.append("  p99: ").append(millis(percentile(sorted, 0.99))).append('\n');
+        builder.append("  p99.9: ").append(millis(percentile(sorted, 0.999))).append('\n');
+        builder.append("  max: ").append(millis(sorted.length == 0 ? 0 : sorted[sorted.length - 1])).append('\n');
+        builder.append("  ticks over 50ms: ").append(Arrays.stream(sorted).filter(nanos -> nanos > TimeUnit.MILLISECONDS.toNanos(50)).count()).append('\n');
+        builder.append("Allocations (main thread)\n");
+        builder.append("  total: ").append(allocatedBytes / (1024 * 1024)).append(" MiB\n");
+        builder.append("  per tick: ").append(ticks == 0 ? 0 : allocatedBytes / ticks / 1024).append(" KiB\n");
+        builder.append("GC\n");
+        builder.append("  collections: ").append(gcRecorder.getCollections()).append('\n');
+        builder.append("  total pause: ").append(gcRecorder.getTotalPauseMillis()).append(" ms\n");
+        builder.append("  max pause: ").append(gcRecorder.getMaxPauseMillis()).append(" ms\n");
+
+        return builder.toString();
+    }
+
+    /**
+     * Gets a percentile from a sorted array using the nearest-rank method.
+     * @param sorted The sorted values.
+     * @param percentile The percentile between 0 and 1.
+     * @return The value at the percentile.
+     */
+    private static long percentile(long @NotNull [] sorted, double percentile) {
+        if(sorted.length == 0) return 0;
+
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.clamp(index, 0, sorted.length - 1)];
+    }
+
+    /**
+     * Formats nanoseconds as milliseconds with two decimal places.
+     * @param nanos The nanoseconds.
+     * @return The formatted milliseconds.
+     */
+    private static @NotNull String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.2f", nanos / 1_000_000D);
+    }
+
+    /**
+     * A scripted player and the market it uses.
+     * @param player The {@link PlayerMock}.
+     * @param marketId The id of the market the player opens.
+     * @param chest true if the market is a chest market, false if it is a merchant market.
+     */
+    private record VirtualPlayer(@NotNull PlayerMock player, @NotNull String marketId, boolean chest) {}
+
+    /**
+     * Records GC pauses using the garbage collector notifications.
+     */
+    private static final class GcRecorder {
+        private final @NotNull AtomicLong collections = new AtomicLong();
+        private final @NotNull AtomicLong totalPauseMillis = new AtomicLong();
+        private final @NotNull AtomicLong maxPauseMillis = new AtomicLong();
+        private final @NotNull NotificationListener notificationListener = (notification, handback) -> {
+            if(!notification.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) return;
+
+            GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            long duration = info.getGcInfo().getDuration();
+
+            collections.incrementAndGet();
+            totalPauseMillis.addAndGet(duration);
+            maxPauseMillis.accumulateAndGet(duration, Math::max);
+        };
+
+        /**
+         * Starts listening for garbage collections.
+         */
+        private void start() {
+            for(GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+                if(bean instanceof NotificationEmitter emitter) {
+                    emitter.addNotificationListener(notificationListener, null, null);
+                }
+            }
+        }
+
+        /**
+         * Stops listening for garbage collections.
+         */
+        private void stop() {
+            for(GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+                if(bean instanceof NotificationEmitter emitter) {
+                    try {
+                        emitter.removeNotificationListener(notificationListener);
+                    } catch (javax.management.ListenerNotFoundException ignored) {
+                        // The listener was never added to this collector.
+                    }
+                }
+            }
+        }
+
+        /**
+         * Get the number of garbage collections.
+         * @return The number of garbage collections.
+         */
+        private long getCollections() {
+            return collections.get();
+        }
+
+        /**
+         * Get the total duration of all garbage collections.
+         * @return The total duration in milliseconds.
+         */
+        private long getTotalPauseMillis() {
+            return totalPauseMillis.get();
+        }
+
+        /**
+         * Get the duration of the longest garbage collection.
+         * @return The longest duration in milliseconds.
+         */
+        private long getMaxPauseMillis() {
+            return maxPauseMillis.get();
+        }
+    }
+}
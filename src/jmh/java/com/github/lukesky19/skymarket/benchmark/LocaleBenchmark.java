@@ -0,0 +1,103 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.benchmark;
+
+import com.github.lukesky19.skylib.api.adventure.AdventureUtil;
+import com.github.lukesky19.skymarket.data.MessageTemplate;
+import com.github.lukesky19.skymarket.data.config.Locale;
+import com.github.lukesky19.skymarket.util.LocaleMessage;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
+import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
+import org.mockbukkit.mockbukkit.entity.PlayerMock;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks rendering the buy success message from its compiled template against parsing it on every send.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class LocaleBenchmark {
+    private BenchmarkServer server;
+    private PlayerMock player;
+    private String source;
+    private List<TagResolver.Single> resolvers;
+    private MessageTemplate template;
+    private Map<String, Component> placeholders;
+
+    /**
+     * Default Constructor.
+     */
+    public LocaleBenchmark() {}
+
+    /**
+     * Starts the server and compiles the buy success message of the default locale.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        server = BenchmarkServer.start();
+        player = server.addPlayer();
+
+        Locale locale = server.getLocaleManager().getLocale();
+        source = LocaleMessage.BUY_SUCCESS.getText(locale);
+        resolvers = List.of(
+                Placeholder.parsed("item", "<yellow>Diamond <white>x</white>1</yellow>"),
+                Placeholder.parsed("price", "10"),
+                Placeholder.parsed("bal", "1000"));
+
+        template = server.getLocaleManager().getCompiledLocale(player).get(LocaleMessage.BUY_SUCCESS);
+        placeholders = Map.of(
+                "item", AdventureUtil.serialize("<yellow>Diamond <white>x</white>1</yellow>"),
+                "price", Component.text("10"),
+                "bal", Component.text("1000"));
+    }
+
+    /**
+     * Stops the server.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop();
+    }
+
+    /**
+     * Benchmarks parsing the message with its placeholders, which is what every message did before templates were compiled.
+     * @return The parsed message.
+     */
+    @Benchmark
+    public Component parse() {
+        return AdventureUtil.serialize(player, source, resolvers);
+    }
+
+    /**
+     * Benchmarks filling the compiled template with its placeholders.
+     * @return The rendered message.
+     */
+    @Benchmark
+    public Component render() {
+        return template.render(player, placeholders);
+    }
+}
@@ -0,0 +1,110 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.benchmark;
+
+import com.github.lukesky19.skylib.api.gui.GUIButton;
+import com.github.lukesky19.skylib.api.gui.GUIType;
+import com.github.lukesky19.skymarket.data.MarketData;
+import com.github.lukesky19.skymarket.data.config.gui.ChestConfig;
+import com.github.lukesky19.skymarket.data.config.gui.MerchantConfig;
+import com.github.lukesky19.skymarket.util.MarketType;
+import org.bukkit.inventory.MerchantRecipe;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks generating a market's contents from the shipped skymarket.yml and villagers.yml configurations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class MarketGenerationBenchmark {
+    private static final String CHEST_MARKET_ID = "skymarket";
+    private static final String MERCHANT_MARKET_ID = "villagers";
+
+    private BenchmarkServer server;
+    private ChestConfig chestConfig;
+    private GUIType guiType;
+    private MarketData marketData;
+    private MerchantConfig merchantConfig;
+
+    /**
+     * Default Constructor.
+     */
+    public MarketGenerationBenchmark() {}
+
+    /**
+     * Starts the server and loads the market configurations.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        server = BenchmarkServer.start();
+
+        chestConfig = Objects.requireNonNull(server.getMarketConfigManager().getChestConfig(CHEST_MARKET_ID), "skymarket.yml failed to load");
+        guiType = Objects.requireNonNull(chestConfig.guiData().guiType());
+        marketData = new MarketData(Objects.requireNonNull(chestConfig.marketName()), MarketType.CHEST, guiType, Objects.requireNonNull(chestConfig.guiData().guiName()), new HashMap<>(), List.of());
+        server.getMarketDataManager().setMarketData(CHEST_MARKET_ID, marketData);
+        server.getButtonManager().prepareRotation(guiType, chestConfig, marketData);
+
+        merchantConfig = Objects.requireNonNull(server.getMarketConfigManager().getMerchantConfig(MERCHANT_MARKET_ID), "villagers.yml failed to load");
+    }
+
+    /**
+     * Stops the server.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop();
+    }
+
+    /**
+     * Benchmarks preparing a new rotation of the chest market, which happens on every refresh of every chest market so it can be searched.
+     * @return The market data, so the call is not optimized away.
+     */
+    @Benchmark
+    public MarketData prepareRotation() {
+        server.getButtonManager().prepareRotation(guiType, chestConfig, marketData);
+        return marketData;
+    }
+
+    /**
+     * Benchmarks creating the buttons for the first page of the chest market, which happens the first time the page is viewed each rotation.
+     * @return The created buttons.
+     */
+    @Benchmark
+    public Map<Integer, GUIButton> createButtons() {
+        return server.getButtonManager().createButtons(guiType, chestConfig, CHEST_MARKET_ID, marketData, 0);
+    }
+
+    /**
+     * Benchmarks creating the trades for the merchant market, which happens on every refresh.
+     * @return The created trades.
+     */
+    @Benchmark
+    public List<MerchantRecipe> createTrades() {
+        return server.getTradeManager().createTrades(merchantConfig);
+    }
+}
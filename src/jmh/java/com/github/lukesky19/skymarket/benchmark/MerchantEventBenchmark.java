@@ -0,0 +1,101 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.benchmark;
+
+import com.github.lukesky19.skymarket.listener.InventoryListener;
+import org.bukkit.Material;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.inventory.TradeSelectEvent;
+import org.bukkit.inventory.InventoryView;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.view.MerchantView;
+import org.mockbukkit.mockbukkit.entity.PlayerMock;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks how the {@link InventoryListener} handles trade select and drag events from a player viewing the merchant market.
+ * Run against earlier releases to compare, as handling these events used to reset the demand of every trade in the market.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class MerchantEventBenchmark {
+    private static final String MERCHANT_MARKET_ID = "villagers";
+
+    private BenchmarkServer server;
+    private InventoryListener listener;
+    private TradeSelectEvent tradeSelectEvent;
+    private InventoryDragEvent dragEvent;
+
+    /**
+     * Default Constructor.
+     */
+    public MerchantEventBenchmark() {}
+
+    /**
+     * Starts the server and opens the merchant market for a player.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        server = BenchmarkServer.start();
+        listener = new InventoryListener(server.getGuiManager(), server.getClickLimitManager());
+
+        PlayerMock player = server.addPlayer();
+        if(!server.getMarketManager().openMarket(MERCHANT_MARKET_ID, player)) {
+            throw new IllegalStateException("Unable to open the merchant market.");
+        }
+        InventoryView view = player.getOpenInventory();
+
+        tradeSelectEvent = new TradeSelectEvent((MerchantView) view, 0);
+        dragEvent = new InventoryDragEvent(view, null, new ItemStack(Material.STONE), false, Map.of(0, new ItemStack(Material.STONE)));
+    }
+
+    /**
+     * Stops the server.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop();
+    }
+
+    /**
+     * Benchmarks a player selecting a trade in the merchant market.
+     * @return The event, so the call is not optimized away.
+     */
+    @Benchmark
+    public TradeSelectEvent selectTrade() {
+        listener.onTradeSelect(tradeSelectEvent);
+        return tradeSelectEvent;
+    }
+
+    /**
+     * Benchmarks a player dragging items across the merchant market.
+     * @return The event, so the call is not optimized away.
+     */
+    @Benchmark
+    public InventoryDragEvent dragInMerchant() {
+        listener.onDrag(dragEvent);
+        return dragEvent;
+    }
+}
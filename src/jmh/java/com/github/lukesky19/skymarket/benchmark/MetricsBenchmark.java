@@ -0,0 +1,59 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.benchmark;
+
+import com.github.lukesky19.skymarket.data.MarketMetrics;
+import com.github.lukesky19.skymarket.util.MarketOperation;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the overhead metrics add to every click in a market.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class MetricsBenchmark {
+    private final MarketMetrics marketMetrics = new MarketMetrics();
+
+    /**
+     * Default Constructor.
+     */
+    public MetricsBenchmark() {}
+
+    /**
+     * Benchmarks recording a single operation from one thread.
+     */
+    @Benchmark
+    public void record() {
+        marketMetrics.record(MarketOperation.BUY_ITEM, System.nanoTime(), true);
+    }
+
+    /**
+     * Benchmarks recording a single operation while other threads record the same operation.
+     */
+    @Benchmark
+    @Threads(4)
+    public void recordContended() {
+        marketMetrics.record(MarketOperation.BUY_ITEM, System.nanoTime(), true);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.benchmark;
+
+import com.github.lukesky19.skymarket.util.PluginUtils;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the random price and enchantment helpers used while generating markets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PluginUtilsBenchmark {
+    private BenchmarkServer server;
+
+    /**
+     * Default Constructor.
+     */
+    public PluginUtilsBenchmark() {}
+
+    /**
+     * Starts the server so the item and enchantment registries are available.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        server = BenchmarkServer.start();
+    }
+
+    /**
+     * Stops the server.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop();
+    }
+
+    /**
+     * Benchmarks rolling a random price between a min and max.
+     * @return The rolled price.
+     */
+    @Benchmark
+    public double calculatePrice() {
+        return PluginUtils.calculatePrice(100.0, 1000.0);
+    }
+
+    /**
+     * Benchmarks rolling random enchantments for an item.
+     * @return The rolled enchantments.
+     */
+    @Benchmark
+    public Map<Enchantment, Integer> getRandomEnchantments() {
+        return PluginUtils.getRandomEnchantments(ItemType.DIAMOND_SWORD, true, 1, 30, false);
+    }
+}
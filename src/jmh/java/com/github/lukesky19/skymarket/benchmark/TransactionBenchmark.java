@@ -0,0 +1,156 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.benchmark;
+
+import com.github.lukesky19.skylib.api.gui.GUIType;
+import com.github.lukesky19.skymarket.data.CommandTemplate;
+import com.github.lukesky19.skymarket.data.MarketData;
+import com.github.lukesky19.skymarket.data.PlayerData;
+import com.github.lukesky19.skymarket.manager.TransactionManager;
+import com.github.lukesky19.skymarket.util.MarketType;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.mockbukkit.mockbukkit.entity.PlayerMock;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks each path through the {@link TransactionManager}.
+ * Each benchmark also resets the player's inventory or runs the queued commands so every invocation does the same work.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TransactionBenchmark {
+    private static final String MARKET_ID = "Benchmark";
+    private static final int SLOT = 0;
+    private static final double PRICE = 10.0;
+
+    private BenchmarkServer server;
+    private TransactionManager transactionManager;
+    private PlayerMock player;
+    private MarketData marketData;
+    private PlayerData playerData;
+    private ItemStack item;
+    private List<ItemStack> tradeItems;
+    private List<CommandTemplate> commands;
+
+    /**
+     * Default Constructor.
+     */
+    public TransactionBenchmark() {}
+
+    /**
+     * Starts the server and creates the player and market used by every benchmark.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        server = BenchmarkServer.start();
+        transactionManager = server.getTransactionManager();
+        player = server.addPlayer();
+
+        marketData = new MarketData("Benchmark", MarketType.CHEST, GUIType.CHEST_54, "Benchmark", new HashMap<>(), List.of());
+        marketData.resetGlobalStock(GUIType.CHEST_54.getSize());
+        playerData = new PlayerData(new HashMap<>(), new HashMap<>(), new HashMap<>());
+
+        item = new ItemStack(Material.DIAMOND);
+        tradeItems = List.of(new ItemStack(Material.EMERALD, 4));
+        commands = server.getCommandManager().compile(List.of("say %player_name% bought a command"));
+    }
+
+    /**
+     * Stops the server.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop();
+    }
+
+    /**
+     * Benchmarks buying an item for money.
+     * @return true if the purchase completed.
+     */
+    @Benchmark
+    public boolean buyItemForMoney() {
+        boolean result = transactionManager.buyItem(player, MARKET_ID, marketData, playerData, item, PRICE, List.of(), SLOT, null);
+        player.getInventory().clear();
+        return result;
+    }
+
+    /**
+     * Benchmarks buying an item for money and items.
+     * @return true if the purchase completed.
+     */
+    @Benchmark
+    public boolean buyItemForMoneyAndItems() {
+        player.getInventory().addItem(tradeItems.getFirst().clone());
+        boolean result = transactionManager.buyItem(player, MARKET_ID, marketData, playerData, item, PRICE, tradeItems, SLOT, null);
+        player.getInventory().clear();
+        return result;
+    }
+
+    /**
+     * Benchmarks buying an item for items only.
+     * @return true if the purchase completed.
+     */
+    @Benchmark
+    public boolean buyItemForItems() {
+        player.getInventory().addItem(tradeItems.getFirst().clone());
+        boolean result = transactionManager.buyItem(player, MARKET_ID, marketData, playerData, item, 0, tradeItems, SLOT, null);
+        player.getInventory().clear();
+        return result;
+    }
+
+    /**
+     * Benchmarks selling an item.
+     * @return true if the sale completed.
+     */
+    @Benchmark
+    public boolean sellItem() {
+        player.getInventory().addItem(item.clone());
+        return transactionManager.sellItem(player, MARKET_ID, playerData, item, PRICE, SLOT, null);
+    }
+
+    /**
+     * Benchmarks buying a command for money, including running the queued command.
+     * @return true if the purchase completed.
+     */
+    @Benchmark
+    public boolean buyCommand() {
+        boolean result = transactionManager.buyCommand(player, MARKET_ID, marketData, playerData, "Benchmark", PRICE, List.of(), commands, SLOT, null);
+        server.getCommandManager().stop();
+        return result;
+    }
+
+    /**
+     * Benchmarks selling a command, including running the queued command.
+     * @return true if the sale completed.
+     */
+    @Benchmark
+    public boolean sellCommand() {
+        boolean result = transactionManager.sellCommand(player, MARKET_ID, playerData, "Benchmark", PRICE, commands, SLOT, null);
+        server.getCommandManager().stop();
+        return result;
+    }
+}
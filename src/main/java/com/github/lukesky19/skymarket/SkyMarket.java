@@ -24,9 +24,13 @@ import com.github.lukesky19.skymarket.configuration.LocaleManager;
 import com.github.lukesky19.skymarket.configuration.SettingsManager;
 import com.github.lukesky19.skymarket.configuration.MarketConfigManager;
 import com.github.lukesky19.skymarket.listener.InventoryListener;
+import com.github.lukesky19.skymarket.listener.PlayerListener;
+import com.github.lukesky19.skymarket.listener.TickListener;
 import com.github.lukesky19.skymarket.manager.*;
-import com.mojang.brigadier.tree.LiteralCommandNode;
-import io.papermc.paper.command.brigadier.CommandSourceStack;
+import com.github.lukesky19.skymarket.placeholderapi.SkyMarketExpansion;
+import com.github.lukesky19.skymarket.scheduler.BukkitMarketScheduler;
+import com.github.lukesky19.skymarket.scheduler.MarketScheduler;
+import com.github.lukesky19.skymarket.scheduler.RegionizedMarketScheduler;
 import io.papermc.paper.command.brigadier.Commands;
 import io.papermc.paper.plugin.lifecycle.event.types.LifecycleEvents;
 import net.kyori.adventure.text.minimessage.MiniMessage;
@@ -38,6 +42,7 @@ import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.List;
+import java.util.Set;
 
 /**
  * This class is the entry point to the plugin.
@@ -49,6 +54,17 @@ public final class SkyMarket extends JavaPlugin {
     private MarketDataManager marketDataManager;
     private GUIManager guiManager;
     private MarketManager marketManager;
+    private BroadcastManager broadcastManager;
+    private PricingManager pricingManager;
+    private EconomyManager economyManager;
+    private CommandManager commandManager;
+    private MetricsManager metricsManager;
+    private PlayerDataManager playerDataManager;
+    private TransactionSequencer transactionSequencer;
+    private ClickLimitManager clickLimitManager;
+    private PlaceholderManager placeholderManager;
+    private SyncManager syncManager;
+    private AliasesCommands aliasesCommands;
     private Economy economy;
 
     /**
@@ -75,33 +91,48 @@ public final class SkyMarket extends JavaPlugin {
         boolean econ = setupEconomy();
         if(!econ) return;
 
+        MarketScheduler marketScheduler = RegionizedMarketScheduler.isSupported() ? new RegionizedMarketScheduler(this) : new BukkitMarketScheduler(this);
         settingsLoader = new SettingsManager(this);
         localeLoader = new LocaleManager(this, this.settingsLoader);
         guiManager = new GUIManager(this);
         marketConfigManager = new MarketConfigManager(this);
         marketDataManager = new MarketDataManager();
-        TransactionManager transactionManager = new TransactionManager(this, localeLoader, guiManager);
-        ButtonManager buttonManager = new ButtonManager(this, marketDataManager, transactionManager, guiManager);
+        economyManager = new EconomyManager(this, marketScheduler, settingsLoader);
+        commandManager = new CommandManager(this, marketScheduler, settingsLoader);
+        clickLimitManager = new ClickLimitManager(settingsLoader);
+        metricsManager = new MetricsManager(this, marketScheduler, settingsLoader, clickLimitManager);
+        playerDataManager = new PlayerDataManager(this, marketScheduler, settingsLoader, marketDataManager, economyManager);
+        TransactionManager transactionManager = new TransactionManager(marketScheduler, localeLoader, guiManager, economyManager, commandManager);
+        transactionSequencer = new TransactionSequencer(this);
+        pricingManager = new PricingManager(marketScheduler, settingsLoader);
+        ButtonManager buttonManager = new ButtonManager(this, marketScheduler, marketDataManager, transactionManager, transactionSequencer, guiManager, pricingManager, commandManager, metricsManager);
         TradeManager tradeManager = new TradeManager(this);
-        marketManager = new MarketManager(this, localeLoader, guiManager, marketConfigManager, marketDataManager, buttonManager, tradeManager);
-
-        this.getServer().getPluginManager().registerEvents(new InventoryListener(guiManager), this);
-
-        // Register commands
-        SkyMarketCommand skyMarketCommand = new SkyMarketCommand(this, localeLoader, marketManager);
-        AliasesCommands commandAliasManager = new AliasesCommands(settingsLoader, marketManager);
+        SearchManager searchManager = new SearchManager(this);
+        broadcastManager = new BroadcastManager(this, marketScheduler, settingsLoader);
+        placeholderManager = new PlaceholderManager(this, marketScheduler, localeLoader, marketConfigManager, marketDataManager);
+        marketManager = new MarketManager(this, marketScheduler, settingsLoader, localeLoader, guiManager, marketConfigManager, marketDataManager, buttonManager, tradeManager, broadcastManager, metricsManager, searchManager);
+        syncManager = new SyncManager(this, marketScheduler, settingsLoader, marketDataManager, marketManager);
+
+        this.getServer().getPluginManager().registerEvents(new InventoryListener(guiManager, clickLimitManager), this);
+        this.getServer().getPluginManager().registerEvents(new PlayerListener(playerDataManager, clickLimitManager, localeLoader), this);
+        this.getServer().getPluginManager().registerEvents(new TickListener(transactionSequencer), this);
+
+        // Register commands. The market aliases are registered on each reload.
+        aliasesCommands = new AliasesCommands(this, settingsLoader, marketDataManager, marketManager, Set.of("skymarket", "market", "skm"));
+        SkyMarketCommand skyMarketCommand = new SkyMarketCommand(this, localeLoader, marketManager, broadcastManager, commandManager, metricsManager, searchManager, aliasesCommands);
         this.getLifecycleManager().registerEventHandler(LifecycleEvents.COMMANDS, commands -> {
             Commands commandRegistrar = commands.registrar();
 
             commandRegistrar.register(skyMarketCommand.createCommand(),
                     "Command to manage and use the SkyMarket plugin.", List.of("market", "skm"));
-
-            for(LiteralCommandNode<CommandSourceStack> cmd : commandAliasManager.getAliases()) {
-                commandRegistrar.register(cmd);
-            }
         });
 
         reload();
+
+        // Register the placeholders
+        if(this.getServer().getPluginManager().getPlugin("PlaceholderAPI") != null) {
+            new SkyMarketExpansion(this, placeholderManager).register();
+        }
     }
 
     /**
@@ -112,6 +143,50 @@ public final class SkyMarket extends JavaPlugin {
         if(this.guiManager != null) {
             this.guiManager.closeOpenGUIs(true);
         }
+
+        if(this.transactionSequencer != null) {
+            this.transactionSequencer.stop();
+        }
+
+        if(this.broadcastManager != null) {
+            this.broadcastManager.stop();
+        }
+
+        if(this.pricingManager != null) {
+            this.pricingManager.stop();
+        }
+
+        if(this.commandManager != null) {
+            this.commandManager.stop();
+        }
+
+        if(this.economyManager != null) {
+            this.economyManager.stop();
+        }
+
+        if(this.metricsManager != null) {
+            this.metricsManager.stop();
+        }
+
+        if(this.playerDataManager != null) {
+            this.playerDataManager.stop();
+        }
+
+        if(this.syncManager != null) {
+            this.syncManager.stop();
+        }
+
+        if(this.aliasesCommands != null) {
+            this.aliasesCommands.stop();
+        }
+
+        if(this.marketManager != null) {
+            this.marketManager.stop();
+        }
+
+        if(this.placeholderManager != null) {
+            this.placeholderManager.stop();
+        }
     }
 
     /**
@@ -122,7 +197,16 @@ public final class SkyMarket extends JavaPlugin {
         this.localeLoader.reload();
         this.marketConfigManager.reload();
         this.marketDataManager.clearMarketData();
+        this.pricingManager.reload();
+        this.economyManager.reload();
+        this.commandManager.reload();
+        this.clickLimitManager.reload();
+        this.metricsManager.reload();
+        this.playerDataManager.reload();
         this.marketManager.reload();
+        this.syncManager.reload();
+        this.aliasesCommands.reload();
+        this.placeholderManager.reload();
     }
 
     /**
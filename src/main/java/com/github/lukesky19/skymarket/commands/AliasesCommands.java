@@ -17,63 +17,194 @@
 */
 package com.github.lukesky19.skymarket.commands;
 
+import com.github.lukesky19.skylib.api.adventure.AdventureUtil;
+import com.github.lukesky19.skymarket.SkyMarket;
 import com.github.lukesky19.skymarket.configuration.SettingsManager;
+import com.github.lukesky19.skymarket.data.MarketData;
 import com.github.lukesky19.skymarket.data.config.Settings;
+import com.github.lukesky19.skymarket.manager.MarketDataManager;
 import com.github.lukesky19.skymarket.manager.MarketManager;
-import com.mojang.brigadier.builder.LiteralArgumentBuilder;
-import com.mojang.brigadier.tree.LiteralCommandNode;
-import io.papermc.paper.command.brigadier.CommandSourceStack;
-import io.papermc.paper.command.brigadier.Commands;
+import net.kyori.adventure.text.logger.slf4j.ComponentLogger;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandMap;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.List;
+import java.util.*;
 
 /**
- * This class is used to create command aliases to open markets.
+ * This class registers the command aliases that open markets and keeps them in sync with settings.yml.
+ * On each reload the configured aliases are compared to the registered ones, so only added aliases are registered, only removed aliases are unregistered,
+ * and aliases whose market changed are pointed at the new market without being registered again.
+ * Aliases named after the /skymarket command or its aliases are not registered separately. Running that command with no arguments opens their market instead.
  */
 public class AliasesCommands {
+    private static final String FALLBACK_PREFIX = "skymarket";
+
+    private final @NotNull SkyMarket skyMarket;
     private final @NotNull SettingsManager settingsManager;
+    private final @NotNull MarketDataManager marketDataManager;
     private final @NotNull MarketManager marketManager;
+    private final @NotNull Set<String> reservedLabels;
+    private final @NotNull Map<String, MarketAliasCommand> aliases = new HashMap<>();
 
     /**
      * Constructor
+     * @param skyMarket A {@link SkyMarket} instance.
      * @param settingsManager A {@link SettingsManager} instance.
+     * @param marketDataManager A {@link MarketDataManager} instance.
      * @param marketManager A {@link MarketManager} instance.
+     * @param reservedLabels The names of the /skymarket command and its aliases.
      */
-    public AliasesCommands(@NotNull SettingsManager settingsManager, @NotNull MarketManager marketManager) {
+    public AliasesCommands(@NotNull SkyMarket skyMarket, @NotNull SettingsManager settingsManager, @NotNull MarketDataManager marketDataManager, @NotNull MarketManager marketManager, @NotNull Set<String> reservedLabels) {
+        this.skyMarket = skyMarket;
         this.settingsManager = settingsManager;
+        this.marketDataManager = marketDataManager;
         this.marketManager = marketManager;
+        this.reservedLabels = reservedLabels;
+    }
+
+    /**
+     * Registers, unregisters and retargets the aliases to match settings.yml. Must be called after the markets have been reloaded.
+     * Players are sent the updated command list if any alias was registered or unregistered.
+     */
+    public void reload() {
+        ComponentLogger logger = skyMarket.getComponentLogger();
+        CommandMap commandMap = skyMarket.getServer().getCommandMap();
+        Map<String, String> configuredAliases = getConfiguredAliases();
+        boolean changed = false;
+
+        // Markets are recreated on every reload, so aliases that are kept are always pointed at the new market data.
+        Iterator<Map.Entry<String, MarketAliasCommand>> iterator = aliases.entrySet().iterator();
+        while(iterator.hasNext()) {
+            Map.Entry<String, MarketAliasCommand> entry = iterator.next();
+            String alias = entry.getKey();
+            MarketAliasCommand command = entry.getValue();
+
+            @Nullable String marketId = configuredAliases.remove(alias);
+            @Nullable MarketData marketData = marketId != null ? marketDataManager.getMarketData(marketId) : null;
+            if(marketId == null || marketData == null) {
+                if(marketId != null) logger.warn(AdventureUtil.serialize("The alias " + alias + " was removed because the market id " + marketId + " does not exist."));
+                if(!reservedLabels.contains(alias)) {
+                    unregister(commandMap, command);
+                    changed = true;
+                }
+
+                iterator.remove();
+                continue;
+            }
+
+            command.retarget(marketId, marketData);
+        }
+
+        // The remaining configured aliases are new.
+        for(Map.Entry<String, String> entry : configuredAliases.entrySet()) {
+            String alias = entry.getKey();
+            String marketId = entry.getValue();
+
+            @Nullable MarketData marketData = marketDataManager.getMarketData(marketId);
+            if(marketData == null) {
+                logger.warn(AdventureUtil.serialize("The alias " + alias + " was not registered because the market id " + marketId + " does not exist."));
+                continue;
+            }
+
+            MarketAliasCommand command = new MarketAliasCommand(alias, marketManager, marketId, marketData);
+            aliases.put(alias, command);
+            if(reservedLabels.contains(alias)) continue;
+
+            if(!commandMap.register(FALLBACK_PREFIX, command)) {
+                logger.warn(AdventureUtil.serialize("The alias " + alias + " is already used by another command. It can be used with /" + FALLBACK_PREFIX + ":" + alias + " instead."));
+            }
+
+            changed = true;
+        }
+
+        if(changed) updateCommands();
     }
 
     /**
-     * Gets a {@link List} containing {@link LiteralCommandNode} of type {@link CommandSourceStack} that represents the command aliases.
-     * @return A {@link List} containing {@link LiteralCommandNode} of type {@link CommandSourceStack}.
+     * Unregisters every alias. Used when the plugin is disabled.
      */
-    public @NotNull List<LiteralCommandNode<CommandSourceStack>> getAliases() {
+    public void stop() {
+        CommandMap commandMap = skyMarket.getServer().getCommandMap();
+        boolean changed = false;
+
+        for(Map.Entry<String, MarketAliasCommand> entry : aliases.entrySet()) {
+            if(reservedLabels.contains(entry.getKey())) continue;
+
+            unregister(commandMap, entry.getValue());
+            changed = true;
+        }
+
+        aliases.clear();
+        if(changed) updateCommands();
+    }
+
+    /**
+     * Opens the market of the alias named after the command a player ran, if there is one.
+     * Used when the /skymarket command or one of its aliases is run with no arguments.
+     * @param input The command the player ran.
+     * @param player The {@link Player} who ran the command.
+     * @return true if the market was opened, false if not.
+     */
+    public boolean open(@NotNull String input, @NotNull Player player) {
+        String label = input.startsWith("/") ? input.substring(1) : input;
+
+        int space = label.indexOf(' ');
+        if(space >= 0) label = label.substring(0, space);
+
+        int namespace = label.indexOf(':');
+        if(namespace >= 0) label = label.substring(namespace + 1);
+
+        @Nullable MarketAliasCommand command = aliases.get(label.toLowerCase(Locale.ROOT));
+        return command != null && command.open(player);
+    }
+
+    /**
+     * Gets the configured aliases.
+     * @return A {@link Map} mapping each alias to the id of the market it opens.
+     */
+    private @NotNull Map<String, String> getConfiguredAliases() {
+        Map<String, String> configuredAliases = new LinkedHashMap<>();
+
         Settings settings = settingsManager.getSettingsConfig();
-        if(settings == null) return List.of();
+        if(settings == null) return configuredAliases;
+
+        for(Settings.Alias aliasConfig : settings.aliases()) {
+            if(aliasConfig == null || aliasConfig.alias() == null || aliasConfig.marketId() == null) continue;
+
+            String alias = aliasConfig.alias().toLowerCase(Locale.ROOT).trim();
+            if(alias.isEmpty() || alias.contains(" ")) continue;
+
+            configuredAliases.putIfAbsent(alias, aliasConfig.marketId());
+        }
+
+        return configuredAliases;
+    }
+
+    /**
+     * Removes an alias from the server's commands.
+     * @param commandMap The server's {@link CommandMap}.
+     * @param command The {@link MarketAliasCommand} to remove.
+     */
+    private void unregister(@NotNull CommandMap commandMap, @NotNull MarketAliasCommand command) {
+        Map<String, Command> knownCommands = commandMap.getKnownCommands();
+
+        // Only remove the labels that still belong to this alias, in case another plugin registered the same name.
+        String label = command.getName();
+        if(knownCommands.get(label) == command) knownCommands.remove(label);
+        if(knownCommands.get(FALLBACK_PREFIX + ":" + label) == command) knownCommands.remove(FALLBACK_PREFIX + ":" + label);
 
-        return settings.aliases().stream()
-                .filter(aliasConfig -> aliasConfig.alias() != null && aliasConfig.marketId() != null)
-                .map(aliasConfig -> createCommand(aliasConfig.alias(), aliasConfig.marketId()))
-                .toList();
+        command.unregister(commandMap);
     }
 
     /**
-     * Creates a single {@link LiteralCommandNode} of type {@link CommandSourceStack} that represents an alias command.
-     * @param alias The command name.
-     * @param marketId The market id that represents the market this command alias should open.
-     * @return A {@link LiteralCommandNode} of type {@link CommandSourceStack}.
+     * Sends the updated command list to every online player, so added aliases are suggested and removed aliases are not.
      */
-    private @NotNull LiteralCommandNode<CommandSourceStack> createCommand(@NotNull String alias, @NotNull String marketId) {
-        LiteralArgumentBuilder<CommandSourceStack> builder = Commands.literal(alias)
-                .requires(ctx ->
-                        ctx.getSender() instanceof Player
-                        && ctx.getSender().hasPermission("skymarket.commands.skymarket")
-                        && ctx.getSender().hasPermission("skymarket.commands.skymarket.open"))
-                .executes(ctx -> (marketManager.openMarket(marketId, (Player) ctx.getSource().getSender())) ? 1 : 0);
-
-        return builder.build();
+    private void updateCommands() {
+        for(Player player : skyMarket.getServer().getOnlinePlayers()) {
+            player.updateCommands();
+        }
     }
 }
@@ -0,0 +1,91 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.commands;
+
+import com.github.lukesky19.skymarket.data.MarketData;
+import com.github.lukesky19.skymarket.manager.MarketManager;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * A command alias that opens a market. The alias holds the {@link MarketData} of its market, so running it does not look the market up by id.
+ * The market is updated with {@link #retarget(String, MarketData)} when the plugin reloads.
+ */
+public class MarketAliasCommand extends Command {
+    private final @NotNull MarketManager marketManager;
+    private @NotNull String marketId;
+    private @NotNull MarketData marketData;
+
+    /**
+     * Constructor
+     * @param alias The command name.
+     * @param marketManager A {@link MarketManager} instance.
+     * @param marketId The id of the market this alias opens.
+     * @param marketData The {@link MarketData} of the market this alias opens.
+     */
+    public MarketAliasCommand(@NotNull String alias, @NotNull MarketManager marketManager, @NotNull String marketId, @NotNull MarketData marketData) {
+        super(alias, "Opens a market.", "/" + alias, List.of());
+        this.marketManager = marketManager;
+        this.marketId = marketId;
+        this.marketData = marketData;
+    }
+
+    /**
+     * Points the alias at a market.
+     * @param marketId The id of the market this alias opens.
+     * @param marketData The {@link MarketData} of the market this alias opens.
+     */
+    public void retarget(@NotNull String marketId, @NotNull MarketData marketData) {
+        this.marketId = marketId;
+        this.marketData = marketData;
+    }
+
+    /**
+     * Opens the alias's market for a player.
+     * @param player The {@link Player} to open the market for.
+     * @return true if the market was opened, false if the player is not allowed to use the alias or the market could not be opened.
+     */
+    public boolean open(@NotNull Player player) {
+        if(!testPermissionSilent(player)) return false;
+
+        return marketManager.openMarket(marketId, marketData, player, 0);
+    }
+
+    /**
+     * Only players with permission to open markets can see and use the alias.
+     * @param target The {@link CommandSender} to check.
+     * @return true if the sender can use the alias, false if not.
+     */
+    @Override
+    public boolean testPermissionSilent(@NotNull CommandSender target) {
+        return target instanceof Player
+                && target.hasPermission("skymarket.commands.skymarket")
+                && target.hasPermission("skymarket.commands.skymarket.open");
+    }
+
+    @Override
+    public boolean execute(@NotNull CommandSender sender, @NotNull String commandLabel, @NotNull String @NotNull [] args) {
+        if(sender instanceof Player player) open(player);
+
+        return true;
+    }
+}
@@ -21,15 +21,23 @@ import com.github.lukesky19.skylib.api.adventure.AdventureUtil;
 import com.github.lukesky19.skylib.api.time.Time;
 import com.github.lukesky19.skymarket.SkyMarket;
 import com.github.lukesky19.skymarket.configuration.LocaleManager;
-import com.github.lukesky19.skymarket.data.config.Locale;
+import com.github.lukesky19.skymarket.data.LatencyHistogram;
+import com.github.lukesky19.skymarket.data.MarketMetrics;
+import com.github.lukesky19.skymarket.data.OperationMetrics;
+import com.github.lukesky19.skymarket.manager.BroadcastManager;
+import com.github.lukesky19.skymarket.manager.CommandManager;
 import com.github.lukesky19.skymarket.manager.MarketManager;
+import com.github.lukesky19.skymarket.manager.MetricsManager;
+import com.github.lukesky19.skymarket.manager.SearchManager;
+import com.github.lukesky19.skymarket.util.LocaleMessage;
+import com.github.lukesky19.skymarket.util.MarketOperation;
+import com.github.lukesky19.skymarket.util.PluginUtils;
 import com.mojang.brigadier.arguments.StringArgumentType;
 import com.mojang.brigadier.builder.LiteralArgumentBuilder;
 import com.mojang.brigadier.tree.LiteralCommandNode;
 import io.papermc.paper.command.brigadier.CommandSourceStack;
 import io.papermc.paper.command.brigadier.Commands;
-import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
-import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
+import net.kyori.adventure.text.Component;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
@@ -44,20 +52,40 @@ public class SkyMarketCommand {
     private final @NotNull SkyMarket skyMarket;
     private final @NotNull LocaleManager localeManager;
     private final @NotNull MarketManager marketManager;
+    private final @NotNull BroadcastManager broadcastManager;
+    private final @NotNull CommandManager commandManager;
+    private final @NotNull MetricsManager metricsManager;
+    private final @NotNull SearchManager searchManager;
+    private final @NotNull AliasesCommands aliasesCommands;
 
     /**
      * Constructor
      * @param skyMarket A {@link SkyMarket} instance.
      * @param localeManager A {@link LocaleManager} instance.
      * @param marketManager A {@link MarketManager} instance.
+     * @param broadcastManager A {@link BroadcastManager} instance.
+     * @param commandManager A {@link CommandManager} instance.
+     * @param metricsManager A {@link MetricsManager} instance.
+     * @param searchManager A {@link SearchManager} instance.
+     * @param aliasesCommands An {@link AliasesCommands} instance.
      */
     public SkyMarketCommand(
             @NotNull SkyMarket skyMarket,
             @NotNull LocaleManager localeManager,
-            @NotNull MarketManager marketManager) {
+            @NotNull MarketManager marketManager,
+            @NotNull BroadcastManager broadcastManager,
+            @NotNull CommandManager commandManager,
+            @NotNull MetricsManager metricsManager,
+            @NotNull SearchManager searchManager,
+            @NotNull AliasesCommands aliasesCommands) {
         this.skyMarket = skyMarket;
         this.localeManager = localeManager;
         this.marketManager = marketManager;
+        this.broadcastManager = broadcastManager;
+        this.commandManager = commandManager;
+        this.metricsManager = metricsManager;
+        this.searchManager = searchManager;
+        this.aliasesCommands = aliasesCommands;
     }
 
     /**
@@ -66,7 +94,9 @@ public class SkyMarketCommand {
      */
     public @NotNull LiteralCommandNode<CommandSourceStack> createCommand() {
         LiteralArgumentBuilder<CommandSourceStack> builder = Commands.literal("skymarket")
-            .requires(ctx -> ctx.getSender().hasPermission("skymarket.commands.skymarket"));
+            .requires(ctx -> ctx.getSender().hasPermission("skymarket.commands.skymarket"))
+            // Opens the market of the alias named after the command, if one is configured.
+            .executes(ctx -> ctx.getSource().getSender() instanceof Player player && aliasesCommands.open(ctx.getInput(), player) ? 1 : 0);
 
         builder.then(Commands.literal("open")
             .requires(ctx -> ctx.getSender().hasPermission("skymarket.commands.skymarket.open") && ctx.getSender() instanceof Player)
@@ -88,14 +118,36 @@ public class SkyMarketCommand {
             )
         );
 
+        builder.then(Commands.literal("search")
+            .requires(ctx -> ctx.getSender().hasPermission("skymarket.commands.skymarket.search") && ctx.getSender() instanceof Player)
+            .then(Commands.argument("item", StringArgumentType.greedyString())
+                .suggests((context, suggestionsBuilder) -> {
+                    String remaining = suggestionsBuilder.getRemainingLowerCase();
+
+                    for(String itemId : searchManager.getItemIds().tailSet(remaining)) {
+                        if(!itemId.startsWith(remaining)) break;
+
+                        suggestionsBuilder.suggest(itemId);
+                    }
+
+                    return suggestionsBuilder.buildFuture();
+                })
+
+                .executes(ctx -> {
+                    String query = ctx.getArgument("item", String.class);
+                    Player player = (Player) ctx.getSource().getSender();
+
+                    return marketManager.openSearch(player, query) ? 1 : 0;
+                })
+            )
+        );
+
         builder.then(Commands.literal("reload")
             .requires(ctx -> ctx.getSender().hasPermission("skymarket.commands.skymarket.reload"))
             .executes(ctx -> {
                 skyMarket.reload();
 
-                Locale locale = localeManager.getLocale();
-
-                ctx.getSource().getSender().sendMessage(AdventureUtil.serialize(locale.prefix() + locale.configReload()));
+                localeManager.send(ctx.getSource().getSender(), LocaleMessage.CONFIG_RELOAD);
 
                 return 1;
             })
@@ -115,12 +167,11 @@ public class SkyMarketCommand {
                 .executes(ctx -> {
                     String id = ctx.getArgument("id", String.class);
                     CommandSender sender = ctx.getSource().getSender();
-                    Locale locale = localeManager.getLocale();
 
                     if(marketManager.refreshMarket(id)) {
                         return 1;
                     } else {
-                        sender.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.invalidMarketId()));
+                        localeManager.send(sender, LocaleMessage.INVALID_MARKET_ID);
                         return 0;
                     }
                 })
@@ -141,90 +192,136 @@ public class SkyMarketCommand {
                 .executes(ctx -> {
                     String id = ctx.getArgument("id", String.class);
                     CommandSender sender = ctx.getSource().getSender();
-                    Locale locale = localeManager.getLocale();
                     @Nullable Time refreshTime = marketManager.getRefreshTime(id);
                     String marketName = marketManager.getMarketName(id);
 
                     if(refreshTime != null && marketName != null) {
-                        StringBuilder stringBuilder = new StringBuilder();
-
-                        if (refreshTime.years() > 0) {
-                            if (refreshTime.years() > 1) {
-                                stringBuilder.append(refreshTime.years()).append(" years ");
-                            } else {
-                                stringBuilder.append(refreshTime.years()).append(" year ");
-                            }
-                        }
-
-                        if (refreshTime.months() > 0) {
-                            if (refreshTime.months() > 1) {
-                                stringBuilder.append(refreshTime.months()).append(" months ");
-                            } else {
-                                stringBuilder.append(refreshTime.months()).append(" month ");
-                            }
-                        }
-
-                        if (refreshTime.weeks() > 0) {
-                            if (refreshTime.weeks() > 1) {
-                                stringBuilder.append(refreshTime.weeks()).append(" weeks ");
-                            } else {
-                                stringBuilder.append(refreshTime.weeks()).append(" week ");
-                            }
-                        }
-
-                        if (refreshTime.days() > 0) {
-                            if (refreshTime.days() > 1) {
-                                stringBuilder.append(refreshTime.days()).append(" days ");
-                            } else {
-                                stringBuilder.append(refreshTime.days()).append(" day ");
-                            }
-                        }
-
-                        if (refreshTime.hours() > 0) {
-                            if (refreshTime.hours() > 1) {
-                                stringBuilder.append(refreshTime.hours()).append(" hours ");
-                            } else {
-                                stringBuilder.append(refreshTime.hours()).append(" hour ");
-                            }
-                        }
-
-                        if (refreshTime.minutes() > 0) {
-                            if (refreshTime.minutes() > 1) {
-                                stringBuilder.append(refreshTime.minutes()).append(" minutes ");
-                            } else {
-                                stringBuilder.append(refreshTime.minutes()).append(" minute ");
-                            }
-                        }
-
-                        if (refreshTime.seconds() > 0) {
-                            if (refreshTime.seconds() > 1) {
-                                stringBuilder.append(refreshTime.seconds()).append(" seconds ");
-                            } else {
-                                stringBuilder.append(refreshTime.seconds()).append(" second ");
-                            }
-                        }
-
-                        if (refreshTime.milliseconds() > 0) {
-                            if (refreshTime.milliseconds() > 1) {
-                                stringBuilder.append(refreshTime.milliseconds()).append(" milliseconds");
-                            } else {
-                                stringBuilder.append(refreshTime.milliseconds()).append(" millisecond");
-                            }
-                        }
-
-                        List<TagResolver.Single> placeholders = List.of(Placeholder.parsed("time", stringBuilder.toString()), Placeholder.parsed("market_name", marketName));
-
-                        sender.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.marketRefreshTime(), placeholders));
+                        Map<String, Component> placeholders = Map.of("time", AdventureUtil.serialize(PluginUtils.formatTime(refreshTime)), "market_name", AdventureUtil.serialize(marketName));
+
+                        localeManager.send(sender, LocaleMessage.MARKET_REFRESH_TIME, placeholders);
 
                         return 1;
                     } else {
-                        sender.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.invalidMarketId()));
+                        localeManager.send(sender, LocaleMessage.INVALID_MARKET_ID);
+                        return 0;
+                    }
+                })
+            )
+        );
+
+        builder.then(Commands.literal("notifications")
+            .requires(ctx -> ctx.getSender().hasPermission("skymarket.commands.skymarket.notifications") && ctx.getSender() instanceof Player)
+            .executes(ctx -> {
+                Player player = (Player) ctx.getSource().getSender();
+
+                if(broadcastManager.toggleOptOut(player)) {
+                    localeManager.send(player, LocaleMessage.BROADCASTS_ENABLED);
+                } else {
+                    localeManager.send(player, LocaleMessage.BROADCASTS_DISABLED);
+                }
+
+                return 1;
+            })
+        );
+
+        builder.then(Commands.literal("queue")
+            .requires(ctx -> ctx.getSender().hasPermission("skymarket.commands.skymarket.queue"))
+            .executes(ctx -> {
+                Map<String, Component> placeholders = Map.of(
+                        "depth", Component.text(commandManager.getQueueDepth()),
+                        "lag", Component.text(commandManager.getLagMillis()));
+
+                localeManager.send(ctx.getSource().getSender(), LocaleMessage.COMMAND_QUEUE_STATUS, placeholders);
+
+                return 1;
+            })
+        );
+
+        builder.then(Commands.literal("stats")
+            .requires(ctx -> ctx.getSender().hasPermission("skymarket.commands.skymarket.stats"))
+            .executes(ctx -> {
+                CommandSender sender = ctx.getSource().getSender();
+
+                List<String> marketIds = metricsManager.getMarketIds();
+                if(marketIds.isEmpty()) {
+                    localeManager.send(sender, LocaleMessage.STATS_NONE);
+                    return 1;
+                }
+
+                for(String marketId : marketIds) {
+                    MarketMetrics marketMetrics = metricsManager.getMarketMetricsIfPresent(marketId);
+                    if(marketMetrics != null) sendStats(sender, marketId, marketMetrics);
+                }
+
+                return 1;
+            })
+            .then(Commands.argument("id", StringArgumentType.string())
+                .suggests((context, suggestionsBuilder) -> {
+                    for(String marketId : marketManager.getMarketIds()) {
+                        suggestionsBuilder.suggest(marketId);
+                    }
+
+                    return suggestionsBuilder.buildFuture();
+                })
+
+                .executes(ctx -> {
+                    String id = ctx.getArgument("id", String.class);
+                    CommandSender sender = ctx.getSource().getSender();
+
+                    if(!marketManager.getMarketIds().contains(id)) {
+                        localeManager.send(sender, LocaleMessage.INVALID_MARKET_ID);
                         return 0;
                     }
+
+                    MarketMetrics marketMetrics = metricsManager.getMarketMetricsIfPresent(id);
+                    if(marketMetrics == null) {
+                        localeManager.send(sender, LocaleMessage.STATS_NONE);
+                        return 1;
+                    }
+
+                    sendStats(sender, id, marketMetrics);
+
+                    return 1;
                 })
             )
         );
 
         return builder.build();
     }
+
+    /**
+     * Sends the metrics of a market to a {@link CommandSender}. Operations that have never run are skipped.
+     * @param sender The {@link CommandSender} to send the metrics to.
+     * @param marketId The market id.
+     * @param marketMetrics The {@link MarketMetrics} of the market.
+     */
+    private void sendStats(@NotNull CommandSender sender, @NotNull String marketId, @NotNull MarketMetrics marketMetrics) {
+        localeManager.send(sender, LocaleMessage.STATS_HEADER, Map.of("market_id", AdventureUtil.serialize(marketId)));
+
+        for(MarketOperation operation : MarketOperation.values()) {
+            OperationMetrics operationMetrics = marketMetrics.getOperation(operation);
+            if(operationMetrics.getCount() == 0) continue;
+            LatencyHistogram latency = operationMetrics.getLatency();
+
+            Map<String, Component> placeholders = Map.of(
+                    "operation", Component.text(operation.getMetricName()),
+                    "count", Component.text(operationMetrics.getCount()),
+                    "failures", Component.text(operationMetrics.getFailures()),
+                    "mean", Component.text(formatMillis(latency.getMean())),
+                    "p50", Component.text(formatMillis(latency.getPercentile(0.5))),
+                    "p99", Component.text(formatMillis(latency.getPercentile(0.99))),
+                    "max", Component.text(formatMillis(latency.getMax())));
+
+            localeManager.send(sender, LocaleMessage.STATS_LINE, placeholders);
+        }
+    }
+
+    /**
+     * Formats a duration in nanoseconds as milliseconds with three decimal places.
+     * @param nanos The duration in nanoseconds.
+     * @return The formatted duration.
+     */
+    private @NotNull String formatMillis(long nanos) {
+        return String.format(java.util.Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
 }
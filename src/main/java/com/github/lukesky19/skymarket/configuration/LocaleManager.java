@@ -23,22 +23,43 @@ import com.github.lukesky19.skylib.libs.configurate.ConfigurateException;
 import com.github.lukesky19.skylib.libs.configurate.ConfigurationNode;
 import com.github.lukesky19.skylib.libs.configurate.yaml.YamlConfigurationLoader;
 import com.github.lukesky19.skymarket.SkyMarket;
+import com.github.lukesky19.skymarket.data.CompiledLocale;
 import com.github.lukesky19.skymarket.data.config.Locale;
-
-import java.io.File;
-import java.nio.file.Path;
-
 import com.github.lukesky19.skymarket.data.config.Settings;
+import com.github.lukesky19.skymarket.util.LocaleMessage;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.ComponentLike;
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
 /**
- * This class handles the management of the locale configuration.
+ * This class handles the management of the locale configurations.
+ * The locale set in settings.yml is the default locale. Every other file in the locale folder is also loaded, and players are sent messages
+ * from the locale matching their client's language, falling back to the default locale.
+ * Each locale's messages are compiled into templates when the locale is loaded, so sending a message does not parse MiniMessage again.
  */
 public class LocaleManager {
     private final @NotNull SkyMarket skyMarket;
     private final @NotNull SettingsManager settingsManager;
     private @Nullable Locale locale;
+    private @NotNull CompiledLocale defaultLocale;
+    private @NotNull Map<String, CompiledLocale> localesByTag = Map.of();
+    private @NotNull Map<String, CompiledLocale> localesByLanguage = Map.of();
+    private final @NotNull Map<UUID, CompiledLocale> playerLocales = new ConcurrentHashMap<>();
     private final @NotNull Locale DEFAULT_LOCALE = new Locale(
             "2.0.0.0",
             "<gold><bold>SkyMarket</bold></gold><gray> ▪ </gray>",
@@ -55,8 +76,22 @@ public class LocaleManager {
             "<white>The <yellow><market_name></yellow> has been refreshed.</white>",
             "<white>The market will be refreshed in <yellow><time></yellow>.</white>",
             "<red>There is no market with this id.</red>",
+            "<red>Unable to open this GUI because of a configuration error.</red>",
             "<yellow><item_name> <white>x</white><item_amount></yellow>",
-            "<red>Unable to open this GUI because of a configuration error.</red>");
+            "<white>You will now be notified when markets refresh.</white>",
+            "<white>You will no longer be notified when markets refresh.</white>",
+            "<red>This item is out of stock.</red>",
+            "<white>Queued commands: <yellow><depth></yellow>. Oldest command has waited <yellow><lag></yellow>ms.</white>",
+            "<white>Metrics for <yellow><market_id></yellow>:</white>",
+            "<gray><operation>: <yellow><count></yellow> total, <yellow><failures></yellow> failed, mean <yellow><mean></yellow>ms, p50 <yellow><p50></yellow>ms, p99 <yellow><p99></yellow>ms, max <yellow><max></yellow>ms</gray>",
+            "<white>No metrics have been recorded yet.</white>",
+            "<gold><bold>Search Results</bold></gold>",
+            "<gray>Market:</gray> <yellow><market_name></yellow>",
+            "<gray>Buy:</gray> <yellow><buy_price></yellow> <gray>Sell:</gray> <yellow><sell_price></yellow>",
+            "<gray>Click to open this market.</gray>",
+            "<yellow>Close the search.</yellow>",
+            "<red>No markets are offering <yellow><query></yellow> right now.</red>",
+            "Unlimited");
 
     /**
      * Constructor
@@ -66,10 +101,11 @@ public class LocaleManager {
     public LocaleManager(@NotNull SkyMarket skyMarket, @NotNull SettingsManager settingsManager) {
         this.skyMarket = skyMarket;
         this.settingsManager = settingsManager;
+        this.defaultLocale = CompiledLocale.compile(DEFAULT_LOCALE);
     }
 
     /**
-     * Gets the plugin's {@link Locale}.
+     * Gets the plugin's default {@link Locale}.
      * Will return a default copy of the configuration if the user-configured one failed to load.
      * @return The plugin's {@link Locale}
      */
@@ -80,7 +116,87 @@ public class LocaleManager {
     }
 
     /**
-     * Reloads the plugin's locale.
+     * Gets the {@link CompiledLocale} messages should be sent to a {@link CommandSender} in.
+     * Players get the locale matching their client's language. Everyone else gets the default locale.
+     * @param sender The {@link CommandSender}.
+     * @return The {@link CompiledLocale}.
+     */
+    public @NotNull CompiledLocale getCompiledLocale(@NotNull CommandSender sender) {
+        if(sender instanceof Player player) {
+            CompiledLocale playerLocale = playerLocales.get(player.getUniqueId());
+            if(playerLocale != null) return playerLocale;
+        }
+
+        return defaultLocale;
+    }
+
+    /**
+     * Renders a message in the locale of a {@link CommandSender}.
+     * @param sender The {@link CommandSender} the message is for.
+     * @param message The {@link LocaleMessage} to render.
+     * @return The rendered {@link Component}.
+     */
+    public @NotNull Component render(@NotNull CommandSender sender, @NotNull LocaleMessage message) {
+        return render(sender, message, Map.of());
+    }
+
+    /**
+     * Renders a message in the locale of a {@link CommandSender}.
+     * @param sender The {@link CommandSender} the message is for.
+     * @param message The {@link LocaleMessage} to render.
+     * @param placeholders A {@link Map} of placeholder names to their values.
+     * @return The rendered {@link Component}.
+     */
+    public @NotNull Component render(@NotNull CommandSender sender, @NotNull LocaleMessage message, @NotNull Map<String, ? extends ComponentLike> placeholders) {
+        return getCompiledLocale(sender).get(message).render(sender instanceof Player player ? player : null, placeholders);
+    }
+
+    /**
+     * Sends a message to a {@link CommandSender} in their locale.
+     * @param sender The {@link CommandSender} to send the message to.
+     * @param message The {@link LocaleMessage} to send.
+     */
+    public void send(@NotNull CommandSender sender, @NotNull LocaleMessage message) {
+        sender.sendMessage(render(sender, message));
+    }
+
+    /**
+     * Sends a message to a {@link CommandSender} in their locale.
+     * @param sender The {@link CommandSender} to send the message to.
+     * @param message The {@link LocaleMessage} to send.
+     * @param placeholders A {@link Map} of placeholder names to their values.
+     */
+    public void send(@NotNull CommandSender sender, @NotNull LocaleMessage message, @NotNull Map<String, ? extends ComponentLike> placeholders) {
+        sender.sendMessage(render(sender, message, placeholders));
+    }
+
+    /**
+     * Picks the locale a player is sent messages in from their client's locale.
+     * An exact match is used first, then a locale with the same language, then the default locale.
+     * @param player The {@link Player}.
+     * @param clientLocale The {@link java.util.Locale} of the player's client.
+     */
+    public void updatePlayerLocale(@NotNull Player player, @NotNull java.util.Locale clientLocale) {
+        CompiledLocale compiledLocale = localesByTag.get(clientLocale.toString().toLowerCase(java.util.Locale.ROOT));
+        if(compiledLocale == null) compiledLocale = localesByLanguage.get(clientLocale.getLanguage().toLowerCase(java.util.Locale.ROOT));
+
+        if(compiledLocale == null) {
+            playerLocales.remove(player.getUniqueId());
+        } else {
+            playerLocales.put(player.getUniqueId(), compiledLocale);
+        }
+    }
+
+    /**
+     * Forgets the locale of a player.
+     * @param uuid The {@link UUID} of the player.
+     */
+    public void removePlayer(@NotNull UUID uuid) {
+        playerLocales.remove(uuid);
+    }
+
+    /**
+     * Reloads the plugin's locales.
      */
     public void reload() {
         Settings settings = settingsManager.getSettingsConfig();
@@ -90,29 +206,118 @@ public class LocaleManager {
         copyDefaultLocales();
 
         String localeString = settings.locale();
-        Path path = Path.of(skyMarket.getDataFolder() + File.separator + "locale" + File.separator + (localeString + ".yml"));
+        locale = loadLocale(getLocalePath(localeString));
+        defaultLocale = CompiledLocale.compile(getLocale());
+
+        loadLocales(localeString);
 
+        // Online players are matched against the reloaded locales, since a locale file may have been added or removed.
+        playerLocales.clear();
+        for(Player player : Bukkit.getOnlinePlayers()) {
+            updatePlayerLocale(player, player.locale());
+        }
+    }
+
+    /**
+     * Loads and compiles every locale file other than the default locale. The files are loaded in parallel.
+     * A locale that fails to load is skipped and its players are sent the default locale.
+     * @param defaultLocaleString The name of the default locale, which has already been loaded.
+     */
+    private void loadLocales(@NotNull String defaultLocaleString) {
+        List<String> localeStrings;
+        try(Stream<Path> files = Files.list(Path.of(skyMarket.getDataFolder() + File.separator + "locale"))) {
+            localeStrings = files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(".yml"))
+                    .map(name -> name.substring(0, name.length() - ".yml".length()))
+                    .filter(name -> !name.equalsIgnoreCase(defaultLocaleString))
+                    .toList();
+        } catch (IOException e) {
+            skyMarket.getComponentLogger().error(AdventureUtil.serialize("<red>Unable to read the locale folder. " + e.getMessage()));
+            localeStrings = List.of();
+        }
+
+        Map<String, CompiledLocale> tags = new HashMap<>();
+        Map<String, CompiledLocale> languages = new HashMap<>();
+
+        if(!localeStrings.isEmpty()) {
+            ExecutorService executor = Executors.newFixedThreadPool(Math.min(localeStrings.size(), Runtime.getRuntime().availableProcessors()));
+            try {
+                Map<String, CompletableFuture<CompiledLocale>> futures = new LinkedHashMap<>();
+                for(String localeString : localeStrings) {
+                    futures.put(localeString, CompletableFuture.supplyAsync(() -> {
+                        Locale loadedLocale = loadLocale(getLocalePath(localeString));
+                        return loadedLocale != null ? CompiledLocale.compile(loadedLocale) : null;
+                    }, executor));
+                }
+
+                futures.forEach((localeString, future) -> {
+                    try {
+                        CompiledLocale compiledLocale = future.join();
+                        if(compiledLocale != null) tags.put(localeString.toLowerCase(java.util.Locale.ROOT), compiledLocale);
+                    } catch (RuntimeException e) {
+                        skyMarket.getComponentLogger().error(AdventureUtil.serialize("<red>Unable to load the locale " + localeString + ". " + e.getMessage()));
+                    }
+                });
+            } finally {
+                executor.shutdown();
+            }
+        }
+
+        tags.put(defaultLocaleString.toLowerCase(java.util.Locale.ROOT), defaultLocale);
+
+        // Languages map to the locale of that language with the shortest name, so en maps to en_US before en_US_POSIX.
+        tags.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(Comparator.comparingInt(String::length).thenComparing(Comparator.naturalOrder())))
+                .forEach(entry -> languages.putIfAbsent(getLanguage(entry.getKey()), entry.getValue()));
+        languages.put(getLanguage(defaultLocaleString.toLowerCase(java.util.Locale.ROOT)), defaultLocale);
+
+        localesByTag = Map.copyOf(tags);
+        localesByLanguage = Map.copyOf(languages);
+    }
+
+    /**
+     * Gets the language of a locale name, such as en for en_us.
+     * @param localeString The lowercase name of the locale.
+     * @return The language of the locale.
+     */
+    private @NotNull String getLanguage(@NotNull String localeString) {
+        int separator = localeString.indexOf('_');
+        return separator < 0 ? localeString : localeString.substring(0, separator);
+    }
+
+    /**
+     * Gets the path of a locale file.
+     * @param localeString The name of the locale.
+     * @return The {@link Path} of the locale file.
+     */
+    private @NotNull Path getLocalePath(@NotNull String localeString) {
+        return Path.of(skyMarket.getDataFolder() + File.separator + "locale" + File.separator + (localeString + ".yml"));
+    }
+
+    /**
+     * Loads, migrates and fills a locale file.
+     * @param path The {@link Path} of the locale file.
+     * @return The loaded {@link Locale}, or null if it needs to be migrated.
+     */
+    private @Nullable Locale loadLocale(@NotNull Path path) {
         YamlConfigurationLoader loader = ConfigurationUtility.getYamlConfigurationLoader(path);
+        Locale loadedLocale;
         try {
-            locale = loader.load().get(Locale.class);
+            loadedLocale = loader.load().get(Locale.class);
         } catch (ConfigurateException e) {
             throw new RuntimeException(e);
         }
 
-        migrateLocale();
+        loadedLocale = migrateLocale(loadedLocale, path);
+        return fillMissingMessages(loadedLocale, path);
     }
 
     /**
-     * Saves the plugins locale to a file on the disk.
+     * Saves a locale to a file on the disk.
      * @param newLocale The locale to save.
+     * @param path The {@link Path} of the locale file.
      */
-    private void saveLocale(Locale newLocale) {
-        Settings settings = settingsManager.getSettingsConfig();
-        if(settings == null) return;
-
-        String localeString = settings.locale();
-        Path path = Path.of(skyMarket.getDataFolder() + File.separator + "locale" + File.separator + (localeString + ".yml"));
-
+    private void saveLocale(@NotNull Locale newLocale, @NotNull Path path) {
         YamlConfigurationLoader loader = ConfigurationUtility.getYamlConfigurationLoader(path);
         ConfigurationNode node = loader.createNode();
 
@@ -123,7 +328,6 @@ public class LocaleManager {
             throw new RuntimeException(e);
         }
     }
-
     /**
      * Copies the default locale files bundled with the plugin to the disk.
      */
@@ -135,20 +339,82 @@ public class LocaleManager {
     }
 
     /**
-     * Migrates the locale configuration.
+     * Fills any messages missing from a locale with the default messages and saves the locale if any were missing.
+     * This allows new messages to be added without requiring a migration.
+     * @param locale The loaded {@link Locale}.
+     * @param path The {@link Path} of the locale file.
+     * @return The filled {@link Locale}, or null if the locale was null.
+     */
+    private @Nullable Locale fillMissingMessages(@Nullable Locale locale, @NotNull Path path) {
+        if(locale == null) return null;
+
+        Locale filledLocale = new Locale(
+                locale.configVersion(),
+                orDefault(locale.prefix(), DEFAULT_LOCALE.prefix()),
+                orDefault(locale.configReload(), DEFAULT_LOCALE.configReload()),
+                orDefault(locale.notEnoughItems(), DEFAULT_LOCALE.notEnoughItems()),
+                orDefault(locale.insufficientFunds(), DEFAULT_LOCALE.insufficientFunds()),
+                orDefault(locale.insufficientItems(), DEFAULT_LOCALE.insufficientItems()),
+                orDefault(locale.buySuccess(), DEFAULT_LOCALE.buySuccess()),
+                orDefault(locale.sellSuccess(), DEFAULT_LOCALE.sellSuccess()),
+                orDefault(locale.unbuyable(), DEFAULT_LOCALE.unbuyable()),
+                orDefault(locale.unsellable(), DEFAULT_LOCALE.unsellable()),
+                orDefault(locale.buyLimitReached(), DEFAULT_LOCALE.buyLimitReached()),
+                orDefault(locale.sellLimitReached(), DEFAULT_LOCALE.sellLimitReached()),
+                orDefault(locale.marketRefreshed(), DEFAULT_LOCALE.marketRefreshed()),
+                orDefault(locale.marketRefreshTime(), DEFAULT_LOCALE.marketRefreshTime()),
+                orDefault(locale.invalidMarketId(), DEFAULT_LOCALE.invalidMarketId()),
+                orDefault(locale.guiOpenError(), DEFAULT_LOCALE.guiOpenError()),
+                orDefault(locale.itemFormat(), DEFAULT_LOCALE.itemFormat()),
+                orDefault(locale.broadcastsEnabled(), DEFAULT_LOCALE.broadcastsEnabled()),
+                orDefault(locale.broadcastsDisabled(), DEFAULT_LOCALE.broadcastsDisabled()),
+                orDefault(locale.outOfStock(), DEFAULT_LOCALE.outOfStock()),
+                orDefault(locale.commandQueueStatus(), DEFAULT_LOCALE.commandQueueStatus()),
+                orDefault(locale.statsHeader(), DEFAULT_LOCALE.statsHeader()),
+                orDefault(locale.statsLine(), DEFAULT_LOCALE.statsLine()),
+                orDefault(locale.statsNone(), DEFAULT_LOCALE.statsNone()),
+                orDefault(locale.searchGuiName(), DEFAULT_LOCALE.searchGuiName()),
+                orDefault(locale.searchResultMarket(), DEFAULT_LOCALE.searchResultMarket()),
+                orDefault(locale.searchResultPrice(), DEFAULT_LOCALE.searchResultPrice()),
+                orDefault(locale.searchResultOpen(), DEFAULT_LOCALE.searchResultOpen()),
+                orDefault(locale.searchExit(), DEFAULT_LOCALE.searchExit()),
+                orDefault(locale.searchNoResults(), DEFAULT_LOCALE.searchNoResults()),
+                orDefault(locale.placeholderUnlimited(), DEFAULT_LOCALE.placeholderUnlimited()));
+
+        if(!filledLocale.equals(locale)) saveLocale(filledLocale, path);
+
+        return filledLocale;
+    }
+
+    /**
+     * Returns the provided message, or the default message if it is null.
+     * @param message The configured message.
+     * @param defaultMessage The default message.
+     * @return The configured message or the default message if it is null.
+     */
+    private @NotNull String orDefault(@Nullable String message, @NotNull String defaultMessage) {
+        return message != null ? message : defaultMessage;
+    }
+
+    /**
+     * Migrates a locale configuration.
+     * @param locale The loaded {@link Locale}.
+     * @param path The {@link Path} of the locale file.
+     * @return The migrated {@link Locale}, or null if it could not be migrated.
      */
-    private void migrateLocale() {
-        if(locale == null) return;
+    private @Nullable Locale migrateLocale(@Nullable Locale locale, @NotNull Path path) {
+        if(locale == null) return null;
 
         switch(locale.configVersion()) {
             case "2.0.0.0" -> {
                 // Current version, do nothing.
+                return locale;
             }
 
             case null, default -> {
-                skyMarket.getComponentLogger().error(AdventureUtil.serialize("<red>You need to migrate your locale to the new version."));
+                skyMarket.getComponentLogger().error(AdventureUtil.serialize("<red>You need to migrate your locale " + path.getFileName() + " to the new version."));
                 skyMarket.getComponentLogger().error(AdventureUtil.serialize("<red>This happens from using a locale version older than 2.0.0.0."));
-                locale = null;
+                return null;
             }
         }
     }
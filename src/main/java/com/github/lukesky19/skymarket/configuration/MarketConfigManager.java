@@ -30,6 +30,7 @@ import com.github.lukesky19.skymarket.data.config.item.AmountConfig;
 import com.github.lukesky19.skymarket.data.config.gui.ChestConfig;
 import com.github.lukesky19.skymarket.data.config.gui.MerchantConfig;
 import com.github.lukesky19.skymarket.data.config.item.RandomEnchantConfig;
+import com.github.lukesky19.skymarket.jfr.ConfigReloadFlightEvent;
 import com.github.lukesky19.skymarket.util.TransactionType;
 import net.kyori.adventure.text.logger.slf4j.ComponentLogger;
 import org.bukkit.inventory.ItemStack;
@@ -98,6 +99,8 @@ public class MarketConfigManager {
      * Reloads all configuration files.
      */
     public void reload() {
+        ConfigReloadFlightEvent flightEvent = new ConfigReloadFlightEvent();
+        flightEvent.begin();
         ComponentLogger logger = skyMarket.getComponentLogger();
 
         chestConfigs.clear();
@@ -136,6 +139,8 @@ public class MarketConfigManager {
         } catch (IOException e) {
             logger.error(AdventureUtil.serialize("Failed to walk through merchant configuration files. " + e.getMessage()));
         }
+
+        flightEvent.record(chestConfigs.size(), merchantConfigs.size());
     }
 
     /**
@@ -228,6 +233,16 @@ public class MarketConfigManager {
             }
         }
 
+        if(guiData.pages() != null && guiData.pages() < 1) {
+            logger.error(AdventureUtil.serialize("The number of pages in " + marketId + ".yml is invalid. It must be at least 1."));
+            return false;
+        }
+
+        if(guiData.pages() != null && guiData.pages() > 1) {
+            if(!isPageButtonValid(logger, marketId, "previous page", guiData.previousPage(), guiType)) return false;
+            if(!isPageButtonValid(logger, marketId, "next page", guiData.nextPage(), guiType)) return false;
+        }
+
         for(int i = 0; i < marketConfig.items().size(); i++) {
             ChestConfig.ItemConfig itemConfig = marketConfig.items().get(i);
             if(itemConfig == null) continue;
@@ -407,6 +422,34 @@ public class MarketConfigManager {
         return optionalItemStack.isPresent();
     }
 
+    /**
+     * Validates the button used to switch pages in a {@link ChestConfig}.
+     * @param logger A {@link ComponentLogger}.
+     * @param marketId The id of the market.
+     * @param name The name of the button to use in errors.
+     * @param buttonConfig The {@link ButtonConfig} to validate.
+     * @param guiType The {@link GUIType} of the market.
+     * @return true if valid or false
+     */
+    private boolean isPageButtonValid(@NotNull ComponentLogger logger, @NotNull String marketId, @NotNull String name, @Nullable ButtonConfig buttonConfig, @NotNull GUIType guiType) {
+        if(buttonConfig == null) {
+            logger.error(AdventureUtil.serialize("The " + name + " button in " + marketId + ".yml is required when the market has more than one page."));
+            return false;
+        }
+
+        if(!isSlotValid(buttonConfig.slot(), guiType.getSize())) {
+            logger.error(AdventureUtil.serialize("The slot for the " + name + " button in " + marketId + ".yml is invalid or outside the bounds of this GUI type."));
+            return false;
+        }
+
+        if(!isItemStackConfigValid(logger, buttonConfig.item())) {
+            logger.error(AdventureUtil.serialize("The ItemStack for the " + name + " button in market " + marketId + ".yml due to a configuration error with the ItemStackConfig."));
+            return false;
+        }
+
+        return true;
+    }
+
     /**
      * Check if the provided slot is valid.
      * @param slot The slot to validate.
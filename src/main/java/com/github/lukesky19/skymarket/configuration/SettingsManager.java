@@ -17,8 +17,10 @@
 */
 package com.github.lukesky19.skymarket.configuration;
 
+import com.github.lukesky19.skylib.api.adventure.AdventureUtil;
 import com.github.lukesky19.skylib.api.configurate.ConfigurationUtility;
 import com.github.lukesky19.skylib.libs.configurate.ConfigurateException;
+import com.github.lukesky19.skylib.libs.configurate.ConfigurationNode;
 import com.github.lukesky19.skylib.libs.configurate.yaml.YamlConfigurationLoader;
 import com.github.lukesky19.skymarket.SkyMarket;
 import com.github.lukesky19.skymarket.data.config.Settings;
@@ -26,12 +28,19 @@ import org.jetbrains.annotations.NotNull;
 
 import javax.annotation.Nullable;
 import java.io.File;
+import java.net.URL;
 import java.nio.file.Path;
+import java.util.List;
 
 /**
  * This class manages the plugin's settings.
  */
 public class SettingsManager {
+    private static final String CONFIG_VERSION = "2.1.0.0";
+    // The sections added in 2.1.0.0. Settings files from 2.0.0.0 get them from the bundled settings.yml.
+    private static final List<String> SECTIONS_ADDED_2_1_0_0 = List.of(
+            "broadcast", "dynamic-pricing", "economy", "command-queue", "metrics", "markets", "player-data", "click-limit", "sync");
+
     private final @NotNull SkyMarket skyMarket;
     private @Nullable Settings settingsConfig;
 
@@ -64,9 +73,51 @@ public class SettingsManager {
 
         YamlConfigurationLoader loader = ConfigurationUtility.getYamlConfigurationLoader(path);
         try {
-            settingsConfig = loader.load().get(Settings.class);
+            ConfigurationNode node = loader.load();
+            if(!migrateSettings(loader, node)) return;
+
+            settingsConfig = node.get(Settings.class);
         } catch (ConfigurateException e) {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Migrates the settings configuration, saving it if it was changed.
+     * @param loader The {@link YamlConfigurationLoader} of settings.yml.
+     * @param node The loaded {@link ConfigurationNode}.
+     * @return true if the settings are on the current version, false if they could not be migrated.
+     * @throws ConfigurateException if the bundled settings could not be read or the migrated settings could not be saved.
+     */
+    private boolean migrateSettings(@NotNull YamlConfigurationLoader loader, @NotNull ConfigurationNode node) throws ConfigurateException {
+        switch(node.node("config-version").getString()) {
+            case CONFIG_VERSION -> {
+                // Current version, do nothing.
+                return true;
+            }
+
+            case "2.0.0.0" -> {
+                URL defaultSettings = SettingsManager.class.getResource("/settings.yml");
+                if(defaultSettings == null) throw new ConfigurateException("The bundled settings.yml is missing.");
+
+                // Only sections that are missing are added, so any sections already configured are kept.
+                ConfigurationNode defaults = YamlConfigurationLoader.builder().url(defaultSettings).build().load();
+                for(String section : SECTIONS_ADDED_2_1_0_0) {
+                    node.node(section).mergeFrom(defaults.node(section));
+                }
+
+                node.node("config-version").set(CONFIG_VERSION);
+                loader.save(node);
+
+                skyMarket.getComponentLogger().info(AdventureUtil.serialize("<yellow>Migrated settings.yml from 2.0.0.0 to " + CONFIG_VERSION + "."));
+                return true;
+            }
+
+            case null, default -> {
+                skyMarket.getComponentLogger().error(AdventureUtil.serialize("<red>You need to migrate your settings to the new version."));
+                skyMarket.getComponentLogger().error(AdventureUtil.serialize("<red>This happens from using a settings version older than 2.0.0.0."));
+                return false;
+            }
+        }
+    }
 }
@@ -0,0 +1,201 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.data;
+
+import java.util.Arrays;
+
+/**
+ * This class stores a token bucket for each player in a primitive open addressing table keyed by the two halves of the player's UUID.
+ * Looking up or updating a bucket does not allocate, so it can be done for every click.
+ * This class is not thread-safe and should only be used from the main thread.
+ */
+public class ClickBuckets {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] mostBits;
+    private long[] leastBits;
+    private double[] tokens;
+    private long[] lastRefillNanos;
+    private boolean[] used;
+    private int size;
+
+    /**
+     * Default Constructor.
+     */
+    public ClickBuckets() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Takes a token from a player's bucket after refilling it for the time passed since the last click.
+     * A player without a bucket starts with a full bucket.
+     * @param most The most significant bits of the player's UUID.
+     * @param least The least significant bits of the player's UUID.
+     * @param nowNanos The current {@link System#nanoTime()}.
+     * @param capacity The maximum number of tokens a bucket can hold.
+     * @param tokensPerNano The number of tokens added to a bucket per nanosecond.
+     * @return true if a token was taken, false if the bucket was empty.
+     */
+    public boolean tryTake(long most, long least, long nowNanos, double capacity, double tokensPerNano) {
+        int index = find(most, least);
+
+        if(!used[index]) {
+            if((size + 1) * 2 > used.length) {
+                resize(used.length * 2);
+                index = find(most, least);
+            }
+
+            used[index] = true;
+            mostBits[index] = most;
+            leastBits[index] = least;
+            tokens[index] = capacity;
+            lastRefillNanos[index] = nowNanos;
+            size++;
+        } else {
+            double refilled = tokens[index] + (nowNanos - lastRefillNanos[index]) * tokensPerNano;
+            tokens[index] = Math.min(capacity, refilled);
+            lastRefillNanos[index] = nowNanos;
+        }
+
+        if(tokens[index] < 1.0) return false;
+
+        tokens[index] -= 1.0;
+        return true;
+    }
+
+    /**
+     * Removes a player's bucket.
+     * @param most The most significant bits of the player's UUID.
+     * @param least The least significant bits of the player's UUID.
+     */
+    public void remove(long most, long least) {
+        int index = find(most, least);
+        if(!used[index]) return;
+
+        used[index] = false;
+        size--;
+
+        // Shift back any entries that were placed after the removed entry so lookups do not stop early.
+        int mask = used.length - 1;
+        int next = (index + 1) & mask;
+        while(used[next]) {
+            int home = hash(mostBits[next], leastBits[next]) & mask;
+            if(((next - home) & mask) >= ((next - index) & mask)) {
+                move(next, index);
+                index = next;
+            }
+
+            next = (next + 1) & mask;
+        }
+    }
+
+    /**
+     * Removes every bucket.
+     */
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    /**
+     * Get the number of buckets stored.
+     * @return The number of buckets.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds the index of a player's bucket, or the empty index where it should be placed.
+     * @param most The most significant bits of the player's UUID.
+     * @param least The least significant bits of the player's UUID.
+     * @return The index.
+     */
+    private int find(long most, long least) {
+        int mask = used.length - 1;
+        int index = hash(most, least) & mask;
+
+        while(used[index] && (mostBits[index] != most || leastBits[index] != least)) {
+            index = (index + 1) & mask;
+        }
+
+        return index;
+    }
+
+    /**
+     * Moves an entry from one index to another and marks the old index as empty.
+     * @param from The index to move from.
+     * @param to The index to move to.
+     */
+    private void move(int from, int to) {
+        used[to] = true;
+        mostBits[to] = mostBits[from];
+        leastBits[to] = leastBits[from];
+        tokens[to] = tokens[from];
+        lastRefillNanos[to] = lastRefillNanos[from];
+        used[from] = false;
+    }
+
+    /**
+     * Doubles the size of the table and re-inserts every entry.
+     * @param capacity The new capacity. Must be a power of two.
+     */
+    private void resize(int capacity) {
+        long[] oldMostBits = mostBits;
+        long[] oldLeastBits = leastBits;
+        double[] oldTokens = tokens;
+        long[] oldLastRefillNanos = lastRefillNanos;
+        boolean[] oldUsed = used;
+
+        allocate(capacity);
+
+        for(int i = 0; i < oldUsed.length; i++) {
+            if(!oldUsed[i]) continue;
+
+            int index = find(oldMostBits[i], oldLeastBits[i]);
+            used[index] = true;
+            mostBits[index] = oldMostBits[i];
+            leastBits[index] = oldLeastBits[i];
+            tokens[index] = oldTokens[i];
+            lastRefillNanos[index] = oldLastRefillNanos[i];
+        }
+    }
+
+    /**
+     * Creates empty arrays of the provided capacity.
+     * @param capacity The capacity. Must be a power of two.
+     */
+    private void allocate(int capacity) {
+        mostBits = new long[capacity];
+        leastBits = new long[capacity];
+        tokens = new double[capacity];
+        lastRefillNanos = new long[capacity];
+        used = new boolean[capacity];
+    }
+
+    /**
+     * Mixes the two halves of a UUID into a hash.
+     * @param most The most significant bits of the UUID.
+     * @param least The least significant bits of the UUID.
+     * @return The hash.
+     */
+    private static int hash(long most, long least) {
+        long h = (most ^ least) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
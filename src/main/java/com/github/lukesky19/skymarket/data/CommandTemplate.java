@@ -0,0 +1,105 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.data;
+
+import com.github.lukesky19.skylib.api.placeholderapi.PlaceholderAPIUtil;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * This class contains a console command from a market configuration that has been split into its fixed text and its PlaceholderAPI placeholders.
+ * The fixed text is only parsed once, so only the placeholders need to be resolved when the command is run for a player.
+ */
+public class CommandTemplate {
+    private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile("%[^%\\s]+%");
+
+    private final @NotNull String command;
+    // Even indexes are fixed text, odd indexes are placeholders
+    private final @NotNull String[] segments;
+
+    /**
+     * Default Constructor. You should use {@link CommandTemplate#CommandTemplate(String)} instead.
+     * @deprecated You should use {@link CommandTemplate#CommandTemplate(String)} instead.
+     * @throws RuntimeException if this method is used.
+     */
+    @Deprecated
+    public CommandTemplate() {
+        throw new RuntimeException("The use of the default constructor is not allowed.");
+    }
+
+    /**
+     * Constructor
+     * @param command The command as written in the market configuration.
+     */
+    public CommandTemplate(@NotNull String command) {
+        this.command = command;
+
+        List<String> parts = new ArrayList<>();
+        Matcher matcher = PLACEHOLDER_PATTERN.matcher(command);
+        int start = 0;
+        while(matcher.find()) {
+            parts.add(command.substring(start, matcher.start()));
+            parts.add(matcher.group());
+            start = matcher.end();
+        }
+        parts.add(command.substring(start));
+
+        this.segments = parts.toArray(new String[0]);
+    }
+
+    /**
+     * Get the command as written in the market configuration.
+     * @return The command.
+     */
+    public @NotNull String getCommand() {
+        return command;
+    }
+
+    /**
+     * Checks if the command contains any placeholders.
+     * @return true if the command is the same for every player, otherwise false.
+     */
+    public boolean isConstant() {
+        return segments.length == 1;
+    }
+
+    /**
+     * Creates the command to run for a player by resolving each placeholder.
+     * @param player The {@link Player} to resolve the placeholders for.
+     * @return The command to run.
+     */
+    public @NotNull String resolve(@NotNull Player player) {
+        if(isConstant()) return command;
+
+        StringBuilder builder = new StringBuilder(command.length() + 16);
+        for(int i = 0; i < segments.length; i++) {
+            if(i % 2 == 0) {
+                builder.append(segments[i]);
+            } else {
+                builder.append(PlaceholderAPIUtil.parsePlaceholders(player, segments[i]));
+            }
+        }
+
+        return builder.toString();
+    }
+}
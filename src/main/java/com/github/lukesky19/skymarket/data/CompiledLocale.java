@@ -0,0 +1,73 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.data;
+
+import com.github.lukesky19.skymarket.data.config.Locale;
+import com.github.lukesky19.skymarket.util.LocaleMessage;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * This class contains a {@link Locale} and a {@link MessageTemplate} for each of its messages.
+ */
+public final class CompiledLocale {
+    private final @NotNull Locale locale;
+    private final @NotNull MessageTemplate @NotNull [] templates;
+
+    /**
+     * Constructor
+     * @param locale The {@link Locale}.
+     * @param templates The {@link MessageTemplate}s, indexed by {@link LocaleMessage#ordinal()}.
+     */
+    private CompiledLocale(@NotNull Locale locale, @NotNull MessageTemplate @NotNull [] templates) {
+        this.locale = locale;
+        this.templates = templates;
+    }
+
+    /**
+     * Compiles every message of a {@link Locale}.
+     * @param locale The {@link Locale} to compile.
+     * @return The {@link CompiledLocale}.
+     */
+    public static @NotNull CompiledLocale compile(@NotNull Locale locale) {
+        LocaleMessage[] messages = LocaleMessage.values();
+        MessageTemplate[] templates = new MessageTemplate[messages.length];
+
+        for(LocaleMessage message : messages) {
+            templates[message.ordinal()] = MessageTemplate.compile(message.getText(locale), message.getPlaceholders());
+        }
+
+        return new CompiledLocale(locale, templates);
+    }
+
+    /**
+     * Get the {@link Locale} the templates were compiled from.
+     * @return The {@link Locale}.
+     */
+    public @NotNull Locale getLocale() {
+        return locale;
+    }
+
+    /**
+     * Gets the template of a message.
+     * @param message The {@link LocaleMessage}.
+     * @return The {@link MessageTemplate}.
+     */
+    public @NotNull MessageTemplate get(@NotNull LocaleMessage message) {
+        return templates[message.ordinal()];
+    }
+}
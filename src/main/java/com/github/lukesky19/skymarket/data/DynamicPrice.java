@@ -0,0 +1,155 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.data;
+
+import com.github.lukesky19.skymarket.data.config.gui.ChestConfig;
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class contains the buy and sell prices for a slot that uses dynamic pricing.
+ * Trades are counted from the main thread, the prices are recalculated on a background thread, and the latest prices are read from a volatile field.
+ * The sell price never goes above the lowest buy price the multiplier allows, so buying the item and selling it back can never make money.
+ */
+public class DynamicPrice {
+    private final double baseBuyPrice;
+    private final double baseSellPrice;
+    private final double smoothing;
+    private final double sensitivity;
+    private final double targetVolume;
+    private final double minMultiplier;
+    private final double maxMultiplier;
+    private final double maxSellPrice;
+    private final @NotNull LongAdder buyVolume = new LongAdder();
+    private final @NotNull LongAdder sellVolume = new LongAdder();
+    // Only accessed by the thread recalculating prices
+    private double averageNetVolume;
+    private volatile @NotNull Prices prices;
+
+    /**
+     * Default Constructor. You should use {@link DynamicPrice#DynamicPrice(double, double, ChestConfig.DynamicPricingConfig)} instead.
+     * @deprecated You should use {@link DynamicPrice#DynamicPrice(double, double, ChestConfig.DynamicPricingConfig)} instead.
+     * @throws RuntimeException if this method is used.
+     */
+    @Deprecated
+    public DynamicPrice() {
+        throw new RuntimeException("The use of the default constructor is not allowed.");
+    }
+
+    /**
+     * Constructor
+     * @param baseBuyPrice The buy price rolled when the market was refreshed.
+     * @param baseSellPrice The sell price rolled when the market was refreshed.
+     * @param config The {@link ChestConfig.DynamicPricingConfig} for the item.
+     */
+    public DynamicPrice(double baseBuyPrice, double baseSellPrice, @NotNull ChestConfig.DynamicPricingConfig config) {
+        this.baseBuyPrice = baseBuyPrice;
+        this.baseSellPrice = baseSellPrice;
+        this.smoothing = config.smoothing() != null ? Math.clamp(config.smoothing(), 0.0, 1.0) : 0.3;
+        this.sensitivity = config.sensitivity() != null ? config.sensitivity() : 0.25;
+        this.targetVolume = config.targetVolume() != null && config.targetVolume() > 0 ? config.targetVolume() : 64.0;
+        this.minMultiplier = config.minMultiplier() != null ? config.minMultiplier() : 0.5;
+        this.maxMultiplier = config.maxMultiplier() != null ? Math.max(config.maxMultiplier(), this.minMultiplier) : 2.0;
+        // Items that cannot be bought cannot be bought cheaply and sold back, so their sell price is not capped.
+        this.maxSellPrice = baseBuyPrice > 0 ? floor(baseBuyPrice * minMultiplier) : Double.MAX_VALUE;
+        this.prices = new Prices(baseBuyPrice, Math.min(baseSellPrice, maxSellPrice));
+    }
+
+    /**
+     * Get the current buy price.
+     * @return The current buy price.
+     */
+    public double getBuyPrice() {
+        return prices.buyPrice();
+    }
+
+    /**
+     * Get the current sell price.
+     * @return The current sell price.
+     */
+    public double getSellPrice() {
+        return prices.sellPrice();
+    }
+
+    /**
+     * Records that the item was bought one or more times.
+     * @param amount The number of times the item was bought.
+     */
+    public void recordBuy(int amount) {
+        buyVolume.add(amount);
+    }
+
+    /**
+     * Records that the item was sold one or more times.
+     * @param amount The number of times the item was sold.
+     */
+    public void recordSell(int amount) {
+        sellVolume.add(amount);
+    }
+
+    /**
+     * Recalculates the prices from the volume traded since the last call and publishes them.
+     * This should only be called from a single thread at a time.
+     * @return true if the published prices changed, false if not.
+     */
+    public boolean recalculate() {
+        long netVolume = buyVolume.sumThenReset() - sellVolume.sumThenReset();
+
+        averageNetVolume = smoothing * netVolume + (1 - smoothing) * averageNetVolume;
+
+        double multiplier = Math.clamp(1 + sensitivity * (averageNetVolume / targetVolume), minMultiplier, maxMultiplier);
+
+        Prices newPrices = new Prices(round(baseBuyPrice * multiplier), Math.min(floor(baseSellPrice * multiplier), maxSellPrice));
+        if(newPrices.equals(prices)) return false;
+
+        prices = newPrices;
+        return true;
+    }
+
+    /**
+     * Rounds a price up to two decimal places.
+     * @param price The price to round.
+     * @return The rounded price.
+     */
+    private double round(double price) {
+        if(price <= 0) return price;
+
+        return BigDecimal.valueOf(price).setScale(2, RoundingMode.CEILING).doubleValue();
+    }
+
+    /**
+     * Rounds a price down to two decimal places. Sell prices are rounded down so rounding never lifts them above a buy price.
+     * @param price The price to round.
+     * @return The rounded price.
+     */
+    private double floor(double price) {
+        if(price <= 0) return price;
+
+        return BigDecimal.valueOf(price).setScale(2, RoundingMode.FLOOR).doubleValue();
+    }
+
+    /**
+     * The buy and sell prices published together so they are always read as a pair.
+     * @param buyPrice The buy price.
+     * @param sellPrice The sell price.
+     */
+    private record Prices(double buyPrice, double sellPrice) {}
+}
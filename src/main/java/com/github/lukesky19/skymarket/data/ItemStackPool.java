@@ -0,0 +1,84 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.data;
+
+import com.github.lukesky19.skylib.api.itemstack.ItemStackConfig;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+import java.util.function.Supplier;
+
+/**
+ * This class shares identical display {@link ItemStack}s between markets and rotations.
+ * Items built from a config without placeholders are cached by their {@link ItemStackConfig}, and every other item is interned by its contents.
+ * Entries are held weakly, so items are released once no market uses them and a reload does not need to clear the pool.
+ * Pooled {@link ItemStack}s are shared and must never be modified. Only items that are copied into GUIs should be pooled.
+ * This class is not thread-safe and should only be used from the main thread.
+ */
+public class ItemStackPool {
+    private final @NotNull Map<ItemStackConfig, ItemStack> constants = new WeakHashMap<>();
+    private final @NotNull Map<ItemStack, WeakReference<ItemStack>> interned = new WeakHashMap<>();
+
+    /**
+     * Default Constructor.
+     */
+    public ItemStackPool() {}
+
+    /**
+     * Gets the shared {@link ItemStack} for a config without placeholders, building it only if no market has built it yet.
+     * @param itemStackConfig The {@link ItemStackConfig} the item is built from.
+     * @param builder Builds the {@link ItemStack} if it is not pooled.
+     * @return An {@link Optional} containing the shared {@link ItemStack}. Empty if the item could not be built.
+     */
+    public @NotNull Optional<ItemStack> getConstant(@NotNull ItemStackConfig itemStackConfig, @NotNull Supplier<Optional<ItemStack>> builder) {
+        ItemStack cached = constants.get(itemStackConfig);
+        if(cached != null) return Optional.of(cached);
+
+        Optional<ItemStack> optionalItemStack = builder.get().map(this::intern);
+        optionalItemStack.ifPresent(itemStack -> constants.put(itemStackConfig, itemStack));
+
+        return optionalItemStack;
+    }
+
+    /**
+     * Gets the shared {@link ItemStack} that is equal to the provided one.
+     * @param itemStack The {@link ItemStack} to intern.
+     * @return The shared {@link ItemStack}, which is the provided one if no equal item is pooled.
+     */
+    public @NotNull ItemStack intern(@NotNull ItemStack itemStack) {
+        WeakReference<ItemStack> reference = interned.get(itemStack);
+        ItemStack existing = reference != null ? reference.get() : null;
+        if(existing != null) return existing;
+
+        interned.put(itemStack, new WeakReference<>(itemStack));
+
+        return itemStack;
+    }
+
+    /**
+     * Get the number of distinct items currently pooled.
+     * @return The number of pooled items.
+     */
+    public int size() {
+        return interned.size();
+    }
+}
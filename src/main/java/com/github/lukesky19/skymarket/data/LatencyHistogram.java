@@ -0,0 +1,149 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.data;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class records durations in nanoseconds into log-linear buckets, similar to an HDR histogram.
+ * Each power of two is split into 16 buckets, so any percentile is accurate to within about 6%.
+ * Recording a value is a few atomic increments and never allocates.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Default Constructor.
+     */
+    public LatencyHistogram() {}
+
+    /**
+     * Records a duration.
+     * @param nanos The duration in nanoseconds. Negative values are recorded as 0.
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0L);
+
+        buckets.incrementAndGet(getBucketIndex(value));
+        count.increment();
+        sum.add(value);
+
+        long currentMax = max.get();
+        while(value > currentMax && !max.compareAndSet(currentMax, value)) {
+            currentMax = max.get();
+        }
+    }
+
+    /**
+     * Get the number of recorded durations.
+     * @return The number of recorded durations.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Get the sum of all recorded durations.
+     * @return The sum in nanoseconds.
+     */
+    public long getSum() {
+        return sum.sum();
+    }
+
+    /**
+     * Get the longest recorded duration.
+     * @return The longest duration in nanoseconds.
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Get the average recorded duration.
+     * @return The average duration in nanoseconds, or 0 if nothing was recorded.
+     */
+    public long getMean() {
+        long currentCount = count.sum();
+        if(currentCount == 0) return 0L;
+
+        return sum.sum() / currentCount;
+    }
+
+    /**
+     * Get the duration at a percentile. The upper bound of the bucket containing the percentile is returned.
+     * @param percentile The percentile between 0 and 1.
+     * @return The duration in nanoseconds, or 0 if nothing was recorded.
+     */
+    public long getPercentile(double percentile) {
+        long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+        for(int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+
+        if(total == 0) return 0L;
+
+        long target = Math.max(1L, (long) Math.ceil(percentile * total));
+        long seen = 0;
+        for(int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if(seen >= target) return Math.min(getBucketUpperBound(i), getMax());
+        }
+
+        return getMax();
+    }
+
+    /**
+     * Gets the bucket a value is recorded in.
+     * @param value The value.
+     * @return The bucket index.
+     */
+    private static int getBucketIndex(long value) {
+        if(value < SUB_BUCKET_COUNT) return (int) value;
+
+        int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKET_COUNT - 1);
+
+        return (shift + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /**
+     * Gets the largest value that is recorded in a bucket.
+     * @param index The bucket index.
+     * @return The largest value in the bucket.
+     */
+    private static long getBucketUpperBound(int index) {
+        if(index < SUB_BUCKET_COUNT) return index;
+
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long subBucket = index % SUB_BUCKET_COUNT;
+        long lowerBound = (SUB_BUCKET_COUNT + subBucket) << shift;
+
+        return lowerBound + (1L << shift) - 1;
+    }
+}
@@ -21,13 +21,17 @@ import com.github.lukesky19.skylib.api.gui.GUIButton;
 import com.github.lukesky19.skylib.api.gui.GUIType;
 import com.github.lukesky19.skymarket.gui.ChestMarketGUI;
 import com.github.lukesky19.skymarket.gui.MerchantMarketGUI;
+import com.github.lukesky19.skymarket.scheduler.MarketTask;
 import com.github.lukesky19.skymarket.util.MarketType;
+import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.MerchantRecipe;
-import org.bukkit.scheduler.BukkitTask;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntFunction;
 
 /**
  * This class contains the data for active markets.
@@ -37,11 +41,23 @@ public class MarketData {
     private final @NotNull MarketType marketType;
     private final @NotNull GUIType guiType;
     private final @NotNull String guiName;
-    private @NotNull Map<Integer, GUIButton> buttons;
+    private final @NotNull Map<Integer, Map<Integer, GUIButton>> pageButtons = new HashMap<>();
+    private final @NotNull BitSet generatedPages = new BitSet();
+    private int pageCount = 1;
+    private @NotNull List<RotationItem> rotationItems = List.of();
     private @NotNull List<MerchantRecipe> trades;
     private final @NotNull Map<UUID, PlayerData> playerDataMap = new HashMap<>();
-    private @Nullable BukkitTask refreshTask;
+    private @Nullable MarketTask refreshTask;
     private long refreshTime;
+    private volatile @NotNull AtomicIntegerArray globalStock = new AtomicIntegerArray(0);
+    private final @NotNull Map<Integer, IntFunction<Optional<ItemStack>>> stockRenderers = new HashMap<>();
+    private final @NotNull Map<Integer, ItemStack> stockDisplays = new HashMap<>();
+    private final @NotNull Map<Integer, DynamicPrice> dynamicPrices = new ConcurrentHashMap<>();
+    private long rotationSeed;
+    private boolean rotationGenerated;
+    private boolean materialized;
+    private long lastAccessTime;
+    private boolean trackLimitDeltas;
 
     /**
      * Default Constructor. You should use {@link MarketData#MarketData(String, MarketType, GUIType, String, Map, List)} instead.
@@ -59,7 +75,7 @@ public class MarketData {
      * @param marketType The {@link MarketType}.
      * @param guiType The {@link GUIType} for the market.
      * @param guiName The gui name for the market.
-     * @param buttons The {@link Map} mapping slots as an {@link Integer} to {@link GUIButton}s.
+     * @param buttons The {@link Map} mapping slots as an {@link Integer} to {@link GUIButton}s for the first page. May be empty if the buttons are created later.
      * @param trades The {@link List} of {@link MerchantRecipe}s.
      */
     public MarketData(
@@ -73,7 +89,7 @@ public class MarketData {
         this.marketType = marketType;
         this.guiType = guiType;
         this.guiName = guiName;
-        this.buttons = buttons;
+        if(!buttons.isEmpty()) pageButtons.put(0, buttons);
         this.trades = trades;
     }
 
@@ -86,27 +102,87 @@ public class MarketData {
     }
 
     /**
-     * Set the {@link Map} mapping slots as {@link Integer}s to {@link GUIButton}s for use in the {@link ChestMarketGUI}.
+     * Set the {@link Map} mapping slots as {@link Integer}s to {@link GUIButton}s of a page for use in the {@link ChestMarketGUI}.
+     * The page is marked as generated for the current rotation.
+     * @param page The page, starting at 0.
      * @param buttons A {@link Map} mapping {@link Integer}s to {@link GUIButton}s.
      */
-    public void setButtons(@NotNull Map<Integer, GUIButton> buttons) {
-        this.buttons = buttons;
+    public void setPageButtons(int page, @NotNull Map<Integer, GUIButton> buttons) {
+        pageButtons.put(page, buttons);
+        generatedPages.set(page);
     }
 
     /**
-     * Get the {@link Map} mapping slots as {@link Integer}s to {@link GUIButton}s for use in the {@link ChestMarketGUI}.
-     * @return A {@link Map} mapping {@link Integer}s to {@link GUIButton}s.
+     * Get the {@link Map} mapping slots as {@link Integer}s to {@link GUIButton}s of a page for use in the {@link ChestMarketGUI}.
+     * @param page The page, starting at 0.
+     * @return A {@link Map} mapping {@link Integer}s to {@link GUIButton}s, or null if the page has not been built.
      */
-    public @NotNull Map<Integer, GUIButton> getButtons() {
-        return buttons;
+    public @Nullable Map<Integer, GUIButton> getPageButtons(int page) {
+        return pageButtons.get(page);
+    }
+
+    /**
+     * Get the number of {@link GUIButton}s across all pages that are currently built.
+     * @return The number of built buttons.
+     */
+    public int getBuiltButtonCount() {
+        int count = 0;
+        for(Map<Integer, GUIButton> buttons : pageButtons.values()) {
+            count += buttons.size();
+        }
+
+        return count;
+    }
+
+    /**
+     * Checks if a page has been generated before in the current rotation.
+     * If it has, the global stock and dynamic prices of its slots exist and should be kept when it is recreated.
+     * @param page The page, starting at 0.
+     * @return true if the page has been generated before in the current rotation.
+     */
+    public boolean isPageGenerated(int page) {
+        return generatedPages.get(page);
+    }
+
+    /**
+     * Set the number of pages in the market.
+     * @param pageCount The number of pages.
+     */
+    public void setPageCount(int pageCount) {
+        this.pageCount = pageCount;
+    }
+
+    /**
+     * Get the number of pages in the market.
+     * @return The number of pages.
+     */
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    /**
+     * Set the items picked for the placeholder slots of the current rotation.
+     * @param rotationItems A {@link List} of {@link RotationItem}s in the order the placeholder slots are filled, starting with the first page.
+     */
+    public void setRotationItems(@NotNull List<RotationItem> rotationItems) {
+        this.rotationItems = rotationItems;
+    }
+
+    /**
+     * Get the items picked for the placeholder slots of the current rotation.
+     * @return A {@link List} of {@link RotationItem}s in the order the placeholder slots are filled, starting with the first page.
+     */
+    public @NotNull List<RotationItem> getRotationItems() {
+        return rotationItems;
     }
 
     /**
      * Set the {@link List} of {@link MerchantRecipe}s for use in the {@link MerchantMarketGUI}.
+     * The trades are shared by every player and are stored as an unmodifiable copy.
      * @param trades A {@link List} of {@link MerchantRecipe}s.
      */
     public void setTrades(@NotNull List<MerchantRecipe> trades) {
-        this.trades = trades;
+        this.trades = List.copyOf(trades);
     }
 
     /**
@@ -132,26 +208,281 @@ public class MarketData {
      * @return The {@link PlayerData} for the player.
      */
     public @NotNull PlayerData getPlayerData(@NotNull UUID uuid) {
-        PlayerData playerData = playerDataMap.get(uuid);
+        return playerDataMap.computeIfAbsent(uuid, key -> {
+            PlayerData playerData = new PlayerData(new HashMap<>(), new HashMap<>(), new HashMap<>());
+            if(trackLimitDeltas) playerData.trackLimitDeltas();
+
+            return playerData;
+        });
+    }
+
+    /**
+     * Starts recording the changes made to every player's buy and sell limits in this market so they can be sent to other servers.
+     */
+    public void trackLimitDeltas() {
+        trackLimitDeltas = true;
+        playerDataMap.values().forEach(PlayerData::trackLimitDeltas);
+    }
+
+    /**
+     * Get the {@link PlayerData} for the provided {@link UUID} without creating it.
+     * @param uuid The {@link UUID} of the player.
+     * @return The {@link PlayerData} for the player, or null if the player has none.
+     */
+    public @Nullable PlayerData getPlayerDataIfPresent(@NotNull UUID uuid) {
+        return playerDataMap.get(uuid);
+    }
+
+    /**
+     * Removes the {@link PlayerData} for the provided {@link UUID}.
+     * @param uuid The {@link UUID} of the player.
+     * @return The removed {@link PlayerData}, or null if the player had none.
+     */
+    public @Nullable PlayerData removePlayerData(@NotNull UUID uuid) {
+        return playerDataMap.remove(uuid);
+    }
+
+    /**
+     * Get the {@link UUID}s of all players that currently have {@link PlayerData} for the market.
+     * @return A {@link Set} of {@link UUID}s.
+     */
+    public @NotNull Set<UUID> getPlayerDataIds() {
+        return Collections.unmodifiableSet(playerDataMap.keySet());
+    }
+
+    /**
+     * Resets the global stock for all slots to unlimited. Used when a new rotation of the market is prepared.
+     * Slots are numbered across pages, so slot 0 of the second page is the size of the GUI.
+     * @param size The number of slots in the market across all pages.
+     */
+    public void resetGlobalStock(int size) {
+        AtomicIntegerArray newStock = new AtomicIntegerArray(size);
+        for(int i = 0; i < size; i++) {
+            newStock.set(i, -1);
+        }
+
+        globalStock = newStock;
+        stockRenderers.clear();
+        stockDisplays.clear();
+    }
+
+    /**
+     * Set the global stock for the provided slot.
+     * @param slot The slot to set the global stock for.
+     * @param stock The amount that can be purchased by all players combined.
+     * @param stockRenderer A function that creates the display {@link ItemStack} for the slot with the remaining stock.
+     */
+    public void setGlobalStock(int slot, int stock, @NotNull IntFunction<Optional<ItemStack>> stockRenderer) {
+        AtomicIntegerArray currentStock = globalStock;
+        if(slot < 0 || slot >= currentStock.length()) return;
+
+        currentStock.set(slot, stock);
+        stockRenderers.put(slot, stockRenderer);
+    }
+
+    /**
+     * Set the function that creates the display {@link ItemStack} for a slot without changing its remaining stock.
+     * Used for slots with a dynamic price and when the buttons of the current rotation are recreated after the market was unloaded.
+     * @param slot The slot to set the renderer for.
+     * @param stockRenderer A function that creates the display {@link ItemStack} for the slot with the remaining stock.
+     */
+    public void setStockRenderer(int slot, @NotNull IntFunction<Optional<ItemStack>> stockRenderer) {
+        stockRenderers.put(slot, stockRenderer);
+    }
+
+    /**
+     * Get the remaining global stock for the provided slot. Safe to call from any thread.
+     * @param slot The slot to get the remaining stock for.
+     * @return The remaining stock or -1 if the slot has no global stock.
+     */
+    public int getRemainingStock(int slot) {
+        AtomicIntegerArray currentStock = globalStock;
+        if(slot < 0 || slot >= currentStock.length()) return -1;
+
+        return currentStock.get(slot);
+    }
+
+    /**
+     * Atomically takes up to the provided quantity from the global stock of a slot. Safe to call from any thread.
+     * @param slot The slot to take stock from.
+     * @param quantity The quantity to take.
+     * @return The quantity taken. The full quantity if the slot has no global stock, or 0 if the slot is out of stock.
+     */
+    public int takeStock(int slot, int quantity) {
+        AtomicIntegerArray currentStock = globalStock;
+        if(slot < 0 || slot >= currentStock.length()) return quantity;
+
+        while(true) {
+            int remaining = currentStock.get(slot);
+            if(remaining < 0) return quantity;
+            if(remaining == 0) return 0;
+
+            int taken = Math.min(remaining, quantity);
+            if(currentStock.compareAndSet(slot, remaining, remaining - taken)) return taken;
+        }
+    }
+
+    /**
+     * Returns stock that was taken by a transaction that did not complete.
+     * @param slot The slot to return stock to.
+     * @param quantity The quantity to return.
+     */
+    public void returnStock(int slot, int quantity) {
+        AtomicIntegerArray currentStock = globalStock;
+        if(quantity <= 0 || slot < 0 || slot >= currentStock.length()) return;
+
+        while(true) {
+            int remaining = currentStock.get(slot);
+            if(remaining < 0) return;
+
+            if(currentStock.compareAndSet(slot, remaining, remaining + quantity)) return;
+        }
+    }
+
+    /**
+     * Creates the display {@link ItemStack} for the provided slot using the remaining stock and current prices and stores it for future GUI opens.
+     * @param slot The slot to render.
+     * @return An {@link Optional} containing the display {@link ItemStack}. Empty if the slot has no global stock or dynamic price.
+     */
+    public @NotNull Optional<ItemStack> renderStockDisplay(int slot) {
+        IntFunction<Optional<ItemStack>> stockRenderer = stockRenderers.get(slot);
+        if(stockRenderer == null) return Optional.empty();
+
+        Optional<ItemStack> optionalDisplay = stockRenderer.apply(getRemainingStock(slot));
+        optionalDisplay.ifPresent(itemStack -> stockDisplays.put(slot, itemStack));
+
+        return optionalDisplay;
+    }
+
+    /**
+     * Get the display {@link ItemStack}s that have been re-rendered since the buttons were created due to a change in stock or price.
+     * @return A {@link Map} mapping slots to the display {@link ItemStack}.
+     */
+    public @NotNull Map<Integer, ItemStack> getStockDisplays() {
+        return stockDisplays;
+    }
+
+    /**
+     * Set the {@link DynamicPrice} for the provided slot.
+     * @param slot The slot.
+     * @param dynamicPrice The {@link DynamicPrice} for the slot.
+     */
+    public void setDynamicPrice(int slot, @NotNull DynamicPrice dynamicPrice) {
+        dynamicPrices.put(slot, dynamicPrice);
+    }
+
+    /**
+     * Get the {@link DynamicPrice} for the provided slot. Safe to call from any thread.
+     * @param slot The slot.
+     * @return The {@link DynamicPrice} for the slot or null if the slot does not use dynamic pricing.
+     */
+    public @Nullable DynamicPrice getDynamicPrice(int slot) {
+        return dynamicPrices.get(slot);
+    }
+
+    /**
+     * Get the {@link DynamicPrice}s for all slots that use dynamic pricing.
+     * @return A {@link Collection} of {@link DynamicPrice}s.
+     */
+    public @NotNull Collection<DynamicPrice> getDynamicPrices() {
+        return dynamicPrices.values();
+    }
 
-        if(playerData == null) return new PlayerData(new HashMap<>(), new HashMap<>(), new ArrayList<>());
+    /**
+     * Removes the {@link DynamicPrice}s for all slots. Used when the market's buttons are created.
+     */
+    public void clearDynamicPrices() {
+        dynamicPrices.clear();
+    }
 
-        return playerData;
+    /**
+     * Starts a new rotation of the market. The buttons or trades are generated with the new seed the next time they are needed.
+     * Player limits, trades and the pages of buttons belong to the previous rotation and are cleared.
+     * @param rotationSeed The seed used to generate the buttons or trades of the rotation.
+     */
+    public void startRotation(long rotationSeed) {
+        this.rotationSeed = rotationSeed;
+        this.rotationGenerated = false;
+        pageButtons.clear();
+        generatedPages.clear();
+        playerDataMap.clear();
+    }
+
+    /**
+     * Get the seed used to generate the buttons or trades of the current rotation.
+     * Generating with the same seed always creates the same market, so the market can be unloaded and recreated.
+     * @return The rotation seed.
+     */
+    public long getRotationSeed() {
+        return rotationSeed;
+    }
+
+    /**
+     * Checks if the buttons or trades of the current rotation have been generated before.
+     * If they have, the global stock and dynamic prices of the rotation exist and should be kept when they are recreated.
+     * @return true if the current rotation has been generated before.
+     */
+    public boolean isRotationGenerated() {
+        return rotationGenerated;
+    }
+
+    /**
+     * Checks if the buttons or trades of the market are currently built.
+     * @return true if the market is built.
+     */
+    public boolean isMaterialized() {
+        return materialized;
+    }
+
+    /**
+     * Marks the buttons or trades of the current rotation as built.
+     */
+    public void setMaterialized() {
+        this.materialized = true;
+        this.rotationGenerated = true;
+    }
+
+    /**
+     * Drops the built buttons, trades and stock displays so the market only holds its schedule, stock and prices.
+     * The market is rebuilt from the rotation seed the next time it is needed.
+     */
+    public void unload() {
+        pageButtons.clear();
+        trades = new ArrayList<>();
+        stockRenderers.clear();
+        stockDisplays.clear();
+        materialized = false;
+    }
+
+    /**
+     * Set the last time the market was opened.
+     * @param lastAccessTime The milliseconds since epoch when the market was last opened.
+     */
+    public void setLastAccessTime(long lastAccessTime) {
+        this.lastAccessTime = lastAccessTime;
+    }
+
+    /**
+     * Get the last time the market was opened.
+     * @return The milliseconds since epoch when the market was last opened.
+     */
+    public long getLastAccessTime() {
+        return lastAccessTime;
     }
 
     /**
-     * Set the {@link BukkitTask} that is handling the refresh of the market.
-     * @param refreshTask The {@link BukkitTask} that is handling the refresh of the market.
+     * Set the {@link MarketTask} that is handling the refresh of the market.
+     * @param refreshTask The {@link MarketTask} that is handling the refresh of the market.
      */
-    public void setRefreshTask(@Nullable BukkitTask refreshTask) {
+    public void setRefreshTask(@Nullable MarketTask refreshTask) {
         this.refreshTask = refreshTask;
     }
 
     /**
-     * Get the {@link BukkitTask} that is handling the refresh of the market.
-     * @return The {@link BukkitTask} that is handling the refresh of the market.
+     * Get the {@link MarketTask} that is handling the refresh of the market.
+     * @return The {@link MarketTask} that is handling the refresh of the market.
      */
-    public @Nullable BukkitTask getRefreshTask() {
+    public @Nullable MarketTask getRefreshTask() {
         return refreshTask;
     }
 
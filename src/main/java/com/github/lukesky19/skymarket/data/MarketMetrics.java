@@ -0,0 +1,57 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.data;
+
+import com.github.lukesky19.skymarket.util.MarketOperation;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * This class contains the {@link OperationMetrics} for each {@link MarketOperation} of a single market.
+ * Operations are looked up by their ordinal, so recording does not need a map lookup.
+ */
+public class MarketMetrics {
+    private final @NotNull OperationMetrics[] operations = new OperationMetrics[MarketOperation.values().length];
+
+    /**
+     * Default Constructor.
+     */
+    public MarketMetrics() {
+        for(int i = 0; i < operations.length; i++) {
+            operations[i] = new OperationMetrics();
+        }
+    }
+
+    /**
+     * Records that an operation ran.
+     * @param operation The {@link MarketOperation}.
+     * @param startNanos The {@link System#nanoTime()} when the operation started.
+     * @param success Whether the operation succeeded.
+     */
+    public void record(@NotNull MarketOperation operation, long startNanos, boolean success) {
+        operations[operation.ordinal()].record(startNanos, success);
+    }
+
+    /**
+     * Get the {@link OperationMetrics} for an operation.
+     * @param operation The {@link MarketOperation}.
+     * @return The {@link OperationMetrics}.
+     */
+    public @NotNull OperationMetrics getOperation(@NotNull MarketOperation operation) {
+        return operations[operation.ordinal()];
+    }
+}
@@ -0,0 +1,62 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.data;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * This record contains a market's values as they were when the snapshot was taken. Used to answer PlaceholderAPI requests.
+ * The record and its maps are never modified after creation, so it is safe to read from any thread.
+ * @param marketName The name of the market.
+ * @param time The formatted time until the market refreshes.
+ * @param stock A {@link Map} mapping a slot to its formatted remaining global stock.
+ * @param buyPrices A {@link Map} mapping a slot to its formatted buy price.
+ * @param sellPrices A {@link Map} mapping a slot to its formatted sell price.
+ * @param buyLimits A {@link Map} mapping a slot to its configured buy limit. Slots without a buy limit are not stored.
+ * @param purchased A {@link Map} mapping a player's {@link UUID} to a {@link Map} of the amount they have purchased from each slot.
+ *                  Only players whose buy limits were requested recently are stored.
+ */
+public record MarketSnapshot(
+        @NotNull String marketName,
+        @NotNull String time,
+        @NotNull Map<Integer, String> stock,
+        @NotNull Map<Integer, String> buyPrices,
+        @NotNull Map<Integer, String> sellPrices,
+        @NotNull Map<Integer, Integer> buyLimits,
+        @NotNull Map<UUID, Map<Integer, Integer>> purchased) {
+    /**
+     * Gets the amount a player can still purchase from a slot.
+     * @param uuid The {@link UUID} of the player.
+     * @param slot The slot.
+     * @return The remaining buy limit, or null if the slot has no buy limit or the player's purchases were not copied into this snapshot.
+     */
+    public @Nullable Integer getRemainingBuyLimit(@NotNull UUID uuid, int slot) {
+        @Nullable Integer buyLimit = buyLimits.get(slot);
+        if(buyLimit == null) return null;
+
+        @Nullable Map<Integer, Integer> playerPurchased = purchased.get(uuid);
+        if(playerPurchased == null) return null;
+        int amount = playerPurchased.getOrDefault(slot, 0);
+
+        return Math.max(0, buyLimit - amount);
+    }
+}
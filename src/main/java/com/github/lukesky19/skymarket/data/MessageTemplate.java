@@ -0,0 +1,216 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.data;
+
+import com.github.lukesky19.skylib.api.adventure.AdventureUtil;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.ComponentLike;
+import net.kyori.adventure.text.TranslatableComponent;
+import net.kyori.adventure.text.event.HoverEvent;
+import net.kyori.adventure.text.minimessage.Context;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.minimessage.tag.Tag;
+import net.kyori.adventure.text.minimessage.tag.resolver.ArgumentQueue;
+import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
+import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A message that was parsed once when the locale loaded.
+ * Each placeholder is parsed into a slot in the {@link Component} tree, and rendering only copies the parts of the tree that contain a slot,
+ * so sending a message never parses MiniMessage again.
+ * Messages that use PlaceholderAPI placeholders, or that have placeholders inside hover text, are parsed each time they are rendered instead.
+ */
+public final class MessageTemplate {
+    private static final String SLOT_KEY_PREFIX = "skymarket.placeholder.";
+
+    private final @NotNull String source;
+    private final @NotNull Component component;
+    private final boolean hasSlots;
+    private final boolean parseOnRender;
+
+    /**
+     * Constructor
+     * @param source The MiniMessage text of the message.
+     * @param component The parsed {@link Component} containing the slots.
+     * @param hasSlots true if the component contains any slots.
+     * @param parseOnRender true if the message must be parsed each time it is rendered.
+     */
+    private MessageTemplate(@NotNull String source, @NotNull Component component, boolean hasSlots, boolean parseOnRender) {
+        this.source = source;
+        this.component = component;
+        this.hasSlots = hasSlots;
+        this.parseOnRender = parseOnRender;
+    }
+
+    /**
+     * Parses a message into a template.
+     * @param source The MiniMessage text of the message.
+     * @param placeholders The names of the placeholders the message supports. A name followed by a number is also supported.
+     * @return The compiled {@link MessageTemplate}.
+     */
+    public static @NotNull MessageTemplate compile(@NotNull String source, @NotNull List<String> placeholders) {
+        Component component = MiniMessage.miniMessage().deserialize(source, new SlotResolver(placeholders));
+
+        // PlaceholderAPI placeholders are replaced for each player before parsing, and slots in hover text are not filled when rendering.
+        boolean parseOnRender = source.indexOf('%') >= 0 || hasHoverSlot(component);
+
+        return new MessageTemplate(source, component, containsSlot(component), parseOnRender);
+    }
+
+    /**
+     * Renders the message without any placeholders.
+     * @param player The {@link Player} the message is for, or null if it is not for a player.
+     * @return The rendered {@link Component}.
+     */
+    public @NotNull Component render(@Nullable Player player) {
+        return render(player, Map.of());
+    }
+
+    /**
+     * Renders the message, filling each placeholder with its value. Placeholders without a value are left empty.
+     * @param player The {@link Player} the message is for, or null if it is not for a player.
+     * @param arguments A {@link Map} of placeholder names to their values.
+     * @return The rendered {@link Component}.
+     */
+    public @NotNull Component render(@Nullable Player player, @NotNull Map<String, ? extends ComponentLike> arguments) {
+        if(parseOnRender) {
+            List<TagResolver.Single> resolvers = new ArrayList<>(arguments.size());
+            arguments.forEach((name, value) -> resolvers.add(Placeholder.component(name, value)));
+
+            return player != null ? AdventureUtil.serialize(player, source, resolvers) : AdventureUtil.serialize(source, resolvers);
+        }
+
+        if(!hasSlots) return component;
+
+        return fill(component, arguments);
+    }
+
+    /**
+     * Copies a component, replacing each slot with its value. Parts of the tree without slots are reused.
+     * @param node The {@link Component} to fill.
+     * @param arguments A {@link Map} of placeholder names to their values.
+     * @return The filled {@link Component}, or the same component if it contains no slots.
+     */
+    private static @NotNull Component fill(@NotNull Component node, @NotNull Map<String, ? extends ComponentLike> arguments) {
+        if(isSlot(node)) {
+            @Nullable ComponentLike value = arguments.get(((TranslatableComponent) node).key().substring(SLOT_KEY_PREFIX.length()));
+            Component valueComponent = value != null ? value.asComponent() : Component.empty();
+            if(node.style().isEmpty() && node.children().isEmpty()) return valueComponent;
+
+            // The slot may carry the style of a parent that was merged into it, so the value is wrapped to keep inheriting it.
+            List<Component> children = new ArrayList<>(node.children().size() + 1);
+            children.add(valueComponent);
+            for(Component child : node.children()) children.add(fill(child, arguments));
+
+            return Component.text("", node.style()).children(children);
+        }
+
+        List<Component> children = node.children();
+        @Nullable List<Component> filled = null;
+        for(int i = 0; i < children.size(); i++) {
+            Component child = children.get(i);
+            Component filledChild = fill(child, arguments);
+            if(filledChild == child) continue;
+
+            if(filled == null) filled = new ArrayList<>(children);
+            filled.set(i, filledChild);
+        }
+
+        return filled == null ? node : node.children(filled);
+    }
+
+    /**
+     * Checks if a component is a slot.
+     * @param node The {@link Component} to check.
+     * @return true if the component is a slot, false if not.
+     */
+    private static boolean isSlot(@NotNull Component node) {
+        return node instanceof TranslatableComponent translatable && translatable.key().startsWith(SLOT_KEY_PREFIX);
+    }
+
+    /**
+     * Checks if a component or any of its children is a slot.
+     * @param node The {@link Component} to check.
+     * @return true if a slot was found, false if not.
+     */
+    private static boolean containsSlot(@NotNull Component node) {
+        if(isSlot(node)) return true;
+
+        for(Component child : node.children()) {
+            if(containsSlot(child)) return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Checks if the hover text of a component or any of its children contains a slot.
+     * @param node The {@link Component} to check.
+     * @return true if a slot was found in hover text, false if not.
+     */
+    private static boolean hasHoverSlot(@NotNull Component node) {
+        @Nullable HoverEvent<?> hoverEvent = node.hoverEvent();
+        if(hoverEvent != null && hoverEvent.value() instanceof Component hoverText && containsSlot(hoverText)) return true;
+
+        for(Component child : node.children()) {
+            if(hasHoverSlot(child)) return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * A {@link TagResolver} that parses the supported placeholders into slots.
+     * @param placeholders The names of the placeholders the message supports.
+     */
+    private record SlotResolver(@NotNull List<String> placeholders) implements TagResolver {
+        @Override
+        public @Nullable Tag resolve(@NotNull String name, @NotNull ArgumentQueue arguments, @NotNull Context ctx) {
+            if(!has(name)) return null;
+
+            return Tag.selfClosingInserting(Component.translatable(SLOT_KEY_PREFIX + name));
+        }
+
+        @Override
+        public boolean has(@NotNull String name) {
+            for(String placeholder : placeholders) {
+                if(!name.startsWith(placeholder)) continue;
+
+                // Numbered placeholders, like <item0>, share the name of their placeholder.
+                boolean numbered = true;
+                for(int i = placeholder.length(); i < name.length(); i++) {
+                    if(!Character.isDigit(name.charAt(i))) {
+                        numbered = false;
+                        break;
+                    }
+                }
+
+                if(numbered) return true;
+            }
+
+            return false;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.data;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class contains the metrics for a single operation of a single market.
+ */
+public class OperationMetrics {
+    private final @NotNull LongAdder failures = new LongAdder();
+    private final @NotNull LatencyHistogram latency = new LatencyHistogram();
+
+    /**
+     * Default Constructor.
+     */
+    public OperationMetrics() {}
+
+    /**
+     * Records that the operation ran.
+     * @param startNanos The {@link System#nanoTime()} when the operation started.
+     * @param success Whether the operation succeeded.
+     */
+    public void record(long startNanos, boolean success) {
+        latency.record(System.nanoTime() - startNanos);
+        if(!success) failures.increment();
+    }
+
+    /**
+     * Get the number of times the operation ran.
+     * @return The number of times the operation ran.
+     */
+    public long getCount() {
+        return latency.getCount();
+    }
+
+    /**
+     * Get the number of times the operation failed.
+     * @return The number of failures.
+     */
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    /**
+     * Get the {@link LatencyHistogram} of how long the operation took.
+     * @return The {@link LatencyHistogram}.
+     */
+    public @NotNull LatencyHistogram getLatency() {
+        return latency;
+    }
+}
@@ -17,23 +17,27 @@
 */
 package com.github.lukesky19.skymarket.data;
 
-import org.bukkit.inventory.MerchantRecipe;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.List;
+import java.util.HashMap;
 import java.util.Map;
 
 /**
  * This class contains player data for active markets.
+ * Merchant trades are not stored per player. Only the number of uses of each trade the player has used is kept,
+ * and the player's trades are recreated from the market's shared trades when the merchant is opened.
  */
 public class PlayerData {
     private @NotNull Map<Integer, Integer> buyLimits;
     private @NotNull Map<Integer, Integer> sellLimits;
-    private @NotNull List<MerchantRecipe> playerTrades;
+    private @NotNull Map<Integer, Integer> tradeUses;
+    private @Nullable Map<Integer, Integer> buyLimitDeltas;
+    private @Nullable Map<Integer, Integer> sellLimitDeltas;
 
     /**
-     * Default Constructor. You should use {@link PlayerData#PlayerData(Map, Map, List)} instead.
-     * @deprecated You should use {@link PlayerData#PlayerData(Map, Map, List)} instead.
+     * Default Constructor. You should use {@link PlayerData#PlayerData(Map, Map, Map)} instead.
+     * @deprecated You should use {@link PlayerData#PlayerData(Map, Map, Map)} instead.
      * @throws RuntimeException if this method is used.
      */
     @Deprecated
@@ -45,23 +49,36 @@ public class PlayerData {
      * Constructor
      * @param buyLimits A {@link Map} mapping a slot to their current amount purchased from that slot.
      * @param sellLimits A {@link Map} mapping a slot to their current amount sold from that slot.
-     * @param playerTrades A {@link List} of {@link MerchantRecipe} for the player. Each {@link MerchantRecipe} contains the limits for the player.
+     * @param tradeUses A {@link Map} mapping the index of a merchant trade to the number of times the player has used it. Unused trades are not stored.
      */
     public PlayerData(
             @NotNull Map<Integer, Integer> buyLimits,
             @NotNull Map<Integer, Integer> sellLimits,
-            @NotNull List<MerchantRecipe> playerTrades) {
+            @NotNull Map<Integer, Integer> tradeUses) {
         this.buyLimits = buyLimits;
         this.sellLimits = sellLimits;
-        this.playerTrades = playerTrades;
+        this.tradeUses = tradeUses;
     }
 
     /**
-     * Increment the buy limit for the provided slot.
-     * @param slot The slot to increase the buy limit for.
+     * Reserves up to the provided quantity from the buy limit of the provided slot.
+     * The check and the increment happen in one step, so the limit can never be exceeded.
+     * @param slot The slot to reserve from.
+     * @param limit The configured buy limit of the slot.
+     * @param quantity The quantity to reserve.
+     * @return The quantity reserved, or 0 if the limit has been reached.
      */
-    public void incrementBuyLimit(int slot) {
-        buyLimits.put(slot, buyLimits.getOrDefault(slot, 0) + 1);
+    public int reserveBuyLimit(int slot, int limit, int quantity) {
+        return reserve(buyLimits, buyLimitDeltas, slot, limit, quantity);
+    }
+
+    /**
+     * Releases part of a buy limit reservation that was not used.
+     * @param slot The slot to release the reservation for.
+     * @param quantity The quantity to release.
+     */
+    public void releaseBuyLimit(int slot, int quantity) {
+        release(buyLimits, buyLimitDeltas, slot, quantity);
     }
 
     /**
@@ -81,11 +98,24 @@ public class PlayerData {
     }
 
     /**
-     * Increment the sell limit for the provided slot.
-     * @param slot The slot to increase the sell limit for.
+     * Reserves up to the provided quantity from the sell limit of the provided slot.
+     * The check and the increment happen in one step, so the limit can never be exceeded.
+     * @param slot The slot to reserve from.
+     * @param limit The configured sell limit of the slot.
+     * @param quantity The quantity to reserve.
+     * @return The quantity reserved, or 0 if the limit has been reached.
+     */
+    public int reserveSellLimit(int slot, int limit, int quantity) {
+        return reserve(sellLimits, sellLimitDeltas, slot, limit, quantity);
+    }
+
+    /**
+     * Releases part of a sell limit reservation that was not used.
+     * @param slot The slot to release the reservation for.
+     * @param quantity The quantity to release.
      */
-    public void incrementSellLimit(int slot) {
-        sellLimits.put(slot, sellLimits.getOrDefault(slot, 0) + 1);
+    public void releaseSellLimit(int slot, int quantity) {
+        release(sellLimits, sellLimitDeltas, slot, quantity);
     }
 
     /**
@@ -104,19 +134,154 @@ public class PlayerData {
         return sellLimits;
     }
 
+
+    /**
+     * Sets the number of times the player has used each merchant trade.
+     * @param tradeUses A {@link Map} mapping the index of a trade to the number of times the player has used it.
+     */
+    public void setTradeUses(@NotNull Map<Integer, Integer> tradeUses) {
+        this.tradeUses = tradeUses;
+    }
+
+    /**
+     * Gets the number of times the player has used each merchant trade.
+     * @return A {@link Map} mapping the index of a trade to the number of times the player has used it.
+     */
+    public @NotNull Map<Integer, Integer> getTradeUses() {
+        return tradeUses;
+    }
+
+    /**
+     * Starts recording the changes made to the buy and sell limits so they can be sent to other servers.
+     */
+    public void trackLimitDeltas() {
+        if(buyLimitDeltas == null) buyLimitDeltas = new HashMap<>();
+        if(sellLimitDeltas == null) sellLimitDeltas = new HashMap<>();
+    }
+
+    /**
+     * Checks if any changes to the buy or sell limits have been recorded since they were last drained.
+     * @return true if there are changes to send.
+     */
+    public boolean hasLimitDeltas() {
+        return (buyLimitDeltas != null && !buyLimitDeltas.isEmpty()) || (sellLimitDeltas != null && !sellLimitDeltas.isEmpty());
+    }
+
+    /**
+     * Gets and clears the recorded changes to the buy limits.
+     * @return A {@link Map} mapping a slot to the change in the amount purchased since the last drain.
+     */
+    public @NotNull Map<Integer, Integer> drainBuyLimitDeltas() {
+        return drain(buyLimitDeltas);
+    }
+
+    /**
+     * Gets and clears the recorded changes to the sell limits.
+     * @return A {@link Map} mapping a slot to the change in the amount sold since the last drain.
+     */
+    public @NotNull Map<Integer, Integer> drainSellLimitDeltas() {
+        return drain(sellLimitDeltas);
+    }
+
+    /**
+     * Applies a change to the buy limit of a slot that was made on another server. The change is not recorded again.
+     * @param slot The slot to change.
+     * @param delta The change in the amount purchased.
+     */
+    public void applyBuyLimitDelta(int slot, int delta) {
+        apply(buyLimits, slot, delta);
+    }
+
+    /**
+     * Applies a change to the sell limit of a slot that was made on another server. The change is not recorded again.
+     * @param slot The slot to change.
+     * @param delta The change in the amount sold.
+     */
+    public void applySellLimitDelta(int slot, int delta) {
+        apply(sellLimits, slot, delta);
+    }
+
+    /**
+     * Checks if the player has not bought, sold or traded anything.
+     * @return true if there is nothing to save for the player.
+     */
+    public boolean isEmpty() {
+        return buyLimits.isEmpty() && sellLimits.isEmpty() && tradeUses.isEmpty();
+    }
+
     /**
-     * Sets the current player's trades.
-     * @param playerTrades A {@link List} of {@link MerchantRecipe}.
+     * Reserves up to the provided quantity from a limit.
+     * @param limits The {@link Map} of limits to reserve from.
+     * @param deltas The {@link Map} to record the change in, or null if changes are not tracked.
+     * @param slot The slot to reserve from.
+     * @param limit The configured limit of the slot.
+     * @param quantity The quantity to reserve.
+     * @return The quantity reserved, or 0 if the limit has been reached.
      */
-    public void setPlayerTrades(@NotNull List<MerchantRecipe> playerTrades) {
-        this.playerTrades = playerTrades;
+    private int reserve(@NotNull Map<Integer, Integer> limits, @Nullable Map<Integer, Integer> deltas, int slot, int limit, int quantity) {
+        int used = limits.getOrDefault(slot, 0);
+        int reserved = Math.max(0, Math.min(quantity, limit - used));
+        if(reserved > 0) {
+            limits.put(slot, used + reserved);
+            recordDelta(deltas, slot, reserved);
+        }
+
+        return reserved;
     }
 
     /**
-     * Gets the current player's trades.
-     * @return A {@link List} of {@link MerchantRecipe}.
+     * Releases part of a limit reservation.
+     * @param limits The {@link Map} of limits to release from.
+     * @param deltas The {@link Map} to record the change in, or null if changes are not tracked.
+     * @param slot The slot to release the reservation for.
+     * @param quantity The quantity to release.
      */
-    public @NotNull List<MerchantRecipe> getPlayerTrades() {
-        return playerTrades;
+    private void release(@NotNull Map<Integer, Integer> limits, @Nullable Map<Integer, Integer> deltas, int slot, int quantity) {
+        if(quantity <= 0) return;
+
+        int released = Math.min(quantity, limits.getOrDefault(slot, 0));
+        apply(limits, slot, -quantity);
+        recordDelta(deltas, slot, -released);
+    }
+
+    /**
+     * Changes the amount used from a limit. Slots that reach 0 are removed.
+     * @param limits The {@link Map} of limits to change.
+     * @param slot The slot to change.
+     * @param delta The change in the amount used.
+     */
+    private void apply(@NotNull Map<Integer, Integer> limits, int slot, int delta) {
+        int used = limits.getOrDefault(slot, 0) + delta;
+        if(used > 0) {
+            limits.put(slot, used);
+        } else {
+            limits.remove(slot);
+        }
+    }
+
+    /**
+     * Records a change to a limit. Changes that cancel out are removed.
+     * @param deltas The {@link Map} to record the change in, or null if changes are not tracked.
+     * @param slot The slot that changed.
+     * @param delta The change in the amount used.
+     */
+    private void recordDelta(@Nullable Map<Integer, Integer> deltas, int slot, int delta) {
+        if(deltas == null || delta == 0) return;
+
+        deltas.merge(slot, delta, (current, change) -> current + change == 0 ? null : current + change);
+    }
+
+    /**
+     * Gets a copy of recorded changes and clears them.
+     * @param deltas The {@link Map} of recorded changes, or null if changes are not tracked.
+     * @return A {@link Map} mapping a slot to its change.
+     */
+    private @NotNull Map<Integer, Integer> drain(@Nullable Map<Integer, Integer> deltas) {
+        if(deltas == null || deltas.isEmpty()) return Map.of();
+
+        Map<Integer, Integer> drained = Map.copyOf(deltas);
+        deltas.clear();
+
+        return drained;
     }
 }
@@ -0,0 +1,31 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.data;
+
+import com.github.lukesky19.skymarket.data.config.gui.ChestConfig;
+
+/**
+ * This record contains an item picked for a placeholder slot of a chest market's current rotation.
+ * Only the picked item and its rolled prices are stored, the {@link org.bukkit.inventory.ItemStack}s are created when the slot's page is first viewed.
+ * @param itemIndex The index of the {@link ChestConfig.ItemConfig} in the market's configured items.
+ * @param page The page the item is on, starting at 0.
+ * @param slot The slot the item is in, numbered across pages.
+ * @param buyPrice The rolled buy price, or {@link Double#NaN} if no buy price is configured.
+ * @param sellPrice The rolled sell price, or {@link Double#NaN} if no sell price is configured.
+ */
+public record RotationItem(int itemIndex, int page, int slot, double buyPrice, double sellPrice) {}
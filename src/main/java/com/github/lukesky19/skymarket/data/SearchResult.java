@@ -0,0 +1,44 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.data;
+
+import org.bukkit.inventory.ItemType;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * This record contains an item a chest market is offering in its current rotation that can be found with /skymarket search.
+ * @param marketId The market id.
+ * @param marketName The name of the market.
+ * @param page The page the item is on, starting at 0.
+ * @param slot The slot the item is in, numbered across pages.
+ * @param transactionName The transaction name of the item.
+ * @param itemTypes The {@link ItemType}s of the item's display item and transaction item. The first is used to display the result.
+ * @param buyPrice The buy price rolled for the rotation.
+ * @param sellPrice The sell price rolled for the rotation.
+ */
+public record SearchResult(
+        @NotNull String marketId,
+        @NotNull String marketName,
+        int page,
+        int slot,
+        @NotNull String transactionName,
+        @NotNull List<ItemType> itemTypes,
+        double buyPrice,
+        double sellPrice) {}
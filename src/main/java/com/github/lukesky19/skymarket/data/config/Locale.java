@@ -38,6 +38,20 @@ import com.github.lukesky19.skylib.libs.configurate.objectmapping.ConfigSerializ
  * @param invalidMarketId The message sent when a market doesn't exist for a specific market id.
  * @param guiOpenError The message sent to the player when a gui fails to open.
  * @param itemFormat The format used to display an item with.
+ * @param broadcastsEnabled The message sent when a player turns market refresh messages on.
+ * @param broadcastsDisabled The message sent when a player turns market refresh messages off.
+ * @param outOfStock The message sent when something cannot be purchased because the global stock has run out.
+ * @param commandQueueStatus The message sent to display the size and lag of the command queue.
+ * @param statsHeader The message sent before the metrics of a market.
+ * @param statsLine The message sent for each operation of a market's metrics.
+ * @param statsNone The message sent when no metrics have been recorded.
+ * @param searchGuiName The name of the GUI that shows search results.
+ * @param searchResultMarket The lore line of a search result that shows the market it is in.
+ * @param searchResultPrice The lore line of a search result that shows its prices.
+ * @param searchResultOpen The lore line of a search result that tells the player they can click it to open the market.
+ * @param searchExit The name of the button that closes the search results GUI.
+ * @param searchNoResults The message sent when a search finds nothing.
+ * @param placeholderUnlimited The text PlaceholderAPI placeholders show for stock and limits that are unlimited.
  */
 @ConfigSerializable
 public record Locale(
@@ -57,4 +71,18 @@ public record Locale(
         String marketRefreshTime,
         String invalidMarketId,
         String guiOpenError,
-        String itemFormat) {}
+        String itemFormat,
+        String broadcastsEnabled,
+        String broadcastsDisabled,
+        String outOfStock,
+        String commandQueueStatus,
+        String statsHeader,
+        String statsLine,
+        String statsNone,
+        String searchGuiName,
+        String searchResultMarket,
+        String searchResultPrice,
+        String searchResultOpen,
+        String searchExit,
+        String searchNoResults,
+        String placeholderUnlimited) {}
@@ -0,0 +1,41 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.data.config;
+
+import com.github.lukesky19.skylib.libs.configurate.objectmapping.ConfigSerializable;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+
+/**
+ * This record contains a player's saved limits and trade progress for each market.
+ * @param markets A {@link Map} mapping market ids to the player's {@link MarketEntry} for that market.
+ */
+@ConfigSerializable
+public record PlayerDataConfig(@Nullable Map<String, MarketEntry> markets) {
+    /**
+     * This record contains a player's limits and trade progress for a single market.
+     * The entry is only valid for the rotation it was saved in.
+     * @param rotationSeed The seed of the rotation the entry was saved in.
+     * @param buyLimits A {@link Map} mapping slots to the amount purchased from that slot.
+     * @param sellLimits A {@link Map} mapping slots to the amount sold to that slot.
+     * @param tradeUses A {@link Map} mapping the index of a trade to its number of uses. Unused trades are not saved.
+     */
+    @ConfigSerializable
+    public record MarketEntry(@Nullable Long rotationSeed, @Nullable Map<Integer, Integer> buyLimits, @Nullable Map<Integer, Integer> sellLimits, @Nullable Map<Integer, Integer> tradeUses) {}
+}
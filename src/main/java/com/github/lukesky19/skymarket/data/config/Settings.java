@@ -28,9 +28,18 @@ import java.util.List;
  * @param configVersion The version of the config.
  * @param locale The plugin's locale.
  * @param aliases The {@link List} of {@link Alias} to register commands with.
+ * @param broadcast The {@link Broadcast} settings.
+ * @param dynamicPricing The {@link DynamicPricing} settings.
+ * @param economy The {@link Economy} settings.
+ * @param commandQueue The {@link CommandQueue} settings.
+ * @param metrics The {@link Metrics} settings.
+ * @param markets The {@link Markets} settings.
+ * @param playerData The {@link PlayerData} settings.
+ * @param clickLimit The {@link ClickLimit} settings.
+ * @param sync The {@link Sync} settings.
  */
 @ConfigSerializable
-public record Settings(@Nullable String configVersion, @Nullable  String locale, @NotNull List<Alias> aliases) {
+public record Settings(@Nullable String configVersion, @Nullable  String locale, @NotNull List<Alias> aliases, @Nullable Broadcast broadcast, @Nullable DynamicPricing dynamicPricing, @Nullable Economy economy, @Nullable CommandQueue commandQueue, @Nullable Metrics metrics, @Nullable Markets markets, @Nullable PlayerData playerData, @Nullable ClickLimit clickLimit, @Nullable Sync sync) {
     /**
      * This record contains the information required to register alias commands.
      * @param alias The name of the command.
@@ -38,5 +47,76 @@ public record Settings(@Nullable String configVersion, @Nullable  String locale,
      */
     @ConfigSerializable
     public record Alias(@Nullable String alias, @Nullable String marketId) {}
-}
 
+    /**
+     * This record contains the settings for how market refresh messages are sent to players.
+     * @param tickBudgetMicros The maximum number of microseconds to spend sending refresh messages each tick.
+     */
+    @ConfigSerializable
+    public record Broadcast(@Nullable Long tickBudgetMicros) {}
+
+    /**
+     * This record contains the settings for items that use dynamic pricing.
+     * @param updateIntervalSeconds How often in seconds dynamic prices are recalculated.
+     */
+    @ConfigSerializable
+    public record DynamicPricing(@Nullable Long updateIntervalSeconds) {}
+
+    /**
+     * This record contains the settings for how balances are read and changed through Vault.
+     * @param flushIntervalTicks How often in ticks pending deposits are sent to the economy plugin.
+     * @param balanceCacheSeconds How long in seconds a player's balance is cached before it is read from the economy plugin again.
+     */
+    @ConfigSerializable
+    public record Economy(@Nullable Long flushIntervalTicks, @Nullable Long balanceCacheSeconds) {}
+
+    /**
+     * This record contains the settings for how console commands from command transactions are run.
+     * @param tickBudgetMicros The maximum number of microseconds to spend running queued commands each tick.
+     * @param lagWarningMillis How long in milliseconds a command can wait in the queue before a warning is logged.
+     */
+    @ConfigSerializable
+    public record CommandQueue(@Nullable Long tickBudgetMicros, @Nullable Long lagWarningMillis) {}
+
+    /**
+     * This record contains the settings for the market metrics.
+     * @param writeFile Whether the metrics should be written to a Prometheus text file in the plugin's data folder.
+     * @param writeIntervalSeconds How often in seconds the metrics file is written.
+     */
+    @ConfigSerializable
+    public record Metrics(@Nullable Boolean writeFile, @Nullable Long writeIntervalSeconds) {}
+
+    /**
+     * This record contains the settings for how markets are kept in memory.
+     * @param idleUnloadSeconds How long in seconds a market can go unopened before its buttons or trades are unloaded.
+     */
+    @ConfigSerializable
+    public record Markets(@Nullable Long idleUnloadSeconds) {}
+
+    /**
+     * This record contains the settings for how player data is kept in memory.
+     * @param evictionGraceSeconds How long in seconds after a player quits before their limits and trade progress are removed from memory and saved.
+     */
+    @ConfigSerializable
+    public record PlayerData(@Nullable Long evictionGraceSeconds) {}
+
+    /**
+     * This record contains the settings for how often players can click a market's items.
+     * @param enabled Whether clicks should be limited.
+     * @param clicksPerSecond The number of clicks each player can make per second.
+     * @param burst The number of clicks each player can make at once before the limit applies.
+     */
+    @ConfigSerializable
+    public record ClickLimit(@Nullable Boolean enabled, @Nullable Double clicksPerSecond, @Nullable Integer burst) {}
+
+    /**
+     * This record contains the settings for sharing rotations and limits with the other servers of a network.
+     * @param enabled Whether rotations and limits should be shared.
+     * @param type The type of bus to share them through, either file or tcp.
+     * @param directory The absolute path of the directory shared by every server when the type is file.
+     * @param port The loopback port used by every server when the type is tcp.
+     * @param flushIntervalTicks How often in ticks the changes to players' limits are sent to the other servers.
+     */
+    @ConfigSerializable
+    public record Sync(@Nullable Boolean enabled, @Nullable String type, @Nullable String directory, @Nullable Integer port, @Nullable Long flushIntervalTicks) {}
+}
@@ -35,6 +35,7 @@ import java.util.List;
  * @param configVersion The version of the config file.
  * @param refreshTime The time between refreshes.
  * @param marketName The name of the market.
+ * @param broadcastPermission The permission required to be told when the market refreshes. If null, all players are told.
  * @param guiData The {@link GuiData}.
  * @param items A {@link List} of {@link ItemConfig}.
  */
@@ -43,6 +44,7 @@ public record ChestConfig(
         @Nullable String configVersion,
         @Nullable String refreshTime,
         @Nullable String marketName,
+        @Nullable String broadcastPermission,
         @NotNull GuiData guiData,
         @NotNull List<ItemConfig> items) {
 
@@ -50,8 +52,11 @@ public record ChestConfig(
      * This record contains the data for creating and decorating the GUI.
      * @param guiType The {@link GUIType}.
      * @param guiName The name to display inside the inventory GUI.
-     * @param placeholderSlots A {@link List} of {@link Integer}s to place actual market items in.
+     * @param placeholderSlots A {@link List} of {@link Integer}s to place actual market items in. Each page has its own items in these slots.
      * @param dummyButtons A {@link List} of {@link ButtonConfig}s to display in the GUI.
+     * @param pages The number of pages in the market. If null, the market has a single page.
+     * @param previousPage The {@link ButtonConfig} for the button that opens the previous page. Required if the market has more than one page.
+     * @param nextPage The {@link ButtonConfig} for the button that opens the next page. Required if the market has more than one page.
      */
     @ConfigSerializable
     public record GuiData(
@@ -60,7 +65,10 @@ public record ChestConfig(
             @NotNull ButtonConfig filler,
             @NotNull ButtonConfig exit,
             @NotNull List<Integer> placeholderSlots,
-            @NotNull List<ButtonConfig> dummyButtons) {}
+            @NotNull List<ButtonConfig> dummyButtons,
+            @Nullable Integer pages,
+            @Nullable ButtonConfig previousPage,
+            @Nullable ButtonConfig nextPage) {}
 
     /**
      * This record contains the configuration to replace placeholder slots with.
@@ -71,8 +79,10 @@ public record ChestConfig(
      * @param amount The {@link AmountConfig} to apply to the displayItem and transactionItem.
      * @param transactionName The transaction name to use in messages.
      * @param prices The {@link PriceConfig} for the item.
+     * @param dynamicPricing The {@link DynamicPricingConfig} for the item.
      * @param buyLimit The buy limit. Limits the amount that can be purchased for this item. Per-player.
      * @param sellLimit The sell limit. Limits the amount that can be sold for this item. Per-player.
+     * @param globalStock The global stock. Limits the amount that can be purchased for this item by all players combined each refresh.
      * @param buyCommands A {@link List} of {@link String}s to execute in console when the purchase for {@link TransactionType#COMMAND} is complete.
      * @param sellCommands A {@link List} of {@link String}s to execute in console when a sale completes for {@link TransactionType#COMMAND}
      */
@@ -85,8 +95,10 @@ public record ChestConfig(
             @NotNull RandomEnchantConfig randomEnchants,
             @Nullable String transactionName,
             @NotNull PriceConfig prices,
+            @NotNull DynamicPricingConfig dynamicPricing,
             @Nullable Integer buyLimit,
             @Nullable Integer sellLimit,
+            @Nullable Integer globalStock,
             @NotNull List<String> buyCommands,
             @NotNull List<String> sellCommands) {}
 
@@ -109,4 +121,24 @@ public record ChestConfig(
             @Nullable Double buyMax,
             @Nullable Double sellMin,
             @Nullable Double sellMax) {}
+
+    /**
+     * This record contains the configuration for prices that follow the trading volume of an item.
+     * The buy and sell prices rolled on refresh are multiplied by a value that follows an exponentially weighted moving average of the
+     * amount bought minus the amount sold. The sell price is capped at the buy price multiplied by the min multiplier.
+     * @param enabled Should the price follow trading volume?
+     * @param smoothing How much weight the latest update interval has in the moving average. Between 0 and 1.
+     * @param sensitivity How much the multiplier changes when the average net volume equals the target volume.
+     * @param targetVolume The net volume per update interval that is considered a large amount of trading.
+     * @param minMultiplier The lowest multiplier that can be applied to the prices.
+     * @param maxMultiplier The highest multiplier that can be applied to the prices.
+     */
+    @ConfigSerializable
+    public record DynamicPricingConfig(
+            @Nullable Boolean enabled,
+            @Nullable Double smoothing,
+            @Nullable Double sensitivity,
+            @Nullable Double targetVolume,
+            @Nullable Double minMultiplier,
+            @Nullable Double maxMultiplier) {}
 }
@@ -34,6 +34,7 @@ import java.util.List;
  * @param configVersion The version of the config file.
  * @param refreshTime The time between refreshes.
  * @param marketName The name of the market.
+ * @param broadcastPermission The permission required to be told when the market refreshes. If null, all players are told.
  * @param guiName The name to display inside the inventory GUI.
  * @param numOfTrades The number of trades to display inside the GUI.
  * @param trades A {@link List} of {@link Trade}.
@@ -43,6 +44,7 @@ public record MerchantConfig(
         @Nullable String configVersion,
         @Nullable String refreshTime,
         @Nullable String marketName,
+        @Nullable String broadcastPermission,
         @Nullable String guiName,
         int numOfTrades,
         @NotNull List<Trade> trades) {
@@ -0,0 +1,92 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.event;
+
+import com.github.lukesky19.skymarket.util.MarketType;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Called after a market has been refreshed and started a new rotation.
+ * The event is only created when a listener is registered, see {@link #hasListeners()}.
+ */
+public class MarketRefreshEvent extends Event {
+    private static final @NotNull HandlerList HANDLER_LIST = new HandlerList();
+
+    private final @NotNull String marketId;
+    private final @NotNull String marketName;
+    private final @NotNull MarketType marketType;
+
+    /**
+     * Constructor
+     * @param marketId The id of the market that refreshed.
+     * @param marketName The name of the market that refreshed.
+     * @param marketType The {@link MarketType} of the market that refreshed.
+     */
+    public MarketRefreshEvent(@NotNull String marketId, @NotNull String marketName, @NotNull MarketType marketType) {
+        this.marketId = marketId;
+        this.marketName = marketName;
+        this.marketType = marketType;
+    }
+
+    /**
+     * Get the id of the market that refreshed.
+     * @return The market id.
+     */
+    public @NotNull String getMarketId() {
+        return marketId;
+    }
+
+    /**
+     * Get the name of the market that refreshed.
+     * @return The market name.
+     */
+    public @NotNull String getMarketName() {
+        return marketName;
+    }
+
+    /**
+     * Get the {@link MarketType} of the market that refreshed.
+     * @return The {@link MarketType}.
+     */
+    public @NotNull MarketType getMarketType() {
+        return marketType;
+    }
+
+    /**
+     * Checks if any listeners are registered for this event, so the event is only created when something will receive it.
+     * @return true if at least one listener is registered.
+     */
+    public static boolean hasListeners() {
+        return HANDLER_LIST.getRegisteredListeners().length > 0;
+    }
+
+    @Override
+    public @NotNull HandlerList getHandlers() {
+        return HANDLER_LIST;
+    }
+
+    /**
+     * Get the {@link HandlerList} for this event.
+     * @return The {@link HandlerList}.
+     */
+    public static @NotNull HandlerList getHandlerList() {
+        return HANDLER_LIST;
+    }
+}
@@ -0,0 +1,77 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.event;
+
+import com.github.lukesky19.skymarket.util.MarketOperation;
+import org.bukkit.entity.Player;
+import org.bukkit.event.HandlerList;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Called after a player has bought or sold an item or command at least once.
+ * The event is only created when a listener is registered, see {@link #hasListeners()}.
+ */
+public class PostTransactionEvent extends TransactionEvent {
+    private static final @NotNull HandlerList HANDLER_LIST = new HandlerList();
+
+    /**
+     * Constructor
+     * @param player The {@link Player} that made the transaction.
+     * @param marketId The id of the market the transaction is made in.
+     * @param operation The {@link MarketOperation} of the transaction.
+     * @param itemStack The {@link ItemStack} bought or sold, or null if a command was bought or sold.
+     * @param commandName The name of the command bought or sold, or null if an item was bought or sold.
+     * @param slot The slot of the button clicked, numbered across pages.
+     * @param price The price of a single purchase or sale.
+     * @param quantity The number of times the item or command was bought or sold.
+     */
+    public PostTransactionEvent(
+            @NotNull Player player,
+            @NotNull String marketId,
+            @NotNull MarketOperation operation,
+            @Nullable ItemStack itemStack,
+            @Nullable String commandName,
+            int slot,
+            double price,
+            int quantity) {
+        super(player, marketId, operation, itemStack, commandName, slot, price, quantity);
+    }
+
+    /**
+     * Checks if any listeners are registered for this event, so the event is only created when something will receive it.
+     * @return true if at least one listener is registered.
+     */
+    public static boolean hasListeners() {
+        return HANDLER_LIST.getRegisteredListeners().length > 0;
+    }
+
+    @Override
+    public @NotNull HandlerList getHandlers() {
+        return HANDLER_LIST;
+    }
+
+    /**
+     * Get the {@link HandlerList} for this event.
+     * @return The {@link HandlerList}.
+     */
+    public static @NotNull HandlerList getHandlerList() {
+        return HANDLER_LIST;
+    }
+}
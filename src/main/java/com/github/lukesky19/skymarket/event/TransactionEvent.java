@@ -0,0 +1,125 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.event;
+
+import com.github.lukesky19.skymarket.util.MarketOperation;
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.PlayerEvent;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The base class of the events called when a player buys or sells an item or command from a market's GUI.
+ * Trades with a villager (merchant) market do not call these events.
+ */
+public abstract class TransactionEvent extends PlayerEvent {
+    private final @NotNull String marketId;
+    private final @NotNull MarketOperation operation;
+    private final @Nullable ItemStack itemStack;
+    private final @Nullable String commandName;
+    private final int slot;
+    private final double price;
+    private final int quantity;
+
+    /**
+     * Constructor
+     * @param player The {@link Player} making the transaction.
+     * @param marketId The id of the market the transaction is made in.
+     * @param operation The {@link MarketOperation} of the transaction.
+     * @param itemStack The {@link ItemStack} being bought or sold, or null if a command is being bought or sold.
+     * @param commandName The name of the command being bought or sold, or null if an item is being bought or sold.
+     * @param slot The slot of the button clicked, numbered across pages.
+     * @param price The price of a single purchase or sale.
+     * @param quantity The number of times the item or command is bought or sold.
+     */
+    protected TransactionEvent(
+            @NotNull Player player,
+            @NotNull String marketId,
+            @NotNull MarketOperation operation,
+            @Nullable ItemStack itemStack,
+            @Nullable String commandName,
+            int slot,
+            double price,
+            int quantity) {
+        super(player);
+        this.marketId = marketId;
+        this.operation = operation;
+        this.itemStack = itemStack;
+        this.commandName = commandName;
+        this.slot = slot;
+        this.price = price;
+        this.quantity = quantity;
+    }
+
+    /**
+     * Get the id of the market the transaction is made in.
+     * @return The market id.
+     */
+    public @NotNull String getMarketId() {
+        return marketId;
+    }
+
+    /**
+     * Get the {@link MarketOperation} of the transaction.
+     * @return The {@link MarketOperation}.
+     */
+    public @NotNull MarketOperation getOperation() {
+        return operation;
+    }
+
+    /**
+     * Get a copy of the {@link ItemStack} being bought or sold.
+     * @return A copy of the {@link ItemStack}, or null if a command is being bought or sold.
+     */
+    public @Nullable ItemStack getItemStack() {
+        return itemStack != null ? itemStack.clone() : null;
+    }
+
+    /**
+     * Get the name of the command being bought or sold.
+     * @return The name of the command, or null if an item is being bought or sold.
+     */
+    public @Nullable String getCommandName() {
+        return commandName;
+    }
+
+    /**
+     * Get the slot of the button clicked. Slots are numbered across pages, so slot 0 of the second page is the size of the GUI.
+     * @return The slot.
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Get the price of a single purchase or sale.
+     * @return The price.
+     */
+    public double getPrice() {
+        return price;
+    }
+
+    /**
+     * Get the number of times the item or command is bought or sold.
+     * @return The quantity.
+     */
+    public int getQuantity() {
+        return quantity;
+    }
+}
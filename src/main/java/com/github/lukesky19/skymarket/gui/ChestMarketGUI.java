@@ -22,11 +22,13 @@ import com.github.lukesky19.skylib.api.gui.abstracts.ChestGUI;
 import com.github.lukesky19.skylib.api.gui.GUIButton;
 import com.github.lukesky19.skymarket.SkyMarket;
 import com.github.lukesky19.skymarket.manager.GUIManager;
+import com.github.lukesky19.skymarket.manager.MarketManager;
 import org.bukkit.entity.Player;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.inventory.InventoryCloseEvent;
 import org.bukkit.event.inventory.InventoryDragEvent;
 import org.bukkit.inventory.InventoryView;
+import org.bukkit.inventory.ItemStack;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.List;
@@ -34,33 +36,41 @@ import java.util.Map;
 
 /**
  * This class is used to create chest-style GUIs for markets.
+ * Markets with more than one page show one page at a time in the same inventory.
  */
 public class ChestMarketGUI extends ChestGUI {
+    private final @NotNull Player viewer;
+    private final @NotNull String marketId;
     private final @NotNull GUIType guiType;
     private final @NotNull String guiName;
+    private final @NotNull MarketManager marketManager;
+    private int page;
 
     /**
      * Constructor
      * @param skyMarket A {@link SkyMarket} instance.
      * @param guiManager A {@link GUIManager} instance.
      * @param player The {@link Player} this GUI is being created for.
+     * @param marketId The market id.
      * @param guiType The {@link GUIType} of this GUI.
      * @param guiName The name to use for the Inventory.
-     * @param buttons The {@link Map} of {@link Integer} to {@link GUIButton}s to use.
+     * @param marketManager A {@link MarketManager} instance.
      */
     public ChestMarketGUI(
             @NotNull SkyMarket skyMarket,
             @NotNull GUIManager guiManager,
             @NotNull Player player,
+            @NotNull String marketId,
             @NotNull GUIType guiType,
             @NotNull String guiName,
-            @NotNull Map<Integer, GUIButton> buttons) {
+            @NotNull MarketManager marketManager) {
         super(skyMarket, guiManager, player);
 
+        this.viewer = player;
+        this.marketId = marketId;
         this.guiType = guiType;
         this.guiName = guiName;
-
-        this.slotButtons.putAll(buttons);
+        this.marketManager = marketManager;
     }
 
     /**
@@ -71,6 +81,60 @@ public class ChestMarketGUI extends ChestGUI {
         return create(guiType, guiName, List.of());
     }
 
+    /**
+     * Get the id of the market this GUI is displaying.
+     * @return The market id.
+     */
+    public @NotNull String getMarketId() {
+        return marketId;
+    }
+
+    /**
+     * Get the page this GUI is displaying.
+     * @return The page, starting at 0.
+     */
+    public int getPage() {
+        return page;
+    }
+
+    /**
+     * Replaces the buttons of this GUI with the buttons of a page and updates the GUI.
+     * @param page The page, starting at 0.
+     * @param buttons The {@link Map} of {@link Integer} to {@link GUIButton}s for the page.
+     * @return true if updated successfully, otherwise false.
+     */
+    public boolean setPage(int page, @NotNull Map<Integer, GUIButton> buttons) {
+        this.page = page;
+
+        slotButtons.clear();
+        slotButtons.putAll(buttons);
+
+        return update();
+    }
+
+    /**
+     * Switches this GUI to another page of the market. The page is created if this is the first time it has been viewed this rotation.
+     * @param page The page to open, starting at 0.
+     * @return true if the page was opened, otherwise false.
+     */
+    public boolean openPage(int page) {
+        return marketManager.openPage(this, page);
+    }
+
+    /**
+     * Replaces the {@link ItemStack} displayed in a slot without updating the rest of the GUI.
+     * The button's action is left unchanged. Slots on pages other than the one being displayed are ignored.
+     * @param slot The slot to update, numbered across pages.
+     * @param itemStack The {@link ItemStack} to display.
+     */
+    public void setDisplayItem(int slot, @NotNull ItemStack itemStack) {
+        InventoryView inventoryView = viewer.getOpenInventory();
+        int size = guiType.getSize();
+        if(slot < 0 || slot / size != page || slot % size >= inventoryView.getTopInventory().getSize()) return;
+
+        inventoryView.getTopInventory().setItem(slot % size, itemStack);
+    }
+
     /**
      * Handles when the inventory is closed. Ignores closures with reason UNLOADED.
      * @param inventoryCloseEvent An {@link InventoryCloseEvent}
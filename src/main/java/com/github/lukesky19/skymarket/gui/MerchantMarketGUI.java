@@ -68,6 +68,14 @@ public class MerchantMarketGUI extends MerchantGUI {
         setTrades(trades);
     }
 
+    /**
+     * Get the market id of the market this GUI is for.
+     * @return The market id.
+     */
+    public @NotNull String getMarketId() {
+        return marketId;
+    }
+
     /**
      * Create the {@link InventoryView} for this GUI.
      * @return true if created successfully, otherwise false.
@@ -82,7 +90,7 @@ public class MerchantMarketGUI extends MerchantGUI {
     @Override
     public void close() {
         Optional<List<MerchantRecipe>> optionalTrades = getLiveTrades();
-        optionalTrades.ifPresent(list -> marketManager.updatePlayerTrades(marketId, uuid, trades));
+        optionalTrades.ifPresent(list -> marketManager.updatePlayerTrades(marketId, uuid, list));
 
         super.close();
     }
@@ -93,7 +101,7 @@ public class MerchantMarketGUI extends MerchantGUI {
     @Override
     public void unload(boolean onDisable) {
         Optional<List<MerchantRecipe>> optionalTrades = getLiveTrades();
-        optionalTrades.ifPresent(list -> marketManager.updatePlayerTrades(marketId, uuid, trades));
+        optionalTrades.ifPresent(list -> marketManager.updatePlayerTrades(marketId, uuid, list));
 
         super.unload(onDisable);
     }
@@ -109,21 +117,15 @@ public class MerchantMarketGUI extends MerchantGUI {
         guiManager.removeOpenGUI(uuid);
 
         Optional<List<MerchantRecipe>> optionalTrades = getLiveTrades();
-        optionalTrades.ifPresent(list -> marketManager.updatePlayerTrades(marketId, uuid, trades));
+        optionalTrades.ifPresent(list -> marketManager.updatePlayerTrades(marketId, uuid, list));
     }
 
     /**
-     * When the inventory is dragged, reset the demand on recipes.
-     * @param inventoryDragEvent An InventoryDragEvent
+     * Handles when items are dragged across the GUI's inventory. This method does nothing.
+     * @param inventoryDragEvent An {@link InventoryDragEvent}
      */
     @Override
-    public void handleTopDrag(@NotNull InventoryDragEvent inventoryDragEvent) {
-        if(inventoryDragEvent.getInventory() instanceof MerchantInventory merchantInventory) {
-            for(MerchantRecipe recipe : merchantInventory.getMerchant().getRecipes()) {
-                recipe.setDemand(0);
-            }
-        }
-    }
+    public void handleTopDrag(@NotNull InventoryDragEvent inventoryDragEvent) {}
 
     /**
      * Handles when items are dragged across the player's inventory. This method does nothing.
@@ -161,26 +163,18 @@ public class MerchantMarketGUI extends MerchantGUI {
     public void handleGlobalClick(@NotNull InventoryClickEvent inventoryClickEvent) {}
 
     /**
-     * When a player makes a trade, reset the demand on recipes.
+     * Handles when a player makes a trade. This method does nothing.
+     * Demand is neutralized when the trades are created, so it does not need to be reset here.
      * @param playerTradeEvent A {@link PlayerTradeEvent}.
      */
     @Override
-    public void handlePlayerTrade(PlayerTradeEvent playerTradeEvent) {
-        for(MerchantRecipe recipe : playerTradeEvent.getVillager().getRecipes()) {
-            recipe.setDemand(0);
-        }
-    }
+    public void handlePlayerTrade(PlayerTradeEvent playerTradeEvent) {}
 
     /**
-     * When a player selects a trade, reset the demand on recipes.
+     * Handles when a player selects a trade. This method does nothing.
+     * Demand is neutralized when the trades are created, so it does not need to be reset here.
      * @param tradeSelectEvent A {@link TradeSelectEvent}.
      */
     @Override
-    public void handleTradeSelect(TradeSelectEvent tradeSelectEvent) {
-        MerchantInventory merchantInventory = tradeSelectEvent.getInventory();
-
-        for(MerchantRecipe recipe : merchantInventory.getMerchant().getRecipes()) {
-            recipe.setDemand(0);
-        }
-    }
+    public void handleTradeSelect(TradeSelectEvent tradeSelectEvent) {}
 }
@@ -0,0 +1,69 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.jfr;
+
+import jdk.jfr.*;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A Java Flight Recorder event for a queued command from a command transaction being run. Disabled unless enabled in the recording's settings.
+ */
+@Name("skymarket.CommandDispatch")
+@Label("Market Command Dispatch")
+@Description("A console command from a command transaction being run.")
+@Category("SkyMarket")
+@Enabled(false)
+@StackTrace(false)
+public class CommandDispatchFlightEvent extends Event {
+    @Label("Command")
+    private String command;
+
+    @Label("Player")
+    private String playerName;
+
+    @Label("Queue Time")
+    @Description("How long the command waited in the queue before it was run.")
+    @Timespan(Timespan.NANOSECONDS)
+    private long queueTime;
+
+    @Label("Dispatched")
+    @Description("Whether the command ran without throwing an exception.")
+    private boolean dispatched;
+
+    /**
+     * Default Constructor.
+     */
+    public CommandDispatchFlightEvent() {}
+
+    /**
+     * Sets the event's fields and commits it if the event is enabled and above its threshold.
+     * @param command The command that was run.
+     * @param playerName The name of the player the command was run for.
+     * @param queueTime How long in nanoseconds the command waited in the queue.
+     * @param dispatched Whether the command ran without throwing an exception.
+     */
+    public void record(@NotNull String command, @NotNull String playerName, long queueTime, boolean dispatched) {
+        if(!shouldCommit()) return;
+
+        this.command = command;
+        this.playerName = playerName;
+        this.queueTime = queueTime;
+        this.dispatched = dispatched;
+        commit();
+    }
+}
@@ -0,0 +1,55 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * A Java Flight Recorder event for the market configuration files being reloaded. Disabled unless enabled in the recording's settings.
+ */
+@Name("skymarket.ConfigReload")
+@Label("Market Config Reload")
+@Description("The market configuration files being loaded and validated.")
+@Category("SkyMarket")
+@Enabled(false)
+@StackTrace(false)
+public class ConfigReloadFlightEvent extends Event {
+    @Label("Chest Markets")
+    private int chestMarkets;
+
+    @Label("Merchant Markets")
+    private int merchantMarkets;
+
+    /**
+     * Default Constructor.
+     */
+    public ConfigReloadFlightEvent() {}
+
+    /**
+     * Sets the event's fields and commits it if the event is enabled and above its threshold.
+     * @param chestMarkets The number of chest markets loaded.
+     * @param merchantMarkets The number of merchant markets loaded.
+     */
+    public void record(int chestMarkets, int merchantMarkets) {
+        if(!shouldCommit()) return;
+
+        this.chestMarkets = chestMarkets;
+        this.merchantMarkets = merchantMarkets;
+        commit();
+    }
+}
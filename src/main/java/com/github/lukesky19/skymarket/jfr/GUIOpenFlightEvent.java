@@ -0,0 +1,61 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.jfr;
+
+import jdk.jfr.*;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A Java Flight Recorder event for a market GUI being opened for a player. Disabled unless enabled in the recording's settings.
+ */
+@Name("skymarket.GUIOpen")
+@Label("Market GUI Open")
+@Description("A market GUI being created and opened for a player.")
+@Category("SkyMarket")
+@Enabled(false)
+@StackTrace(false)
+public class GUIOpenFlightEvent extends Event {
+    @Label("Market Id")
+    private String marketId;
+
+    @Label("Player")
+    private String playerName;
+
+    @Label("Opened")
+    private boolean opened;
+
+    /**
+     * Default Constructor.
+     */
+    public GUIOpenFlightEvent() {}
+
+    /**
+     * Sets the event's fields and commits it if the event is enabled and above its threshold.
+     * @param marketId The market id.
+     * @param playerName The name of the player the GUI was opened for.
+     * @param opened Whether the GUI was opened.
+     */
+    public void record(@NotNull String marketId, @NotNull String playerName, boolean opened) {
+        if(!shouldCommit()) return;
+
+        this.marketId = marketId;
+        this.playerName = playerName;
+        this.opened = opened;
+        commit();
+    }
+}
@@ -0,0 +1,62 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.jfr;
+
+import jdk.jfr.*;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A Java Flight Recorder event for a market being refreshed. Disabled unless enabled in the recording's settings.
+ */
+@Name("skymarket.MarketRefresh")
+@Label("Market Refresh")
+@Description("A market's buttons or trades being generated again.")
+@Category("SkyMarket")
+@Enabled(false)
+@StackTrace(false)
+public class MarketRefreshFlightEvent extends Event {
+    @Label("Market Id")
+    private String marketId;
+
+    @Label("Slots Built")
+    @Description("The number of buttons or trades generated.")
+    private int slotsBuilt;
+
+    @Label("Refreshed")
+    private boolean refreshed;
+
+    /**
+     * Default Constructor.
+     */
+    public MarketRefreshFlightEvent() {}
+
+    /**
+     * Sets the event's fields and commits it if the event is enabled and above its threshold.
+     * @param marketId The market id.
+     * @param slotsBuilt The number of buttons or trades generated.
+     * @param refreshed Whether the market refreshed successfully.
+     */
+    public void record(@NotNull String marketId, int slotsBuilt, boolean refreshed) {
+        if(!shouldCommit()) return;
+
+        this.marketId = marketId;
+        this.slotsBuilt = slotsBuilt;
+        this.refreshed = refreshed;
+        commit();
+    }
+}
@@ -0,0 +1,73 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.jfr;
+
+import com.github.lukesky19.skymarket.util.MarketOperation;
+import jdk.jfr.*;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A Java Flight Recorder event for a player buying or selling an item or command. Disabled unless enabled in the recording's settings.
+ */
+@Name("skymarket.Transaction")
+@Label("Market Transaction")
+@Description("A player buying or selling an item or command.")
+@Category("SkyMarket")
+@Enabled(false)
+@StackTrace(false)
+public class TransactionFlightEvent extends Event {
+    @Label("Operation")
+    private String operation;
+
+    @Label("Player")
+    private String playerName;
+
+    @Label("Slot")
+    private int slot;
+
+    @Label("Price")
+    private double price;
+
+    @Label("Committed")
+    @Description("Whether the transaction completed.")
+    private boolean committed;
+
+    /**
+     * Default Constructor.
+     */
+    public TransactionFlightEvent() {}
+
+    /**
+     * Sets the event's fields and commits it if the event is enabled and above its threshold.
+     * @param operation The {@link MarketOperation} of the transaction.
+     * @param playerName The name of the player.
+     * @param slot The slot of the button clicked.
+     * @param price The price of the transaction.
+     * @param committed Whether the transaction completed.
+     */
+    public void record(@NotNull MarketOperation operation, @NotNull String playerName, int slot, double price, boolean committed) {
+        if(!shouldCommit()) return;
+
+        this.operation = operation.getMetricName();
+        this.playerName = playerName;
+        this.slot = slot;
+        this.price = price;
+        this.committed = committed;
+        commit();
+    }
+}
@@ -2,9 +2,11 @@ package com.github.lukesky19.skymarket.listener;
 
 import com.github.lukesky19.skylib.api.gui.interfaces.BaseGUI;
 import com.github.lukesky19.skylib.api.gui.interfaces.TradeGUI;
+import com.github.lukesky19.skymarket.manager.ClickLimitManager;
 import com.github.lukesky19.skymarket.manager.GUIManager;
 import io.papermc.paper.event.player.PlayerTradeEvent;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.inventory.InventoryCloseEvent;
@@ -13,40 +15,45 @@ import org.bukkit.event.inventory.TradeSelectEvent;
 import org.bukkit.inventory.PlayerInventory;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.Optional;
-import java.util.UUID;
-
 /**
  * This class listens to a bunch of Inventory events and passes them to any GUIs that are open.
+ * GUIs are looked up by the identity of the event's {@link org.bukkit.inventory.InventoryView}, so events for inventories that are not markets return without allocating.
+ * Cancelled events are ignored, as another plugin has already stopped the click, drag or trade from happening.
  */
 public class InventoryListener implements Listener {
     private final @NotNull GUIManager guiManager;
+    private final @NotNull ClickLimitManager clickLimitManager;
 
     /**
      * Constructor
      * @param guiManager A {@link GUIManager} instance.
+     * @param clickLimitManager A {@link ClickLimitManager} instance.
      */
-    public InventoryListener(@NotNull GUIManager guiManager) {
+    public InventoryListener(@NotNull GUIManager guiManager, @NotNull ClickLimitManager clickLimitManager) {
         this.guiManager = guiManager;
+        this.clickLimitManager = clickLimitManager;
     }
 
     /**
      * Sends click events to the respective open GUIs.
+     * Clicks in the top inventory over the player's click limit are cancelled and not sent to the GUI.
      * @param inventoryClickEvent An {@link InventoryClickEvent}
      */
-    @EventHandler
+    @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
     public void onClick(InventoryClickEvent inventoryClickEvent) {
-        UUID uuid = inventoryClickEvent.getWhoClicked().getUniqueId();
-
-        @NotNull Optional<@NotNull BaseGUI> optionalBaseGUI = guiManager.getOpenGUI(uuid);
-        if(optionalBaseGUI.isEmpty()) return;
-        BaseGUI baseGUI = optionalBaseGUI.get();
+        BaseGUI baseGUI = guiManager.getGUI(inventoryClickEvent.getView());
+        if(baseGUI == null) return;
 
         if(inventoryClickEvent.getClickedInventory() instanceof PlayerInventory) {
             // Bottom Inventory
             baseGUI.handleBottomClick(inventoryClickEvent);
         } else {
             // Top Inventory
+            if(!clickLimitManager.tryClick(inventoryClickEvent.getWhoClicked().getUniqueId())) {
+                inventoryClickEvent.setCancelled(true);
+                return;
+            }
+
             baseGUI.handleTopClick(inventoryClickEvent);
         }
 
@@ -57,13 +64,10 @@ public class InventoryListener implements Listener {
      * Sends drag events to the respective open GUIs.
      * @param inventoryDragEvent An {@link InventoryDragEvent}
      */
-    @EventHandler
+    @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
     public void onDrag(InventoryDragEvent inventoryDragEvent) {
-        UUID uuid = inventoryDragEvent.getWhoClicked().getUniqueId();
-
-        @NotNull Optional<@NotNull BaseGUI> optionalBaseGUI = guiManager.getOpenGUI(uuid);
-        if(optionalBaseGUI.isEmpty()) return;
-        BaseGUI baseGUI = optionalBaseGUI.get();
+        BaseGUI baseGUI = guiManager.getGUI(inventoryDragEvent.getView());
+        if(baseGUI == null) return;
 
         if(inventoryDragEvent.getInventory() instanceof PlayerInventory) {
             // Bottom Inventory
@@ -77,17 +81,15 @@ public class InventoryListener implements Listener {
     }
 
     /**
-     * Sends close events to the respective open GUIs.
+     * Sends close events to the respective open GUIs and removes the closed view from the {@link GUIManager}'s index.
      * @param inventoryCloseEvent An {@link InventoryCloseEvent}
      */
-    @EventHandler
+    @EventHandler(priority = EventPriority.MONITOR)
     public void onClose(InventoryCloseEvent inventoryCloseEvent) {
-        UUID uuid = inventoryCloseEvent.getPlayer().getUniqueId();
-
-        @NotNull Optional<@NotNull BaseGUI> optionalBaseGUI = guiManager.getOpenGUI(uuid);
-        if(optionalBaseGUI.isEmpty()) return;
-        BaseGUI baseGUI = optionalBaseGUI.get();
+        BaseGUI baseGUI = guiManager.getGUI(inventoryCloseEvent.getView());
+        if(baseGUI == null) return;
 
+        guiManager.untrackView(inventoryCloseEvent.getView());
         baseGUI.handleClose(inventoryCloseEvent);
     }
 
@@ -95,33 +97,21 @@ public class InventoryListener implements Listener {
      * Sends trade select events to the respective open GUIs.
      * @param tradeSelectEvent A {@link TradeSelectEvent}
      */
-    @EventHandler
+    @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
     public void onTradeSelect(TradeSelectEvent tradeSelectEvent) {
-        UUID uuid = tradeSelectEvent.getWhoClicked().getUniqueId();
+        if(!(guiManager.getGUI(tradeSelectEvent.getView()) instanceof TradeGUI tradeGUI)) return;
 
-        @NotNull Optional<@NotNull BaseGUI> optionalBaseGUI = guiManager.getOpenGUI(uuid);
-        if(optionalBaseGUI.isEmpty()) return;
-        BaseGUI baseGUI = optionalBaseGUI.get();
-
-        if(baseGUI instanceof TradeGUI tradeGUI) {
-            tradeGUI.handleTradeSelect(tradeSelectEvent);
-        }
+        tradeGUI.handleTradeSelect(tradeSelectEvent);
     }
 
     /**
      * Sends player trade events to the respective open GUIs.
      * @param playerTradeEvent A {@link PlayerTradeEvent}
      */
-    @EventHandler
+    @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
     public void onPlayerTrade(PlayerTradeEvent playerTradeEvent) {
-        UUID uuid = playerTradeEvent.getPlayer().getUniqueId();
+        if(!(guiManager.getGUI(playerTradeEvent.getPlayer().getOpenInventory()) instanceof TradeGUI tradeGUI)) return;
 
-        @NotNull Optional<@NotNull BaseGUI> optionalBaseGUI = guiManager.getOpenGUI(uuid);
-        if(optionalBaseGUI.isEmpty()) return;
-        BaseGUI baseGUI = optionalBaseGUI.get();
-
-        if(baseGUI instanceof TradeGUI tradeGUI) {
-            tradeGUI.handlePlayerTrade(playerTradeEvent);
-        }
+        tradeGUI.handlePlayerTrade(playerTradeEvent);
     }
 }
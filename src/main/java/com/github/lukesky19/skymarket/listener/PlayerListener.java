@@ -0,0 +1,82 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.listener;
+
+import com.destroystokyo.paper.event.player.PlayerLocaleChangeEvent;
+import com.github.lukesky19.skymarket.configuration.LocaleManager;
+import com.github.lukesky19.skymarket.manager.ClickLimitManager;
+import com.github.lukesky19.skymarket.manager.PlayerDataManager;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * This class listens to players joining, quitting and changing their client's language and passes them to the {@link PlayerDataManager}, {@link ClickLimitManager} and {@link LocaleManager}.
+ */
+public class PlayerListener implements Listener {
+    private final @NotNull PlayerDataManager playerDataManager;
+    private final @NotNull ClickLimitManager clickLimitManager;
+    private final @NotNull LocaleManager localeManager;
+
+    /**
+     * Constructor
+     * @param playerDataManager A {@link PlayerDataManager} instance.
+     * @param clickLimitManager A {@link ClickLimitManager} instance.
+     * @param localeManager A {@link LocaleManager} instance.
+     */
+    public PlayerListener(@NotNull PlayerDataManager playerDataManager, @NotNull ClickLimitManager clickLimitManager, @NotNull LocaleManager localeManager) {
+        this.playerDataManager = playerDataManager;
+        this.clickLimitManager = clickLimitManager;
+        this.localeManager = localeManager;
+    }
+
+    /**
+     * Loads the player's data and picks the locale they are sent messages in when they join.
+     * @param playerJoinEvent A {@link PlayerJoinEvent}
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent playerJoinEvent) {
+        Player player = playerJoinEvent.getPlayer();
+        playerDataManager.load(player);
+        localeManager.updatePlayerLocale(player, player.locale());
+    }
+
+    /**
+     * Picks the locale a player is sent messages in again when they change their client's language.
+     * @param playerLocaleChangeEvent A {@link PlayerLocaleChangeEvent}
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onLocaleChange(PlayerLocaleChangeEvent playerLocaleChangeEvent) {
+        localeManager.updatePlayerLocale(playerLocaleChangeEvent.getPlayer(), playerLocaleChangeEvent.locale());
+    }
+
+    /**
+     * Schedules the player's data to be evicted and removes their click limit and locale when they quit.
+     * @param playerQuitEvent A {@link PlayerQuitEvent}
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent playerQuitEvent) {
+        playerDataManager.scheduleEviction(playerQuitEvent.getPlayer());
+        clickLimitManager.remove(playerQuitEvent.getPlayer().getUniqueId());
+        localeManager.removePlayer(playerQuitEvent.getPlayer().getUniqueId());
+    }
+}
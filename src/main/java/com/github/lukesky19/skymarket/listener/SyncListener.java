@@ -0,0 +1,50 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.listener;
+
+import com.github.lukesky19.skymarket.event.MarketRefreshEvent;
+import com.github.lukesky19.skymarket.manager.SyncManager;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * This class listens for markets refreshing so their new rotations can be published to the other servers.
+ * It is only registered while syncing is enabled.
+ */
+public class SyncListener implements Listener {
+    private final @NotNull SyncManager syncManager;
+
+    /**
+     * Constructor
+     * @param syncManager A {@link SyncManager} instance.
+     */
+    public SyncListener(@NotNull SyncManager syncManager) {
+        this.syncManager = syncManager;
+    }
+
+    /**
+     * Publishes the new rotation of the market that refreshed.
+     * @param marketRefreshEvent A {@link MarketRefreshEvent}
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onMarketRefresh(MarketRefreshEvent marketRefreshEvent) {
+        syncManager.publishRotation(marketRefreshEvent.getMarketId());
+    }
+}
@@ -0,0 +1,48 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.listener;
+
+import com.destroystokyo.paper.event.server.ServerTickEndEvent;
+import com.github.lukesky19.skymarket.manager.TransactionSequencer;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * This class listens for the end of each server tick and runs the transactions queued during the tick.
+ */
+public class TickListener implements Listener {
+    private final @NotNull TransactionSequencer transactionSequencer;
+
+    /**
+     * Constructor
+     * @param transactionSequencer A {@link TransactionSequencer} instance.
+     */
+    public TickListener(@NotNull TransactionSequencer transactionSequencer) {
+        this.transactionSequencer = transactionSequencer;
+    }
+
+    /**
+     * Runs the transactions queued during the tick.
+     * @param serverTickEndEvent A {@link ServerTickEndEvent}
+     */
+    @EventHandler
+    public void onTickEnd(ServerTickEndEvent serverTickEndEvent) {
+        transactionSequencer.drain();
+    }
+}
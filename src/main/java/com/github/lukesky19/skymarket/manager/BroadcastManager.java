@@ -0,0 +1,167 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.manager;
+
+import com.github.lukesky19.skymarket.SkyMarket;
+import com.github.lukesky19.skymarket.configuration.SettingsManager;
+import com.github.lukesky19.skymarket.data.config.Settings;
+import com.github.lukesky19.skymarket.scheduler.MarketScheduler;
+import com.github.lukesky19.skymarket.scheduler.MarketTask;
+import net.kyori.adventure.text.Component;
+import org.bukkit.NamespacedKey;
+import org.bukkit.entity.Player;
+import org.bukkit.persistence.PersistentDataType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.function.Function;
+
+/**
+ * This class manages sending market refresh messages to players.
+ * Messages are built once per refresh and delivered to players over as many ticks as needed to stay within the configured tick budget.
+ */
+public class BroadcastManager {
+    private static final long DEFAULT_TICK_BUDGET_MICROS = 500L;
+
+    private final @NotNull SkyMarket skyMarket;
+    private final @NotNull MarketScheduler marketScheduler;
+    private final @NotNull SettingsManager settingsManager;
+    private final @NotNull NamespacedKey optOutKey;
+    private final @NotNull ArrayDeque<Delivery> deliveries = new ArrayDeque<>();
+    private @Nullable MarketTask drainTask;
+
+    /**
+     * Default Constructor. You should use {@link BroadcastManager#BroadcastManager(SkyMarket, MarketScheduler, SettingsManager)} instead.
+     * @deprecated You should use {@link BroadcastManager#BroadcastManager(SkyMarket, MarketScheduler, SettingsManager)} instead.
+     * @throws RuntimeException if this method is used.
+     */
+    @Deprecated
+    public BroadcastManager() {
+        throw new RuntimeException("The use of the default constructor is not allowed.");
+    }
+
+    /**
+     * Constructor
+     * @param skyMarket A {@link SkyMarket} instance.
+     * @param marketScheduler A {@link MarketScheduler} instance.
+     * @param settingsManager A {@link SettingsManager} instance.
+     */
+    public BroadcastManager(@NotNull SkyMarket skyMarket, @NotNull MarketScheduler marketScheduler, @NotNull SettingsManager settingsManager) {
+        this.skyMarket = skyMarket;
+        this.marketScheduler = marketScheduler;
+        this.settingsManager = settingsManager;
+        this.optOutKey = new NamespacedKey(skyMarket, "broadcasts_disabled");
+    }
+
+    /**
+     * Queues a message to be sent to all online players, where the message can differ between players.
+     * @param message A {@link Function} that creates the {@link Component} to send to a player. It is called once per player when the message is queued.
+     * @param permission The permission a player must have to receive the message. If null, no permission is required.
+     */
+    public void broadcast(@NotNull Function<Player, Component> message, @Nullable String permission) {
+        for(Player player : skyMarket.getServer().getOnlinePlayers()) {
+            deliveries.add(new Delivery(player, message.apply(player), permission));
+        }
+
+        if(drainTask == null && !deliveries.isEmpty()) {
+            drainTask = marketScheduler.runTimer(this::drain, 0L, 1L);
+        }
+    }
+
+    /**
+     * Checks if a player has turned off market refresh messages.
+     * @param player The {@link Player} to check.
+     * @return true if the player has turned off refresh messages, otherwise false.
+     */
+    public boolean isOptedOut(@NotNull Player player) {
+        return player.getPersistentDataContainer().getOrDefault(optOutKey, PersistentDataType.BOOLEAN, false);
+    }
+
+    /**
+     * Toggles whether a player receives market refresh messages.
+     * @param player The {@link Player} to toggle refresh messages for.
+     * @return true if the player will now receive refresh messages, false if not.
+     */
+    public boolean toggleOptOut(@NotNull Player player) {
+        if(isOptedOut(player)) {
+            player.getPersistentDataContainer().remove(optOutKey);
+            return true;
+        } else {
+            player.getPersistentDataContainer().set(optOutKey, PersistentDataType.BOOLEAN, true);
+            return false;
+        }
+    }
+
+    /**
+     * Cancels any pending messages. Used when the plugin is disabled.
+     */
+    public void stop() {
+        deliveries.clear();
+
+        if(drainTask != null) {
+            drainTask.cancel();
+            drainTask = null;
+        }
+    }
+
+    /**
+     * Sends queued messages until the queue is empty or the tick budget is used up.
+     * At least one message is always sent so the queue makes progress.
+     */
+    private void drain() {
+        long budgetNanos = getTickBudgetMicros() * 1000L;
+        long start = System.nanoTime();
+
+        do {
+            Delivery delivery = deliveries.poll();
+            if(delivery == null) break;
+
+            Player player = delivery.player();
+            if(!player.isConnected()) continue;
+            if(delivery.permission() != null && !player.hasPermission(delivery.permission())) continue;
+            if(isOptedOut(player)) continue;
+
+            player.sendMessage(delivery.message());
+        } while(System.nanoTime() - start < budgetNanos);
+
+        if(deliveries.isEmpty() && drainTask != null) {
+            drainTask.cancel();
+            drainTask = null;
+        }
+    }
+
+    /**
+     * Gets the configured tick budget in microseconds.
+     * @return The tick budget in microseconds.
+     */
+    private long getTickBudgetMicros() {
+        Settings settings = settingsManager.getSettingsConfig();
+        if(settings == null || settings.broadcast() == null || settings.broadcast().tickBudgetMicros() == null || settings.broadcast().tickBudgetMicros() <= 0) return DEFAULT_TICK_BUDGET_MICROS;
+
+        return settings.broadcast().tickBudgetMicros();
+    }
+
+    /**
+     * A single queued message for a player.
+     * @param player The {@link Player} to send the message to.
+     * @param message The {@link Component} to send.
+     * @param permission The permission required to receive the message, or null.
+     */
+    private record Delivery(@NotNull Player player, @NotNull Component message, @Nullable String permission) {}
+}
@@ -19,15 +19,23 @@ package com.github.lukesky19.skymarket.manager;
 
 import com.github.lukesky19.skylib.api.gui.GUIButton;
 import com.github.lukesky19.skylib.api.gui.GUIType;
+import com.github.lukesky19.skylib.api.gui.interfaces.BaseGUI;
 import com.github.lukesky19.skylib.api.itemstack.ItemStackBuilder;
 import com.github.lukesky19.skylib.api.itemstack.ItemStackConfig;
 import com.github.lukesky19.skylib.api.registry.RegistryUtil;
 import com.github.lukesky19.skymarket.SkyMarket;
+import com.github.lukesky19.skymarket.data.CommandTemplate;
+import com.github.lukesky19.skymarket.data.DynamicPrice;
+import com.github.lukesky19.skymarket.data.ItemStackPool;
 import com.github.lukesky19.skymarket.data.config.gui.ChestConfig;
 import com.github.lukesky19.skymarket.data.MarketData;
+import com.github.lukesky19.skymarket.data.MarketMetrics;
 import com.github.lukesky19.skymarket.data.PlayerData;
+import com.github.lukesky19.skymarket.data.RotationItem;
 import com.github.lukesky19.skymarket.data.config.gui.button.ButtonConfig;
 import com.github.lukesky19.skymarket.gui.ChestMarketGUI;
+import com.github.lukesky19.skymarket.scheduler.MarketScheduler;
+import com.github.lukesky19.skymarket.util.MarketOperation;
 import com.github.lukesky19.skymarket.util.PluginUtils;
 import com.github.lukesky19.skymarket.util.TransactionType;
 import net.kyori.adventure.text.logger.slf4j.ComponentLogger;
@@ -39,21 +47,29 @@ import org.bukkit.event.inventory.InventoryCloseEvent;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.ItemType;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.function.IntFunction;
 
 /**
  * This class manages the creation of {@link GUIButton}s for markets.
  */
 public class ButtonManager {
     private final @NotNull SkyMarket skyMarket;
+    private final @NotNull MarketScheduler marketScheduler;
     private final @NotNull MarketDataManager marketDataManager;
     private final @NotNull TransactionManager transactionManager;
+    private final @NotNull TransactionSequencer transactionSequencer;
     private final @NotNull GUIManager guiManager;
+    private final @NotNull PricingManager pricingManager;
+    private final @NotNull CommandManager commandManager;
+    private final @NotNull MetricsManager metricsManager;
+    private final @NotNull ItemStackPool itemStackPool = new ItemStackPool();
 
     /**
-     * Default Constructor. You should use {@link ButtonManager#ButtonManager(SkyMarket, MarketDataManager, TransactionManager, GUIManager)} instead.
-     * @deprecated You should use {@link ButtonManager#ButtonManager(SkyMarket, MarketDataManager, TransactionManager, GUIManager)} instead.
+     * Default Constructor. You should use {@link ButtonManager#ButtonManager(SkyMarket, MarketScheduler, MarketDataManager, TransactionManager, TransactionSequencer, GUIManager, PricingManager, CommandManager, MetricsManager)} instead.
+     * @deprecated You should use {@link ButtonManager#ButtonManager(SkyMarket, MarketScheduler, MarketDataManager, TransactionManager, TransactionSequencer, GUIManager, PricingManager, CommandManager, MetricsManager)} instead.
      * @throws RuntimeException if this method is used.
      */
     @Deprecated
@@ -64,35 +80,108 @@ public class ButtonManager {
     /**
      * Constructor
      * @param skyMarket A {@link SkyMarket} instance.
+     * @param marketScheduler A {@link MarketScheduler} instance.
      * @param marketDataManager A {@link MarketDataManager} instance.
      * @param transactionManager A {@link TransactionManager} instance.
+     * @param transactionSequencer A {@link TransactionSequencer} instance.
      * @param guiManager A {@link GUIManager} instance.
+     * @param pricingManager A {@link PricingManager} instance.
+     * @param commandManager A {@link CommandManager} instance.
+     * @param metricsManager A {@link MetricsManager} instance.
      */
-    public ButtonManager(@NotNull SkyMarket skyMarket, @NotNull MarketDataManager marketDataManager, @NotNull TransactionManager transactionManager, @NotNull GUIManager guiManager) {
+    public ButtonManager(@NotNull SkyMarket skyMarket, @NotNull MarketScheduler marketScheduler, @NotNull MarketDataManager marketDataManager, @NotNull TransactionManager transactionManager, @NotNull TransactionSequencer transactionSequencer, @NotNull GUIManager guiManager, @NotNull PricingManager pricingManager, @NotNull CommandManager commandManager, @NotNull MetricsManager metricsManager) {
         this.skyMarket = skyMarket;
+        this.marketScheduler = marketScheduler;
         this.marketDataManager = marketDataManager;
         this.transactionManager = transactionManager;
+        this.transactionSequencer = transactionSequencer;
         this.guiManager = guiManager;
+        this.pricingManager = pricingManager;
+        this.commandManager = commandManager;
+        this.metricsManager = metricsManager;
     }
 
     /**
-     * Gets a {@link Map} of the corresponding slots and GUIButtons to populate a {@link ChestMarketGUI} with.
+     * Prepares the current rotation of a market so its pages can be created.
+     * A new rotation starts with a fresh global stock and new dynamic prices, and the configured items are shuffled across the pages and their prices rolled using the rotation seed.
+     * No {@link ItemStack}s are built here. Each page is created with {@link #createButtons(GUIType, ChestConfig, String, MarketData, int)} when it is first viewed.
+     * @param guiType The {@link GUIType} of the {@link ChestMarketGUI}.
+     * @param marketConfig The {@link ChestConfig} to load data from.
+     * @param marketData The {@link MarketData} of the market.
+     */
+    public void prepareRotation(@NotNull GUIType guiType, @NotNull ChestConfig marketConfig, @NotNull MarketData marketData) {
+        ChestConfig.GuiData guiData = marketConfig.guiData();
+        int pageCount = guiData.pages() != null ? Math.max(1, guiData.pages()) : 1;
+        marketData.setPageCount(pageCount);
+
+        // Every new rotation starts with a fresh global stock and new dynamic prices.
+        // A rotation that was generated before keeps its stock and prices.
+        if(!marketData.isRotationGenerated()) {
+            marketData.resetGlobalStock(guiType.getSize() * pageCount);
+            pricingManager.unregister(marketData.getDynamicPrices());
+            marketData.clearDynamicPrices();
+        }
+
+        // Pick a random item for each placeholder slot on every page without repeats and roll its prices.
+        // Only the indexes of the items are shuffled, no ItemStacks are created.
+        Random random = new Random(marketData.getRotationSeed());
+        List<ChestConfig.ItemConfig> items = marketConfig.items();
+        List<Integer> placeholderSlots = guiData.placeholderSlots();
+        int[] order = new int[items.size()];
+        for(int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+
+        int needed = Math.min(order.length, placeholderSlots.size() * pageCount);
+        List<RotationItem> rotationItems = new ArrayList<>(needed);
+        for(int i = 0; i < needed; i++) {
+            int randomIndex = i + random.nextInt(order.length - i);
+            int itemIndex = order[randomIndex];
+            order[randomIndex] = order[i];
+            order[i] = itemIndex;
+
+            ChestConfig.PriceConfig prices = items.get(itemIndex).prices();
+            double buyPrice = rollPrice(random, prices.buyFixed(), prices.buyMin(), prices.buyMax());
+            double sellPrice = rollPrice(random, prices.sellFixed(), prices.sellMin(), prices.sellMax());
+
+            int page = i / placeholderSlots.size();
+            int slot = page * guiType.getSize() + placeholderSlots.get(i % placeholderSlots.size());
+            rotationItems.add(new RotationItem(itemIndex, page, slot, buyPrice, sellPrice));
+        }
+
+        marketData.setRotationItems(Collections.unmodifiableList(rotationItems));
+    }
+
+    /**
+     * Gets a {@link Map} of the corresponding slots and GUIButtons to populate a page of a {@link ChestMarketGUI} with.
+     * {@link #prepareRotation(GUIType, ChestConfig, MarketData)} must be called for the rotation first.
      * @param guiType The {@link GUIType} of the {@link ChestMarketGUI}.
      * @param marketConfig The {@link ChestConfig} to load data from.
      * @param marketId The market id.
+     * @param marketData The {@link MarketData} the buttons are being created for. The global stock for each slot is set here.
+     *                   The buttons are generated from the market's rotation seed, so the same rotation always creates the same buttons.
+     * @param page The page to create the buttons for, starting at 0.
      * @return A {@link Map} of the corresponding slots and {@link GUIButton}s to populate a {@link ChestMarketGUI} with.
      */
     public @NotNull Map<Integer, GUIButton> createButtons(
             @NotNull GUIType guiType,
             @NotNull ChestConfig marketConfig,
-            @NotNull String marketId) {
+            @NotNull String marketId,
+            @NotNull MarketData marketData,
+            int page) {
         ComponentLogger logger = skyMarket.getComponentLogger();
         ChestConfig.GuiData guiData = marketConfig.guiData();
         Map<Integer, GUIButton> buttons = new HashMap<>();
+        MarketMetrics marketMetrics = metricsManager.getMarketMetrics(marketId);
 
-        List<ChestConfig.ItemConfig> itemsList = new ArrayList<>(marketConfig.items());
+        // Clicks queued or made in a GUI opened before the market refreshed are rejected, because the buttons belong to the old rotation.
+        long rotationSeed = marketData.getRotationSeed();
+        Random random = new Random(getPageSeed(rotationSeed, page));
 
-        Optional<ItemStack> optionalFillerItemStack = new ItemStackBuilder(logger).fromItemStackConfig(guiData.filler().item(), null, null, List.of()).buildItemStack();
+        // Buttons recreated for a page that was generated before in this rotation keep its stock and prices.
+        boolean keepState = marketData.isPageGenerated(page);
+
+        Optional<ItemStack> optionalFillerItemStack = itemStackPool.getConstant(guiData.filler().item(), () -> new ItemStackBuilder(logger).fromItemStackConfig(guiData.filler().item(), null, null, List.of()).buildItemStack());
         if(optionalFillerItemStack.isPresent()) {
             ItemStack itemStack = optionalFillerItemStack.get();
 
@@ -103,7 +192,7 @@ public class ButtonManager {
             }
         }
 
-        Optional<ItemStack> optionalExitItemStack = new ItemStackBuilder(logger).fromItemStackConfig(guiData.exit().item(), null, null, List.of()).buildItemStack();
+        Optional<ItemStack> optionalExitItemStack = itemStackPool.getConstant(guiData.exit().item(), () -> new ItemStackBuilder(logger).fromItemStackConfig(guiData.exit().item(), null, null, List.of()).buildItemStack());
         if(optionalExitItemStack.isPresent()) {
             if(guiData.exit().slot() != null) {
                 ItemStack itemStack = optionalExitItemStack.get();
@@ -113,7 +202,7 @@ public class ButtonManager {
                         .setAction(event -> {
                             Player player = (Player) event.getWhoClicked();
 
-                            skyMarket.getServer().getScheduler().runTaskLater(skyMarket, () -> {
+                            marketScheduler.runLater(player, () -> {
                                 player.closeInventory(InventoryCloseEvent.Reason.UNLOADED);
 
                                 guiManager.removeOpenGUI(player.getUniqueId());
@@ -130,7 +219,7 @@ public class ButtonManager {
             if(buttonConfig == null) continue;
             if(buttonConfig.slot() == null || buttonConfig.slot() < 0 || buttonConfig.slot() >= guiType.getSize()) continue;
 
-            Optional<ItemStack> optionalDummyItemStack = new ItemStackBuilder(logger).fromItemStackConfig(buttonConfig.item(), null, null, List.of()).buildItemStack();
+            Optional<ItemStack> optionalDummyItemStack = itemStackPool.getConstant(buttonConfig.item(), () -> new ItemStackBuilder(logger).fromItemStackConfig(buttonConfig.item(), null, null, List.of()).buildItemStack());
             if(optionalDummyItemStack.isPresent()) {
                 ItemStack itemStack = optionalDummyItemStack.get();
 
@@ -142,41 +231,39 @@ public class ButtonManager {
             }
         }
 
-        if(itemsList.isEmpty()) return buttons;
-        for(int slot : guiData.placeholderSlots()) {
-            int randomIndex = new Random().nextInt(itemsList.size());
-            ChestConfig.ItemConfig randomConfig = itemsList.get(randomIndex);
-            itemsList.remove(randomIndex);
+        if(page > 0) addPageButton(buttons, guiData.previousPage(), marketId, page - 1);
+        if(page < marketData.getPageCount() - 1) addPageButton(buttons, guiData.nextPage(), marketId, page + 1);
+
+        // Slots are numbered across pages so the global stock, limits and prices of each page are kept apart.
+        List<RotationItem> rotationItems = marketData.getRotationItems();
+        int placeholderCount = guiData.placeholderSlots().size();
+        for(int i = page * placeholderCount; i < Math.min(rotationItems.size(), (page + 1) * placeholderCount); i++) {
+            RotationItem rotationItem = rotationItems.get(i);
+            int slot = rotationItem.slot();
+            int guiSlot = slot - page * guiType.getSize();
+            ChestConfig.ItemConfig randomConfig = marketConfig.items().get(rotationItem.itemIndex());
 
             String transactionName = randomConfig.transactionName();
             if(transactionName == null) continue;
 
-            double buyPrice;
-            double sellPrice;
+            // The prices were rolled when the rotation was prepared.
+            double buyPrice = rotationItem.buyPrice();
+            double sellPrice = rotationItem.sellPrice();
+            if(Double.isNaN(buyPrice) || Double.isNaN(sellPrice)) continue;
             List<ItemStack> buyItems = new ArrayList<>();
 
-            if(randomConfig.prices().buyFixed() != null) {
-                buyPrice = randomConfig.prices().buyFixed();
-            } else if (randomConfig.prices().buyMin() != null && randomConfig.prices().buyMax() != null) {
-                buyPrice = PluginUtils.calculatePrice(randomConfig.prices().buyMin(), randomConfig.prices().buyMax());
-            } else {
-                continue;
-            }
-
-            if(randomConfig.prices().sellFixed() != null) {
-                sellPrice = randomConfig.prices().sellFixed();
-            } else if(randomConfig.prices().sellMin() != null && randomConfig.prices().sellMax() != null) {
-                sellPrice = PluginUtils.calculatePrice(randomConfig.prices().sellMin(), randomConfig.prices().sellMax());
-            } else {
-                continue;
-            }
-
+            // The price placeholders are added separately, because the display item shows the current dynamic prices.
             List<TagResolver.Single> placeholders = new ArrayList<>();
-            placeholders.add(Placeholder.parsed("buy_price", String.valueOf(buyPrice)));
-            placeholders.add(Placeholder.parsed("sell_price", String.valueOf(sellPrice)));
             placeholders.add(Placeholder.parsed("buy_limit", String.valueOf(randomConfig.buyLimit())));
             placeholders.add(Placeholder.parsed("sell_limit", String.valueOf(randomConfig.sellLimit())));
 
+            int globalStock = randomConfig.globalStock() != null && randomConfig.globalStock() > 0 ? randomConfig.globalStock() : -1;
+            int displayStock = keepState && globalStock > 0 ? marketData.getRemainingStock(slot) : globalStock;
+
+            // If dynamic pricing is enabled, the prices rolled above are used as the base prices.
+            boolean dynamicPricing = randomConfig.dynamicPricing().enabled() != null && randomConfig.dynamicPricing().enabled();
+            @Nullable DynamicPrice dynamicPrice = dynamicPricing ? getDynamicPrice(marketId, marketData, slot, keepState, buyPrice, sellPrice, randomConfig.dynamicPricing()) : null;
+
             for(int i = 0; i < randomConfig.prices().buyItems().size(); i++) {
                 ItemStackConfig itemStackConfig = randomConfig.prices().buyItems().get(i);
                 Optional<ItemStack> optionalItemStack = new ItemStackBuilder(logger).fromItemStackConfig(itemStackConfig, null, null, List.of()).buildItemStack();
@@ -194,88 +281,316 @@ public class ButtonManager {
                 if(optionalItemType.isEmpty()) continue;
                 ItemType itemType = optionalItemType.get();
 
-                Integer randomAmount = PluginUtils.getRandomAmount(randomConfig.amount().fixed(), randomConfig.amount().min(), randomConfig.amount().max());
-                Map<Enchantment, Integer> randomEnchantments = PluginUtils.getRandomEnchantments(itemType, randomConfig.randomEnchants().enchantRandomly(), randomConfig.randomEnchants().min(), randomConfig.randomEnchants().max(), randomConfig.randomEnchants().treasure());
+                Integer randomAmount = PluginUtils.getRandomAmount(random, randomConfig.amount().fixed(), randomConfig.amount().min(), randomConfig.amount().max());
+                Map<Enchantment, Integer> randomEnchantments = PluginUtils.getRandomEnchantments(random, itemType, randomConfig.randomEnchants().enchantRandomly(), randomConfig.randomEnchants().min(), randomConfig.randomEnchants().max(), randomConfig.randomEnchants().treasure());
 
-                Optional<ItemStack> optionalDisplayStack = PluginUtils.createItemStack(logger, randomConfig.displayItem(), randomAmount, randomEnchantments, placeholders);
+                IntFunction<Optional<ItemStack>> displayRenderer = stock ->
+                        PluginUtils.createItemStack(logger, randomConfig.displayItem(), randomAmount, randomEnchantments, getDisplayPlaceholders(placeholders, buyPrice, sellPrice, dynamicPrice, stock));
+
+                Optional<ItemStack> optionalDisplayStack = displayRenderer.apply(displayStock);
                 if (optionalDisplayStack.isEmpty()) continue;
 
-                Optional<ItemStack> optionalPlayerItem = PluginUtils.createItemStack(logger, randomConfig.transactionItem(), randomAmount, randomEnchantments, placeholders);
+                Optional<ItemStack> optionalPlayerItem = PluginUtils.createItemStack(logger, randomConfig.transactionItem(), randomAmount, randomEnchantments, getPricePlaceholders(placeholders, buyPrice, sellPrice));
                 if (optionalPlayerItem.isEmpty()) continue;
 
                 GUIButton guiButton = new GUIButton.Builder()
-                        .setItemStack(optionalDisplayStack.get())
+                        .setItemStack(itemStackPool.intern(optionalDisplayStack.get()))
                         .setAction(inventoryClickEvent -> {
                             Player player = (Player) inventoryClickEvent.getWhoClicked();
-                            UUID uuid = player.getUniqueId();
-
-                            MarketData marketData = marketDataManager.getMarketData(marketId);
-                            if(marketData == null) return;
-                            PlayerData playerData = marketData.getPlayerData(uuid);
 
                             if(inventoryClickEvent.getClick().isLeftClick()) {
-                                transactionManager.buyItem(
-                                        player,
-                                        playerData,
-                                        optionalPlayerItem.get(),
-                                        buyPrice,
-                                        buyItems,
-                                        slot,
-                                        randomConfig.buyLimit());
+                                transactionSequencer.submit(player, marketId, slot, MarketOperation.BUY_ITEM, (quantity, start) -> {
+                                    MarketData currentMarketData = marketDataManager.getMarketData(marketId);
+                                    if(currentMarketData == null || currentMarketData.getRotationSeed() != rotationSeed) {
+                                        transactionManager.rejectStaleTransaction(player, currentMarketData);
+                                        marketMetrics.record(MarketOperation.BUY_ITEM, start, false);
+                                        return;
+                                    }
+                                    PlayerData playerData = currentMarketData.getPlayerData(player.getUniqueId());
+
+                                    int purchased = transactionManager.buyItem(
+                                            player,
+                                            marketId,
+                                            currentMarketData,
+                                            playerData,
+                                            optionalPlayerItem.get(),
+                                            dynamicPrice != null ? dynamicPrice.getBuyPrice() : buyPrice,
+                                            buyItems,
+                                            slot,
+                                            randomConfig.buyLimit(),
+                                            quantity);
+                                    marketMetrics.record(MarketOperation.BUY_ITEM, start, purchased > 0);
+
+                                    if(purchased > 0) {
+                                        updateStockDisplay(marketId, currentMarketData, slot);
+                                        if(dynamicPrice != null) dynamicPrice.recordBuy(purchased);
+                                    }
+                                });
                             } else if(inventoryClickEvent.getClick().isRightClick()) {
-                                transactionManager.sellItem(
-                                        player,
-                                        playerData,
-                                        optionalPlayerItem.get(),
-                                        sellPrice,
-                                        slot,
-                                        randomConfig.sellLimit());
+                                transactionSequencer.submit(player, marketId, slot, MarketOperation.SELL_ITEM, (quantity, start) -> {
+                                    MarketData currentMarketData = marketDataManager.getMarketData(marketId);
+                                    if(currentMarketData == null || currentMarketData.getRotationSeed() != rotationSeed) {
+                                        transactionManager.rejectStaleTransaction(player, currentMarketData);
+                                        marketMetrics.record(MarketOperation.SELL_ITEM, start, false);
+                                        return;
+                                    }
+                                    PlayerData playerData = currentMarketData.getPlayerData(player.getUniqueId());
+
+                                    int sold = transactionManager.sellItem(
+                                            player,
+                                            marketId,
+                                            playerData,
+                                            optionalPlayerItem.get(),
+                                            dynamicPrice != null ? dynamicPrice.getSellPrice() : sellPrice,
+                                            slot,
+                                            randomConfig.sellLimit(),
+                                            quantity);
+                                    marketMetrics.record(MarketOperation.SELL_ITEM, start, sold > 0);
+
+                                    if(sold > 0 && dynamicPrice != null) dynamicPrice.recordSell(sold);
+                                });
                             }
                         })
                         .build();
 
-                buttons.put(slot, guiButton);
+                buttons.put(guiSlot, guiButton);
+
+                setDisplayRenderer(marketData, slot, keepState, globalStock, dynamicPrice, displayRenderer);
             } else {
-                Optional<ItemStack> optionalDisplayStack = new ItemStackBuilder(logger).fromItemStackConfig(randomConfig.displayItem(), null, null, placeholders).buildItemStack();
+                IntFunction<Optional<ItemStack>> displayRenderer = stock ->
+                        new ItemStackBuilder(logger).fromItemStackConfig(randomConfig.displayItem(), null, null, getDisplayPlaceholders(placeholders, buyPrice, sellPrice, dynamicPrice, stock)).buildItemStack();
+
+                Optional<ItemStack> optionalDisplayStack = displayRenderer.apply(displayStock);
                 if(optionalDisplayStack.isEmpty()) continue;
 
+                // Parse the commands once here instead of on every transaction.
+                List<CommandTemplate> buyCommands = commandManager.compile(randomConfig.buyCommands());
+                List<CommandTemplate> sellCommands = commandManager.compile(randomConfig.sellCommands());
+
                 GUIButton guiButton = new GUIButton.Builder()
-                        .setItemStack(optionalDisplayStack.get())
+                        .setItemStack(itemStackPool.intern(optionalDisplayStack.get()))
                         .setAction(inventoryClickEvent -> {
                             Player player = (Player) inventoryClickEvent.getWhoClicked();
-                            UUID uuid = player.getUniqueId();
-
-                            MarketData marketData = marketDataManager.getMarketData(marketId);
-                            if(marketData == null) return;
-                            PlayerData playerData = marketData.getPlayerData(uuid);
 
                             if(inventoryClickEvent.getClick().isLeftClick()) {
-                                transactionManager.buyCommand(
-                                        player,
-                                        playerData,
-                                        transactionName,
-                                        buyPrice,
-                                        buyItems,
-                                        randomConfig.buyCommands(),
-                                        slot,
-                                        randomConfig.buyLimit());
+                                transactionSequencer.submit(player, marketId, slot, MarketOperation.BUY_COMMAND, (quantity, start) -> {
+                                    MarketData currentMarketData = marketDataManager.getMarketData(marketId);
+                                    if(currentMarketData == null || currentMarketData.getRotationSeed() != rotationSeed) {
+                                        transactionManager.rejectStaleTransaction(player, currentMarketData);
+                                        marketMetrics.record(MarketOperation.BUY_COMMAND, start, false);
+                                        return;
+                                    }
+                                    PlayerData playerData = currentMarketData.getPlayerData(player.getUniqueId());
+
+                                    int purchased = transactionManager.buyCommand(
+                                            player,
+                                            marketId,
+                                            currentMarketData,
+                                            playerData,
+                                            transactionName,
+                                            dynamicPrice != null ? dynamicPrice.getBuyPrice() : buyPrice,
+                                            buyItems,
+                                            buyCommands,
+                                            slot,
+                                            randomConfig.buyLimit(),
+                                            quantity);
+                                    marketMetrics.record(MarketOperation.BUY_COMMAND, start, purchased > 0);
+
+                                    if(purchased > 0) {
+                                        updateStockDisplay(marketId, currentMarketData, slot);
+                                        if(dynamicPrice != null) dynamicPrice.recordBuy(purchased);
+                                    }
+                                });
                             } else if(inventoryClickEvent.getClick().isRightClick()) {
-                                transactionManager.sellCommand(
-                                        player,
-                                        playerData,
-                                        transactionName,
-                                        sellPrice,
-                                        randomConfig.sellCommands(),
-                                        slot,
-                                        randomConfig.sellLimit());
+                                transactionSequencer.submit(player, marketId, slot, MarketOperation.SELL_COMMAND, (quantity, start) -> {
+                                    MarketData currentMarketData = marketDataManager.getMarketData(marketId);
+                                    if(currentMarketData == null || currentMarketData.getRotationSeed() != rotationSeed) {
+                                        transactionManager.rejectStaleTransaction(player, currentMarketData);
+                                        marketMetrics.record(MarketOperation.SELL_COMMAND, start, false);
+                                        return;
+                                    }
+                                    PlayerData playerData = currentMarketData.getPlayerData(player.getUniqueId());
+
+                                    int sold = transactionManager.sellCommand(
+                                            player,
+                                            marketId,
+                                            playerData,
+                                            transactionName,
+                                            dynamicPrice != null ? dynamicPrice.getSellPrice() : sellPrice,
+                                            sellCommands,
+                                            slot,
+                                            randomConfig.sellLimit(),
+                                            quantity);
+                                    marketMetrics.record(MarketOperation.SELL_COMMAND, start, sold > 0);
+
+                                    if(sold > 0 && dynamicPrice != null) dynamicPrice.recordSell(sold);
+                                });
                             }
                         })
                         .build();
 
-                buttons.put(slot, guiButton);
+                buttons.put(guiSlot, guiButton);
+
+                setDisplayRenderer(marketData, slot, keepState, globalStock, dynamicPrice, displayRenderer);
             }
         }
 
         return buttons;
     }
+
+    /**
+     * Adds a button that opens another page of the market.
+     * @param buttons The {@link Map} of slots and {@link GUIButton}s to add the button to.
+     * @param buttonConfig The {@link ButtonConfig} for the button. If null, no button is added.
+     * @param marketId The market id.
+     * @param targetPage The page the button opens.
+     */
+    private void addPageButton(@NotNull Map<Integer, GUIButton> buttons, @Nullable ButtonConfig buttonConfig, @NotNull String marketId, int targetPage) {
+        if(buttonConfig == null || buttonConfig.slot() == null) return;
+        ComponentLogger logger = skyMarket.getComponentLogger();
+
+        Optional<ItemStack> optionalItemStack = itemStackPool.getConstant(buttonConfig.item(), () -> new ItemStackBuilder(logger).fromItemStackConfig(buttonConfig.item(), null, null, List.of()).buildItemStack());
+        if(optionalItemStack.isEmpty()) return;
+
+        GUIButton guiButton = new GUIButton.Builder()
+                .setItemStack(optionalItemStack.get())
+                .setAction(event -> {
+                    Player player = (Player) event.getWhoClicked();
+
+                    marketScheduler.runLater(player, () ->
+                            guiManager.getOpenGUI(player.getUniqueId()).ifPresent(baseGUI -> {
+                                if(baseGUI instanceof ChestMarketGUI chestMarketGUI && chestMarketGUI.getMarketId().equals(marketId)) {
+                                    chestMarketGUI.openPage(targetPage);
+                                }
+                            }), 1L);
+                })
+                .build();
+
+        buttons.put(buttonConfig.slot(), guiButton);
+    }
+
+    /**
+     * Rolls a price from a fixed price or a minimum and maximum price.
+     * @param random The {@link Random} of the rotation.
+     * @param fixed The fixed price.
+     * @param min The minimum price.
+     * @param max The maximum price.
+     * @return The fixed price if configured, otherwise a random price between the minimum and maximum, or {@link Double#NaN} if neither is configured.
+     */
+    private double rollPrice(@NotNull Random random, @Nullable Double fixed, @Nullable Double min, @Nullable Double max) {
+        if(fixed != null) return fixed;
+        if(min != null && max != null) return PluginUtils.calculatePrice(random, min, max);
+
+        return Double.NaN;
+    }
+
+    /**
+     * Gets the seed used to roll the amounts and enchantments of a page.
+     * Each page uses its own seed so it can be created without creating the pages before it.
+     * @param rotationSeed The seed of the market's current rotation.
+     * @param page The page.
+     * @return The seed for the page.
+     */
+    private long getPageSeed(long rotationSeed, int page) {
+        return rotationSeed ^ ((page + 1) * 0x9E3779B97F4A7C15L);
+    }
+
+    /**
+     * Gets the {@link DynamicPrice} for a slot. The existing price is reused when the state of the rotation is kept, otherwise a new price is created and registered.
+     * When a registered price changes, the slot's display item is re-rendered so the GUI shows the price that is charged.
+     * @param marketId The market id.
+     * @param marketData The {@link MarketData} for the market.
+     * @param slot The slot.
+     * @param keepState Whether the global stock and dynamic prices of the page are kept.
+     * @param buyPrice The base buy price.
+     * @param sellPrice The base sell price.
+     * @param config The {@link ChestConfig.DynamicPricingConfig} of the item.
+     * @return The {@link DynamicPrice} for the slot.
+     */
+    private @NotNull DynamicPrice getDynamicPrice(@NotNull String marketId, @NotNull MarketData marketData, int slot, boolean keepState, double buyPrice, double sellPrice, @NotNull ChestConfig.DynamicPricingConfig config) {
+        if(keepState) {
+            @Nullable DynamicPrice existingPrice = marketData.getDynamicPrice(slot);
+            if(existingPrice != null) return existingPrice;
+        }
+
+        DynamicPrice dynamicPrice = new DynamicPrice(buyPrice, sellPrice, config);
+        marketData.setDynamicPrice(slot, dynamicPrice);
+        pricingManager.register(dynamicPrice, () -> {
+            // The price may belong to a rotation that has since been replaced.
+            MarketData currentMarketData = marketDataManager.getMarketData(marketId);
+            if(currentMarketData != null && currentMarketData.getDynamicPrice(slot) == dynamicPrice) updateStockDisplay(marketId, currentMarketData, slot);
+        });
+
+        return dynamicPrice;
+    }
+
+    /**
+     * Sets the global stock and the display renderer for a slot that has a global stock or a dynamic price. Other slots never need to be re-rendered.
+     * When the state of the rotation is kept, only the renderer is set so the remaining stock is left untouched.
+     * @param marketData The {@link MarketData} for the market.
+     * @param slot The slot.
+     * @param keepState Whether the global stock and dynamic prices of the page are kept.
+     * @param globalStock The configured global stock, or -1 if the slot has no global stock.
+     * @param dynamicPrice The {@link DynamicPrice} of the slot, or null if the slot does not use dynamic pricing.
+     * @param displayRenderer A function that creates the display {@link ItemStack} for the slot with the remaining stock and current prices.
+     */
+    private void setDisplayRenderer(@NotNull MarketData marketData, int slot, boolean keepState, int globalStock, @Nullable DynamicPrice dynamicPrice, @NotNull IntFunction<Optional<ItemStack>> displayRenderer) {
+        if(globalStock > 0 && !keepState) {
+            marketData.setGlobalStock(slot, globalStock, displayRenderer);
+        } else if(globalStock > 0 || dynamicPrice != null) {
+            marketData.setStockRenderer(slot, displayRenderer);
+        }
+    }
+
+    /**
+     * Re-renders the display item for a slot with a global stock or dynamic price and updates it for every player viewing the market.
+     * Only the GUIs of this market are visited, not every online player.
+     * Only the one slot is updated, the rest of the GUI is left untouched.
+     * @param marketId The market id.
+     * @param marketData The {@link MarketData} for the market.
+     * @param slot The slot to update.
+     */
+    private void updateStockDisplay(@NotNull String marketId, @NotNull MarketData marketData, int slot) {
+        Optional<ItemStack> optionalDisplayStack = marketData.renderStockDisplay(slot);
+        if(optionalDisplayStack.isEmpty()) return;
+        ItemStack displayStack = optionalDisplayStack.get();
+
+        for(BaseGUI baseGUI : guiManager.getOpenMarketGUIs(marketId)) {
+            if(baseGUI instanceof ChestMarketGUI chestMarketGUI) chestMarketGUI.setDisplayItem(slot, displayStack);
+        }
+    }
+
+    /**
+     * Creates a copy of the provided placeholders with the price placeholders added.
+     * @param placeholders The {@link List} of {@link TagResolver.Single} placeholders.
+     * @param buyPrice The buy price.
+     * @param sellPrice The sell price.
+     * @return A new {@link List} of {@link TagResolver.Single} placeholders.
+     */
+    private @NotNull List<TagResolver.Single> getPricePlaceholders(@NotNull List<TagResolver.Single> placeholders, double buyPrice, double sellPrice) {
+        List<TagResolver.Single> pricePlaceholders = new ArrayList<>(placeholders);
+        pricePlaceholders.add(Placeholder.parsed("buy_price", String.valueOf(buyPrice)));
+        pricePlaceholders.add(Placeholder.parsed("sell_price", String.valueOf(sellPrice)));
+
+        return pricePlaceholders;
+    }
+
+    /**
+     * Creates a copy of the provided placeholders with the price and stock placeholders of a display item added.
+     * The prices are the current dynamic prices if the slot uses dynamic pricing, so the display shows what a click charges.
+     * @param placeholders The {@link List} of {@link TagResolver.Single} placeholders.
+     * @param buyPrice The rolled buy price.
+     * @param sellPrice The rolled sell price.
+     * @param dynamicPrice The {@link DynamicPrice} of the slot, or null if the slot does not use dynamic pricing.
+     * @param stock The remaining global stock or -1 if there is no global stock.
+     * @return A new {@link List} of {@link TagResolver.Single} placeholders.
+     */
+    private @NotNull List<TagResolver.Single> getDisplayPlaceholders(@NotNull List<TagResolver.Single> placeholders, double buyPrice, double sellPrice, @Nullable DynamicPrice dynamicPrice, int stock) {
+        List<TagResolver.Single> displayPlaceholders = dynamicPrice != null
+                ? getPricePlaceholders(placeholders, dynamicPrice.getBuyPrice(), dynamicPrice.getSellPrice())
+                : getPricePlaceholders(placeholders, buyPrice, sellPrice);
+        displayPlaceholders.add(Placeholder.parsed("stock", stock >= 0 ? String.valueOf(stock) : "∞"));
+
+        return displayPlaceholders;
+    }
 }
@@ -0,0 +1,120 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.manager;
+
+import com.github.lukesky19.skymarket.configuration.SettingsManager;
+import com.github.lukesky19.skymarket.data.ClickBuckets;
+import com.github.lukesky19.skymarket.data.config.Settings;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class limits how often each player can click a market's items using a token bucket.
+ * Each click takes a token, and tokens are refilled at the configured rate up to the configured burst.
+ * Clicks without a token are dropped before they reach the market's buttons.
+ * All methods except the counters must be called from the main thread.
+ */
+public class ClickLimitManager {
+    private static final double DEFAULT_CLICKS_PER_SECOND = 10.0;
+    private static final int DEFAULT_BURST = 20;
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final @NotNull SettingsManager settingsManager;
+    private final @NotNull ClickBuckets buckets = new ClickBuckets();
+    private final @NotNull LongAdder allowedClicks = new LongAdder();
+    private final @NotNull LongAdder droppedClicks = new LongAdder();
+    private boolean enabled;
+    private double capacity;
+    private double tokensPerNano;
+
+    /**
+     * Default Constructor. You should use {@link ClickLimitManager#ClickLimitManager(SettingsManager)} instead.
+     * @deprecated You should use {@link ClickLimitManager#ClickLimitManager(SettingsManager)} instead.
+     * @throws RuntimeException if this method is used.
+     */
+    @Deprecated
+    public ClickLimitManager() {
+        throw new RuntimeException("The use of the default constructor is not allowed.");
+    }
+
+    /**
+     * Constructor
+     * @param settingsManager A {@link SettingsManager} instance.
+     */
+    public ClickLimitManager(@NotNull SettingsManager settingsManager) {
+        this.settingsManager = settingsManager;
+    }
+
+    /**
+     * Reads the click limit settings and resets every player's bucket.
+     */
+    public void reload() {
+        Settings settings = settingsManager.getSettingsConfig();
+        Settings.ClickLimit clickLimit = settings != null ? settings.clickLimit() : null;
+
+        enabled = clickLimit == null || clickLimit.enabled() == null || clickLimit.enabled();
+        capacity = clickLimit != null && clickLimit.burst() != null && clickLimit.burst() > 0 ? clickLimit.burst() : DEFAULT_BURST;
+        double clicksPerSecond = clickLimit != null && clickLimit.clicksPerSecond() != null && clickLimit.clicksPerSecond() > 0 ? clickLimit.clicksPerSecond() : DEFAULT_CLICKS_PER_SECOND;
+        tokensPerNano = clicksPerSecond / NANOS_PER_SECOND;
+
+        buckets.clear();
+    }
+
+    /**
+     * Checks if a player's click should be handled and takes a token from their bucket if it should.
+     * @param uuid The {@link UUID} of the player clicking.
+     * @return true if the click should be handled, false if it should be dropped.
+     */
+    public boolean tryClick(@NotNull UUID uuid) {
+        if(!enabled) return true;
+
+        if(buckets.tryTake(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), System.nanoTime(), capacity, tokensPerNano)) {
+            allowedClicks.increment();
+            return true;
+        }
+
+        droppedClicks.increment();
+        return false;
+    }
+
+    /**
+     * Removes a player's bucket. Used when the player quits.
+     * @param uuid The {@link UUID} of the player.
+     */
+    public void remove(@NotNull UUID uuid) {
+        buckets.remove(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * Get the number of clicks that were handled since the plugin was enabled.
+     * @return The number of clicks handled.
+     */
+    public long getAllowedClicks() {
+        return allowedClicks.sum();
+    }
+
+    /**
+     * Get the number of clicks that were dropped since the plugin was enabled.
+     * @return The number of clicks dropped.
+     */
+    public long getDroppedClicks() {
+        return droppedClicks.sum();
+    }
+}
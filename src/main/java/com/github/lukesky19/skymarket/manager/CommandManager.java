@@ -0,0 +1,229 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.manager;
+
+import com.github.lukesky19.skylib.api.adventure.AdventureUtil;
+import com.github.lukesky19.skymarket.SkyMarket;
+import com.github.lukesky19.skymarket.configuration.SettingsManager;
+import com.github.lukesky19.skymarket.data.CommandTemplate;
+import com.github.lukesky19.skymarket.data.config.Settings;
+import com.github.lukesky19.skymarket.jfr.CommandDispatchFlightEvent;
+import com.github.lukesky19.skymarket.scheduler.MarketScheduler;
+import com.github.lukesky19.skymarket.scheduler.MarketTask;
+import org.bukkit.command.CommandException;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class manages running the console commands for {@link com.github.lukesky19.skymarket.util.TransactionType#COMMAND} transactions.
+ * Commands are queued when a transaction completes and run over as many ticks as needed to stay within the configured tick budget.
+ * Commands run in the order they were queued, so each player's commands always run in the order they were purchased or sold.
+ */
+public class CommandManager {
+    private static final long DEFAULT_TICK_BUDGET_MICROS = 1000L;
+    private static final long DEFAULT_LAG_WARNING_MILLIS = 5000L;
+
+    private final @NotNull SkyMarket skyMarket;
+    private final @NotNull MarketScheduler marketScheduler;
+    private final @NotNull SettingsManager settingsManager;
+    private final @NotNull Map<String, CommandTemplate> templates = new HashMap<>();
+    private final @NotNull ArrayDeque<QueuedCommand> queue = new ArrayDeque<>();
+    private @Nullable MarketTask drainTask;
+    private long lastLagWarning;
+
+    /**
+     * Default Constructor. You should use {@link CommandManager#CommandManager(SkyMarket, MarketScheduler, SettingsManager)} instead.
+     * @deprecated You should use {@link CommandManager#CommandManager(SkyMarket, MarketScheduler, SettingsManager)} instead.
+     * @throws RuntimeException if this method is used.
+     */
+    @Deprecated
+    public CommandManager() {
+        throw new RuntimeException("The use of the default constructor is not allowed.");
+    }
+
+    /**
+     * Constructor
+     * @param skyMarket A {@link SkyMarket} instance.
+     * @param marketScheduler A {@link MarketScheduler} instance.
+     * @param settingsManager A {@link SettingsManager} instance.
+     */
+    public CommandManager(@NotNull SkyMarket skyMarket, @NotNull MarketScheduler marketScheduler, @NotNull SettingsManager settingsManager) {
+        this.skyMarket = skyMarket;
+        this.marketScheduler = marketScheduler;
+        this.settingsManager = settingsManager;
+    }
+
+    /**
+     * Forgets all parsed commands so they are parsed again from the reloaded market configurations.
+     * Commands that are already queued will still run.
+     */
+    public void reload() {
+        templates.clear();
+    }
+
+    /**
+     * Runs every queued command immediately. Used when the plugin is disabled so no purchased commands are lost.
+     */
+    public void stop() {
+        if(drainTask != null) {
+            drainTask.cancel();
+            drainTask = null;
+        }
+
+        QueuedCommand queuedCommand;
+        while((queuedCommand = queue.poll()) != null) {
+            dispatch(queuedCommand);
+        }
+    }
+
+    /**
+     * Parses the commands from a market configuration. Commands that have already been parsed are re-used.
+     * @param commands The {@link List} of commands to parse.
+     * @return A {@link List} of {@link CommandTemplate}s.
+     */
+    public @NotNull List<CommandTemplate> compile(@NotNull List<String> commands) {
+        if(commands.isEmpty()) return List.of();
+
+        List<CommandTemplate> compiled = new ArrayList<>(commands.size());
+        for(String command : commands) {
+            compiled.add(templates.computeIfAbsent(command, CommandTemplate::new));
+        }
+
+        return List.copyOf(compiled);
+    }
+
+    /**
+     * Queues the commands to run through console for a player.
+     * The placeholders are resolved now so the commands use the player's state at the time of the transaction.
+     * @param player The {@link Player} the commands are being run for.
+     * @param commands The {@link List} of {@link CommandTemplate}s to run.
+     */
+    public void queue(@NotNull Player player, @NotNull List<CommandTemplate> commands) {
+        if(commands.isEmpty()) return;
+
+        long now = System.nanoTime();
+        for(CommandTemplate command : commands) {
+            queue.add(new QueuedCommand(player.getName(), command.resolve(player), now));
+        }
+
+        if(drainTask == null) {
+            drainTask = marketScheduler.runTimer(this::drain, 0L, 1L);
+        }
+    }
+
+    /**
+     * Get the number of commands waiting to be run.
+     * @return The number of queued commands.
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Get how long the oldest queued command has been waiting to run.
+     * @return The time in milliseconds, or 0 if the queue is empty.
+     */
+    public long getLagMillis() {
+        QueuedCommand oldest = queue.peek();
+        if(oldest == null) return 0L;
+
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldest.queuedAt());
+    }
+
+    /**
+     * Runs queued commands until the queue is empty or the tick budget is used up.
+     * At least one command is always run so the queue makes progress.
+     */
+    private void drain() {
+        long budgetNanos = getTickBudgetMicros() * 1000L;
+        long start = System.nanoTime();
+
+        do {
+            QueuedCommand queuedCommand = queue.poll();
+            if(queuedCommand == null) break;
+
+            dispatch(queuedCommand);
+        } while(System.nanoTime() - start < budgetNanos);
+
+        long lagMillis = getLagMillis();
+        long lagWarningMillis = getLagWarningMillis();
+        if(lagMillis >= lagWarningMillis && System.currentTimeMillis() - lastLagWarning >= lagWarningMillis) {
+            lastLagWarning = System.currentTimeMillis();
+            skyMarket.getComponentLogger().warn(AdventureUtil.serialize("The command queue is " + lagMillis + "ms behind with " + queue.size() + " commands waiting."));
+        }
+
+        if(queue.isEmpty() && drainTask != null) {
+            drainTask.cancel();
+            drainTask = null;
+        }
+    }
+
+    /**
+     * Runs a single queued command through console.
+     * @param queuedCommand The {@link QueuedCommand} to run.
+     */
+    private void dispatch(@NotNull QueuedCommand queuedCommand) {
+        CommandDispatchFlightEvent flightEvent = new CommandDispatchFlightEvent();
+        flightEvent.begin();
+        long queueTime = System.nanoTime() - queuedCommand.queuedAt();
+        boolean dispatched = true;
+
+        try {
+            skyMarket.getServer().dispatchCommand(skyMarket.getServer().getConsoleSender(), queuedCommand.command());
+        } catch (CommandException e) {
+            dispatched = false;
+            skyMarket.getComponentLogger().error(AdventureUtil.serialize("Failed to run the command " + queuedCommand.command() + " for " + queuedCommand.playerName() + ". " + e.getMessage()));
+        }
+
+        flightEvent.record(queuedCommand.command(), queuedCommand.playerName(), queueTime, dispatched);
+    }
+
+    /**
+     * Gets the configured tick budget in microseconds.
+     * @return The tick budget in microseconds.
+     */
+    private long getTickBudgetMicros() {
+        Settings settings = settingsManager.getSettingsConfig();
+        if(settings == null || settings.commandQueue() == null || settings.commandQueue().tickBudgetMicros() == null || settings.commandQueue().tickBudgetMicros() <= 0) return DEFAULT_TICK_BUDGET_MICROS;
+
+        return settings.commandQueue().tickBudgetMicros();
+    }
+
+    /**
+     * Gets the configured lag in milliseconds after which a warning is logged.
+     * @return The lag in milliseconds.
+     */
+    private long getLagWarningMillis() {
+        Settings settings = settingsManager.getSettingsConfig();
+        if(settings == null || settings.commandQueue() == null || settings.commandQueue().lagWarningMillis() == null || settings.commandQueue().lagWarningMillis() <= 0) return DEFAULT_LAG_WARNING_MILLIS;
+
+        return settings.commandQueue().lagWarningMillis();
+    }
+
+    /**
+     * A single command waiting to be run.
+     * @param playerName The name of the player the command is being run for.
+     * @param command The command with all placeholders resolved.
+     * @param queuedAt The {@link System#nanoTime()} when the command was queued.
+     */
+    private record QueuedCommand(@NotNull String playerName, @NotNull String command, long queuedAt) {}
+}
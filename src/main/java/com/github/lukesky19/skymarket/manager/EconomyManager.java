@@ -0,0 +1,399 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.manager;
+
+import com.github.lukesky19.skylib.api.adventure.AdventureUtil;
+import com.github.lukesky19.skymarket.SkyMarket;
+import com.github.lukesky19.skymarket.configuration.SettingsManager;
+import com.github.lukesky19.skymarket.data.config.Settings;
+import com.github.lukesky19.skymarket.scheduler.MarketScheduler;
+import com.github.lukesky19.skymarket.scheduler.MarketTask;
+import net.milkbowl.vault.economy.Economy;
+import net.milkbowl.vault.economy.EconomyResponse;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class sits between the plugin and Vault's {@link Economy}.
+ * Balances are cached per player so checking if a player can afford something does not wait for the economy plugin.
+ * Withdrawals are sent to the economy plugin straight away, because the item or command is given to the player as soon as the withdrawal succeeds.
+ * Deposits are combined per player and sent to the economy plugin on a background thread at a fixed interval.
+ * A deposit the economy plugin rejects stays owed to the player and is sent again with the next flush.
+ * All methods except the background commits must be called from the main thread.
+ */
+public class EconomyManager {
+    private static final long DEFAULT_FLUSH_INTERVAL_TICKS = 20L;
+    private static final long DEFAULT_BALANCE_CACHE_SECONDS = 5L;
+
+    private final @NotNull SkyMarket skyMarket;
+    private final @NotNull MarketScheduler marketScheduler;
+    private final @NotNull SettingsManager settingsManager;
+    private final @NotNull Map<UUID, Account> accounts = new HashMap<>();
+    private final @NotNull Set<UUID> prefetching = new HashSet<>();
+    private @Nullable ExecutorService executor;
+    private @Nullable MarketTask flushTask;
+
+    /**
+     * Default Constructor. You should use {@link EconomyManager#EconomyManager(SkyMarket, MarketScheduler, SettingsManager)} instead.
+     * @deprecated You should use {@link EconomyManager#EconomyManager(SkyMarket, MarketScheduler, SettingsManager)} instead.
+     * @throws RuntimeException if this method is used.
+     */
+    @Deprecated
+    public EconomyManager() {
+        throw new RuntimeException("The use of the default constructor is not allowed.");
+    }
+
+    /**
+     * Constructor
+     * @param skyMarket A {@link SkyMarket} instance.
+     * @param marketScheduler A {@link MarketScheduler} instance.
+     * @param settingsManager A {@link SettingsManager} instance.
+     */
+    public EconomyManager(@NotNull SkyMarket skyMarket, @NotNull MarketScheduler marketScheduler, @NotNull SettingsManager settingsManager) {
+        this.skyMarket = skyMarket;
+        this.marketScheduler = marketScheduler;
+        this.settingsManager = settingsManager;
+    }
+
+    /**
+     * Starts or restarts the task that sends pending deposits and withdrawals to the economy plugin.
+     */
+    public void reload() {
+        if(flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+
+        if(executor == null) {
+            executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "SkyMarket-Economy");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        long flushIntervalTicks = getFlushIntervalTicks();
+        flushTask = marketScheduler.runTimer(this::flush, flushIntervalTicks, flushIntervalTicks);
+    }
+
+    /**
+     * Stops the background thread and sends any pending deposits and withdrawals to the economy plugin on the calling thread.
+     * Used when the plugin is disabled.
+     */
+    public void stop() {
+        if(flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+
+        if(executor != null) {
+            executor.shutdown();
+            try {
+                if(!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                    skyMarket.getComponentLogger().warn(AdventureUtil.serialize("Timed out waiting for pending economy transactions to complete."));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            executor = null;
+        }
+
+        for(Account account : accounts.values()) {
+            if(account.pending == 0) continue;
+
+            if(!commit(account.player, account.pending)) {
+                skyMarket.getComponentLogger().error(AdventureUtil.serialize(account.player.getName() + " (" + account.player.getUniqueId() + ") is still owed " + account.pending + " that the economy plugin did not accept."));
+            }
+
+            account.pending = 0;
+        }
+
+        accounts.clear();
+        prefetching.clear();
+    }
+
+    /**
+     * Loads a player's balance on the background thread so the first purchase does not have to wait for the economy plugin.
+     * The account is only added once the balance is loaded. Until then, {@link #getAccount(Player)} loads the balance on the main thread.
+     * @param player The {@link Player} to load the balance for.
+     */
+    public void prefetch(@NotNull Player player) {
+        UUID uuid = player.getUniqueId();
+        ExecutorService currentExecutor = executor;
+        if(currentExecutor == null || accounts.containsKey(uuid) || !prefetching.add(uuid)) return;
+
+        currentExecutor.execute(() -> {
+            Double providerBalance = readBalance(player);
+
+            runOnMainThread(() -> {
+                prefetching.remove(uuid);
+
+                // The account may have been loaded on the main thread because the player traded before the balance was read.
+                if(providerBalance == null || accounts.containsKey(uuid)) return;
+
+                accounts.put(uuid, new Account(player, providerBalance, System.currentTimeMillis()));
+            });
+        });
+    }
+
+    /**
+     * Gets a player's balance including any deposits and withdrawals not yet sent to the economy plugin.
+     * @param player The {@link Player} to get the balance for.
+     * @return The player's balance.
+     */
+    public double getBalance(@NotNull Player player) {
+        return getAccount(player).balance;
+    }
+
+    /**
+     * Checks if a player has at least the provided amount of money.
+     * @param player The {@link Player} to check.
+     * @param amount The amount of money.
+     * @return true if the player has at least the amount, otherwise false.
+     */
+    public boolean has(@NotNull Player player, double amount) {
+        return getBalance(player) >= amount;
+    }
+
+    /**
+     * Withdraws money from a player's balance. The withdrawal is sent to the economy plugin before this method returns,
+     * so the purchase can be given to the player as soon as it succeeds.
+     * If the economy plugin rejects the withdrawal, the cached balance is read again from the economy plugin.
+     * @param player The {@link Player} to withdraw from.
+     * @param amount The amount of money to withdraw.
+     * @return true if the economy plugin accepted the withdrawal, otherwise false.
+     */
+    public boolean withdraw(@NotNull Player player, double amount) {
+        Account account = getAccount(player);
+        if(account.balance < amount) return false;
+
+        if(!commit(player, -amount)) {
+            // The cached balance was wrong, for example because the player paid money away since it was read.
+            Double providerBalance = readBalance(player);
+            if(providerBalance != null) {
+                account.balance = providerBalance + account.pending + account.inFlight;
+                account.loadedAt = System.currentTimeMillis();
+            }
+
+            return false;
+        }
+
+        account.balance -= amount;
+        account.withdrawals++;
+
+        return true;
+    }
+
+    /**
+     * Adds money to a player's balance. The deposit is sent to the economy plugin with the next flush.
+     * @param player The {@link Player} to deposit to.
+     * @param amount The amount of money to deposit.
+     */
+    public void deposit(@NotNull Player player, double amount) {
+        Account account = getAccount(player);
+
+        account.balance += amount;
+        account.pending += amount;
+    }
+
+    /**
+     * Gets the cached {@link Account} for a player, loading the balance if the player has no account yet
+     * and refreshing it in the background if it is older than the configured cache time.
+     * @param player The {@link Player} to get the account for.
+     * @return The player's {@link Account}.
+     */
+    private @NotNull Account getAccount(@NotNull Player player) {
+        long now = System.currentTimeMillis();
+        Account account = accounts.get(player.getUniqueId());
+
+        if(account == null) {
+            account = new Account(player, skyMarket.getEconomy().getBalance(player), now);
+            accounts.put(player.getUniqueId(), account);
+            return account;
+        }
+
+        if(!account.refreshing && now - account.loadedAt > getBalanceCacheSeconds() * 1000L) {
+            account.refreshing = true;
+            refresh(account);
+        }
+
+        return account;
+    }
+
+    /**
+     * Reads a player's balance on the background thread and updates the cached balance on the main thread.
+     * Deposits that were not sent to the economy plugin before the balance was read are added back on top of it.
+     * The result is thrown away if the player made a withdrawal while it was being read.
+     * @param account The {@link Account} to refresh.
+     */
+    private void refresh(@NotNull Account account) {
+        ExecutorService currentExecutor = executor;
+        if(currentExecutor == null) {
+            account.refreshing = false;
+            return;
+        }
+
+        long withdrawals = account.withdrawals;
+        currentExecutor.execute(() -> {
+            Double providerBalance = readBalance(account.player);
+
+            // Deposits sent before the balance was read finish on the main thread before this does, so inFlight only holds the deposits sent after it.
+            runOnMainThread(() -> {
+                account.refreshing = false;
+                if(providerBalance == null || account.withdrawals != withdrawals) return;
+
+                account.balance = providerBalance + account.pending + account.inFlight;
+                account.loadedAt = System.currentTimeMillis();
+            });
+        });
+    }
+
+    /**
+     * Sends each player's combined deposits to the economy plugin on the background thread.
+     * Commits for a player are sent in the order they were made. If the economy plugin rejects one, the money stays owed and is sent again with the next flush.
+     * Accounts for players that are offline with nothing pending are removed.
+     */
+    private void flush() {
+        ExecutorService currentExecutor = executor;
+        if(currentExecutor == null) return;
+
+        Iterator<Account> iterator = accounts.values().iterator();
+        while(iterator.hasNext()) {
+            Account account = iterator.next();
+
+            if(account.pending == 0) {
+                if(!account.player.isOnline() && account.inFlight == 0 && !account.refreshing) iterator.remove();
+                continue;
+            }
+
+            double delta = account.pending;
+            account.pending = 0;
+            account.inFlight += delta;
+
+            currentExecutor.execute(() -> {
+                boolean success = commit(account.player, delta);
+
+                runOnMainThread(() -> {
+                    account.inFlight -= delta;
+
+                    // The player has already given up the items they sold, so the money stays owed instead of being dropped.
+                    if(!success) account.pending += delta;
+                });
+            });
+        }
+    }
+
+    /**
+     * Reads a player's balance from the economy plugin.
+     * @param player The {@link OfflinePlayer} to read the balance of.
+     * @return The player's balance, or null if the economy plugin failed to read it.
+     */
+    private @Nullable Double readBalance(@NotNull OfflinePlayer player) {
+        try {
+            return skyMarket.getEconomy().getBalance(player);
+        } catch (RuntimeException e) {
+            skyMarket.getComponentLogger().error(AdventureUtil.serialize("Failed to read the balance of " + player.getName() + ". " + e.getMessage()));
+            return null;
+        }
+    }
+
+    /**
+     * Sends a single deposit or withdrawal to the economy plugin.
+     * @param player The {@link OfflinePlayer} to deposit to or withdraw from.
+     * @param delta The amount to deposit if positive or withdraw if negative.
+     * @return true if the economy plugin accepted the change, otherwise false.
+     */
+    private boolean commit(@NotNull OfflinePlayer player, double delta) {
+        Economy economy = skyMarket.getEconomy();
+
+        try {
+            EconomyResponse response = delta > 0 ? economy.depositPlayer(player, delta) : economy.withdrawPlayer(player, -delta);
+            if(response.transactionSuccess()) return true;
+
+            skyMarket.getComponentLogger().error(AdventureUtil.serialize("The economy plugin rejected a change of " + delta + " to the balance of " + player.getName() + ". " + response.errorMessage));
+        } catch (RuntimeException e) {
+            skyMarket.getComponentLogger().error(AdventureUtil.serialize("Failed to change the balance of " + player.getName() + " by " + delta + ". " + e.getMessage()));
+        }
+
+        return false;
+    }
+
+    /**
+     * Runs a task on the main thread if the plugin is still enabled.
+     * @param runnable The task to run.
+     */
+    private void runOnMainThread(@NotNull Runnable runnable) {
+        if(!skyMarket.isEnabled()) return;
+
+        marketScheduler.run(runnable);
+    }
+
+    /**
+     * Gets the configured flush interval in ticks.
+     * @return The flush interval in ticks.
+     */
+    private long getFlushIntervalTicks() {
+        Settings settings = settingsManager.getSettingsConfig();
+        if(settings == null || settings.economy() == null || settings.economy().flushIntervalTicks() == null || settings.economy().flushIntervalTicks() <= 0) return DEFAULT_FLUSH_INTERVAL_TICKS;
+
+        return settings.economy().flushIntervalTicks();
+    }
+
+    /**
+     * Gets the configured balance cache time in seconds.
+     * @return The balance cache time in seconds.
+     */
+    private long getBalanceCacheSeconds() {
+        Settings settings = settingsManager.getSettingsConfig();
+        if(settings == null || settings.economy() == null || settings.economy().balanceCacheSeconds() == null || settings.economy().balanceCacheSeconds() < 0) return DEFAULT_BALANCE_CACHE_SECONDS;
+
+        return settings.economy().balanceCacheSeconds();
+    }
+
+    /**
+     * The cached balance of a single player.
+     * Only modified on the main thread.
+     */
+    private static final class Account {
+        private final @NotNull OfflinePlayer player;
+        // The balance including pending and in-flight changes
+        private double balance;
+        // Deposits not yet sent to the economy plugin
+        private double pending;
+        // Deposits sent to the economy plugin that have not completed yet
+        private double inFlight;
+        // The number of withdrawals made, used to tell if a balance read in the background is out of date
+        private long withdrawals;
+        private long loadedAt;
+        private boolean refreshing;
+
+        private Account(@NotNull OfflinePlayer player, double balance, long loadedAt) {
+            this.player = player;
+            this.balance = balance;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -18,13 +18,25 @@
 package com.github.lukesky19.skymarket.manager;
 
 import com.github.lukesky19.skylib.api.gui.AbstractGUIManager;
+import com.github.lukesky19.skylib.api.gui.interfaces.BaseGUI;
 import com.github.lukesky19.skymarket.SkyMarket;
+import com.github.lukesky19.skymarket.gui.ChestMarketGUI;
+import com.github.lukesky19.skymarket.gui.MerchantMarketGUI;
+import org.bukkit.inventory.InventoryView;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
 
 /**
  * This class manages the tracking of open guis.
+ * Open market GUIs are also indexed by their {@link InventoryView}, so inventory events can be matched to a GUI by identity without allocating,
+ * and by their market id, so updates to a market only visit the players viewing it.
  */
 public class GUIManager extends AbstractGUIManager {
+    private final @NotNull Map<InventoryView, BaseGUI> openViews = new IdentityHashMap<>();
+    private final @NotNull Map<String, Map<InventoryView, BaseGUI>> openMarketViews = new HashMap<>();
+
     /**
      * Constructor
      * @param skyMarket A {@link SkyMarket} instance.
@@ -32,4 +44,73 @@ public class GUIManager extends AbstractGUIManager {
     public GUIManager(@NotNull SkyMarket skyMarket) {
         super(skyMarket);
     }
+
+    /**
+     * Indexes an opened GUI by the {@link InventoryView} the player is viewing.
+     * @param inventoryView The {@link InventoryView} of the opened GUI.
+     * @param baseGUI The {@link BaseGUI} that was opened.
+     */
+    public void trackView(@NotNull InventoryView inventoryView, @NotNull BaseGUI baseGUI) {
+        openViews.put(inventoryView, baseGUI);
+
+        @Nullable String marketId = getMarketId(baseGUI);
+        if(marketId != null) openMarketViews.computeIfAbsent(marketId, id -> new IdentityHashMap<>()).put(inventoryView, baseGUI);
+    }
+
+    /**
+     * Removes a closed {@link InventoryView} from the index.
+     * @param inventoryView The {@link InventoryView} that was closed.
+     */
+    public void untrackView(@NotNull InventoryView inventoryView) {
+        @Nullable BaseGUI baseGUI = openViews.remove(inventoryView);
+        if(baseGUI == null) return;
+
+        @Nullable String marketId = getMarketId(baseGUI);
+        if(marketId == null) return;
+
+        @Nullable Map<InventoryView, BaseGUI> marketViews = openMarketViews.get(marketId);
+        if(marketViews == null) return;
+
+        marketViews.remove(inventoryView);
+        if(marketViews.isEmpty()) openMarketViews.remove(marketId);
+    }
+
+    /**
+     * Gets the GUI that is displayed by an {@link InventoryView}.
+     * @param inventoryView The {@link InventoryView}.
+     * @return The {@link BaseGUI} displayed by the view, or null if the view does not belong to a market.
+     */
+    public @Nullable BaseGUI getGUI(@NotNull InventoryView inventoryView) {
+        return openViews.get(inventoryView);
+    }
+
+    /**
+     * Gets the GUIs of a market that players currently have open.
+     * @param marketId The market id.
+     * @return A {@link Collection} of the open {@link BaseGUI}s. Must not be kept, because it changes as GUIs are opened and closed.
+     */
+    public @NotNull Collection<BaseGUI> getOpenMarketGUIs(@NotNull String marketId) {
+        @Nullable Map<InventoryView, BaseGUI> marketViews = openMarketViews.get(marketId);
+        return marketViews != null ? marketViews.values() : List.of();
+    }
+
+    /**
+     * Gets the ids of the markets that players currently have open.
+     * @return An unmodifiable {@link Set} of market ids. Must not be kept, because it changes as GUIs are opened and closed.
+     */
+    public @NotNull Set<String> getOpenMarketIds() {
+        return Collections.unmodifiableSet(openMarketViews.keySet());
+    }
+
+    /**
+     * Gets the id of the market a GUI belongs to.
+     * @param baseGUI The {@link BaseGUI}.
+     * @return The market id, or null if the GUI does not belong to a single market.
+     */
+    private @Nullable String getMarketId(@NotNull BaseGUI baseGUI) {
+        if(baseGUI instanceof ChestMarketGUI chestMarketGUI) return chestMarketGUI.getMarketId();
+        if(baseGUI instanceof MerchantMarketGUI merchantMarketGUI) return merchantMarketGUI.getMarketId();
+
+        return null;
+    }
 }
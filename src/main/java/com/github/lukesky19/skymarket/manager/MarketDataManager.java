@@ -18,9 +18,11 @@
 package com.github.lukesky19.skymarket.manager;
 
 import com.github.lukesky19.skymarket.data.MarketData;
+import com.github.lukesky19.skymarket.scheduler.MarketTask;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -54,9 +56,22 @@ public class MarketDataManager {
     }
 
     /**
-     * Clears the stored market data.
+     * Get all stored {@link MarketData}.
+     * @return An unmodifiable {@link Map} mapping market ids to {@link MarketData}.
+     */
+    public @NotNull Map<String, MarketData> getMarkets() {
+        return Collections.unmodifiableMap(markets);
+    }
+
+    /**
+     * Clears the stored market data and cancels each market's refresh task.
      */
     public void clearMarketData() {
+        for(MarketData marketData : markets.values()) {
+            MarketTask refreshTask = marketData.getRefreshTask();
+            if(refreshTask != null) refreshTask.cancel();
+        }
+
         markets.clear();
     }
 }
@@ -25,40 +25,68 @@ import com.github.lukesky19.skylib.api.time.TimeUtil;
 import com.github.lukesky19.skymarket.SkyMarket;
 import com.github.lukesky19.skymarket.configuration.LocaleManager;
 import com.github.lukesky19.skymarket.configuration.MarketConfigManager;
-import com.github.lukesky19.skymarket.data.config.Locale;
+import com.github.lukesky19.skymarket.configuration.SettingsManager;
+import com.github.lukesky19.skymarket.data.config.Settings;
 import com.github.lukesky19.skymarket.data.config.gui.ChestConfig;
 import com.github.lukesky19.skymarket.data.config.gui.MerchantConfig;
+import com.github.lukesky19.skymarket.data.CompiledLocale;
+import com.github.lukesky19.skymarket.data.DynamicPrice;
 import com.github.lukesky19.skymarket.data.MarketData;
 import com.github.lukesky19.skymarket.data.PlayerData;
+import com.github.lukesky19.skymarket.data.SearchResult;
+import com.github.lukesky19.skymarket.event.MarketRefreshEvent;
 import com.github.lukesky19.skymarket.gui.ChestMarketGUI;
 import com.github.lukesky19.skymarket.gui.MerchantMarketGUI;
+import com.github.lukesky19.skymarket.gui.SearchResultsGUI;
+import com.github.lukesky19.skymarket.jfr.GUIOpenFlightEvent;
+import com.github.lukesky19.skymarket.jfr.MarketRefreshFlightEvent;
+import com.github.lukesky19.skymarket.scheduler.MarketScheduler;
+import com.github.lukesky19.skymarket.scheduler.MarketTask;
+import com.github.lukesky19.skymarket.sync.SyncMessage;
+import com.github.lukesky19.skymarket.util.LocaleMessage;
+import com.github.lukesky19.skymarket.util.MarketOperation;
 import com.github.lukesky19.skymarket.util.MarketType;
+import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.logger.slf4j.ComponentLogger;
-import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
-import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
 import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.ItemType;
 import org.bukkit.inventory.MerchantRecipe;
-import org.bukkit.scheduler.BukkitTask;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * This class contains methods to interface with {@link MarketData} and the refreshing of markets.
  */
 public class MarketManager {
+    private static final long DEFAULT_IDLE_UNLOAD_SECONDS = 1800L;
+    private static final long IDLE_CHECK_INTERVAL_TICKS = 1200L;
+    private static final int SEARCH_RESULT_SLOTS = 45;
+    private static final int SEARCH_EXIT_SLOT = 49;
+    private static final long FOLLOWER_GRACE_TICKS = 100L;
+
     private final @NotNull SkyMarket skyMarket;
+    private final @NotNull MarketScheduler marketScheduler;
+    private final @NotNull SettingsManager settingsManager;
     private final @NotNull LocaleManager localeManager;
     private final @NotNull GUIManager guiManager;
     private final @NotNull MarketConfigManager marketConfigManager;
     private final @NotNull MarketDataManager marketDataManager;
     private final @NotNull ButtonManager buttonManager;
     private final @NotNull TradeManager tradeManager;
+    private final @NotNull BroadcastManager broadcastManager;
+    private final @NotNull MetricsManager metricsManager;
+    private final @NotNull SearchManager searchManager;
+    private @Nullable MarketTask idleTask;
+    private boolean followingRotations;
 
     /**
-     * Default Constructor. You should use {@link MarketManager#MarketManager(SkyMarket, LocaleManager, GUIManager, MarketConfigManager, MarketDataManager, ButtonManager, TradeManager)} instead.
-     * @deprecated You should use {@link MarketManager#MarketManager(SkyMarket, LocaleManager, GUIManager, MarketConfigManager, MarketDataManager, ButtonManager, TradeManager)} instead.
+     * Default Constructor. You should use {@link MarketManager#MarketManager(SkyMarket, MarketScheduler, SettingsManager, LocaleManager, GUIManager, MarketConfigManager, MarketDataManager, ButtonManager, TradeManager, BroadcastManager, MetricsManager, SearchManager)} instead.
+     * @deprecated You should use {@link MarketManager#MarketManager(SkyMarket, MarketScheduler, SettingsManager, LocaleManager, GUIManager, MarketConfigManager, MarketDataManager, ButtonManager, TradeManager, BroadcastManager, MetricsManager, SearchManager)} instead.
      * @throws RuntimeException if this method is used.
      */
     @Deprecated
@@ -69,99 +97,162 @@ public class MarketManager {
     /**
      * Constructor
      * @param skyMarket A {@link SkyMarket} instance.
+     * @param marketScheduler A {@link MarketScheduler} instance.
+     * @param settingsManager A {@link SettingsManager} instance.
      * @param localeManager A {@link LocaleManager} instance.
      * @param guiManager A {@link GUIManager} instance.
      * @param marketConfigManager A {@link MarketConfigManager} instance.
      * @param marketDataManager A {@link MarketDataManager} instance.
      * @param buttonManager A {@link ButtonManager} instance.
      * @param tradeManager A {@link TradeManager} instance.
+     * @param broadcastManager A {@link BroadcastManager} instance.
+     * @param metricsManager A {@link MetricsManager} instance.
+     * @param searchManager A {@link SearchManager} instance.
      */
     public MarketManager(
             @NotNull SkyMarket skyMarket,
+            @NotNull MarketScheduler marketScheduler,
+            @NotNull SettingsManager settingsManager,
             @NotNull LocaleManager localeManager,
             @NotNull GUIManager guiManager,
             @NotNull MarketConfigManager marketConfigManager,
             @NotNull MarketDataManager marketDataManager,
             @NotNull ButtonManager buttonManager,
-            @NotNull TradeManager tradeManager) {
+            @NotNull TradeManager tradeManager,
+            @NotNull BroadcastManager broadcastManager,
+            @NotNull MetricsManager metricsManager,
+            @NotNull SearchManager searchManager) {
         this.skyMarket = skyMarket;
+        this.marketScheduler = marketScheduler;
+        this.settingsManager = settingsManager;
         this.localeManager = localeManager;
         this.guiManager = guiManager;
         this.marketConfigManager = marketConfigManager;
         this.marketDataManager = marketDataManager;
         this.buttonManager = buttonManager;
         this.tradeManager = tradeManager;
+        this.broadcastManager = broadcastManager;
+        this.metricsManager = metricsManager;
+        this.searchManager = searchManager;
     }
 
     /**
      * This should only be run on plugin load or reload. To refresh markets, use {@link #refreshMarkets()} or {@link #refreshMarket(String)}
+     * Markets only hold their schedule until they are first opened, at which point their buttons or trades are generated.
      */
     public void reload() {
+        stop();
+        searchManager.clear();
+
         marketConfigManager.getChestConfigs().forEach((marketId, chestConfig) -> {
             // Config is validated on load so these will never be null.
             assert chestConfig.marketName() != null;
             assert chestConfig.guiData().guiType() != null;
             assert chestConfig.guiData().guiName() != null;
-            MarketData marketData = new MarketData(chestConfig.marketName(), MarketType.CHEST, chestConfig.guiData().guiType(), chestConfig.guiData().guiName(), buttonManager.createButtons(chestConfig.guiData().guiType(), chestConfig, marketId), List.of());
-
-            // Calculate the delay time and when the next refresh will occur.
-            assert chestConfig.refreshTime() != null; // Config is validated on load.
-            long delayMilliseconds = TimeUtil.stringToMillis(chestConfig.refreshTime());
-            long delaySeconds = delayMilliseconds / 1000;
-            long refreshTime = System.currentTimeMillis() + delayMilliseconds;
-
-            // Restart the refresh task
-            BukkitTask refreshTask = skyMarket.getServer().getScheduler().runTaskLater(skyMarket, () -> refreshMarket(marketId), delaySeconds * 20);
+            assert chestConfig.refreshTime() != null;
+            MarketData marketData = new MarketData(chestConfig.marketName(), MarketType.CHEST, chestConfig.guiData().guiType(), chestConfig.guiData().guiName(), new HashMap<>(), new ArrayList<>());
 
-            // Set the refresh task in the market data
-            marketData.setRefreshTask(refreshTask);
-
-            // Set the refresh time in the market data
-            marketData.setRefreshTime(refreshTime);
+            // Start the first rotation and the refresh task
+            startRotation(marketId, marketData, chestConfig.refreshTime());
 
             // Store the MarketData in MarketDataManager
             marketDataManager.setMarketData(marketId, marketData);
         });
 
         marketConfigManager.getMerchantConfigs().forEach((marketId, merchantConfig) -> {
-            // Config is validated on load so this will never be null.
+            // Config is validated on load so these will never be null.
             assert merchantConfig.marketName() != null;
             assert merchantConfig.guiName() != null;
-            MarketData marketData = new MarketData(merchantConfig.marketName(), MarketType.MERCHANT, GUIType.MERCHANT, merchantConfig.guiName(), new HashMap<>(), tradeManager.createTrades(merchantConfig));
-
-            // Calculate the delay time and when the next refresh will occur.
-            assert merchantConfig.refreshTime() != null; // Config is validated on load.
-            long delayMilliseconds = TimeUtil.stringToMillis(merchantConfig.refreshTime());
-            long delaySeconds = delayMilliseconds / 1000;
-            long refreshTime = System.currentTimeMillis() + delayMilliseconds;
+            assert merchantConfig.refreshTime() != null;
+            MarketData marketData = new MarketData(merchantConfig.marketName(), MarketType.MERCHANT, GUIType.MERCHANT, merchantConfig.guiName(), new HashMap<>(), new ArrayList<>());
 
-            // Restart the refresh task
-            BukkitTask refreshTask = skyMarket.getServer().getScheduler().runTaskLater(skyMarket, () -> refreshMarket(marketId), delaySeconds * 20);
-
-            // Set the refresh task in the market data
-            marketData.setRefreshTask(refreshTask);
-
-            // Set the refresh time in the market data
-            marketData.setRefreshTime(refreshTime);
+            // Start the first rotation and the refresh task
+            startRotation(marketId, marketData, merchantConfig.refreshTime());
 
             // Store the MarketData in MarketDataManager
             marketDataManager.setMarketData(marketId, marketData);
         });
+
+        idleTask = marketScheduler.runTimer(this::unloadIdleMarkets, IDLE_CHECK_INTERVAL_TICKS, IDLE_CHECK_INTERVAL_TICKS);
+    }
+
+    /**
+     * Stops the task that unloads idle markets.
+     */
+    public void stop() {
+        if(idleTask != null) {
+            idleTask.cancel();
+            idleTask = null;
+        }
     }
 
     /**
      * Refreshes a specific market based on the market id.
+     * A {@link MarketRefreshEvent} is called after the refresh when plugins are listening for it.
      * @param marketId The id of the market to refresh.
      * @return true if the market refreshed successfully, false if not.
      */
     public boolean refreshMarket(@NotNull String marketId) {
-        Locale locale = localeManager.getLocale();
+        return refreshMarket(marketId, null);
+    }
+
+    /**
+     * Refreshes a market into a rotation that was published by another server.
+     * @param rotation The published {@link SyncMessage.Rotation}.
+     * @return true if the market refreshed, false if the market does not exist or is already in the rotation.
+     */
+    public boolean applyRotation(@NotNull SyncMessage.Rotation rotation) {
+        @Nullable MarketData marketData = marketDataManager.getMarketData(rotation.marketId());
+        if(marketData == null || marketData.getRotationSeed() == rotation.rotationSeed()) return false;
+
+        return refreshMarket(rotation.marketId(), rotation);
+    }
+
+    /**
+     * Sets whether this server follows the rotations published by another server.
+     * While following, a market whose rotation ends waits for the published rotation and only refreshes itself if it does not arrive in time.
+     * @param followingRotations true if this server follows another server's rotations.
+     */
+    public void setFollowingRotations(boolean followingRotations) {
+        this.followingRotations = followingRotations;
+    }
 
+    /**
+     * Refreshes a specific market, recording its metrics and calling the {@link MarketRefreshEvent}.
+     * @param marketId The id of the market to refresh.
+     * @param rotation The {@link SyncMessage.Rotation} to refresh into, or null to roll a new rotation.
+     * @return true if the market refreshed successfully, false if not.
+     */
+    private boolean refreshMarket(@NotNull String marketId, @Nullable SyncMessage.Rotation rotation) {
+        MarketRefreshFlightEvent flightEvent = new MarketRefreshFlightEvent();
+        flightEvent.begin();
+        long start = System.nanoTime();
+
+        boolean refreshed = refresh(marketId, rotation);
+
+        recordMetrics(marketId, MarketOperation.REFRESH, start, refreshed);
+        if(flightEvent.isEnabled()) flightEvent.record(marketId, getSlotsBuilt(marketId), refreshed);
+
+        if(refreshed && MarketRefreshEvent.hasListeners()) {
+            @Nullable MarketData marketData = marketDataManager.getMarketData(marketId);
+            if(marketData != null) new MarketRefreshEvent(marketId, marketData.getMarketName(), marketData.getMarketType()).callEvent();
+        }
+
+        return refreshed;
+    }
+
+    /**
+     * Refreshes a specific market based on the market id.
+     * @param marketId The id of the market to refresh.
+     * @param rotation The {@link SyncMessage.Rotation} to refresh into, or null to roll a new rotation.
+     * @return true if the market refreshed successfully, false if not.
+     */
+    private boolean refresh(@NotNull String marketId, @Nullable SyncMessage.Rotation rotation) {
         MarketData marketData = marketDataManager.getMarketData(marketId);
         if(marketData == null) return false;
 
         @NotNull MarketType marketType = marketData.getMarketType();
-        @Nullable BukkitTask refreshTask = marketData.getRefreshTask();
+        @Nullable MarketTask refreshTask = marketData.getRefreshTask();
 
         // Cancel the refresh task and set it to null.
         if(refreshTask != null && !refreshTask.isCancelled()) {
@@ -169,79 +260,163 @@ public class MarketManager {
             marketData.setRefreshTask(null);
         }
 
+        String refreshTime;
+        String broadcastPermission;
         if(marketType.equals(MarketType.CHEST)) {
             // Get the configuration for the market
             @Nullable ChestConfig marketConfig = marketConfigManager.getChestConfig(marketId);
             if(marketConfig == null) return false;
 
-            // Generate a new Map of buttons and update the map inside the market
-            assert marketConfig.guiData().guiType() != null; // Config is validated on load.
-            Map<Integer, GUIButton> buttonMap = buttonManager.createButtons(marketConfig.guiData().guiType(), marketConfig, marketId);
-            marketData.setButtons(buttonMap);
-
-            // Create the placeholders list
-            List<TagResolver.Single> placeholders = List.of(Placeholder.parsed("market_name", marketData.getMarketName()));
-            // Tell all online players that the market was refreshed.
-            skyMarket.getServer().getOnlinePlayers().forEach(player -> {
-                if(player.isOnline() && player.isConnected()) {
-                    player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.marketRefreshed(), placeholders));
-                }
-            });
-
-            // Calculate the delay time and when the next refresh will occur.
-            assert marketConfig.refreshTime() != null; // Config is validated on load.
-            long delayMilliseconds = TimeUtil.stringToMillis(marketConfig.refreshTime());
-            long delaySeconds = delayMilliseconds / 1000;
-            long refreshTime = System.currentTimeMillis() + delayMilliseconds;
-
-            // Restart the refresh task
-            refreshTask = skyMarket.getServer().getScheduler().runTaskLater(skyMarket, () -> refreshMarket(marketId), delaySeconds * 20);
-
-            // Set the refresh task in the market data
-            marketData.setRefreshTask(refreshTask);
-
-            // Set the refresh time in the market data
-            marketData.setRefreshTime(refreshTime);
+            refreshTime = marketConfig.refreshTime();
+            broadcastPermission = marketConfig.broadcastPermission();
         } else {
             // Get the configuration for the market
             @Nullable MerchantConfig tradeConfig = marketConfigManager.getMerchantConfig(marketId);
             if(tradeConfig == null) return false;
 
-            // Get the market's name. This is separate from its id.
-            @Nullable String marketName = marketData.getMarketName();
+            refreshTime = tradeConfig.refreshTime();
+            broadcastPermission = tradeConfig.broadcastPermission();
+        }
 
-            // Generate a new list of trades and update the list in the market.
-            List<MerchantRecipe> tradeList = tradeManager.createTrades(tradeConfig);
-            marketData.setTrades(tradeList);
+        // Start the next rotation and restart the refresh task.
+        assert refreshTime != null; // Config is validated on load.
+        if(rotation != null) {
+            startRotation(marketId, marketData, rotation.rotationSeed(), rotation.refreshTime());
+        } else {
+            startRotation(marketId, marketData, refreshTime);
+        }
 
-            // Create the placeholders list
-            List<TagResolver.Single> placeholders = List.of(Placeholder.parsed("market_name", marketName));
-            // Tell all online players that the market was refreshed.
-            skyMarket.getServer().getOnlinePlayers().forEach(player -> {
-                if(player.isOnline() && player.isConnected()) {
-                    player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.marketRefreshed(), placeholders));
-                }
-            });
+        // Markets that are in use are generated straight away. Other markets are generated when they are next opened.
+        if(marketData.isMaterialized() && !materialize(marketId, marketData)) return false;
 
-            // Calculate the delay time and when the next refresh will occur.
-            assert tradeConfig.refreshTime() != null; // Config is validated on load.
-            long delayMilliseconds = TimeUtil.stringToMillis(tradeConfig.refreshTime());
-            long delaySeconds = delayMilliseconds / 1000;
-            long refreshTime = System.currentTimeMillis() + delayMilliseconds;
+        // Create the placeholders map
+        Map<String, Component> placeholders = Map.of("market_name", AdventureUtil.serialize(marketData.getMarketName()));
+        // Tell all online players that the market was refreshed. The message is rendered once for each locale in use.
+        Map<CompiledLocale, Component> messages = new HashMap<>();
+        broadcastManager.broadcast(player -> messages.computeIfAbsent(localeManager.getCompiledLocale(player),
+                compiledLocale -> compiledLocale.get(LocaleMessage.MARKET_REFRESHED).render(null, placeholders)), broadcastPermission);
 
-            // Restart the refresh task
-            refreshTask = skyMarket.getServer().getScheduler().runTaskLater(skyMarket, () -> refreshMarket(marketId), delaySeconds * 20);
+        return true;
+    }
 
-            // Set the refresh task in the market data
-            marketData.setRefreshTask(refreshTask);
+    /**
+     * Starts a new rotation for a market with a new seed and schedules the refresh that ends it.
+     * Chest markets also pick their items and roll their prices for the rotation and update the search index. No ItemStacks are created.
+     * @param marketId The market id.
+     * @param marketData The {@link MarketData} of the market.
+     * @param refreshTime The configured time between refreshes.
+     */
+    private void startRotation(@NotNull String marketId, @NotNull MarketData marketData, @NotNull String refreshTime) {
+        startRotation(marketId, marketData, ThreadLocalRandom.current().nextLong(), marketScheduler.currentTimeMillis() + TimeUtil.stringToMillis(refreshTime));
+    }
+
+    /**
+     * Starts a rotation for a market with the provided seed and schedules the refresh that ends it.
+     * @param marketId The market id.
+     * @param marketData The {@link MarketData} of the market.
+     * @param rotationSeed The seed of the rotation.
+     * @param refreshTime The milliseconds since epoch when the rotation ends.
+     */
+    private void startRotation(@NotNull String marketId, @NotNull MarketData marketData, long rotationSeed, long refreshTime) {
+        marketData.startRotation(rotationSeed);
+
+        if(marketData.getMarketType().equals(MarketType.CHEST)) {
+            @Nullable ChestConfig marketConfig = marketConfigManager.getChestConfig(marketId);
+            if(marketConfig != null) {
+                buttonManager.prepareRotation(marketData.getGuiType(), marketConfig, marketData);
+                searchManager.index(marketId, marketData, marketConfig);
+            }
+        }
+
+        // Calculate the delay until the next refresh will occur.
+        long delaySeconds = Math.max(0L, refreshTime - marketScheduler.currentTimeMillis()) / 1000;
+
+        // Restart the refresh task
+        MarketTask refreshTask = marketScheduler.runLater(() -> endRotation(marketId, rotationSeed), delaySeconds * 20);
+
+        // Set the refresh task in the market data
+        marketData.setRefreshTask(refreshTask);
+
+        // Set the refresh time in the market data
+        marketData.setRefreshTime(refreshTime);
+    }
+
+    /**
+     * Refreshes a market when its rotation ends.
+     * While following another server's rotations, the market waits for the published rotation and only refreshes itself if it has not arrived in time.
+     * @param marketId The market id.
+     * @param rotationSeed The seed of the rotation that ended.
+     */
+    private void endRotation(@NotNull String marketId, long rotationSeed) {
+        if(!followingRotations) {
+            refreshMarket(marketId);
+            return;
+        }
+
+        @Nullable MarketData marketData = marketDataManager.getMarketData(marketId);
+        if(marketData == null) return;
+
+        // Applying the published rotation cancels this task.
+        MarketTask fallbackTask = marketScheduler.runLater(() -> {
+            @Nullable MarketData currentData = marketDataManager.getMarketData(marketId);
+            if(currentData != null && currentData.getRotationSeed() == rotationSeed) refreshMarket(marketId);
+        }, FOLLOWER_GRACE_TICKS);
 
-            // Set the refresh time in the market data
-            marketData.setRefreshTime(refreshTime);
+        marketData.setRefreshTask(fallbackTask);
+    }
+
+    /**
+     * Generates the trades of a market's current rotation. Chest markets create each page when it is first viewed, so only their configuration is checked.
+     * If the rotation was generated before, the same buttons or trades are recreated and the global stock and dynamic prices are kept.
+     * @param marketId The market id.
+     * @param marketData The {@link MarketData} of the market.
+     * @return true if the market was generated, false if its configuration no longer exists.
+     */
+    private boolean materialize(@NotNull String marketId, @NotNull MarketData marketData) {
+        if(marketData.getMarketType().equals(MarketType.CHEST)) {
+            @Nullable ChestConfig marketConfig = marketConfigManager.getChestConfig(marketId);
+            if(marketConfig == null) return false;
+        } else {
+            @Nullable MerchantConfig tradeConfig = marketConfigManager.getMerchantConfig(marketId);
+            if(tradeConfig == null) return false;
+
+            marketData.setTrades(tradeManager.createTrades(tradeConfig, new Random(marketData.getRotationSeed())));
         }
 
+        marketData.setMaterialized();
+
         return true;
     }
 
+    /**
+     * Drops the buttons and trades of markets that have not been opened within the configured idle time.
+     * Markets that a player currently has open are never unloaded.
+     */
+    private void unloadIdleMarkets() {
+        long idleMillis = getIdleUnloadSeconds() * 1000L;
+        long now = marketScheduler.currentTimeMillis();
+        Set<String> openMarketIds = guiManager.getOpenMarketIds();
+
+        marketDataManager.getMarkets().forEach((marketId, marketData) -> {
+            if(!marketData.isMaterialized()) return;
+            if(now - marketData.getLastAccessTime() < idleMillis) return;
+            if(openMarketIds.contains(marketId)) return;
+
+            marketData.unload();
+        });
+    }
+
+    /**
+     * Gets the configured time in seconds a market can go unopened before it is unloaded.
+     * @return The idle time in seconds.
+     */
+    private long getIdleUnloadSeconds() {
+        Settings settings = settingsManager.getSettingsConfig();
+        if(settings == null || settings.markets() == null || settings.markets().idleUnloadSeconds() == null || settings.markets().idleUnloadSeconds() <= 0) return DEFAULT_IDLE_UNLOAD_SECONDS;
+
+        return settings.markets().idleUnloadSeconds();
+    }
+
     /**
      * Refreshes all markets.
      */
@@ -266,13 +441,63 @@ public class MarketManager {
      * @return true if the market was opened, false if not.
      */
     public boolean openMarket(@NotNull String marketId, @NotNull Player player) {
-        Locale locale = localeManager.getLocale();
+        return openMarket(marketId, player, 0);
+    }
+
+    /**
+     * Opens a market based on the market id at a specific page.
+     * @param marketId The market id of the market to open.
+     * @param player The {@link Player} who wants to view the market.
+     * @param page The page to open, starting at 0. Ignored for merchant markets and pages that do not exist.
+     * @return true if the market was opened, false if not.
+     */
+    public boolean openMarket(@NotNull String marketId, @NotNull Player player, int page) {
+        return openMarket(marketId, marketDataManager.getMarketData(marketId), player, page);
+    }
+
+    /**
+     * Opens a market at a specific page using {@link MarketData} the caller already holds, such as a command alias, instead of looking it up by the market id.
+     * @param marketId The market id of the market to open.
+     * @param marketData The {@link MarketData} of the market, or null if the market does not exist.
+     * @param player The {@link Player} who wants to view the market.
+     * @param page The page to open, starting at 0. Ignored for merchant markets and pages that do not exist.
+     * @return true if the market was opened, false if not.
+     */
+    public boolean openMarket(@NotNull String marketId, @Nullable MarketData marketData, @NotNull Player player, int page) {
+        GUIOpenFlightEvent flightEvent = new GUIOpenFlightEvent();
+        flightEvent.begin();
+        long start = System.nanoTime();
+
+        boolean opened = open(marketId, marketData, player, page);
+
+        recordMetrics(marketId, MarketOperation.OPEN, start, opened);
+        flightEvent.record(marketId, player.getName(), opened);
+
+        return opened;
+    }
+
+    /**
+     * Opens a market based on the market id.
+     * @param marketId The market id of the market to open.
+     * @param marketData The {@link MarketData} of the market, or null if the market does not exist.
+     * @param player The {@link Player} who wants to view the market.
+     * @param page The page to open, starting at 0.
+     * @return true if the market was opened, false if not.
+     */
+    private boolean open(@NotNull String marketId, @Nullable MarketData marketData, @NotNull Player player, int page) {
         ComponentLogger logger = skyMarket.getComponentLogger();
         UUID uuid = player.getUniqueId();
 
-        MarketData marketData = marketDataManager.getMarketData(marketId);
         if(marketData == null) {
-            player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.invalidMarketId()));
+            localeManager.send(player, LocaleMessage.INVALID_MARKET_ID);
+            return false;
+        }
+
+        // Generate the market if this is the first time it has been opened this rotation or it was unloaded.
+        marketData.setLastAccessTime(marketScheduler.currentTimeMillis());
+        if(!marketData.isMaterialized() && !materialize(marketId, marketData)) {
+            logger.error(AdventureUtil.serialize("Unable to generate the market of id " + marketId + " because its configuration no longer exists."));
+            localeManager.send(player, LocaleMessage.GUI_OPEN_ERROR);
             return false;
         }
 
@@ -280,62 +505,254 @@ public class MarketManager {
             GUIType guiType = marketData.getGuiType();
             String guiName = marketData.getGuiName();
 
-            ChestMarketGUI marketGUI = new ChestMarketGUI(skyMarket, guiManager, player, guiType, guiName, marketData.getButtons());
+            ChestMarketGUI marketGUI = new ChestMarketGUI(skyMarket, guiManager, player, marketId, guiType, guiName, this);
 
             boolean creationResult = marketGUI.create();
             if(!creationResult) {
                 logger.error(AdventureUtil.serialize("Unable to create the InventoryView for a market GUI of id " + marketId + " for player " + player.getName() + " due to a configuration error."));
-                player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.guiOpenError()));
+                localeManager.send(player, LocaleMessage.GUI_OPEN_ERROR);
                 return false;
             }
 
-            boolean updateResult = marketGUI.update();
+            int openPage = page >= 0 && page < marketData.getPageCount() ? page : 0;
+            @Nullable Map<Integer, GUIButton> buttons = getPageButtons(marketId, marketData, openPage);
+            boolean updateResult = buttons != null && marketGUI.setPage(openPage, buttons);
             if(!updateResult) {
                 logger.error(AdventureUtil.serialize("Unable to decorate a market GUI of id " + marketId + " for player " + player.getName() + " due to a configuration error."));
-                player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.guiOpenError()));
+                localeManager.send(player, LocaleMessage.GUI_OPEN_ERROR);
                 return false;
             }
 
             boolean openResult = marketGUI.open();
             if(!openResult) {
                 logger.error(AdventureUtil.serialize("Unable to open a market GUI of id " + marketId + " for player " + player.getName() + " due to a configuration error."));
-                player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.guiOpenError()));
+                localeManager.send(player, LocaleMessage.GUI_OPEN_ERROR);
                 return false;
             }
+
+            guiManager.trackView(player.getOpenInventory(), marketGUI);
+
+            // Show the current stock for any items whose stock has changed since the market was refreshed.
+            marketData.getStockDisplays().forEach(marketGUI::setDisplayItem);
         } else {
+            // Players who have not traded see the shared trades. Otherwise, the player's uses are applied to copies of them.
             List<MerchantRecipe> trades = marketData.getTrades();
-            PlayerData playerData = marketData.getPlayerData(uuid);
-            if(!playerData.getPlayerTrades().isEmpty()) trades = playerData.getPlayerTrades();
+            @Nullable PlayerData playerData = marketData.getPlayerDataIfPresent(uuid);
+            if(playerData != null && !playerData.getTradeUses().isEmpty()) trades = createPlayerTrades(trades, playerData.getTradeUses());
 
             MerchantMarketGUI tradeGUI = new MerchantMarketGUI(skyMarket, guiManager, player, marketId, marketData.getGuiName(), trades, this);
 
             boolean creationResult = tradeGUI.create();
             if(!creationResult) {
                 logger.error(AdventureUtil.serialize("Unable to create the InventoryView for a trade GUI of id " + marketId + " for player " + player.getName() + " due to a configuration error."));
-                player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.guiOpenError()));
+                localeManager.send(player, LocaleMessage.GUI_OPEN_ERROR);
                 return false;
             }
 
             boolean updateResult = tradeGUI.update();
             if(!updateResult) {
                 logger.error(AdventureUtil.serialize("Unable to decorate a trade GUI of id " + marketId + " for player " + player.getName() + " due to a configuration error."));
-                player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.guiOpenError()));
+                localeManager.send(player, LocaleMessage.GUI_OPEN_ERROR);
                 return false;
             }
 
             boolean openResult = tradeGUI.open();
             if(!openResult) {
                 logger.error(AdventureUtil.serialize("Unable to open a trade GUI of id " + marketId + " for player " + player.getName() + " due to a configuration error."));
-                player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.guiOpenError()));
+                localeManager.send(player, LocaleMessage.GUI_OPEN_ERROR);
                 return false;
             }
+
+            guiManager.trackView(player.getOpenInventory(), tradeGUI);
         }
 
         return true;
     }
 
     /**
-     * Takes a {@link List} of {@link MerchantRecipe}s from a {@link MerchantMarketGUI} and stores it for later use.
+     * Searches the chest markets for an item and shows the results in a {@link SearchResultsGUI}.
+     * Clicking a result opens the market at the page the item is on.
+     * @param player The {@link Player} who is searching.
+     * @param query The query.
+     * @return true if the results were shown, false if there were none or the GUI failed to open.
+     */
+    public boolean openSearch(@NotNull Player player, @NotNull String query) {
+        CompiledLocale locale = localeManager.getCompiledLocale(player);
+        ComponentLogger logger = skyMarket.getComponentLogger();
+
+        List<SearchResult> results = searchManager.search(query);
+        if(results.isEmpty()) {
+            localeManager.send(player, LocaleMessage.SEARCH_NO_RESULTS, Map.of("query", Component.text(query)));
+            return false;
+        }
+
+        Map<Integer, GUIButton> buttons = new HashMap<>();
+        GUIButton fillerButton = new GUIButton.Builder().setItemStack(createSearchItem(ItemType.GRAY_STAINED_GLASS_PANE, AdventureUtil.serialize(" "), List.of())).build();
+        for(int slot = SEARCH_RESULT_SLOTS; slot < GUIType.CHEST_54.getSize(); slot++) {
+            buttons.put(slot, fillerButton);
+        }
+
+        buttons.put(SEARCH_EXIT_SLOT, new GUIButton.Builder()
+                .setItemStack(createSearchItem(ItemType.BARRIER, locale.get(LocaleMessage.SEARCH_EXIT).render(player), List.of()))
+                .setAction(event -> marketScheduler.runLater(player, () -> {
+                    player.closeInventory(InventoryCloseEvent.Reason.UNLOADED);
+
+                    guiManager.removeOpenGUI(player.getUniqueId());
+                }, 1L))
+                .build());
+
+        for(int i = 0; i < Math.min(results.size(), SEARCH_RESULT_SLOTS); i++) {
+            SearchResult result = results.get(i);
+
+            // Show the current price if the item's price follows trading volume.
+            @Nullable MarketData marketData = marketDataManager.getMarketData(result.marketId());
+            @Nullable DynamicPrice dynamicPrice = marketData != null ? marketData.getDynamicPrice(result.slot()) : null;
+            double buyPrice = dynamicPrice != null ? dynamicPrice.getBuyPrice() : result.buyPrice();
+            double sellPrice = dynamicPrice != null ? dynamicPrice.getSellPrice() : result.sellPrice();
+
+            Map<String, Component> placeholders = Map.of(
+                    "market_name", AdventureUtil.serialize(result.marketName()),
+                    "buy_price", Component.text(String.valueOf(buyPrice)),
+                    "sell_price", Component.text(String.valueOf(sellPrice)));
+            List<Component> lore = List.of(
+                    locale.get(LocaleMessage.SEARCH_RESULT_MARKET).render(player, placeholders),
+                    locale.get(LocaleMessage.SEARCH_RESULT_PRICE).render(player, placeholders),
+                    locale.get(LocaleMessage.SEARCH_RESULT_OPEN).render(player));
+            ItemType itemType = result.itemTypes().isEmpty() ? ItemType.PAPER : result.itemTypes().getFirst();
+
+            buttons.put(i, new GUIButton.Builder()
+                    .setItemStack(createSearchItem(itemType, AdventureUtil.serialize(result.transactionName()), lore))
+                    .setAction(event -> marketScheduler.runLater(player, () -> {
+                        player.closeInventory(InventoryCloseEvent.Reason.UNLOADED);
+                        guiManager.removeOpenGUI(player.getUniqueId());
+
+                        openMarket(result.marketId(), player, result.page());
+                    }, 1L))
+                    .build());
+        }
+
+        SearchResultsGUI searchGUI = new SearchResultsGUI(skyMarket, guiManager, player, locale.getLocale().searchGuiName(), buttons);
+        if(!searchGUI.create() || !searchGUI.update() || !searchGUI.open()) {
+            logger.error(AdventureUtil.serialize("Unable to open the search results GUI for player " + player.getName() + "."));
+            localeManager.send(player, LocaleMessage.GUI_OPEN_ERROR);
+            return false;
+        }
+
+        guiManager.trackView(player.getOpenInventory(), searchGUI);
+
+        return true;
+    }
+
+    /**
+     * Creates an {@link ItemStack} for the search results GUI.
+     * @param itemType The {@link ItemType} of the {@link ItemStack}.
+     * @param name The name to display.
+     * @param lore A {@link List} of lore lines to display.
+     * @return The created {@link ItemStack}.
+     */
+    private @NotNull ItemStack createSearchItem(@NotNull ItemType itemType, @NotNull Component name, @NotNull List<Component> lore) {
+        ItemStack itemStack = itemType.createItemStack();
+        itemStack.editMeta(itemMeta -> {
+            itemMeta.displayName(name);
+            itemMeta.lore(lore);
+        });
+
+        return itemStack;
+    }
+
+    /**
+     * Switches a {@link ChestMarketGUI} to another page of its market.
+     * The page is created if this is the first time it has been viewed this rotation.
+     * @param chestMarketGUI The {@link ChestMarketGUI}.
+     * @param page The page to open, starting at 0.
+     * @return true if the page was opened, false if not.
+     */
+    public boolean openPage(@NotNull ChestMarketGUI chestMarketGUI, int page) {
+        String marketId = chestMarketGUI.getMarketId();
+        @Nullable MarketData marketData = marketDataManager.getMarketData(marketId);
+        if(marketData == null || page < 0 || page >= marketData.getPageCount()) return false;
+
+        marketData.setLastAccessTime(marketScheduler.currentTimeMillis());
+        if(!marketData.isMaterialized() && !materialize(marketId, marketData)) return false;
+
+        @Nullable Map<Integer, GUIButton> buttons = getPageButtons(marketId, marketData, page);
+        if(buttons == null || !chestMarketGUI.setPage(page, buttons)) return false;
+
+        // Show the current stock for any items on the page whose stock has changed since the page was created.
+        marketData.getStockDisplays().forEach(chestMarketGUI::setDisplayItem);
+
+        return true;
+    }
+
+    /**
+     * Gets the buttons for a page of a chest market, creating them if this is the first time the page has been viewed since it was last built.
+     * @param marketId The market id.
+     * @param marketData The {@link MarketData} of the market.
+     * @param page The page, starting at 0.
+     * @return A {@link Map} mapping slots to {@link GUIButton}s, or null if the market's configuration no longer exists.
+     */
+    private @Nullable Map<Integer, GUIButton> getPageButtons(@NotNull String marketId, @NotNull MarketData marketData, int page) {
+        @Nullable Map<Integer, GUIButton> buttons = marketData.getPageButtons(page);
+        if(buttons != null) return buttons;
+
+        @Nullable ChestConfig marketConfig = marketConfigManager.getChestConfig(marketId);
+        if(marketConfig == null) return null;
+
+        buttons = buttonManager.createButtons(marketData.getGuiType(), marketConfig, marketId, marketData, page);
+        marketData.setPageButtons(page, buttons);
+
+        return buttons;
+    }
+
+    /**
+     * Records the metrics for an operation if the market id is known to the plugin.
+     * Unknown market ids are skipped so mistyped commands do not create metrics.
+     * @param marketId The market id.
+     * @param operation The {@link MarketOperation}.
+     * @param startNanos The {@link System#nanoTime()} when the operation started.
+     * @param success Whether the operation succeeded.
+     */
+    private void recordMetrics(@NotNull String marketId, @NotNull MarketOperation operation, long startNanos, boolean success) {
+        if(marketDataManager.getMarketData(marketId) == null) return;
+
+        metricsManager.getMarketMetrics(marketId).record(operation, startNanos, success);
+    }
+
+    /**
+     * Gets the number of buttons or trades a market currently has.
+     * @param marketId The market id.
+     * @return The number of buttons or trades, or 0 if the market id is not known to the plugin.
+     */
+    private int getSlotsBuilt(@NotNull String marketId) {
+        @Nullable MarketData marketData = marketDataManager.getMarketData(marketId);
+        if(marketData == null) return 0;
+
+        return marketData.getMarketType().equals(MarketType.CHEST) ? marketData.getBuiltButtonCount() : marketData.getTrades().size();
+    }
+
+    /**
+     * Creates the trades for a player by applying their number of uses to copies of the market's trades.
+     * Only trades the player has used are copied. The rest are shared with the market.
+     * @param trades The market's {@link List} of {@link MerchantRecipe}s.
+     * @param tradeUses A {@link Map} mapping the index of a trade to the player's number of uses.
+     * @return A {@link List} of {@link MerchantRecipe}s for the player.
+     */
+    private @NotNull List<MerchantRecipe> createPlayerTrades(@NotNull List<MerchantRecipe> trades, @NotNull Map<Integer, Integer> tradeUses) {
+        List<MerchantRecipe> playerTrades = new ArrayList<>(trades);
+        tradeUses.forEach((index, uses) -> {
+            if(index < 0 || index >= playerTrades.size()) return;
+
+            MerchantRecipe recipe = new MerchantRecipe(playerTrades.get(index));
+            recipe.setUses(Math.min(uses, recipe.getMaxUses()));
+            playerTrades.set(index, recipe);
+        });
+
+        return playerTrades;
+    }
+
+    /**
+     * Takes the live {@link List} of {@link MerchantRecipe}s from a {@link MerchantMarketGUI} and stores the player's number of uses of each trade.
+     * Trades the player has not used are not stored.
      * @param marketId The market id.
      * @param uuid The {@link UUID} of the player.
      * @param trades A {@link List} of {@link MerchantRecipe}s.
@@ -343,9 +760,17 @@ public class MarketManager {
     public void updatePlayerTrades(@NotNull String marketId, @NotNull UUID uuid, @NotNull List<MerchantRecipe> trades) {
         @Nullable MarketData marketData = marketDataManager.getMarketData(marketId);
         if(marketData == null) return;
-        PlayerData playerData = marketData.getPlayerData(uuid);
 
-        playerData.setPlayerTrades(trades);
+        Map<Integer, Integer> tradeUses = new HashMap<>();
+        for(int i = 0; i < trades.size(); i++) {
+            int uses = trades.get(i).getUses();
+            if(uses > 0) tradeUses.put(i, uses);
+        }
+
+        @Nullable PlayerData playerData = marketData.getPlayerDataIfPresent(uuid);
+        if(playerData == null && tradeUses.isEmpty()) return;
+
+        marketData.getPlayerData(uuid).setTradeUses(tradeUses);
     }
 
     /**
@@ -370,7 +795,7 @@ public class MarketManager {
         @Nullable MarketData marketData = marketDataManager.getMarketData(marketId);
         if(marketData == null) return null;
 
-        return TimeUtil.millisToTime(marketData.getRefreshTime() - System.currentTimeMillis());
+        return TimeUtil.millisToTime(marketData.getRefreshTime() - marketScheduler.currentTimeMillis());
     }
 
     /**
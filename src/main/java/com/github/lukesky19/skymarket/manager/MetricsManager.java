@@ -0,0 +1,254 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.manager;
+
+import com.github.lukesky19.skylib.api.adventure.AdventureUtil;
+import com.github.lukesky19.skymarket.SkyMarket;
+import com.github.lukesky19.skymarket.configuration.SettingsManager;
+import com.github.lukesky19.skymarket.data.LatencyHistogram;
+import com.github.lukesky19.skymarket.data.MarketMetrics;
+import com.github.lukesky19.skymarket.data.OperationMetrics;
+import com.github.lukesky19.skymarket.data.config.Settings;
+import com.github.lukesky19.skymarket.scheduler.MarketScheduler;
+import com.github.lukesky19.skymarket.scheduler.MarketTask;
+import com.github.lukesky19.skymarket.util.MarketOperation;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class manages the {@link MarketMetrics} for each market and periodically writes them to a Prometheus text file.
+ * The click limiter's counters from the {@link ClickLimitManager} are included in the file.
+ */
+public class MetricsManager {
+    private static final long DEFAULT_WRITE_INTERVAL_SECONDS = 15L;
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    private final @NotNull SkyMarket skyMarket;
+    private final @NotNull MarketScheduler marketScheduler;
+    private final @NotNull SettingsManager settingsManager;
+    private final @NotNull ClickLimitManager clickLimitManager;
+    private final @NotNull Map<String, MarketMetrics> marketMetrics = new ConcurrentHashMap<>();
+    private @Nullable MarketTask writeTask;
+
+    /**
+     * Default Constructor. You should use {@link MetricsManager#MetricsManager(SkyMarket, MarketScheduler, SettingsManager, ClickLimitManager)} instead.
+     * @deprecated You should use {@link MetricsManager#MetricsManager(SkyMarket, MarketScheduler, SettingsManager, ClickLimitManager)} instead.
+     * @throws RuntimeException if this method is used.
+     */
+    @Deprecated
+    public MetricsManager() {
+        throw new RuntimeException("The use of the default constructor is not allowed.");
+    }
+
+    /**
+     * Constructor
+     * @param skyMarket A {@link SkyMarket} instance.
+     * @param marketScheduler A {@link MarketScheduler} instance.
+     * @param settingsManager A {@link SettingsManager} instance.
+     * @param clickLimitManager A {@link ClickLimitManager} instance.
+     */
+    public MetricsManager(@NotNull SkyMarket skyMarket, @NotNull MarketScheduler marketScheduler, @NotNull SettingsManager settingsManager, @NotNull ClickLimitManager clickLimitManager) {
+        this.skyMarket = skyMarket;
+        this.marketScheduler = marketScheduler;
+        this.settingsManager = settingsManager;
+        this.clickLimitManager = clickLimitManager;
+    }
+
+    /**
+     * Restarts the task that writes the metrics file using the configured interval.
+     * Recorded metrics are kept across reloads.
+     */
+    public void reload() {
+        stop();
+
+        if(!isWriteFileEnabled()) return;
+
+        long intervalTicks = getWriteIntervalSeconds() * 20L;
+        writeTask = marketScheduler.runTimerAsync(this::writeFile, intervalTicks, intervalTicks);
+    }
+
+    /**
+     * Stops the task that writes the metrics file.
+     */
+    public void stop() {
+        if(writeTask != null) {
+            writeTask.cancel();
+            writeTask = null;
+        }
+    }
+
+    /**
+     * Get the {@link MarketMetrics} for a market, creating them if they don't exist.
+     * The returned object should be kept by the caller so recording does not need a map lookup.
+     * @param marketId The market id.
+     * @return The {@link MarketMetrics}.
+     */
+    public @NotNull MarketMetrics getMarketMetrics(@NotNull String marketId) {
+        return marketMetrics.computeIfAbsent(marketId, id -> new MarketMetrics());
+    }
+
+    /**
+     * Get the {@link MarketMetrics} for a market if any have been recorded.
+     * @param marketId The market id.
+     * @return The {@link MarketMetrics} or null.
+     */
+    public @Nullable MarketMetrics getMarketMetricsIfPresent(@NotNull String marketId) {
+        return marketMetrics.get(marketId);
+    }
+
+    /**
+     * Get the ids of all markets that have metrics, sorted by id.
+     * @return A {@link List} of market ids.
+     */
+    public @NotNull List<String> getMarketIds() {
+        return marketMetrics.keySet().stream().sorted().toList();
+    }
+
+    /**
+     * Writes the metrics to metrics.prom in the plugin's data folder. Runs on a background thread.
+     * The file is written to a temporary file first so scrapers never read a partial file.
+     */
+    private void writeFile() {
+        Path path = skyMarket.getDataFolder().toPath().resolve("metrics.prom");
+        Path tempPath = skyMarket.getDataFolder().toPath().resolve("metrics.prom.tmp");
+
+        try {
+            Files.writeString(tempPath, toPrometheusText(), StandardCharsets.UTF_8);
+            Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            skyMarket.getComponentLogger().error(AdventureUtil.serialize("Failed to write the metrics file. " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Formats all metrics using the Prometheus text exposition format.
+     * @return The formatted metrics.
+     */
+    public @NotNull String toPrometheusText() {
+        Map<String, MarketMetrics> sorted = new TreeMap<>(marketMetrics);
+        StringBuilder builder = new StringBuilder();
+
+        builder.append("# HELP skymarket_operation_total The number of times a market operation ran.\n");
+        builder.append("# TYPE skymarket_operation_total counter\n");
+        sorted.forEach((marketId, metrics) -> {
+            for(MarketOperation operation : MarketOperation.values()) {
+                appendSample(builder, "skymarket_operation_total", marketId, operation, null, metrics.getOperation(operation).getCount());
+            }
+        });
+
+        builder.append("# HELP skymarket_operation_failures_total The number of times a market operation failed.\n");
+        builder.append("# TYPE skymarket_operation_failures_total counter\n");
+        sorted.forEach((marketId, metrics) -> {
+            for(MarketOperation operation : MarketOperation.values()) {
+                appendSample(builder, "skymarket_operation_failures_total", marketId, operation, null, metrics.getOperation(operation).getFailures());
+            }
+        });
+
+        builder.append("# HELP skymarket_operation_duration_seconds How long a market operation took.\n");
+        builder.append("# TYPE skymarket_operation_duration_seconds summary\n");
+        sorted.forEach((marketId, metrics) -> {
+            for(MarketOperation operation : MarketOperation.values()) {
+                OperationMetrics operationMetrics = metrics.getOperation(operation);
+                LatencyHistogram latency = operationMetrics.getLatency();
+
+                for(double quantile : QUANTILES) {
+                    appendSample(builder, "skymarket_operation_duration_seconds", marketId, operation, quantile, latency.getPercentile(quantile) / NANOS_PER_SECOND);
+                }
+                appendSample(builder, "skymarket_operation_duration_seconds_sum", marketId, operation, null, latency.getSum() / NANOS_PER_SECOND);
+                appendSample(builder, "skymarket_operation_duration_seconds_count", marketId, operation, null, latency.getCount());
+            }
+        });
+
+        builder.append("# HELP skymarket_clicks_allowed_total The number of market clicks within the click limit.\n");
+        builder.append("# TYPE skymarket_clicks_allowed_total counter\n");
+        builder.append("skymarket_clicks_allowed_total ").append(clickLimitManager.getAllowedClicks()).append('\n');
+
+        builder.append("# HELP skymarket_clicks_dropped_total The number of market clicks dropped by the click limit.\n");
+        builder.append("# TYPE skymarket_clicks_dropped_total counter\n");
+        builder.append("skymarket_clicks_dropped_total ").append(clickLimitManager.getDroppedClicks()).append('\n');
+
+        return builder.toString();
+    }
+
+    /**
+     * Appends a single sample line.
+     * @param builder The {@link StringBuilder} to append to.
+     * @param name The metric name.
+     * @param marketId The market id label.
+     * @param operation The {@link MarketOperation} label.
+     * @param quantile The quantile label or null.
+     * @param value The sample value.
+     */
+    private void appendSample(@NotNull StringBuilder builder, @NotNull String name, @NotNull String marketId, @NotNull MarketOperation operation, @Nullable Double quantile, double value) {
+        builder.append(name)
+                .append("{market=\"").append(escapeLabel(marketId))
+                .append("\",operation=\"").append(operation.getMetricName()).append('"');
+        if(quantile != null) builder.append(",quantile=\"").append(quantile).append('"');
+        builder.append("} ");
+
+        if(value == Math.rint(value)) {
+            builder.append((long) value);
+        } else {
+            builder.append(value);
+        }
+
+        builder.append('\n');
+    }
+
+    /**
+     * Escapes a label value for the Prometheus text format.
+     * @param value The label value.
+     * @return The escaped label value.
+     */
+    private @NotNull String escapeLabel(@NotNull String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /**
+     * Checks if the metrics file should be written.
+     * @return true if the metrics file should be written.
+     */
+    private boolean isWriteFileEnabled() {
+        Settings settings = settingsManager.getSettingsConfig();
+        if(settings == null || settings.metrics() == null || settings.metrics().writeFile() == null) return true;
+
+        return settings.metrics().writeFile();
+    }
+
+    /**
+     * Gets the configured write interval in seconds.
+     * @return The write interval in seconds.
+     */
+    private long getWriteIntervalSeconds() {
+        Settings settings = settingsManager.getSettingsConfig();
+        if(settings == null || settings.metrics() == null || settings.metrics().writeIntervalSeconds() == null || settings.metrics().writeIntervalSeconds() <= 0) return DEFAULT_WRITE_INTERVAL_SECONDS;
+
+        return settings.metrics().writeIntervalSeconds();
+    }
+}
@@ -0,0 +1,214 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.manager;
+
+import com.github.lukesky19.skylib.api.adventure.AdventureUtil;
+import com.github.lukesky19.skylib.api.time.TimeUtil;
+import com.github.lukesky19.skymarket.SkyMarket;
+import com.github.lukesky19.skymarket.configuration.LocaleManager;
+import com.github.lukesky19.skymarket.configuration.MarketConfigManager;
+import com.github.lukesky19.skymarket.data.*;
+import com.github.lukesky19.skymarket.data.config.gui.ChestConfig;
+import com.github.lukesky19.skymarket.scheduler.MarketScheduler;
+import com.github.lukesky19.skymarket.scheduler.MarketTask;
+import com.github.lukesky19.skymarket.util.MarketType;
+import com.github.lukesky19.skymarket.util.PluginUtils;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class manages the snapshots of each market used to answer PlaceholderAPI requests.
+ * The snapshots are rebuilt once per second on the main thread and replaced as a whole,
+ * so placeholder requests from any thread only read finished, unchanging snapshots and never format values themselves.
+ * Players' purchases are only copied for players whose buy limits were requested recently, so the cost does not grow with every player that has traded.
+ */
+public class PlaceholderManager {
+    private static final long UPDATE_INTERVAL_TICKS = 20L;
+    // The number of updates a player's purchases keep being copied for after their buy limits were last requested.
+    private static final long LIMIT_REQUEST_EXPIRY_UPDATES = 60L;
+
+    private final @NotNull SkyMarket skyMarket;
+    private final @NotNull MarketScheduler marketScheduler;
+    private final @NotNull LocaleManager localeManager;
+    private final @NotNull MarketConfigManager marketConfigManager;
+    private final @NotNull MarketDataManager marketDataManager;
+    private volatile @NotNull Map<String, MarketSnapshot> snapshots = Map.of();
+    private volatile @NotNull String unlimited = "";
+    private final @NotNull Map<UUID, Long> limitRequests = new ConcurrentHashMap<>();
+    private volatile long updateCount;
+    private @Nullable MarketTask updateTask;
+
+    /**
+     * Default Constructor. You should use {@link PlaceholderManager#PlaceholderManager(SkyMarket, MarketScheduler, LocaleManager, MarketConfigManager, MarketDataManager)} instead.
+     * @deprecated You should use {@link PlaceholderManager#PlaceholderManager(SkyMarket, MarketScheduler, LocaleManager, MarketConfigManager, MarketDataManager)} instead.
+     * @throws RuntimeException if this method is used.
+     */
+    @Deprecated
+    public PlaceholderManager() {
+        throw new RuntimeException("The use of the default constructor is not allowed.");
+    }
+
+    /**
+     * Constructor
+     * @param skyMarket A {@link SkyMarket} instance.
+     * @param marketScheduler A {@link MarketScheduler} instance.
+     * @param localeManager A {@link LocaleManager} instance.
+     * @param marketConfigManager A {@link MarketConfigManager} instance.
+     * @param marketDataManager A {@link MarketDataManager} instance.
+     */
+    public PlaceholderManager(
+            @NotNull SkyMarket skyMarket,
+            @NotNull MarketScheduler marketScheduler,
+            @NotNull LocaleManager localeManager,
+            @NotNull MarketConfigManager marketConfigManager,
+            @NotNull MarketDataManager marketDataManager) {
+        this.skyMarket = skyMarket;
+        this.marketScheduler = marketScheduler;
+        this.localeManager = localeManager;
+        this.marketConfigManager = marketConfigManager;
+        this.marketDataManager = marketDataManager;
+    }
+
+    /**
+     * Restarts the task that rebuilds the snapshots. Nothing is scheduled if PlaceholderAPI is not installed.
+     */
+    public void reload() {
+        stop();
+        if(skyMarket.getServer().getPluginManager().getPlugin("PlaceholderAPI") == null) return;
+
+        unlimited = LegacyComponentSerializer.legacySection().serialize(AdventureUtil.serialize(localeManager.getLocale().placeholderUnlimited()));
+        updateSnapshots();
+        updateTask = marketScheduler.runTimer(this::updateSnapshots, UPDATE_INTERVAL_TICKS, UPDATE_INTERVAL_TICKS);
+    }
+
+    /**
+     * Stops the task that rebuilds the snapshots and drops the current snapshots.
+     */
+    public void stop() {
+        if(updateTask != null) {
+            updateTask.cancel();
+            updateTask = null;
+        }
+
+        snapshots = Map.of();
+        limitRequests.clear();
+    }
+
+    /**
+     * Gets the latest snapshot of a market. Safe to call from any thread.
+     * @param marketId The market id.
+     * @return The {@link MarketSnapshot}, or null if the market does not exist.
+     */
+    public @Nullable MarketSnapshot getSnapshot(@NotNull String marketId) {
+        return snapshots.get(marketId);
+    }
+
+    /**
+     * Starts or keeps copying a player's purchases into the snapshots, so their remaining buy limits can be answered. Safe to call from any thread.
+     * The purchases are copied from the next update on and stop being copied once the player's buy limits have not been requested for a minute.
+     * @param uuid The {@link UUID} of the player.
+     */
+    public void requestBuyLimits(@NotNull UUID uuid) {
+        limitRequests.put(uuid, updateCount);
+    }
+
+    /**
+     * Gets the text used for stock and limits that are unlimited. Safe to call from any thread.
+     * @return The text for unlimited values.
+     */
+    public @NotNull String getUnlimited() {
+        return unlimited;
+    }
+
+    /**
+     * Rebuilds the snapshot of every market and replaces the current snapshots. Runs on the main thread.
+     */
+    private void updateSnapshots() {
+        long now = marketScheduler.currentTimeMillis();
+        Map<String, MarketSnapshot> newSnapshots = new HashMap<>();
+
+        long currentUpdate = ++updateCount;
+        limitRequests.values().removeIf(lastRequest -> currentUpdate - lastRequest > LIMIT_REQUEST_EXPIRY_UPDATES);
+        Collection<UUID> limitPlayers = limitRequests.keySet();
+
+        for(Map.Entry<String, MarketData> entry : marketDataManager.getMarkets().entrySet()) {
+            String marketId = entry.getKey();
+            MarketData marketData = entry.getValue();
+            String time = PluginUtils.formatTime(TimeUtil.millisToTime(marketData.getRefreshTime() - now));
+
+            @Nullable ChestConfig chestConfig = marketData.getMarketType() == MarketType.CHEST ? marketConfigManager.getChestConfig(marketId) : null;
+            if(chestConfig == null) {
+                newSnapshots.put(marketId, new MarketSnapshot(marketData.getMarketName(), time, Map.of(), Map.of(), Map.of(), Map.of(), Map.of()));
+                continue;
+            }
+
+            newSnapshots.put(marketId, createChestSnapshot(marketData, chestConfig, time, limitPlayers));
+        }
+
+        snapshots = Map.copyOf(newSnapshots);
+    }
+
+    /**
+     * Creates the snapshot of a chest market from its current rotation.
+     * @param marketData The {@link MarketData} of the market.
+     * @param chestConfig The {@link ChestConfig} of the market.
+     * @param time The formatted time until the market refreshes.
+     * @param limitPlayers The {@link UUID}s of the players whose purchases are copied.
+     * @return A {@link MarketSnapshot}.
+     */
+    private @NotNull MarketSnapshot createChestSnapshot(@NotNull MarketData marketData, @NotNull ChestConfig chestConfig, @NotNull String time, @NotNull Collection<UUID> limitPlayers) {
+        Map<Integer, String> stock = new HashMap<>();
+        Map<Integer, String> buyPrices = new HashMap<>();
+        Map<Integer, String> sellPrices = new HashMap<>();
+        Map<Integer, Integer> buyLimits = new HashMap<>();
+
+        for(RotationItem rotationItem : marketData.getRotationItems()) {
+            int slot = rotationItem.slot();
+            ChestConfig.ItemConfig itemConfig = chestConfig.items().get(rotationItem.itemIndex());
+
+            int remainingStock = marketData.getRemainingStock(slot);
+            stock.put(slot, remainingStock < 0 ? unlimited : String.valueOf(remainingStock));
+
+            // Prices that change with demand are only known once the slot's page has been built.
+            @Nullable DynamicPrice dynamicPrice = marketData.getDynamicPrice(slot);
+            double buyPrice = dynamicPrice != null ? dynamicPrice.getBuyPrice() : rotationItem.buyPrice();
+            double sellPrice = dynamicPrice != null ? dynamicPrice.getSellPrice() : rotationItem.sellPrice();
+            if(!Double.isNaN(buyPrice)) buyPrices.put(slot, String.valueOf(buyPrice));
+            if(!Double.isNaN(sellPrice)) sellPrices.put(slot, String.valueOf(sellPrice));
+
+            if(itemConfig.buyLimit() != null && itemConfig.buyLimit() > 0) buyLimits.put(slot, itemConfig.buyLimit());
+        }
+
+        Map<UUID, Map<Integer, Integer>> purchased = new HashMap<>();
+        if(!buyLimits.isEmpty()) {
+            for(UUID uuid : limitPlayers) {
+                @Nullable PlayerData playerData = marketData.getPlayerDataIfPresent(uuid);
+                purchased.put(uuid, playerData == null || playerData.getBuyLimits().isEmpty() ? Map.of() : Map.copyOf(playerData.getBuyLimits()));
+            }
+        }
+
+        return new MarketSnapshot(marketData.getMarketName(), time, Map.copyOf(stock), Map.copyOf(buyPrices), Map.copyOf(sellPrices), Map.copyOf(buyLimits), Map.copyOf(purchased));
+    }
+}
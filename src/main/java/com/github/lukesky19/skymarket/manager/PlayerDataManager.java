@@ -0,0 +1,329 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.manager;
+
+import com.github.lukesky19.skylib.api.adventure.AdventureUtil;
+import com.github.lukesky19.skylib.api.configurate.ConfigurationUtility;
+import com.github.lukesky19.skylib.libs.configurate.ConfigurateException;
+import com.github.lukesky19.skylib.libs.configurate.ConfigurationNode;
+import com.github.lukesky19.skylib.libs.configurate.yaml.YamlConfigurationLoader;
+import com.github.lukesky19.skymarket.SkyMarket;
+import com.github.lukesky19.skymarket.configuration.SettingsManager;
+import com.github.lukesky19.skymarket.data.MarketData;
+import com.github.lukesky19.skymarket.data.PlayerData;
+import com.github.lukesky19.skymarket.data.config.PlayerDataConfig;
+import com.github.lukesky19.skymarket.data.config.Settings;
+import com.github.lukesky19.skymarket.scheduler.MarketScheduler;
+import com.github.lukesky19.skymarket.scheduler.MarketTask;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class manages the lifecycle of each player's limits and trade progress.
+ * When a player joins, their saved data is read on a background thread and their balance is prefetched.
+ * When a player quits, their data is removed from every market after a grace period and written to the playerdata folder on a background thread.
+ * Saved data only applies to the rotation it was saved in, so it is ignored once a market refreshes.
+ * All methods must be called from the main thread.
+ */
+public class PlayerDataManager {
+    private static final long DEFAULT_EVICTION_GRACE_SECONDS = 60L;
+
+    private final @NotNull SkyMarket skyMarket;
+    private final @NotNull MarketScheduler marketScheduler;
+    private final @NotNull SettingsManager settingsManager;
+    private final @NotNull MarketDataManager marketDataManager;
+    private final @NotNull EconomyManager economyManager;
+    private final @NotNull Map<UUID, MarketTask> pendingEvictions = new HashMap<>();
+    private @Nullable ExecutorService executor;
+
+    /**
+     * Default Constructor. You should use {@link PlayerDataManager#PlayerDataManager(SkyMarket, MarketScheduler, SettingsManager, MarketDataManager, EconomyManager)} instead.
+     * @deprecated You should use {@link PlayerDataManager#PlayerDataManager(SkyMarket, MarketScheduler, SettingsManager, MarketDataManager, EconomyManager)} instead.
+     * @throws RuntimeException if this method is used.
+     */
+    @Deprecated
+    public PlayerDataManager() {
+        throw new RuntimeException("The use of the default constructor is not allowed.");
+    }
+
+    /**
+     * Constructor
+     * @param skyMarket A {@link SkyMarket} instance.
+     * @param marketScheduler A {@link MarketScheduler} instance.
+     * @param settingsManager A {@link SettingsManager} instance.
+     * @param marketDataManager A {@link MarketDataManager} instance.
+     * @param economyManager An {@link EconomyManager} instance.
+     */
+    public PlayerDataManager(@NotNull SkyMarket skyMarket, @NotNull MarketScheduler marketScheduler, @NotNull SettingsManager settingsManager, @NotNull MarketDataManager marketDataManager, @NotNull EconomyManager economyManager) {
+        this.skyMarket = skyMarket;
+        this.marketScheduler = marketScheduler;
+        this.settingsManager = settingsManager;
+        this.marketDataManager = marketDataManager;
+        this.economyManager = economyManager;
+    }
+
+    /**
+     * Starts the background thread and deletes any saved player data.
+     * Reloading starts a new rotation for every market, so the saved data no longer applies.
+     */
+    public void reload() {
+        for(MarketTask eviction : pendingEvictions.values()) {
+            eviction.cancel();
+        }
+        pendingEvictions.clear();
+
+        if(executor == null) {
+            executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "SkyMarket-PlayerData");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        executor.execute(this::deleteAll);
+    }
+
+    /**
+     * Cancels any pending evictions and waits for queued reads and writes to complete.
+     * Player data is not saved because every market starts a new rotation when the plugin is enabled again.
+     */
+    public void stop() {
+        for(MarketTask eviction : pendingEvictions.values()) {
+            eviction.cancel();
+        }
+        pendingEvictions.clear();
+
+        if(executor != null) {
+            executor.shutdown();
+            try {
+                if(!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                    skyMarket.getComponentLogger().warn(AdventureUtil.serialize("Timed out waiting for player data to be saved."));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            executor = null;
+        }
+    }
+
+    /**
+     * Loads a player's data when they join.
+     * If the player rejoined before their data was evicted, the eviction is cancelled and the data is kept.
+     * Otherwise, their saved limits and trade progress are read on the background thread. Their balance is always prefetched.
+     * @param player The {@link Player} that joined.
+     */
+    public void load(@NotNull Player player) {
+        UUID uuid = player.getUniqueId();
+
+        economyManager.prefetch(player);
+
+        MarketTask eviction = pendingEvictions.remove(uuid);
+        if(eviction != null) {
+            eviction.cancel();
+            return;
+        }
+
+        ExecutorService currentExecutor = executor;
+        if(currentExecutor == null) return;
+
+        currentExecutor.execute(() -> {
+            PlayerDataConfig playerDataConfig = read(uuid);
+            if(playerDataConfig == null || playerDataConfig.markets() == null) return;
+
+            runOnMainThread(() -> merge(uuid, playerDataConfig));
+        });
+    }
+
+    /**
+     * Schedules a player's data to be evicted after the configured grace period.
+     * @param player The {@link Player} that quit.
+     */
+    public void scheduleEviction(@NotNull Player player) {
+        UUID uuid = player.getUniqueId();
+
+        MarketTask previous = pendingEvictions.remove(uuid);
+        if(previous != null) previous.cancel();
+
+        MarketTask eviction = marketScheduler.runLater(() -> {
+            pendingEvictions.remove(uuid);
+            evict(uuid);
+        }, getEvictionGraceSeconds() * 20L);
+
+        pendingEvictions.put(uuid, eviction);
+    }
+
+    /**
+     * Removes a player's data from every market and writes it to their file on the background thread.
+     * The file is deleted if the player has nothing to save.
+     * @param uuid The {@link UUID} of the player.
+     */
+    private void evict(@NotNull UUID uuid) {
+        Map<String, PlayerDataConfig.MarketEntry> entries = new HashMap<>();
+
+        for(Map.Entry<String, MarketData> entry : marketDataManager.getMarkets().entrySet()) {
+            MarketData marketData = entry.getValue();
+
+            PlayerData playerData = marketData.removePlayerData(uuid);
+            if(playerData == null || playerData.isEmpty()) continue;
+
+            entries.put(entry.getKey(), new PlayerDataConfig.MarketEntry(
+                    marketData.getRotationSeed(),
+                    new HashMap<>(playerData.getBuyLimits()),
+                    new HashMap<>(playerData.getSellLimits()),
+                    new HashMap<>(playerData.getTradeUses())));
+        }
+
+        ExecutorService currentExecutor = executor;
+        if(currentExecutor == null) return;
+
+        PlayerDataConfig playerDataConfig = new PlayerDataConfig(entries);
+        currentExecutor.execute(() -> write(uuid, playerDataConfig));
+    }
+
+    /**
+     * Merges a player's saved data into each market. Entries saved in a previous rotation are ignored.
+     * Limits and trade uses are merged by keeping the highest amount, in case the player traded before the saved data was read.
+     * @param uuid The {@link UUID} of the player.
+     * @param playerDataConfig The player's saved {@link PlayerDataConfig}.
+     */
+    private void merge(@NotNull UUID uuid, @NotNull PlayerDataConfig playerDataConfig) {
+        if(playerDataConfig.markets() == null) return;
+
+        for(Map.Entry<String, PlayerDataConfig.MarketEntry> entry : playerDataConfig.markets().entrySet()) {
+            MarketData marketData = marketDataManager.getMarketData(entry.getKey());
+            if(marketData == null) continue;
+
+            PlayerDataConfig.MarketEntry marketEntry = entry.getValue();
+            if(marketEntry.rotationSeed() == null || marketEntry.rotationSeed() != marketData.getRotationSeed()) continue;
+
+            PlayerData playerData = marketData.getPlayerData(uuid);
+            if(marketEntry.buyLimits() != null) marketEntry.buyLimits().forEach((slot, amount) -> playerData.getBuyLimits().merge(slot, amount, Math::max));
+            if(marketEntry.sellLimits() != null) marketEntry.sellLimits().forEach((slot, amount) -> playerData.getSellLimits().merge(slot, amount, Math::max));
+            if(marketEntry.tradeUses() != null) marketEntry.tradeUses().forEach((index, uses) -> playerData.getTradeUses().merge(index, uses, Math::max));
+        }
+    }
+
+    /**
+     * Reads a player's saved data from their file. Called on the background thread.
+     * @param uuid The {@link UUID} of the player.
+     * @return The player's {@link PlayerDataConfig}, or null if the player has no saved data or it failed to load.
+     */
+    private @Nullable PlayerDataConfig read(@NotNull UUID uuid) {
+        Path path = getPath(uuid);
+        if(!Files.exists(path)) return null;
+
+        YamlConfigurationLoader loader = ConfigurationUtility.getYamlConfigurationLoader(path);
+        try {
+            return loader.load().get(PlayerDataConfig.class);
+        } catch (ConfigurateException e) {
+            skyMarket.getComponentLogger().error(AdventureUtil.serialize("Failed to load the player data for " + uuid + ". " + e.getMessage()));
+            return null;
+        }
+    }
+
+    /**
+     * Writes a player's data to their file, or deletes the file if there is nothing to save. Called on the background thread.
+     * @param uuid The {@link UUID} of the player.
+     * @param playerDataConfig The player's {@link PlayerDataConfig}.
+     */
+    private void write(@NotNull UUID uuid, @NotNull PlayerDataConfig playerDataConfig) {
+        Path path = getPath(uuid);
+
+        try {
+            if(playerDataConfig.markets() == null || playerDataConfig.markets().isEmpty()) {
+                Files.deleteIfExists(path);
+                return;
+            }
+
+            Files.createDirectories(path.getParent());
+
+            YamlConfigurationLoader loader = ConfigurationUtility.getYamlConfigurationLoader(path);
+            ConfigurationNode node = loader.createNode();
+            node.set(PlayerDataConfig.class, playerDataConfig);
+            loader.save(node);
+        } catch (IOException e) {
+            skyMarket.getComponentLogger().error(AdventureUtil.serialize("Failed to save the player data for " + uuid + ". " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Deletes every saved player data file. Called on the background thread.
+     */
+    private void deleteAll() {
+        Path folder = getFolder();
+        if(!Files.isDirectory(folder)) return;
+
+        try(DirectoryStream<Path> files = Files.newDirectoryStream(folder, "*.yml")) {
+            for(Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            skyMarket.getComponentLogger().error(AdventureUtil.serialize("Failed to delete the saved player data. " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Runs a task on the main thread if the plugin is still enabled.
+     * @param runnable The task to run.
+     */
+    private void runOnMainThread(@NotNull Runnable runnable) {
+        if(!skyMarket.isEnabled()) return;
+
+        marketScheduler.run(runnable);
+    }
+
+    /**
+     * Gets the folder player data is saved in.
+     * @return The {@link Path} to the folder.
+     */
+    private @NotNull Path getFolder() {
+        return Path.of(skyMarket.getDataFolder() + File.separator + "playerdata");
+    }
+
+    /**
+     * Gets the file a player's data is saved in.
+     * @param uuid The {@link UUID} of the player.
+     * @return The {@link Path} to the file.
+     */
+    private @NotNull Path getPath(@NotNull UUID uuid) {
+        return getFolder().resolve(uuid + ".yml");
+    }
+
+    /**
+     * Gets the configured eviction grace period in seconds.
+     * @return The eviction grace period in seconds.
+     */
+    private long getEvictionGraceSeconds() {
+        Settings settings = settingsManager.getSettingsConfig();
+        if(settings == null || settings.playerData() == null || settings.playerData().evictionGraceSeconds() == null || settings.playerData().evictionGraceSeconds() < 0) return DEFAULT_EVICTION_GRACE_SECONDS;
+
+        return settings.playerData().evictionGraceSeconds();
+    }
+}
@@ -0,0 +1,129 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.manager;
+
+import com.github.lukesky19.skymarket.configuration.SettingsManager;
+import com.github.lukesky19.skymarket.data.DynamicPrice;
+import com.github.lukesky19.skymarket.data.config.Settings;
+import com.github.lukesky19.skymarket.scheduler.MarketScheduler;
+import com.github.lukesky19.skymarket.scheduler.MarketTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class manages the recalculation of {@link DynamicPrice}s on a background thread.
+ * The callbacks of prices that changed are run on the main thread so the GUIs can show the new prices.
+ */
+public class PricingManager {
+    private static final long DEFAULT_UPDATE_INTERVAL_SECONDS = 60L;
+
+    private final @NotNull MarketScheduler marketScheduler;
+    private final @NotNull SettingsManager settingsManager;
+    private final @NotNull Map<DynamicPrice, Runnable> dynamicPrices = new ConcurrentHashMap<>();
+    private @Nullable MarketTask updateTask;
+
+    /**
+     * Default Constructor. You should use {@link PricingManager#PricingManager(MarketScheduler, SettingsManager)} instead.
+     * @deprecated You should use {@link PricingManager#PricingManager(MarketScheduler, SettingsManager)} instead.
+     * @throws RuntimeException if this method is used.
+     */
+    @Deprecated
+    public PricingManager() {
+        throw new RuntimeException("The use of the default constructor is not allowed.");
+    }
+
+    /**
+     * Constructor
+     * @param marketScheduler A {@link MarketScheduler} instance.
+     * @param settingsManager A {@link SettingsManager} instance.
+     */
+    public PricingManager(@NotNull MarketScheduler marketScheduler, @NotNull SettingsManager settingsManager) {
+        this.marketScheduler = marketScheduler;
+        this.settingsManager = settingsManager;
+    }
+
+    /**
+     * Forgets all registered prices and restarts the task that recalculates prices using the configured update interval.
+     * Markets register their prices again when their buttons are created.
+     */
+    public void reload() {
+        stop();
+        dynamicPrices.clear();
+
+        long intervalTicks = getUpdateIntervalSeconds() * 20L;
+        updateTask = marketScheduler.runTimerAsync(this::recalculatePrices, intervalTicks, intervalTicks);
+    }
+
+    /**
+     * Stops the task that recalculates prices.
+     */
+    public void stop() {
+        if(updateTask != null) {
+            updateTask.cancel();
+            updateTask = null;
+        }
+    }
+
+    /**
+     * Starts recalculating the prices for the provided {@link DynamicPrice}.
+     * @param dynamicPrice The {@link DynamicPrice} to recalculate.
+     * @param onChange A {@link Runnable} to run on the main thread when the prices change.
+     */
+    public void register(@NotNull DynamicPrice dynamicPrice, @NotNull Runnable onChange) {
+        dynamicPrices.put(dynamicPrice, onChange);
+    }
+
+    /**
+     * Stops recalculating the prices for the provided {@link DynamicPrice}s. Used when a market is refreshed.
+     * @param oldPrices The {@link DynamicPrice}s to stop recalculating.
+     */
+    public void unregister(@NotNull Collection<DynamicPrice> oldPrices) {
+        oldPrices.forEach(dynamicPrices::remove);
+    }
+
+    /**
+     * Recalculates all registered prices. Runs on a background thread.
+     */
+    private void recalculatePrices() {
+        List<Runnable> changed = new ArrayList<>();
+        dynamicPrices.forEach((dynamicPrice, onChange) -> {
+            if(dynamicPrice.recalculate()) changed.add(onChange);
+        });
+
+        if(!changed.isEmpty()) {
+            marketScheduler.run(() -> changed.forEach(Runnable::run));
+        }
+    }
+
+    /**
+     * Gets the configured update interval in seconds.
+     * @return The update interval in seconds.
+     */
+    private long getUpdateIntervalSeconds() {
+        Settings settings = settingsManager.getSettingsConfig();
+        if(settings == null || settings.dynamicPricing() == null || settings.dynamicPricing().updateIntervalSeconds() == null || settings.dynamicPricing().updateIntervalSeconds() <= 0) return DEFAULT_UPDATE_INTERVAL_SECONDS;
+
+        return settings.dynamicPricing().updateIntervalSeconds();
+    }
+}
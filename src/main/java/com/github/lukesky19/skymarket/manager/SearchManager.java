@@ -0,0 +1,231 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.manager;
+
+import com.github.lukesky19.skylib.api.registry.RegistryUtil;
+import com.github.lukesky19.skymarket.SkyMarket;
+import com.github.lukesky19.skymarket.data.MarketData;
+import com.github.lukesky19.skymarket.data.RotationItem;
+import com.github.lukesky19.skymarket.data.SearchResult;
+import com.github.lukesky19.skymarket.data.config.gui.ChestConfig;
+import com.github.lukesky19.skymarket.util.TransactionType;
+import net.kyori.adventure.text.logger.slf4j.ComponentLogger;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import org.bukkit.inventory.ItemType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * This class manages the index used by /skymarket search to find which chest markets are offering an item.
+ * The index maps the words of each item's {@link ItemType}s and transaction name to the items offered in the current rotations.
+ * Each market's entries are replaced when it starts a new rotation, so a search never has to open or build a market.
+ */
+public class SearchManager {
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final @NotNull SkyMarket skyMarket;
+    private final @NotNull Map<String, Set<SearchResult>> index = new HashMap<>();
+    private final @NotNull Map<String, List<SearchResult>> marketResults = new HashMap<>();
+
+    /**
+     * Default Constructor. You should use {@link SearchManager#SearchManager(SkyMarket)} instead.
+     * @deprecated You should use {@link SearchManager#SearchManager(SkyMarket)} instead.
+     * @throws RuntimeException if this method is used.
+     */
+    @Deprecated
+    public SearchManager() {
+        throw new RuntimeException("The use of the default constructor is not allowed.");
+    }
+
+    /**
+     * Constructor
+     * @param skyMarket A {@link SkyMarket} instance.
+     */
+    public SearchManager(@NotNull SkyMarket skyMarket) {
+        this.skyMarket = skyMarket;
+    }
+
+    /**
+     * Replaces a chest market's entries in the index with the items of its current rotation.
+     * @param marketId The market id.
+     * @param marketData The {@link MarketData} of the market. The rotation must have been prepared.
+     * @param marketConfig The {@link ChestConfig} of the market.
+     */
+    public void index(@NotNull String marketId, @NotNull MarketData marketData, @NotNull ChestConfig marketConfig) {
+        remove(marketId);
+
+        ComponentLogger logger = skyMarket.getComponentLogger();
+        List<SearchResult> results = new ArrayList<>();
+
+        for(RotationItem rotationItem : marketData.getRotationItems()) {
+            if(Double.isNaN(rotationItem.buyPrice()) || Double.isNaN(rotationItem.sellPrice())) continue;
+            ChestConfig.ItemConfig itemConfig = marketConfig.items().get(rotationItem.itemIndex());
+            if(itemConfig.transactionName() == null) continue;
+
+            List<ItemType> itemTypes = new ArrayList<>();
+            addItemType(logger, itemTypes, itemConfig.displayItem().itemType());
+            if(itemConfig.transactionType() == TransactionType.ITEM) addItemType(logger, itemTypes, itemConfig.transactionItem().itemType());
+
+            SearchResult result = new SearchResult(
+                    marketId,
+                    marketData.getMarketName(),
+                    rotationItem.page(),
+                    rotationItem.slot(),
+                    itemConfig.transactionName(),
+                    List.copyOf(itemTypes),
+                    rotationItem.buyPrice(),
+                    rotationItem.sellPrice());
+            results.add(result);
+
+            for(String token : getTokens(result)) {
+                index.computeIfAbsent(token, key -> new HashSet<>()).add(result);
+            }
+        }
+
+        marketResults.put(marketId, results);
+    }
+
+    /**
+     * Removes a market's entries from the index.
+     * @param marketId The market id.
+     */
+    public void remove(@NotNull String marketId) {
+        @Nullable List<SearchResult> results = marketResults.remove(marketId);
+        if(results == null) return;
+
+        for(SearchResult result : results) {
+            for(String token : getTokens(result)) {
+                @Nullable Set<SearchResult> tokenResults = index.get(token);
+                if(tokenResults == null) continue;
+
+                tokenResults.remove(result);
+                if(tokenResults.isEmpty()) index.remove(token);
+            }
+        }
+    }
+
+    /**
+     * Removes every market's entries from the index.
+     */
+    public void clear() {
+        index.clear();
+        marketResults.clear();
+    }
+
+    /**
+     * Finds the items whose {@link ItemType}s or transaction names contain every word of the query.
+     * @param query The query, for example an item id like diamond_sword or minecraft:diamond_sword, or words from an item's name.
+     * @return A {@link List} of {@link SearchResult}s sorted by market id and slot.
+     */
+    public @NotNull List<SearchResult> search(@NotNull String query) {
+        String normalizedQuery = query.toLowerCase(java.util.Locale.ROOT);
+        if(normalizedQuery.startsWith("minecraft:")) normalizedQuery = normalizedQuery.substring("minecraft:".length());
+
+        Set<String> tokens = tokenize(normalizedQuery);
+        if(tokens.isEmpty()) return List.of();
+
+        // Start from the smallest set of results so the fewest entries are checked against the other words.
+        List<Set<SearchResult>> tokenResults = new ArrayList<>(tokens.size());
+        for(String token : tokens) {
+            @Nullable Set<SearchResult> results = index.get(token);
+            if(results == null) return List.of();
+
+            tokenResults.add(results);
+        }
+        tokenResults.sort(Comparator.comparingInt(Set::size));
+
+        List<SearchResult> matches = new ArrayList<>();
+        for(SearchResult result : tokenResults.getFirst()) {
+            boolean matchesAll = true;
+            for(int i = 1; i < tokenResults.size(); i++) {
+                if(!tokenResults.get(i).contains(result)) {
+                    matchesAll = false;
+                    break;
+                }
+            }
+
+            if(matchesAll) matches.add(result);
+        }
+
+        matches.sort(Comparator.comparing(SearchResult::marketId).thenComparingInt(SearchResult::slot));
+
+        return matches;
+    }
+
+    /**
+     * Gets the ids of the {@link ItemType}s of every item in the index. Used to suggest queries.
+     * @return A {@link SortedSet} of item ids, for example diamond_sword.
+     */
+    public @NotNull SortedSet<String> getItemIds() {
+        SortedSet<String> itemIds = new TreeSet<>();
+        for(List<SearchResult> results : marketResults.values()) {
+            for(SearchResult result : results) {
+                for(ItemType itemType : result.itemTypes()) {
+                    itemIds.add(itemType.getKey().getKey());
+                }
+            }
+        }
+
+        return itemIds;
+    }
+
+    /**
+     * Resolves an {@link ItemType} from its id and adds it to a {@link List} if it is not already present.
+     * @param logger A {@link ComponentLogger}.
+     * @param itemTypes The {@link List} of {@link ItemType}s to add to.
+     * @param itemTypeId The id of the {@link ItemType}.
+     */
+    private void addItemType(@NotNull ComponentLogger logger, @NotNull List<ItemType> itemTypes, @Nullable String itemTypeId) {
+        if(itemTypeId == null) return;
+
+        RegistryUtil.getItemType(logger, itemTypeId).ifPresent(itemType -> {
+            if(!itemTypes.contains(itemType)) itemTypes.add(itemType);
+        });
+    }
+
+    /**
+     * Gets the words a {@link SearchResult} can be found by.
+     * @param result The {@link SearchResult}.
+     * @return A {@link Set} of lowercase words.
+     */
+    private @NotNull Set<String> getTokens(@NotNull SearchResult result) {
+        Set<String> tokens = tokenize(MiniMessage.miniMessage().stripTags(result.transactionName()).toLowerCase(java.util.Locale.ROOT));
+        for(ItemType itemType : result.itemTypes()) {
+            tokens.addAll(tokenize(itemType.getKey().getKey()));
+        }
+
+        return tokens;
+    }
+
+    /**
+     * Splits lowercase text into words on anything that is not a letter or a digit.
+     * @param text The lowercase text.
+     * @return A {@link Set} of words.
+     */
+    private @NotNull Set<String> tokenize(@NotNull String text) {
+        Set<String> tokens = new HashSet<>();
+        for(String token : TOKEN_SEPARATOR.split(text)) {
+            if(!token.isEmpty()) tokens.add(token);
+        }
+
+        return tokens;
+    }
+}
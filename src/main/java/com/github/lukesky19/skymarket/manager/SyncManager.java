@@ -0,0 +1,325 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.manager;
+
+import com.github.lukesky19.skylib.api.adventure.AdventureUtil;
+import com.github.lukesky19.skymarket.SkyMarket;
+import com.github.lukesky19.skymarket.configuration.SettingsManager;
+import com.github.lukesky19.skymarket.data.MarketData;
+import com.github.lukesky19.skymarket.data.PlayerData;
+import com.github.lukesky19.skymarket.data.config.Settings;
+import com.github.lukesky19.skymarket.listener.SyncListener;
+import com.github.lukesky19.skymarket.scheduler.MarketScheduler;
+import com.github.lukesky19.skymarket.scheduler.MarketTask;
+import com.github.lukesky19.skymarket.sync.*;
+import net.kyori.adventure.text.logger.slf4j.ComponentLogger;
+import org.bukkit.event.HandlerList;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * This class shares rotations and player limits with the other servers of a network through a {@link MarketSyncBus}.
+ * The leader publishes the seed of every new rotation, so every server generates the same items and prices.
+ * Every server records the changes made to its players' limits and sends them in one batch each flush interval, instead of one message per click.
+ * Messages are received on the bus's thread and handled on the main thread.
+ */
+public class SyncManager {
+    private static final long DEFAULT_FLUSH_INTERVAL_TICKS = 20L;
+    private static final int DEFAULT_PORT = 25590;
+
+    private final @NotNull SkyMarket skyMarket;
+    private final @NotNull MarketScheduler marketScheduler;
+    private final @NotNull SettingsManager settingsManager;
+    private final @NotNull MarketDataManager marketDataManager;
+    private final @NotNull MarketManager marketManager;
+    private final @NotNull UUID nodeId = UUID.randomUUID();
+    private final @NotNull SyncListener syncListener = new SyncListener(this);
+    private @Nullable MarketSyncBus bus;
+    private @Nullable MarketTask flushTask;
+    private boolean leading;
+
+    /**
+     * Default Constructor. You should use {@link SyncManager#SyncManager(SkyMarket, MarketScheduler, SettingsManager, MarketDataManager, MarketManager)} instead.
+     * @deprecated You should use {@link SyncManager#SyncManager(SkyMarket, MarketScheduler, SettingsManager, MarketDataManager, MarketManager)} instead.
+     * @throws RuntimeException if this method is used.
+     */
+    @Deprecated
+    public SyncManager() {
+        throw new RuntimeException("The use of the default constructor is not allowed.");
+    }
+
+    /**
+     * Constructor
+     * @param skyMarket A {@link SkyMarket} instance.
+     * @param marketScheduler A {@link MarketScheduler} instance.
+     * @param settingsManager A {@link SettingsManager} instance.
+     * @param marketDataManager A {@link MarketDataManager} instance.
+     * @param marketManager A {@link MarketManager} instance.
+     */
+    public SyncManager(
+            @NotNull SkyMarket skyMarket,
+            @NotNull MarketScheduler marketScheduler,
+            @NotNull SettingsManager settingsManager,
+            @NotNull MarketDataManager marketDataManager,
+            @NotNull MarketManager marketManager) {
+        this.skyMarket = skyMarket;
+        this.marketScheduler = marketScheduler;
+        this.settingsManager = settingsManager;
+        this.marketDataManager = marketDataManager;
+        this.marketManager = marketManager;
+    }
+
+    /**
+     * Connects to the configured bus and starts sending limit changes. Must be called after the markets have been reloaded.
+     * Nothing is started if syncing is disabled.
+     */
+    public void reload() {
+        stop();
+
+        ComponentLogger logger = skyMarket.getComponentLogger();
+        Settings settings = settingsManager.getSettingsConfig();
+        @Nullable Settings.Sync sync = settings != null ? settings.sync() : null;
+        if(sync == null || sync.enabled() == null || !sync.enabled()) return;
+
+        @Nullable MarketSyncBus newBus = createBus(logger, sync);
+        if(newBus == null) return;
+
+        try {
+            // Ask the leader for its current rotations each time this server connects.
+            newBus.start(this::receive, () -> newBus.publish(SyncCodec.encode(new SyncMessage.Hello(nodeId))));
+        } catch (IOException e) {
+            logger.error(AdventureUtil.serialize("Failed to start syncing markets. " + e.getMessage()));
+            newBus.close();
+            return;
+        }
+        bus = newBus;
+
+        for(MarketData marketData : marketDataManager.getMarkets().values()) {
+            marketData.trackLimitDeltas();
+        }
+
+        skyMarket.getServer().getPluginManager().registerEvents(syncListener, skyMarket);
+
+        long intervalTicks = getFlushIntervalTicks(sync);
+        flushTask = marketScheduler.runTimer(this::tick, 1L, intervalTicks);
+    }
+
+    /**
+     * Sends any remaining limit changes and disconnects from the bus.
+     */
+    public void stop() {
+        if(flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+
+        HandlerList.unregisterAll(syncListener);
+
+        if(bus != null) {
+            flushLimitDeltas(bus);
+            bus.close();
+            bus = null;
+        }
+
+        leading = false;
+        marketManager.setFollowingRotations(false);
+    }
+
+    /**
+     * Publishes the current rotation of a market if this server is the leader.
+     * @param marketId The market id.
+     */
+    public void publishRotation(@NotNull String marketId) {
+        if(bus == null || !bus.isLeader()) return;
+
+        @Nullable MarketData marketData = marketDataManager.getMarketData(marketId);
+        if(marketData == null) return;
+
+        bus.publish(SyncCodec.encode(new SyncMessage.Rotation(nodeId, marketId, marketData.getRotationSeed(), marketData.getRefreshTime())));
+    }
+
+    /**
+     * Publishes the current rotation of every market if this server is the leader.
+     */
+    private void publishRotations() {
+        for(String marketId : marketDataManager.getMarkets().keySet()) {
+            publishRotation(marketId);
+        }
+    }
+
+    /**
+     * Follows the leader's rotations unless this server is the leader, publishes every rotation when this server becomes the leader and sends the limit changes.
+     * Runs on the main thread each flush interval.
+     */
+    private void tick() {
+        if(bus == null) return;
+
+        boolean leader = bus.isLeader();
+        marketManager.setFollowingRotations(!leader);
+        if(leader && !leading) publishRotations();
+        leading = leader;
+
+        flushLimitDeltas(bus);
+    }
+
+    /**
+     * Sends the changes made to every player's limits since the last flush as one message.
+     * @param currentBus The {@link MarketSyncBus} to send the changes through.
+     */
+    private void flushLimitDeltas(@NotNull MarketSyncBus currentBus) {
+        List<SyncMessage.MarketDeltas> markets = new ArrayList<>();
+
+        for(Map.Entry<String, MarketData> entry : marketDataManager.getMarkets().entrySet()) {
+            MarketData marketData = entry.getValue();
+            List<SyncMessage.LimitDelta> deltas = new ArrayList<>();
+
+            for(UUID uuid : marketData.getPlayerDataIds()) {
+                @Nullable PlayerData playerData = marketData.getPlayerDataIfPresent(uuid);
+                if(playerData == null || !playerData.hasLimitDeltas()) continue;
+
+                Map<Integer, Integer> buyDeltas = playerData.drainBuyLimitDeltas();
+                Map<Integer, Integer> sellDeltas = playerData.drainSellLimitDeltas();
+
+                Set<Integer> slots = new HashSet<>(buyDeltas.keySet());
+                slots.addAll(sellDeltas.keySet());
+                for(int slot : slots) {
+                    deltas.add(new SyncMessage.LimitDelta(uuid, slot, buyDeltas.getOrDefault(slot, 0), sellDeltas.getOrDefault(slot, 0)));
+                }
+            }
+
+            if(!deltas.isEmpty()) markets.add(new SyncMessage.MarketDeltas(entry.getKey(), marketData.getRotationSeed(), deltas));
+        }
+
+        if(!markets.isEmpty()) currentBus.publish(SyncCodec.encode(new SyncMessage.LimitDeltas(nodeId, markets)));
+    }
+
+    /**
+     * Decodes a message from the bus and handles it on the main thread. Messages sent by this server are ignored.
+     * Runs on the bus thread.
+     * @param data The encoded message.
+     */
+    private void receive(byte @NotNull [] data) {
+        SyncMessage message;
+        try {
+            message = SyncCodec.decode(data);
+        } catch (IOException e) {
+            skyMarket.getComponentLogger().warn(AdventureUtil.serialize("Ignored an invalid sync message. " + e.getMessage()));
+            return;
+        }
+
+        if(message.nodeId().equals(nodeId)) return;
+        if(!skyMarket.isEnabled()) return;
+
+        marketScheduler.run(() -> handle(message));
+    }
+
+    /**
+     * Handles a message from another server. Runs on the main thread.
+     * @param message The {@link SyncMessage}.
+     */
+    private void handle(@NotNull SyncMessage message) {
+        if(bus == null) return;
+
+        switch(message) {
+            case SyncMessage.Hello ignored -> publishRotations();
+
+            case SyncMessage.Rotation rotation -> {
+                // The leader's rotations are the ones every server shows.
+                if(!bus.isLeader()) marketManager.applyRotation(rotation);
+            }
+
+            case SyncMessage.LimitDeltas limitDeltas -> {
+                for(SyncMessage.MarketDeltas marketDeltas : limitDeltas.markets()) {
+                    @Nullable MarketData marketData = marketDataManager.getMarketData(marketDeltas.marketId());
+                    if(marketData == null || marketData.getRotationSeed() != marketDeltas.rotationSeed()) continue;
+
+                    for(SyncMessage.LimitDelta delta : marketDeltas.deltas()) {
+                        // Only players with data here or online here are tracked, because PlayerDataManager only evicts the data of players that quit this server.
+                        @Nullable PlayerData playerData = marketData.getPlayerDataIfPresent(delta.uuid());
+                        if(playerData == null && skyMarket.getServer().getPlayer(delta.uuid()) != null) playerData = marketData.getPlayerData(delta.uuid());
+                        if(playerData == null) continue;
+
+                        if(delta.buyDelta() != 0) playerData.applyBuyLimitDelta(delta.slot(), delta.buyDelta());
+                        if(delta.sellDelta() != 0) playerData.applySellLimitDelta(delta.slot(), delta.sellDelta());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates the configured {@link MarketSyncBus}.
+     * @param logger A {@link ComponentLogger} to log errors with.
+     * @param sync The {@link Settings.Sync} settings.
+     * @return The {@link MarketSyncBus}, or null if the configured type is unknown or the sync directory is not an absolute path.
+     */
+    private @Nullable MarketSyncBus createBus(@NotNull ComponentLogger logger, @NotNull Settings.Sync sync) {
+        String type = sync.type() != null ? sync.type() : "file";
+
+        switch(type.toLowerCase(Locale.ROOT)) {
+            case "file" -> {
+                // A relative path would resolve to a different directory on each server, so the servers would never see each other's messages.
+                if(sync.directory() == null || sync.directory().isBlank()) {
+                    logger.error(AdventureUtil.serialize("The sync directory is not set. Set it to the absolute path of a directory every server can access. Markets will not be synced."));
+                    return null;
+                }
+
+                Path directory;
+                try {
+                    directory = Path.of(sync.directory());
+                } catch (InvalidPathException e) {
+                    logger.error(AdventureUtil.serialize("The sync directory " + sync.directory() + " is not a valid path. Markets will not be synced."));
+                    return null;
+                }
+
+                if(!directory.isAbsolute()) {
+                    logger.error(AdventureUtil.serialize("The sync directory " + sync.directory() + " is relative. Set it to the absolute path of a directory every server can access. Markets will not be synced."));
+                    return null;
+                }
+
+                return new FileSyncBus(logger, directory, nodeId);
+            }
+
+            case "tcp" -> {
+                int port = sync.port() != null && sync.port() > 0 ? sync.port() : DEFAULT_PORT;
+                return new TcpSyncBus(logger, port);
+            }
+
+            default -> {
+                logger.error(AdventureUtil.serialize("Unknown sync type " + type + ". Markets will not be synced."));
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Gets the configured flush interval in ticks.
+     * @param sync The {@link Settings.Sync} settings.
+     * @return The flush interval in ticks.
+     */
+    private long getFlushIntervalTicks(@NotNull Settings.Sync sync) {
+        if(sync.flushIntervalTicks() == null || sync.flushIntervalTicks() <= 0) return DEFAULT_FLUSH_INTERVAL_TICKS;
+
+        return sync.flushIntervalTicks();
+    }
+}
@@ -58,6 +58,17 @@ public class TradeManager {
      * @return A {@link List} containing a {@link MerchantRecipe}s.
      */
     public @NotNull List<MerchantRecipe> createTrades(@NotNull MerchantConfig tradeConfig) {
+        return createTrades(tradeConfig, new Random());
+    }
+
+    /**
+     * Gets a {@link List} containing random {@link MerchantRecipe}s to populate a TradeGUI with.
+     * The same seeded {@link Random} always creates the same trades, so a market's trades can be dropped and recreated.
+     * @param tradeConfig The {@link MerchantConfig} to load data from.
+     * @param random The {@link Random} to pick and roll the trades with.
+     * @return A {@link List} containing a {@link MerchantRecipe}s.
+     */
+    public @NotNull List<MerchantRecipe> createTrades(@NotNull MerchantConfig tradeConfig, @NotNull Random random) {
         ComponentLogger logger = skyMarket.getComponentLogger();
 
         // The final list of MerchantRecipe trades
@@ -76,14 +87,14 @@ public class TradeManager {
 
         while(addedTrades != totalTrades) {
             if(!tradesList.isEmpty()) {
-                int randomIndex = new Random().nextInt(tradesList.size());
+                int randomIndex = random.nextInt(tradesList.size());
                 MerchantConfig.Trade randomTrade = tradesList.get(randomIndex);
 
                 tradesList.remove(randomIndex);
 
-                Optional<ItemStack> optionalOutputStack = PluginUtils.createItemStack(logger, randomTrade.output().item(), randomTrade.output().amount(), randomTrade.output().randomEnchants(), List.of());
-                Optional<ItemStack> optionalFirstInputStack = PluginUtils.createItemStack(logger, randomTrade.input1().item(), randomTrade.input1().amount(), randomTrade.input1().randomEnchants(), List.of());
-                Optional<ItemStack> optionalSecondInputStack = PluginUtils.createItemStack(logger, randomTrade.input2().item(), randomTrade.input2().amount(), randomTrade.input2().randomEnchants(), List.of());
+                Optional<ItemStack> optionalOutputStack = PluginUtils.createItemStack(random, logger, randomTrade.output().item(), randomTrade.output().amount(), randomTrade.output().randomEnchants(), List.of());
+                Optional<ItemStack> optionalFirstInputStack = PluginUtils.createItemStack(random, logger, randomTrade.input1().item(), randomTrade.input1().amount(), randomTrade.input1().randomEnchants(), List.of());
+                Optional<ItemStack> optionalSecondInputStack = PluginUtils.createItemStack(random, logger, randomTrade.input2().item(), randomTrade.input2().amount(), randomTrade.input2().randomEnchants(), List.of());
 
                 // If no ItemStacks were created, let's continue on
                 if(optionalOutputStack.isEmpty() && optionalFirstInputStack.isEmpty() && optionalSecondInputStack.isEmpty()) continue;
@@ -102,8 +113,10 @@ public class TradeManager {
                 // Add the second ingredient if present
                 optionalSecondInputStack.ifPresent(recipe::addIngredient);
 
-                // Set the recipe to ignore discounts and to not reward experience
+                // Set the recipe to ignore discounts and demand, and to not reward experience
                 recipe.setIgnoreDiscounts(true);
+                recipe.setDemand(0);
+                recipe.setPriceMultiplier(0);
                 recipe.setExperienceReward(false);
 
                 // Add the MerchantRecipe to the list of trades
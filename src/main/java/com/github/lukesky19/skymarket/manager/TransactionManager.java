@@ -19,14 +19,18 @@ package com.github.lukesky19.skymarket.manager;
 
 import com.github.lukesky19.skylib.api.adventure.AdventureUtil;
 import com.github.lukesky19.skylib.api.format.FormatUtil;
-import com.github.lukesky19.skylib.api.placeholderapi.PlaceholderAPIUtil;
 import com.github.lukesky19.skylib.api.player.PlayerUtil;
-import com.github.lukesky19.skymarket.SkyMarket;
 import com.github.lukesky19.skymarket.configuration.LocaleManager;
-import com.github.lukesky19.skymarket.data.config.Locale;
+import com.github.lukesky19.skymarket.data.CommandTemplate;
+import com.github.lukesky19.skymarket.data.MarketData;
 import com.github.lukesky19.skymarket.data.PlayerData;
-import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
-import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
+import com.github.lukesky19.skymarket.event.PostTransactionEvent;
+import com.github.lukesky19.skymarket.event.PreTransactionEvent;
+import com.github.lukesky19.skymarket.jfr.TransactionFlightEvent;
+import com.github.lukesky19.skymarket.scheduler.MarketScheduler;
+import com.github.lukesky19.skymarket.util.LocaleMessage;
+import com.github.lukesky19.skymarket.util.MarketOperation;
+import net.kyori.adventure.text.Component;
 import org.bukkit.entity.Player;
 import org.bukkit.event.inventory.InventoryCloseEvent;
 import org.bukkit.inventory.ItemStack;
@@ -36,20 +40,25 @@ import org.jetbrains.annotations.Nullable;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.text.DecimalFormat;
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This class manages the buying and selling of items or commands.
+ * Each transaction can be for a quantity greater than one, which is used when repeated clicks are combined by the {@link TransactionSequencer}.
+ * Limits, global stock and the player's balance are reserved before anything is given or taken, and any part of a reservation that is not used is released.
  */
 public class TransactionManager {
-    private final @NotNull SkyMarket skyMarket;
+    private final @NotNull MarketScheduler marketScheduler;
     private final @NotNull LocaleManager localeManager;
     private final @NotNull GUIManager guiManager;
+    private final @NotNull EconomyManager economyManager;
+    private final @NotNull CommandManager commandManager;
 
     /**
-     * Default Constructor. You should use {@link TransactionManager#TransactionManager(SkyMarket, LocaleManager, GUIManager)} instead.
-     * @deprecated You should use {@link TransactionManager#TransactionManager(SkyMarket, LocaleManager, GUIManager)} instead.
+     * Default Constructor. You should use {@link TransactionManager#TransactionManager(MarketScheduler, LocaleManager, GUIManager, EconomyManager, CommandManager)} instead.
+     * @deprecated You should use {@link TransactionManager#TransactionManager(MarketScheduler, LocaleManager, GUIManager, EconomyManager, CommandManager)} instead.
      * @throws RuntimeException if this method is used.
      */
     @Deprecated
@@ -59,663 +68,726 @@ public class TransactionManager {
 
     /**
      * Constructor
-     * @param skyMarket A {@link SkyMarket} instance.
+     * @param marketScheduler A {@link MarketScheduler} instance.
      * @param localeManager A {@link LocaleManager} instance.
      * @param guiManager A {@link GUIManager} instance.
+     * @param economyManager A {@link EconomyManager} instance.
+     * @param commandManager A {@link CommandManager} instance.
      */
-    public TransactionManager(@NotNull SkyMarket skyMarket, @NotNull LocaleManager localeManager, @NotNull GUIManager guiManager) {
-        this.skyMarket = skyMarket;
+    public TransactionManager(@NotNull MarketScheduler marketScheduler, @NotNull LocaleManager localeManager, @NotNull GUIManager guiManager, @NotNull EconomyManager economyManager, @NotNull CommandManager commandManager) {
+        this.marketScheduler = marketScheduler;
         this.localeManager = localeManager;
         this.guiManager = guiManager;
+        this.economyManager = economyManager;
+        this.commandManager = commandManager;
     }
 
     /**
      * Used when a button is clicked to purchase an item.
      * @param player The player purchasing the item.
+     * @param marketId The id of the market the transaction is made in.
+     * @param marketData The {@link MarketData} of the market the item is being purchased from.
      * @param playerData The player's {@link PlayerData}.
      * @param itemStack The item to purchase.
      * @param price The buy price of the item.
      * @param buyItems The items to take in exchange for the item.
      * @param slot The slot of the button clicked.
      * @param limit The limit of how many times this item can be purchased.
+     * @return true if the purchase completed, otherwise false.
      */
-    public void buyItem(
+    public boolean buyItem(
             @NotNull Player player,
+            @NotNull String marketId,
+            @NotNull MarketData marketData,
             @NotNull PlayerData playerData,
             @NotNull ItemStack itemStack,
             double price,
             @NotNull List<ItemStack> buyItems,
             int slot,
             @Nullable Integer limit) {
-        Locale locale = localeManager.getLocale();
-
-        // Check if the item can be purchased according to the buy price or the items to trade.
-        if(price <= 0 && buyItems.isEmpty()) {
-            player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.unbuyable()));
-            return;
-        }
-
-        // If a limit is configured, compare the player's current buy count to the limit.
-        if(limit != null && limit > 0) {
-            @Nullable Integer playerLimit = playerData.getBuyLimits().get(slot);
-            if(playerLimit != null && playerLimit >= limit) {
-                player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.buyLimitReached()));
-                return;
-            }
-        }
-
-        if(price > 0) {
-            if(!buyItems.isEmpty()) {
-                // Check if the player's balance has enough money for the price
-                if(skyMarket.getEconomy().getBalance(player) < price) {
-                    player.sendMessage(AdventureUtil.serialize(player, locale.prefix() + locale.insufficientFunds()));
-
-                    skyMarket.getServer().getScheduler().runTaskLater(skyMarket, () -> {
-                        player.closeInventory(InventoryCloseEvent.Reason.UNLOADED);
-
-                        guiManager.removeOpenGUI(player.getUniqueId());
-                    }, 1L);
-
-                    return;
-                }
-
-                boolean containsItems = true;
-                for(ItemStack item : buyItems) {
-                    if(!player.getInventory().containsAtLeast(item, item.getAmount())) {
-                        containsItems = false;
-                        break;
-                    }
-                }
-
-                if(!containsItems) {
-                    player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.insufficientItems()));
-
-                    skyMarket.getServer().getScheduler().runTaskLater(skyMarket, () -> {
-                        player.closeInventory(InventoryCloseEvent.Reason.UNLOADED);
-
-                        guiManager.removeOpenGUI(player.getUniqueId());
-                    }, 1L);
-
-                    return;
-                }
-
-                // Remove the price from the player's balance.
-                skyMarket.getEconomy().withdrawPlayer(player, price);
-
-                // Remove the items from the player's inventory
-                for(ItemStack item : buyItems) {
-                    player.getInventory().removeItem(item);
-                }
-
-                // Give the player the purchased item
-                PlayerUtil.giveItem(player.getInventory(), itemStack, itemStack.getAmount(), player.getLocation());
-
-                // Format the purchased item's name
-                String playerItem = locale.itemFormat();
-                playerItem = playerItem.replace("<item_name>", FormatUtil.formatMaterialName(itemStack.getType()));
-                playerItem = playerItem.replace("<item_amount>", String.valueOf(itemStack.getAmount()));
-
-                // Create the DecimalFormat
-                DecimalFormat df = new DecimalFormat("#.##");
-                df.setRoundingMode(RoundingMode.CEILING);
-
-                // Format the buy price
-                BigDecimal bigPrice = BigDecimal.valueOf(price);
-                String formattedPrice = df.format(bigPrice);
-
-                // Format the player's balance
-                BigDecimal bigBalance = BigDecimal.valueOf(skyMarket.getEconomy().getBalance(player));
-                String bal = df.format(bigBalance);
-
-                // Create the list of placeholders
-                List<TagResolver.Single> successPlaceholders = new ArrayList<>();
-                // Add the placeholder for the item purchased
-                successPlaceholders.add(Placeholder.parsed("item", playerItem));
-                // Add the placeholder for the item's price
-                successPlaceholders.add(Placeholder.parsed("price", formattedPrice));
-                // Add the placeholder for the player's balance
-                successPlaceholders.add(Placeholder.parsed("bal", bal));
-
-                // Create the placeholders for the items removed from the player's inventory
-                for(int i = 0; i < buyItems.size() - 1; i++) {
-                    ItemStack buyStack = buyItems.get(i);
-
-                    String item = locale.itemFormat();
-                    item = item.replace("<item_name>", FormatUtil.formatMaterialName(buyStack.getType()));
-                    item = item.replace("<item_amount>", String.valueOf(buyStack.getAmount()));
-
-                    successPlaceholders.add(Placeholder.parsed("item" + i, item));
-                }
-
-                // Send the success message
-                player.sendMessage(AdventureUtil.serialize(player, locale.prefix() + locale.buySuccess(), successPlaceholders));
-
-                // Increment the player's buy limit if a limit is configured
-                if(limit != null && limit > 0) {
-                    playerData.incrementBuyLimit(slot);
-                }
-            } else {
-                // Check if the player's balance has enough money for the price
-                if(skyMarket.getEconomy().getBalance(player) < price) {
-                    player.sendMessage(AdventureUtil.serialize(player, locale.prefix() + locale.insufficientFunds()));
-
-                    skyMarket.getServer().getScheduler().runTaskLater(skyMarket, () -> {
-                        player.closeInventory(InventoryCloseEvent.Reason.UNLOADED);
-
-                        guiManager.removeOpenGUI(player.getUniqueId());
-                    }, 1L);
-
-                    return;
-                }
-
-                // Remove the price from the player's balance.
-                skyMarket.getEconomy().withdrawPlayer(player, price);
-
-                // Give the player the purchased item
-                PlayerUtil.giveItem(player.getInventory(), itemStack, itemStack.getAmount(), player.getLocation());
-
-                // Format the purchased item's name
-                String playerItem = locale.itemFormat();
-                playerItem = playerItem.replace("<item_name>", FormatUtil.formatMaterialName(itemStack.getType()));
-                playerItem = playerItem.replace("<item_amount>", String.valueOf(itemStack.getAmount()));
-
-                // Create the DecimalFormat
-                DecimalFormat df = new DecimalFormat("#.##");
-                df.setRoundingMode(RoundingMode.CEILING);
-
-                // Format the buy price
-                BigDecimal bigPrice = BigDecimal.valueOf(price);
-                String formattedPrice = df.format(bigPrice);
-
-                // Format the player's balance
-                BigDecimal bigBalance = BigDecimal.valueOf(skyMarket.getEconomy().getBalance(player));
-                String bal = df.format(bigBalance);
-
-                // Create the list of placeholders
-                List<TagResolver.Single> successPlaceholders = new ArrayList<>();
-                // Add the placeholder for the item purchased
-                successPlaceholders.add(Placeholder.parsed("item", playerItem));
-                // Add the placeholder for the item's price
-                successPlaceholders.add(Placeholder.parsed("price", formattedPrice));
-                // Add the placeholder for the player's balance
-                successPlaceholders.add(Placeholder.parsed("bal", bal));
-
-                // Send the success message
-                player.sendMessage(AdventureUtil.serialize(player, locale.prefix() + locale.buySuccess(), successPlaceholders));
-
-                // Increment the player's buy limit if a limit is configured
-                if(limit != null && limit > 0) {
-                    playerData.incrementBuyLimit(slot);
-                }
-            }
-        } else {
-            // Check if the player contains the required items
-            boolean containsItems = true;
-            for(ItemStack item : buyItems) {
-                if(!player.getInventory().containsAtLeast(item, item.getAmount())) {
-                    containsItems = false;
-                    break;
-                }
-            }
-
-            if(!containsItems) {
-                player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.insufficientItems()));
-
-                skyMarket.getServer().getScheduler().runTaskLater(skyMarket, () -> {
-                    player.closeInventory(InventoryCloseEvent.Reason.UNLOADED);
-
-                    guiManager.removeOpenGUI(player.getUniqueId());
-                }, 1L);
-
-                return;
-            }
-
-            // Remove the items from the player's inventory
-            for(ItemStack item : buyItems) {
-                player.getInventory().removeItem(item);
-            }
-
-            // Give the player the purchased item
-            PlayerUtil.giveItem(player.getInventory(), itemStack, itemStack.getAmount(), player.getLocation());
-
-            // Format the purchased item's name
-            String playerItem = locale.itemFormat();
-            playerItem = playerItem.replace("<item_name>", FormatUtil.formatMaterialName(itemStack.getType()));
-            playerItem = playerItem.replace("<item_amount>", String.valueOf(itemStack.getAmount()));
+        return buyItem(player, marketId, marketData, playerData, itemStack, price, buyItems, slot, limit, 1) > 0;
+    }
 
-            // Create the DecimalFormat
-            DecimalFormat df = new DecimalFormat("#.##");
-            df.setRoundingMode(RoundingMode.CEILING);
+    /**
+     * Used to purchase an item one or more times in a single transaction.
+     * As many as possible up to the quantity are purchased.
+     * A {@link TransactionFlightEvent} is recorded when Java Flight Recorder is recording it.
+     * A {@link PreTransactionEvent} and {@link PostTransactionEvent} are called when plugins are listening for them.
+     * @param player The player purchasing the item.
+     * @param marketId The id of the market the transaction is made in.
+     * @param marketData The {@link MarketData} of the market the item is being purchased from.
+     * @param playerData The player's {@link PlayerData}.
+     * @param itemStack The item to purchase.
+     * @param price The buy price of the item.
+     * @param buyItems The items to take in exchange for the item.
+     * @param slot The slot of the button clicked.
+     * @param limit The limit of how many times this item can be purchased.
+     * @param quantity The number of times to purchase the item.
+     * @return The number of times the item was purchased.
+     */
+    public int buyItem(
+            @NotNull Player player,
+            @NotNull String marketId,
+            @NotNull MarketData marketData,
+            @NotNull PlayerData playerData,
+            @NotNull ItemStack itemStack,
+            double price,
+            @NotNull List<ItemStack> buyItems,
+            int slot,
+            @Nullable Integer limit,
+            int quantity) {
+        TransactionFlightEvent flightEvent = new TransactionFlightEvent();
+        flightEvent.begin();
 
-            // Format the player's balance
-            BigDecimal bigBalance = BigDecimal.valueOf(skyMarket.getEconomy().getBalance(player));
-            String bal = df.format(bigBalance);
+        int bought = callPreTransaction(player, marketId, MarketOperation.BUY_ITEM, itemStack, null, slot, price, quantity) ? processBuyItem(player, marketData, playerData, itemStack, price, buyItems, slot, limit, quantity) : 0;
 
-            // Create the list of placeholders
-            List<TagResolver.Single> successPlaceholders = new ArrayList<>();
-            // Add the placeholder for the item purchased
-            successPlaceholders.add(Placeholder.parsed("item", playerItem));
-            successPlaceholders.add(Placeholder.parsed("price", ""));
-            // Add the placeholder for the player's balance
-            successPlaceholders.add(Placeholder.parsed("bal", bal));
+        flightEvent.record(MarketOperation.BUY_ITEM, player.getName(), slot, price, bought > 0);
+        if(bought > 0) callPostTransaction(player, marketId, MarketOperation.BUY_ITEM, itemStack, null, slot, price, bought);
 
-            // Create the placeholders for the items removed from the player's inventory
-            for(int i = 0; i < buyItems.size() - 1; i++) {
-                ItemStack buyStack = buyItems.get(i);
+        return bought;
+    }
 
-                String item = locale.itemFormat();
-                item = item.replace("<item_name>", FormatUtil.formatMaterialName(buyStack.getType()));
-                item = item.replace("<item_amount>", String.valueOf(buyStack.getAmount()));
+    /**
+     * Processes the purchase of an item.
+     * @param player The player purchasing the item.
+     * @param marketData The {@link MarketData} of the market the item is being purchased from.
+     * @param playerData The player's {@link PlayerData}.
+     * @param itemStack The item to purchase.
+     * @param price The buy price of the item.
+     * @param buyItems The items to take in exchange for the item.
+     * @param slot The slot of the button clicked.
+     * @param limit The limit of how many times this item can be purchased.
+     * @param quantity The number of times to purchase the item.
+     * @return The number of times the item was purchased.
+     */
+    private int processBuyItem(
+            @NotNull Player player,
+            @NotNull MarketData marketData,
+            @NotNull PlayerData playerData,
+            @NotNull ItemStack itemStack,
+            double price,
+            @NotNull List<ItemStack> buyItems,
+            int slot,
+            @Nullable Integer limit,
+            int quantity) {
+        int bought = reserveBuy(player, marketData, playerData, price, buyItems, slot, limit, quantity);
+        if(bought == 0) return 0;
 
-                successPlaceholders.add(Placeholder.parsed("item" + i, item));
-            }
+        // Give the player the purchased item
+        PlayerUtil.giveItem(player.getInventory(), itemStack, itemStack.getAmount() * bought, player.getLocation());
 
-            // Send the success message
-            player.sendMessage(AdventureUtil.serialize(player, locale.prefix() + locale.buySuccess(), successPlaceholders));
+        // Send the success message
+        sendSuccess(player, LocaleMessage.BUY_SUCCESS, formatItem(player, itemStack, bought), price * bought, buyItems, bought);
 
-            // Increment the player's buy limit if a limit is configured
-            if(limit != null && limit > 0) {
-                playerData.incrementBuyLimit(slot);
-            }
-        }
+        return bought;
     }
 
     /**
      * Used when a button is clicked to sell an item.
      * @param player The player selling the item.
+     * @param marketId The id of the market the transaction is made in.
      * @param playerData The player's {@link PlayerData}.
      * @param itemStack The item to sell.
      * @param price The sell price of the item.
      * @param slot The slot of the button clicked.
      * @param limit The limit of how many times this item can be sold.
+     * @return true if the sale completed, otherwise false.
      */
-    public void sellItem(
+    public boolean sellItem(
             @NotNull Player player,
+            @NotNull String marketId,
             @NotNull PlayerData playerData,
             @NotNull ItemStack itemStack,
             double price,
             int slot,
             @Nullable Integer limit) {
-        Locale locale = localeManager.getLocale();
-
-        // Check if the item can be sold according to the sell price
-        if(price <= 0) {
-            player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.unsellable()));
-            return;
-        }
+        return sellItem(player, marketId, playerData, itemStack, price, slot, limit, 1) > 0;
+    }
 
-        // If a limit is configured, compare the player's current buy count to the limit.
-        if(limit != null && limit > 0) {
-            @Nullable Integer playerLimit = playerData.getSellLimits().get(slot);
-            if(playerLimit != null && playerLimit >= limit) {
-                player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.sellLimitReached()));
-                return;
-            }
-        }
+    /**
+     * Used to sell an item one or more times in a single transaction.
+     * As many as possible up to the quantity are sold.
+     * A {@link TransactionFlightEvent} is recorded when Java Flight Recorder is recording it.
+     * A {@link PreTransactionEvent} and {@link PostTransactionEvent} are called when plugins are listening for them.
+     * @param player The player selling the item.
+     * @param marketId The id of the market the transaction is made in.
+     * @param playerData The player's {@link PlayerData}.
+     * @param itemStack The item to sell.
+     * @param price The sell price of the item.
+     * @param slot The slot of the button clicked.
+     * @param limit The limit of how many times this item can be sold.
+     * @param quantity The number of times to sell the item.
+     * @return The number of times the item was sold.
+     */
+    public int sellItem(
+            @NotNull Player player,
+            @NotNull String marketId,
+            @NotNull PlayerData playerData,
+            @NotNull ItemStack itemStack,
+            double price,
+            int slot,
+            @Nullable Integer limit,
+            int quantity) {
+        TransactionFlightEvent flightEvent = new TransactionFlightEvent();
+        flightEvent.begin();
 
-        if(!player.getInventory().containsAtLeast(itemStack, itemStack.getAmount())) {
-            player.sendMessage(AdventureUtil.serialize(player, locale.prefix() + locale.notEnoughItems()));
+        int sold = callPreTransaction(player, marketId, MarketOperation.SELL_ITEM, itemStack, null, slot, price, quantity) ? processSellItem(player, playerData, itemStack, price, slot, limit, quantity) : 0;
 
-            skyMarket.getServer().getScheduler().runTaskLater(skyMarket, () -> {
-                player.closeInventory(InventoryCloseEvent.Reason.UNLOADED);
+        flightEvent.record(MarketOperation.SELL_ITEM, player.getName(), slot, price, sold > 0);
+        if(sold > 0) callPostTransaction(player, marketId, MarketOperation.SELL_ITEM, itemStack, null, slot, price, sold);
 
-                guiManager.removeOpenGUI(player.getUniqueId());
-            }, 1L);
+        return sold;
+    }
 
-            return;
+    /**
+     * Processes the sale of an item.
+     * @param player The player selling the item.
+     * @param playerData The player's {@link PlayerData}.
+     * @param itemStack The item to sell.
+     * @param price The sell price of the item.
+     * @param slot The slot of the button clicked.
+     * @param limit The limit of how many times this item can be sold.
+     * @param quantity The number of times to sell the item.
+     * @return The number of times the item was sold.
+     */
+    private int processSellItem(
+            @NotNull Player player,
+            @NotNull PlayerData playerData,
+            @NotNull ItemStack itemStack,
+            double price,
+            int slot,
+            @Nullable Integer limit,
+            int quantity) {
+        int reserved = reserveSell(player, playerData, price, slot, limit, quantity);
+        if(reserved == 0) return 0;
+
+        // Limit the quantity to the number of items the player has
+        int sold = getAvailableSets(player, List.of(itemStack), reserved);
+        if(limit != null && limit > 0) playerData.releaseSellLimit(slot, reserved - sold);
+
+        if(sold == 0) {
+            localeManager.send(player, LocaleMessage.NOT_ENOUGH_ITEMS);
+            closeMarket(player);
+            return 0;
         }
 
-        // Remove the item from the player's inventory
-        player.getInventory().removeItem(itemStack);
+        // Remove the items from the player's inventory
+        for(int i = 0; i < sold; i++) {
+            player.getInventory().removeItem(itemStack);
+        }
 
         // Give the player the price
-        skyMarket.getEconomy().depositPlayer(player, price);
-
-        // Format the sold item's name
-        String soldItem = locale.itemFormat();
-        soldItem = soldItem.replace("<item_name>", FormatUtil.formatMaterialName(itemStack.getType()));
-        soldItem = soldItem.replace("<item_amount>", String.valueOf(itemStack.getAmount()));
-
-        // Create the DecimalFormat
-        DecimalFormat df = new DecimalFormat("#.##");
-        df.setRoundingMode(RoundingMode.CEILING);
-
-        // Format the sell price
-        BigDecimal sellPrice = BigDecimal.valueOf(price);
-        String formattedPrice = df.format(sellPrice);
-
-        // Format the player's balance
-        BigDecimal bigBalance = BigDecimal.valueOf(skyMarket.getEconomy().getBalance(player));
-        String bal = df.format(bigBalance);
-
-        // Create the list of placeholders
-        List<TagResolver.Single> successPlaceholders = new ArrayList<>();
-        // Add the placeholder for the item purchased
-        successPlaceholders.add(Placeholder.parsed("item", soldItem));
-        // Add the placeholder for the item's price
-        successPlaceholders.add(Placeholder.parsed("price", formattedPrice));
-        // Add the placeholder for the player's balance
-        successPlaceholders.add(Placeholder.parsed("bal", bal));
+        economyManager.deposit(player, price * sold);
 
         // Send the success message
-        player.sendMessage(AdventureUtil.serialize(player, locale.prefix() + locale.sellSuccess(), successPlaceholders));
+        sendSuccess(player, LocaleMessage.SELL_SUCCESS, formatItem(player, itemStack, sold), price * sold, List.of(), sold);
 
-        // Increment the player's sell limit if a limit is configured
-        if(limit != null && limit > 0) {
-            playerData.incrementSellLimit(slot);
-        }
+        return sold;
     }
 
     /**
      * Used when a button is clicked to buy a command. (Runs a command through console, doesn't give the player access to the command.)
      * @param player The player buying the command.
+     * @param marketId The id of the market the transaction is made in.
+     * @param marketData The {@link MarketData} of the market the command is being purchased from.
      * @param playerData The player's {@link PlayerData}.
      * @param name The name of the command being purchased. Taken from the GUI configuration.
      * @param price The price of the command.
      * @param buyItems The items to take in exchange for the command.
-     * @param buyCommands The commands to run once the transaction takes place.
+     * @param buyCommands The {@link CommandTemplate}s to queue once the transaction takes place.
      * @param slot The slot of the button clicked.
      * @param limit The limit of how many times this item can be purchased.
+     * @return true if the purchase completed, otherwise false.
      */
-    public void buyCommand(
+    public boolean buyCommand(
             @NotNull Player player,
+            @NotNull String marketId,
+            @NotNull MarketData marketData,
             @NotNull PlayerData playerData,
             @NotNull String name,
             double price,
             @NotNull List<ItemStack> buyItems,
-            @NotNull List<String> buyCommands,
+            @NotNull List<CommandTemplate> buyCommands,
             int slot,
             @Nullable Integer limit) {
-        Locale locale = localeManager.getLocale();
-
-        // Check if the command can be purchased according to the buy price or the items to trade.
-        if(price <= 0 && buyItems.isEmpty()) {
-            player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.unbuyable()));
-            return;
-        }
-
-        // If a limit is configured, compare the player's current buy count to the limit.
-        if(limit != null && limit > 0) {
-            @Nullable Integer playerLimit = playerData.getBuyLimits().get(slot);
-            if(playerLimit != null && playerLimit >= limit) {
-                player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.buyLimitReached()));
-                return;
-            }
-        }
-
-        if(price > 0) {
-            if(!buyItems.isEmpty()) {
-                // Check if the player's balance has enough money for the price
-                if(skyMarket.getEconomy().getBalance(player) < price) {
-                    player.sendMessage(AdventureUtil.serialize(player, locale.prefix() + locale.insufficientFunds()));
-
-                    skyMarket.getServer().getScheduler().runTaskLater(skyMarket, () -> {
-                        player.closeInventory(InventoryCloseEvent.Reason.UNLOADED);
-
-                        guiManager.removeOpenGUI(player.getUniqueId());
-                    }, 1L);
-
-                    return;
-                }
-
-                boolean containsItems = true;
-                for(ItemStack item : buyItems) {
-                    if (!player.getInventory().containsAtLeast(item, item.getAmount())) {
-                        containsItems = false;
-                        break;
-                    }
-                }
+        return buyCommand(player, marketId, marketData, playerData, name, price, buyItems, buyCommands, slot, limit, 1) > 0;
+    }
 
-                if(!containsItems) {
-                    player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.insufficientItems()));
+    /**
+     * Used to buy a command one or more times in a single transaction. The commands are queued once for each purchase.
+     * As many as possible up to the quantity are purchased.
+     * A {@link TransactionFlightEvent} is recorded when Java Flight Recorder is recording it.
+     * A {@link PreTransactionEvent} and {@link PostTransactionEvent} are called when plugins are listening for them.
+     * @param player The player buying the command.
+     * @param marketId The id of the market the transaction is made in.
+     * @param marketData The {@link MarketData} of the market the command is being purchased from.
+     * @param playerData The player's {@link PlayerData}.
+     * @param name The name of the command being purchased. Taken from the GUI configuration.
+     * @param price The price of the command.
+     * @param buyItems The items to take in exchange for the command.
+     * @param buyCommands The {@link CommandTemplate}s to queue once the transaction takes place.
+     * @param slot The slot of the button clicked.
+     * @param limit The limit of how many times this item can be purchased.
+     * @param quantity The number of times to buy the command.
+     * @return The number of times the command was purchased.
+     */
+    public int buyCommand(
+            @NotNull Player player,
+            @NotNull String marketId,
+            @NotNull MarketData marketData,
+            @NotNull PlayerData playerData,
+            @NotNull String name,
+            double price,
+            @NotNull List<ItemStack> buyItems,
+            @NotNull List<CommandTemplate> buyCommands,
+            int slot,
+            @Nullable Integer limit,
+            int quantity) {
+        TransactionFlightEvent flightEvent = new TransactionFlightEvent();
+        flightEvent.begin();
 
-                    skyMarket.getServer().getScheduler().runTaskLater(skyMarket, () -> {
-                        player.closeInventory(InventoryCloseEvent.Reason.UNLOADED);
+        int bought = callPreTransaction(player, marketId, MarketOperation.BUY_COMMAND, null, name, slot, price, quantity) ? processBuyCommand(player, marketData, playerData, name, price, buyItems, buyCommands, slot, limit, quantity) : 0;
 
-                        guiManager.removeOpenGUI(player.getUniqueId());
-                    }, 1L);
+        flightEvent.record(MarketOperation.BUY_COMMAND, player.getName(), slot, price, bought > 0);
+        if(bought > 0) callPostTransaction(player, marketId, MarketOperation.BUY_COMMAND, null, name, slot, price, bought);
 
-                    return;
-                }
+        return bought;
+    }
 
-                // Remove the price from the player's balance.
-                skyMarket.getEconomy().withdrawPlayer(player, price);
+    /**
+     * Processes the purchase of a command.
+     * @param player The player buying the command.
+     * @param marketData The {@link MarketData} of the market the command is being purchased from.
+     * @param playerData The player's {@link PlayerData}.
+     * @param name The name of the command being purchased. Taken from the GUI configuration.
+     * @param price The price of the command.
+     * @param buyItems The items to take in exchange for the command.
+     * @param buyCommands The {@link CommandTemplate}s to queue once the transaction takes place.
+     * @param slot The slot of the button clicked.
+     * @param limit The limit of how many times this item can be purchased.
+     * @param quantity The number of times to buy the command.
+     * @return The number of times the command was purchased.
+     */
+    private int processBuyCommand(
+            @NotNull Player player,
+            @NotNull MarketData marketData,
+            @NotNull PlayerData playerData,
+            @NotNull String name,
+            double price,
+            @NotNull List<ItemStack> buyItems,
+            @NotNull List<CommandTemplate> buyCommands,
+            int slot,
+            @Nullable Integer limit,
+            int quantity) {
+        int bought = reserveBuy(player, marketData, playerData, price, buyItems, slot, limit, quantity);
+        if(bought == 0) return 0;
+
+        // Queue the buy commands to run through console once for each purchase
+        for(int i = 0; i < bought; i++) {
+            commandManager.queue(player, buyCommands);
+        }
 
-                // Remove the items from the player's inventory
-                for(ItemStack item : buyItems) {
-                    player.getInventory().removeItem(item);
-                }
+        // Send the success message
+        sendSuccess(player, LocaleMessage.BUY_SUCCESS, AdventureUtil.serialize(name), price * bought, buyItems, bought);
 
-                // Run the buy commands through console
-                for (String command : buyCommands) {
-                    skyMarket.getServer().dispatchCommand(skyMarket.getServer().getConsoleSender(), PlaceholderAPIUtil.parsePlaceholders(player, command));
-                }
+        return bought;
+    }
 
-                // Create the DecimalFormat
-                DecimalFormat df = new DecimalFormat("#.##");
-                df.setRoundingMode(RoundingMode.CEILING);
+    /**
+     * Used when a button is clicked to sell a command. (Runs a command through console, doesn't take away the player access to the command.)
+     * @param player The player selling the command.
+     * @param marketId The id of the market the transaction is made in.
+     * @param playerData The player's {@link PlayerData}.
+     * @param name The name of the command being sold. Taken from the GUI configuration.
+     * @param price The price of the command.
+     * @param sellCommands The {@link CommandTemplate}s to queue once the transaction takes place.
+     * @param slot The slot of the button clicked.
+     * @param limit The limit of how many times this item can be sold.
+     * @return true if the sale completed, otherwise false.
+     */
+    public boolean sellCommand(
+            @NotNull Player player,
+            @NotNull String marketId,
+            @NotNull PlayerData playerData,
+            @NotNull String name,
+            double price,
+            @NotNull List<CommandTemplate> sellCommands,
+            int slot,
+            @Nullable Integer limit) {
+        return sellCommand(player, marketId, playerData, name, price, sellCommands, slot, limit, 1) > 0;
+    }
 
-                // Format the buy price
-                BigDecimal bigPrice = BigDecimal.valueOf(price);
-                String formattedPrice = df.format(bigPrice);
+    /**
+     * Used to sell a command one or more times in a single transaction. The commands are queued once for each sale.
+     * As many as possible up to the quantity are sold.
+     * A {@link TransactionFlightEvent} is recorded when Java Flight Recorder is recording it.
+     * A {@link PreTransactionEvent} and {@link PostTransactionEvent} are called when plugins are listening for them.
+     * @param player The player selling the command.
+     * @param marketId The id of the market the transaction is made in.
+     * @param playerData The player's {@link PlayerData}.
+     * @param name The name of the command being sold. Taken from the GUI configuration.
+     * @param price The price of the command.
+     * @param sellCommands The {@link CommandTemplate}s to queue once the transaction takes place.
+     * @param slot The slot of the button clicked.
+     * @param limit The limit of how many times this item can be sold.
+     * @param quantity The number of times to sell the command.
+     * @return The number of times the command was sold.
+     */
+    public int sellCommand(
+            @NotNull Player player,
+            @NotNull String marketId,
+            @NotNull PlayerData playerData,
+            @NotNull String name,
+            double price,
+            @NotNull List<CommandTemplate> sellCommands,
+            int slot,
+            @Nullable Integer limit,
+            int quantity) {
+        TransactionFlightEvent flightEvent = new TransactionFlightEvent();
+        flightEvent.begin();
 
-                // Format the player's balance
-                BigDecimal bigBalance = BigDecimal.valueOf(skyMarket.getEconomy().getBalance(player));
-                String bal = df.format(bigBalance);
+        int sold = callPreTransaction(player, marketId, MarketOperation.SELL_COMMAND, null, name, slot, price, quantity) ? processSellCommand(player, playerData, name, price, sellCommands, slot, limit, quantity) : 0;
 
-                // Create the list of placeholders
-                List<TagResolver.Single> successPlaceholders = new ArrayList<>();
-                // Add the placeholder for the item purchased
-                successPlaceholders.add(Placeholder.parsed("item", name));
-                // Add the placeholder for the item's price
-                successPlaceholders.add(Placeholder.parsed("price", formattedPrice));
-                // Add the placeholder for the player's balance
-                successPlaceholders.add(Placeholder.parsed("bal", bal));
+        flightEvent.record(MarketOperation.SELL_COMMAND, player.getName(), slot, price, sold > 0);
+        if(sold > 0) callPostTransaction(player, marketId, MarketOperation.SELL_COMMAND, null, name, slot, price, sold);
 
-                // Create the placeholders for the items removed from the player's inventory
-                for(int i = 0; i < buyItems.size() - 1; i++) {
-                    ItemStack buyStack = buyItems.get(i);
+        return sold;
+    }
 
-                    String item = locale.itemFormat();
-                    item = item.replace("<item_name>", FormatUtil.formatMaterialName(buyStack.getType()));
-                    item = item.replace("<item_amount>", String.valueOf(buyStack.getAmount()));
+    /**
+     * Processes the sale of a command.
+     * @param player The player selling the command.
+     * @param playerData The player's {@link PlayerData}.
+     * @param name The name of the command being sold. Taken from the GUI configuration.
+     * @param price The price of the command.
+     * @param sellCommands The {@link CommandTemplate}s to queue once the transaction takes place.
+     * @param slot The slot of the button clicked.
+     * @param limit The limit of how many times this item can be sold.
+     * @param quantity The number of times to sell the command.
+     * @return The number of times the command was sold.
+     */
+    private int processSellCommand(
+            @NotNull Player player,
+            @NotNull PlayerData playerData,
+            @NotNull String name,
+            double price,
+            @NotNull List<CommandTemplate> sellCommands,
+            int slot,
+            @Nullable Integer limit,
+            int quantity) {
+        int sold = reserveSell(player, playerData, price, slot, limit, quantity);
+        if(sold == 0) return 0;
 
-                    successPlaceholders.add(Placeholder.parsed("item" + i, item));
-                }
+        // Give the player the price
+        economyManager.deposit(player, price * sold);
 
-                // Send the success message
-                player.sendMessage(AdventureUtil.serialize(player, locale.prefix() + locale.buySuccess(), successPlaceholders));
+        // Queue the sell commands to run through console once for each sale
+        for(int i = 0; i < sold; i++) {
+            commandManager.queue(player, sellCommands);
+        }
 
-                // Increment the player's buy limit if a limit is configured
-                if(limit != null && limit > 0) {
-                    playerData.incrementBuyLimit(slot);
-                }
-            } else {
-                // Check if the player's balance has enough money for the price
-                if(skyMarket.getEconomy().getBalance(player) < price) {
-                    player.sendMessage(AdventureUtil.serialize(player, locale.prefix() + locale.insufficientFunds()));
+        // Send the success message
+        sendSuccess(player, LocaleMessage.SELL_SUCCESS, AdventureUtil.serialize(name), price * sold, List.of(), sold);
 
-                    skyMarket.getServer().getScheduler().runTaskLater(skyMarket, () -> {
-                        player.closeInventory(InventoryCloseEvent.Reason.UNLOADED);
+        return sold;
+    }
 
-                        guiManager.removeOpenGUI(player.getUniqueId());
-                    }, 1L);
+    /**
+     * Reserves everything a purchase needs: the player's buy limit, the global stock, the player's balance and the items to trade.
+     * As many as possible up to the quantity are reserved, and the items to trade are removed from the player's inventory.
+     * If nothing could be reserved, the reason is sent to the player and every partial reservation is released.
+     * @param player The player purchasing.
+     * @param marketData The {@link MarketData} of the market being purchased from.
+     * @param playerData The player's {@link PlayerData}.
+     * @param price The buy price of a single purchase.
+     * @param buyItems The items to take in exchange for a single purchase.
+     * @param slot The slot of the button clicked.
+     * @param limit The limit of how many times this slot can be purchased.
+     * @param quantity The number of purchases requested.
+     * @return The number of purchases reserved, or 0 if the purchase failed.
+     */
+    private int reserveBuy(
+            @NotNull Player player,
+            @NotNull MarketData marketData,
+            @NotNull PlayerData playerData,
+            double price,
+            @NotNull List<ItemStack> buyItems,
+            int slot,
+            @Nullable Integer limit,
+            int quantity) {
+        // Check if the item can be purchased according to the buy price or the items to trade.
+        if(price <= 0 && buyItems.isEmpty()) {
+            localeManager.send(player, LocaleMessage.UNBUYABLE);
+            return 0;
+        }
 
-                    return;
-                }
+        // If a limit is configured, reserve the quantity from the player's buy limit.
+        boolean limited = limit != null && limit > 0;
+        int reserved = limited ? playerData.reserveBuyLimit(slot, limit, quantity) : quantity;
+        if(reserved == 0) {
+            localeManager.send(player, LocaleMessage.BUY_LIMIT_REACHED);
+            return 0;
+        }
 
-                // Run the buy commands through console
-                for (String command : buyCommands) {
-                    skyMarket.getServer().dispatchCommand(skyMarket.getServer().getConsoleSender(), PlaceholderAPIUtil.parsePlaceholders(player, command));
-                }
+        // If a global stock is configured, take the quantity from the stock.
+        int taken = marketData.takeStock(slot, reserved);
+        if(limited) playerData.releaseBuyLimit(slot, reserved - taken);
+        if(taken == 0) {
+            localeManager.send(player, LocaleMessage.OUT_OF_STOCK);
+            return 0;
+        }
 
-                // Create the DecimalFormat
-                DecimalFormat df = new DecimalFormat("#.##");
-                df.setRoundingMode(RoundingMode.CEILING);
-
-                // Format the buy price
-                BigDecimal bigPrice = BigDecimal.valueOf(price);
-                String formattedPrice = df.format(bigPrice);
-
-                // Format the player's balance
-                BigDecimal bigBalance = BigDecimal.valueOf(skyMarket.getEconomy().getBalance(player));
-                String bal = df.format(bigBalance);
-
-                // Create the list of placeholders
-                List<TagResolver.Single> successPlaceholders = new ArrayList<>();
-                // Add the placeholder for the item purchased
-                successPlaceholders.add(Placeholder.parsed("item", name));
-                // Add the placeholder for the item's price
-                successPlaceholders.add(Placeholder.parsed("price", formattedPrice));
-                // Add the placeholder for the player's balance
-                successPlaceholders.add(Placeholder.parsed("bal", bal));
-
-                // Send the success message
-                player.sendMessage(AdventureUtil.serialize(player, locale.prefix() + locale.buySuccess(), successPlaceholders));
-
-                // Increment the player's buy limit if a limit is configured
-                if(limit != null && limit > 0) {
-                    playerData.incrementBuyLimit(slot);
-                }
+        // Limit the quantity to what the player can afford.
+        int amount = taken;
+        if(price > 0) {
+            while(amount > 0 && !economyManager.has(player, price * amount)) {
+                amount--;
             }
-        } else {
-            boolean containsItems = true;
-            for(ItemStack item : buyItems) {
-                if (!player.getInventory().containsAtLeast(item, item.getAmount())) {
-                    containsItems = false;
-                    break;
-                }
+
+            if(amount == 0) {
+                releaseBuy(marketData, playerData, slot, limited, taken);
+                localeManager.send(player, LocaleMessage.INSUFFICIENT_FUNDS);
+                closeMarket(player);
+                return 0;
             }
+        }
 
-            if(!containsItems) {
-                player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.insufficientItems()));
+        // Limit the quantity to the number of items to trade the player has.
+        if(!buyItems.isEmpty()) {
+            amount = getAvailableSets(player, buyItems, amount);
 
-                skyMarket.getServer().getScheduler().runTaskLater(skyMarket, () -> {
-                    player.closeInventory(InventoryCloseEvent.Reason.UNLOADED);
+            if(amount == 0) {
+                releaseBuy(marketData, playerData, slot, limited, taken);
+                localeManager.send(player, LocaleMessage.INSUFFICIENT_ITEMS);
+                closeMarket(player);
+                return 0;
+            }
+        }
 
-                    guiManager.removeOpenGUI(player.getUniqueId());
-                }, 1L);
+        // Withdraw the price from the player's balance. The economy plugin has accepted the withdrawal before anything is given to the player.
+        if(price > 0 && !economyManager.withdraw(player, price * amount)) {
+            releaseBuy(marketData, playerData, slot, limited, taken);
+            localeManager.send(player, LocaleMessage.INSUFFICIENT_FUNDS);
+            closeMarket(player);
+            return 0;
+        }
 
-                return;
-            }
+        // Release the part of the reservation that is not used.
+        releaseBuy(marketData, playerData, slot, limited, taken - amount);
 
-            // Remove the items from the player's inventory
+        // Remove the items from the player's inventory
+        for(int i = 0; i < amount; i++) {
             for(ItemStack item : buyItems) {
                 player.getInventory().removeItem(item);
             }
+        }
 
-            // Run the buy commands through console
-            for (String command : buyCommands) {
-                skyMarket.getServer().dispatchCommand(skyMarket.getServer().getConsoleSender(), PlaceholderAPIUtil.parsePlaceholders(player, command));
-            }
+        return amount;
+    }
 
-            // Create the DecimalFormat
-            DecimalFormat df = new DecimalFormat("#.##");
-            df.setRoundingMode(RoundingMode.CEILING);
+    /**
+     * Releases a buy limit and global stock reservation that was not used.
+     * @param marketData The {@link MarketData} of the market being purchased from.
+     * @param playerData The player's {@link PlayerData}.
+     * @param slot The slot of the button clicked.
+     * @param limited Whether a buy limit was reserved.
+     * @param quantity The quantity to release.
+     */
+    private void releaseBuy(@NotNull MarketData marketData, @NotNull PlayerData playerData, int slot, boolean limited, int quantity) {
+        if(quantity <= 0) return;
 
-            // Format the player's balance
-            BigDecimal bigBalance = BigDecimal.valueOf(skyMarket.getEconomy().getBalance(player));
-            String bal = df.format(bigBalance);
+        marketData.returnStock(slot, quantity);
+        if(limited) playerData.releaseBuyLimit(slot, quantity);
+    }
 
-            // Create the list of placeholders
-            List<TagResolver.Single> successPlaceholders = new ArrayList<>();
-            // Add the placeholder for the item purchased
-            successPlaceholders.add(Placeholder.parsed("item", name));
-            // Add the placeholder for the item's price
-            successPlaceholders.add(Placeholder.parsed("price", ""));
-            // Add the placeholder for the player's balance
-            successPlaceholders.add(Placeholder.parsed("bal", bal));
+    /**
+     * Checks that a sale is possible and reserves the quantity from the player's sell limit.
+     * If nothing could be reserved, the reason is sent to the player.
+     * @param player The player selling.
+     * @param playerData The player's {@link PlayerData}.
+     * @param price The sell price of a single sale.
+     * @param slot The slot of the button clicked.
+     * @param limit The limit of how many times this slot can be sold.
+     * @param quantity The number of sales requested.
+     * @return The number of sales reserved, or 0 if the sale failed.
+     */
+    private int reserveSell(
+            @NotNull Player player,
+            @NotNull PlayerData playerData,
+            double price,
+            int slot,
+            @Nullable Integer limit,
+            int quantity) {
+        // Check if the item can be sold according to the sell price
+        if(price <= 0) {
+            localeManager.send(player, LocaleMessage.UNSELLABLE);
+            return 0;
+        }
 
-            // Create the placeholders for the items removed from the player's inventory
-            for(int i = 0; i < buyItems.size() - 1; i++) {
-                ItemStack buyStack = buyItems.get(i);
+        // If a limit is configured, reserve the quantity from the player's sell limit.
+        int reserved = limit != null && limit > 0 ? playerData.reserveSellLimit(slot, limit, quantity) : quantity;
+        if(reserved == 0) {
+            localeManager.send(player, LocaleMessage.SELL_LIMIT_REACHED);
+            return 0;
+        }
 
-                String item = locale.itemFormat();
-                item = item.replace("<item_name>", FormatUtil.formatMaterialName(buyStack.getType()));
-                item = item.replace("<item_amount>", String.valueOf(buyStack.getAmount()));
+        return reserved;
+    }
 
-                successPlaceholders.add(Placeholder.parsed("item" + i, item));
+    /**
+     * Gets how many times the player has all the provided items, up to a maximum.
+     * @param player The player to check.
+     * @param items The items required for a single set.
+     * @param max The maximum number of sets to check for.
+     * @return The number of sets the player has, up to the maximum.
+     */
+    private int getAvailableSets(@NotNull Player player, @NotNull List<ItemStack> items, int max) {
+        for(int sets = max; sets > 0; sets--) {
+            boolean containsItems = true;
+            for(ItemStack item : items) {
+                if(!player.getInventory().containsAtLeast(item, item.getAmount() * sets)) {
+                    containsItems = false;
+                    break;
+                }
             }
 
-            // Send the success message
-            player.sendMessage(AdventureUtil.serialize(player, locale.prefix() + locale.buySuccess(), successPlaceholders));
-
-            // Increment the player's buy limit if a limit is configured
-            if(limit != null && limit > 0) {
-                playerData.incrementBuyLimit(slot);
-            }
+            if(containsItems) return sets;
         }
+
+        return 0;
     }
 
     /**
-     * Used when a button is clicked to sell a command. (Runs a command through console, doesn't take away the player access to the command.)
-     * @param player The player selling the command.
-     * @param playerData The player's {@link PlayerData}.
-     * @param name The name of the command being sold. Taken from the GUI configuration.
-     * @param price The price of the command.
-     * @param sellCommands The commands to run once the transaction takes place.
+     * Calls the {@link PreTransactionEvent} if any listeners are registered.
+     * @param player The player making the transaction.
+     * @param marketId The id of the market the transaction is made in.
+     * @param operation The {@link MarketOperation} of the transaction.
+     * @param itemStack The item being bought or sold, or null for a command.
+     * @param commandName The name of the command being bought or sold, or null for an item.
      * @param slot The slot of the button clicked.
-     * @param limit The limit of how many times this item can be sold.
+     * @param price The price of a single purchase or sale.
+     * @param quantity The number of times the player is trying to buy or sell.
+     * @return true if the transaction should continue, false if a listener cancelled it.
      */
-    public void sellCommand(
+    private boolean callPreTransaction(
             @NotNull Player player,
-            @NotNull PlayerData playerData,
-            @NotNull String name,
+            @NotNull String marketId,
+            @NotNull MarketOperation operation,
+            @Nullable ItemStack itemStack,
+            @Nullable String commandName,
+            int slot,
             double price,
-            @NotNull List<String> sellCommands,
+            int quantity) {
+        if(!PreTransactionEvent.hasListeners()) return true;
+
+        return new PreTransactionEvent(player, marketId, operation, itemStack, commandName, slot, price, quantity).callEvent();
+    }
+
+    /**
+     * Calls the {@link PostTransactionEvent} if any listeners are registered.
+     * @param player The player that made the transaction.
+     * @param marketId The id of the market the transaction is made in.
+     * @param operation The {@link MarketOperation} of the transaction.
+     * @param itemStack The item bought or sold, or null for a command.
+     * @param commandName The name of the command bought or sold, or null for an item.
+     * @param slot The slot of the button clicked.
+     * @param price The price of a single purchase or sale.
+     * @param quantity The number of times the item or command was bought or sold.
+     */
+    private void callPostTransaction(
+            @NotNull Player player,
+            @NotNull String marketId,
+            @NotNull MarketOperation operation,
+            @Nullable ItemStack itemStack,
+            @Nullable String commandName,
             int slot,
-            @Nullable Integer limit) {
-        Locale locale = localeManager.getLocale();
+            double price,
+            int quantity) {
+        if(!PostTransactionEvent.hasListeners()) return;
 
-        // Check if the item can be sold according to the sell price
-        if(price <= 0) {
-            player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.unsellable()));
-            return;
-        }
+        new PostTransactionEvent(player, marketId, operation, itemStack, commandName, slot, price, quantity).callEvent();
+    }
 
-        // If a limit is configured, compare the player's current buy count to the limit.
-        if(limit != null && limit > 0) {
-            @Nullable Integer playerLimit = playerData.getSellLimits().get(slot);
-            if(playerLimit != null && playerLimit >= limit) {
-                player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.sellLimitReached()));
-                return;
-            }
+    /**
+     * Tells the player the market was refreshed and closes it. Used when a button created for an earlier rotation of the market is clicked.
+     * @param player The player that clicked the button.
+     * @param marketData The {@link MarketData} of the market's current rotation, or null if the market no longer exists.
+     */
+    public void rejectStaleTransaction(@NotNull Player player, @Nullable MarketData marketData) {
+        if(marketData != null) {
+            localeManager.send(player, LocaleMessage.MARKET_REFRESHED, Map.of("market_name", AdventureUtil.serialize(marketData.getMarketName())));
         }
 
-        // Give the player the price
-        skyMarket.getEconomy().depositPlayer(player, price);
+        closeMarket(player);
+    }
 
-        // Run the sell commands through console
-        for(String command : sellCommands) {
-            skyMarket.getServer().dispatchCommand(skyMarket.getServer().getConsoleSender(), PlaceholderAPIUtil.parsePlaceholders(player, command));
-        }
+    /**
+     * Closes the player's market on the next tick.
+     * @param player The player whose market to close.
+     */
+    private void closeMarket(@NotNull Player player) {
+        marketScheduler.runLater(player, () -> {
+            player.closeInventory(InventoryCloseEvent.Reason.UNLOADED);
+
+            guiManager.removeOpenGUI(player.getUniqueId());
+        }, 1L);
+    }
+
+    /**
+     * Formats an item's name and amount using the item format of the player's locale.
+     * @param player The player the item is shown to.
+     * @param itemStack The item to format.
+     * @param quantity The number of times the item was bought or sold.
+     * @return The formatted item.
+     */
+    private @NotNull Component formatItem(@NotNull Player player, @NotNull ItemStack itemStack, int quantity) {
+        return localeManager.render(player, LocaleMessage.ITEM_FORMAT, Map.of(
+                "item_name", Component.text(FormatUtil.formatMaterialName(itemStack.getType())),
+                "item_amount", Component.text(itemStack.getAmount() * quantity)));
+    }
 
+    /**
+     * Sends the success message for a transaction.
+     * @param player The player that made the transaction.
+     * @param message The {@link LocaleMessage} of the success message.
+     * @param item The formatted item or the name of the command.
+     * @param price The total price of the transaction. No price is shown if it is 0.
+     * @param buyItems The items taken in exchange for a single purchase.
+     * @param quantity The number of times the item or command was bought or sold.
+     */
+    private void sendSuccess(
+            @NotNull Player player,
+            @NotNull LocaleMessage message,
+            @NotNull Component item,
+            double price,
+            @NotNull List<ItemStack> buyItems,
+            int quantity) {
         // Create the DecimalFormat
         DecimalFormat df = new DecimalFormat("#.##");
         df.setRoundingMode(RoundingMode.CEILING);
 
-        // Format the buy price
-        BigDecimal bigPrice = BigDecimal.valueOf(price);
-        String formattedPrice = df.format(bigPrice);
+        // Format the price
+        String formattedPrice = price > 0 ? df.format(BigDecimal.valueOf(price)) : "";
 
         // Format the player's balance
-        BigDecimal bigBalance = BigDecimal.valueOf(skyMarket.getEconomy().getBalance(player));
+        BigDecimal bigBalance = BigDecimal.valueOf(economyManager.getBalance(player));
         String bal = df.format(bigBalance);
 
-        // Create the list of placeholders
-        List<TagResolver.Single> successPlaceholders = new ArrayList<>();
-        // Add the placeholder for the item purchased
-        successPlaceholders.add(Placeholder.parsed("item", name));
-        // Add the placeholder for the item's price
-        successPlaceholders.add(Placeholder.parsed("price", formattedPrice));
+        // Create the map of placeholders
+        Map<String, Component> successPlaceholders = new HashMap<>();
+        // Add the placeholder for the item or command
+        successPlaceholders.put("item", item);
+        // Add the placeholder for the price
+        successPlaceholders.put("price", Component.text(formattedPrice));
         // Add the placeholder for the player's balance
-        successPlaceholders.add(Placeholder.parsed("bal", bal));
-
-        player.sendMessage(AdventureUtil.serialize(player, locale.prefix() + locale.sellSuccess(), successPlaceholders));
+        successPlaceholders.put("bal", Component.text(bal));
 
-        // Increment the player's buy limit if a limit is configured
-        if(limit != null && limit > 0) {
-            playerData.incrementSellLimit(slot);
+        // Create the placeholders for the items removed from the player's inventory
+        for(int i = 0; i < buyItems.size() - 1; i++) {
+            successPlaceholders.put("item" + i, formatItem(player, buyItems.get(i), quantity));
         }
+
+        // Send the success message
+        localeManager.send(player, message, successPlaceholders);
     }
 }
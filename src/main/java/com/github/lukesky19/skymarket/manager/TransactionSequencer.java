@@ -0,0 +1,142 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.manager;
+
+import com.github.lukesky19.skylib.api.adventure.AdventureUtil;
+import com.github.lukesky19.skymarket.SkyMarket;
+import com.github.lukesky19.skymarket.util.MarketOperation;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * This class runs each player's market transactions one at a time, in the order they were clicked.
+ * Clicks are queued and run at the end of the tick. Repeated clicks on the same slot of the same market in one tick
+ * are combined into a single transaction for the total quantity, so a double-click or a client macro results in one batched purchase instead of many.
+ * All methods must be called from the main thread.
+ */
+public class TransactionSequencer {
+    private final @NotNull SkyMarket skyMarket;
+    private final @NotNull Map<UUID, List<PendingTransaction>> queues = new LinkedHashMap<>();
+
+    /**
+     * Default Constructor. You should use {@link TransactionSequencer#TransactionSequencer(SkyMarket)} instead.
+     * @deprecated You should use {@link TransactionSequencer#TransactionSequencer(SkyMarket)} instead.
+     * @throws RuntimeException if this method is used.
+     */
+    @Deprecated
+    public TransactionSequencer() {
+        throw new RuntimeException("The use of the default constructor is not allowed.");
+    }
+
+    /**
+     * Constructor
+     * @param skyMarket A {@link SkyMarket} instance.
+     */
+    public TransactionSequencer(@NotNull SkyMarket skyMarket) {
+        this.skyMarket = skyMarket;
+    }
+
+    /**
+     * Queues a transaction for a player to run at the end of the tick.
+     * If the player already has a transaction queued this tick for the same market, slot and operation, its quantity is increased instead.
+     * @param player The {@link Player} making the transaction.
+     * @param marketId The market id.
+     * @param slot The slot of the button clicked.
+     * @param operation The {@link MarketOperation}.
+     * @param transaction The {@link Transaction} to run.
+     */
+    public void submit(@NotNull Player player, @NotNull String marketId, int slot, @NotNull MarketOperation operation, @NotNull Transaction transaction) {
+        List<PendingTransaction> queue = queues.computeIfAbsent(player.getUniqueId(), uuid -> new ArrayList<>());
+
+        for(PendingTransaction pending : queue) {
+            if(pending.slot == slot && pending.operation == operation && pending.marketId.equals(marketId)) {
+                pending.quantity++;
+                return;
+            }
+        }
+
+        queue.add(new PendingTransaction(player, marketId, slot, operation, transaction, System.nanoTime()));
+    }
+
+    /**
+     * Runs every queued transaction. Each player's transactions run in the order they were first clicked.
+     * Transactions for players that went offline are dropped.
+     */
+    public void drain() {
+        if(queues.isEmpty()) return;
+
+        List<List<PendingTransaction>> drained = new ArrayList<>(queues.values());
+        queues.clear();
+
+        for(List<PendingTransaction> queue : drained) {
+            for(PendingTransaction pending : queue) {
+                if(!pending.player.isOnline()) break;
+
+                try {
+                    pending.transaction.run(pending.quantity, pending.startNanos);
+                } catch (RuntimeException e) {
+                    skyMarket.getComponentLogger().error(AdventureUtil.serialize("A transaction for " + pending.player.getName() + " in market " + pending.marketId + " failed. " + e.getMessage()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops any queued transactions. Used when the plugin is disabled.
+     */
+    public void stop() {
+        queues.clear();
+    }
+
+    /**
+     * A transaction that can be run for a quantity greater than one.
+     */
+    @FunctionalInterface
+    public interface Transaction {
+        /**
+         * Runs the transaction.
+         * @param quantity The number of clicks combined into the transaction.
+         * @param startNanos The {@link System#nanoTime()} of the first click.
+         */
+        void run(int quantity, long startNanos);
+    }
+
+    /**
+     * A transaction waiting for the end of the tick.
+     */
+    private static final class PendingTransaction {
+        private final @NotNull Player player;
+        private final @NotNull String marketId;
+        private final int slot;
+        private final @NotNull MarketOperation operation;
+        private final @NotNull Transaction transaction;
+        private final long startNanos;
+        private int quantity = 1;
+
+        private PendingTransaction(@NotNull Player player, @NotNull String marketId, int slot, @NotNull MarketOperation operation, @NotNull Transaction transaction, long startNanos) {
+            this.player = player;
+            this.marketId = marketId;
+            this.slot = slot;
+            this.operation = operation;
+            this.transaction = transaction;
+            this.startNanos = startNanos;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.placeholderapi;
+
+import com.github.lukesky19.skymarket.SkyMarket;
+import com.github.lukesky19.skymarket.data.MarketSnapshot;
+import com.github.lukesky19.skymarket.manager.PlaceholderManager;
+import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import org.bukkit.OfflinePlayer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * This class provides SkyMarket's placeholders to PlaceholderAPI.
+ * <p>
+ * Supported placeholders:
+ * <ul>
+ *     <li>%skymarket_&lt;id&gt;_name% - The name of the market.</li>
+ *     <li>%skymarket_&lt;id&gt;_time% - The time until the market refreshes.</li>
+ *     <li>%skymarket_&lt;id&gt;_stock_&lt;slot&gt;% - The remaining global stock of a slot.</li>
+ *     <li>%skymarket_&lt;id&gt;_price_&lt;slot&gt;% - The buy price of a slot.</li>
+ *     <li>%skymarket_&lt;id&gt;_sell_price_&lt;slot&gt;% - The sell price of a slot.</li>
+ *     <li>%skymarket_&lt;id&gt;_limit_&lt;slot&gt;% - The amount the player can still buy from a slot. Empty for up to a second the first time it is requested for a player.</li>
+ * </ul>
+ * Slots are numbered across pages, so slot 0 of the second page is the size of the GUI.
+ * Values are read from the snapshots of the {@link PlaceholderManager}, so requests can be answered from any thread.
+ */
+public class SkyMarketExpansion extends PlaceholderExpansion {
+    private final @NotNull SkyMarket skyMarket;
+    private final @NotNull PlaceholderManager placeholderManager;
+
+    /**
+     * Default Constructor. You should use {@link SkyMarketExpansion#SkyMarketExpansion(SkyMarket, PlaceholderManager)} instead.
+     * @deprecated You should use {@link SkyMarketExpansion#SkyMarketExpansion(SkyMarket, PlaceholderManager)} instead.
+     * @throws RuntimeException if this method is used.
+     */
+    @Deprecated
+    public SkyMarketExpansion() {
+        throw new RuntimeException("The use of the default constructor is not allowed.");
+    }
+
+    /**
+     * Constructor
+     * @param skyMarket A {@link SkyMarket} instance.
+     * @param placeholderManager A {@link PlaceholderManager} instance.
+     */
+    public SkyMarketExpansion(@NotNull SkyMarket skyMarket, @NotNull PlaceholderManager placeholderManager) {
+        this.skyMarket = skyMarket;
+        this.placeholderManager = placeholderManager;
+    }
+
+    @Override
+    public @NotNull String getIdentifier() {
+        return "skymarket";
+    }
+
+    @Override
+    public @NotNull String getAuthor() {
+        return String.join(", ", skyMarket.getPluginMeta().getAuthors());
+    }
+
+    @Override
+    public @NotNull String getVersion() {
+        return skyMarket.getPluginMeta().getVersion();
+    }
+
+    /**
+     * The expansion is registered by SkyMarket, so it must stay registered when PlaceholderAPI is reloaded.
+     * @return true
+     */
+    @Override
+    public boolean persist() {
+        return true;
+    }
+
+    @Override
+    public @Nullable String onRequest(@Nullable OfflinePlayer player, @NotNull String params) {
+        if(params.endsWith("_name")) {
+            @Nullable MarketSnapshot snapshot = placeholderManager.getSnapshot(params.substring(0, params.length() - "_name".length()));
+            return snapshot != null ? snapshot.marketName() : null;
+        }
+
+        if(params.endsWith("_time")) {
+            @Nullable MarketSnapshot snapshot = placeholderManager.getSnapshot(params.substring(0, params.length() - "_time".length()));
+            return snapshot != null ? snapshot.time() : null;
+        }
+
+        // The remaining placeholders end with a slot.
+        int slotIndex = params.lastIndexOf('_');
+        if(slotIndex <= 0) return null;
+
+        int slot;
+        try {
+            slot = Integer.parseInt(params.substring(slotIndex + 1));
+        } catch(NumberFormatException e) {
+            return null;
+        }
+
+        String key = params.substring(0, slotIndex);
+        if(key.endsWith("_stock")) {
+            @Nullable MarketSnapshot snapshot = placeholderManager.getSnapshot(key.substring(0, key.length() - "_stock".length()));
+            return snapshot != null ? snapshot.stock().getOrDefault(slot, "") : null;
+        }
+
+        if(key.endsWith("_sell_price")) {
+            @Nullable MarketSnapshot snapshot = placeholderManager.getSnapshot(key.substring(0, key.length() - "_sell_price".length()));
+            return snapshot != null ? snapshot.sellPrices().getOrDefault(slot, "") : null;
+        }
+
+        if(key.endsWith("_price")) {
+            @Nullable MarketSnapshot snapshot = placeholderManager.getSnapshot(key.substring(0, key.length() - "_price".length()));
+            return snapshot != null ? snapshot.buyPrices().getOrDefault(slot, "") : null;
+        }
+
+        if(key.endsWith("_limit")) {
+            @Nullable MarketSnapshot snapshot = placeholderManager.getSnapshot(key.substring(0, key.length() - "_limit".length()));
+            if(snapshot == null || player == null) return null;
+            if(!snapshot.buyLimits().containsKey(slot)) return placeholderManager.getUnlimited();
+
+            // The player's purchases are only copied into the snapshots once their limits have been requested, so the first request is empty.
+            placeholderManager.requestBuyLimits(player.getUniqueId());
+            @Nullable Integer remaining = snapshot.getRemainingBuyLimit(player.getUniqueId(), slot);
+            return remaining != null ? String.valueOf(remaining) : "";
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.scheduler;
+
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A {@link MarketScheduler} that runs every task on the main thread using the {@link BukkitScheduler} and uses the system clock.
+ * Entity tasks run on the main thread like every other task.
+ */
+public class BukkitMarketScheduler implements MarketScheduler {
+    private final @NotNull Plugin plugin;
+
+    /**
+     * Default Constructor. You should use {@link BukkitMarketScheduler#BukkitMarketScheduler(Plugin)} instead.
+     * @deprecated You should use {@link BukkitMarketScheduler#BukkitMarketScheduler(Plugin)} instead.
+     * @throws RuntimeException if this method is used.
+     */
+    @Deprecated
+    public BukkitMarketScheduler() {
+        throw new RuntimeException("The use of the default constructor is not allowed.");
+    }
+
+    /**
+     * Constructor
+     * @param plugin The {@link Plugin} that owns the tasks.
+     */
+    public BukkitMarketScheduler(@NotNull Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public @NotNull MarketTask run(@NotNull Runnable task) {
+        return new Task(plugin.getServer().getScheduler().runTask(plugin, task));
+    }
+
+    @Override
+    public @NotNull MarketTask runLater(@NotNull Runnable task, long delayTicks) {
+        return new Task(plugin.getServer().getScheduler().runTaskLater(plugin, task, delayTicks));
+    }
+
+    @Override
+    public @NotNull MarketTask runTimer(@NotNull Runnable task, long delayTicks, long periodTicks) {
+        return new Task(plugin.getServer().getScheduler().runTaskTimer(plugin, task, delayTicks, periodTicks));
+    }
+
+    @Override
+    public @NotNull MarketTask runTimerAsync(@NotNull Runnable task, long delayTicks, long periodTicks) {
+        return new Task(plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, task, delayTicks, periodTicks));
+    }
+
+    @Override
+    public @NotNull MarketTask runLater(@NotNull Entity entity, @NotNull Runnable task, long delayTicks) {
+        return runLater(task, delayTicks);
+    }
+
+    /**
+     * A {@link MarketTask} backed by a {@link BukkitTask}.
+     * @param bukkitTask The {@link BukkitTask}.
+     */
+    private record Task(@NotNull BukkitTask bukkitTask) implements MarketTask {
+        @Override
+        public void cancel() {
+            bukkitTask.cancel();
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return bukkitTask.isCancelled();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.scheduler;
+
+import org.bukkit.entity.Entity;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Schedules the plugin's tasks and provides the time used for market refreshes.
+ * Market logic uses this instead of the Bukkit scheduler and the system clock, so it can run on servers that tick regions on separate threads
+ * and so the time can be faked when load testing.
+ */
+public interface MarketScheduler {
+    /**
+     * Gets the current time used for market refreshes.
+     * @return The milliseconds since epoch.
+     */
+    long currentTimeMillis();
+
+    /**
+     * Runs a task on the next tick. The task is not tied to any region or entity.
+     * @param task The task to run.
+     * @return The scheduled {@link MarketTask}.
+     */
+    @NotNull MarketTask run(@NotNull Runnable task);
+
+    /**
+     * Runs a task after a delay. The task is not tied to any region or entity.
+     * @param task The task to run.
+     * @param delayTicks The delay in ticks.
+     * @return The scheduled {@link MarketTask}.
+     */
+    @NotNull MarketTask runLater(@NotNull Runnable task, long delayTicks);
+
+    /**
+     * Runs a task repeatedly. The task is not tied to any region or entity.
+     * @param task The task to run.
+     * @param delayTicks The delay in ticks before the first run.
+     * @param periodTicks The ticks between each run.
+     * @return The scheduled {@link MarketTask}.
+     */
+    @NotNull MarketTask runTimer(@NotNull Runnable task, long delayTicks, long periodTicks);
+
+    /**
+     * Runs a task repeatedly on a background thread. The task must not use the world, players or other server state.
+     * @param task The task to run.
+     * @param delayTicks The delay in ticks before the first run.
+     * @param periodTicks The ticks between each run.
+     * @return The scheduled {@link MarketTask}.
+     */
+    @NotNull MarketTask runTimerAsync(@NotNull Runnable task, long delayTicks, long periodTicks);
+
+    /**
+     * Runs a task for an entity after a delay, on the thread that owns the entity.
+     * On regionized servers the task does not run if the entity is removed first, for example when a player leaves.
+     * @param entity The {@link Entity} the task is for.
+     * @param task The task to run.
+     * @param delayTicks The delay in ticks.
+     * @return The scheduled {@link MarketTask}.
+     */
+    @NotNull MarketTask runLater(@NotNull Entity entity, @NotNull Runnable task, long delayTicks);
+}
@@ -0,0 +1,117 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.scheduler;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link MarketScheduler} for servers that tick regions on separate threads.
+ * Tasks that are not tied to an entity run on the global region scheduler and entity tasks run on the entity's scheduler,
+ * so they run on the thread that owns the entity. Uses the system clock.
+ */
+public class RegionizedMarketScheduler implements MarketScheduler {
+    private static final long MILLIS_PER_TICK = 50L;
+
+    private final @NotNull Plugin plugin;
+
+    /**
+     * Default Constructor. You should use {@link RegionizedMarketScheduler#RegionizedMarketScheduler(Plugin)} instead.
+     * @deprecated You should use {@link RegionizedMarketScheduler#RegionizedMarketScheduler(Plugin)} instead.
+     * @throws RuntimeException if this method is used.
+     */
+    @Deprecated
+    public RegionizedMarketScheduler() {
+        throw new RuntimeException("The use of the default constructor is not allowed.");
+    }
+
+    /**
+     * Constructor
+     * @param plugin The {@link Plugin} that owns the tasks.
+     */
+    public RegionizedMarketScheduler(@NotNull Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Checks if the server ticks regions on separate threads.
+     * @return true if the server is regionized, false if not.
+     */
+    public static boolean isSupported() {
+        try {
+            Class.forName("io.papermc.paper.threadedregions.RegionizedServer");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public @NotNull MarketTask run(@NotNull Runnable task) {
+        return new Task(plugin.getServer().getGlobalRegionScheduler().run(plugin, scheduledTask -> task.run()));
+    }
+
+    @Override
+    public @NotNull MarketTask runLater(@NotNull Runnable task, long delayTicks) {
+        // Regionized schedulers do not accept delays below one tick.
+        return new Task(plugin.getServer().getGlobalRegionScheduler().runDelayed(plugin, scheduledTask -> task.run(), Math.max(1L, delayTicks)));
+    }
+
+    @Override
+    public @NotNull MarketTask runTimer(@NotNull Runnable task, long delayTicks, long periodTicks) {
+        return new Task(plugin.getServer().getGlobalRegionScheduler().runAtFixedRate(plugin, scheduledTask -> task.run(), Math.max(1L, delayTicks), Math.max(1L, periodTicks)));
+    }
+
+    @Override
+    public @NotNull MarketTask runTimerAsync(@NotNull Runnable task, long delayTicks, long periodTicks) {
+        // The async scheduler uses wall-clock time instead of ticks.
+        return new Task(plugin.getServer().getAsyncScheduler().runAtFixedRate(plugin, scheduledTask -> task.run(), Math.max(1L, delayTicks) * MILLIS_PER_TICK, Math.max(1L, periodTicks) * MILLIS_PER_TICK, TimeUnit.MILLISECONDS));
+    }
+
+    @Override
+    public @NotNull MarketTask runLater(@NotNull Entity entity, @NotNull Runnable task, long delayTicks) {
+        // The scheduled task is null if the entity was already removed, in which case the task never runs.
+        return new Task(entity.getScheduler().runDelayed(plugin, scheduledTask -> task.run(), null, Math.max(1L, delayTicks)));
+    }
+
+    /**
+     * A {@link MarketTask} backed by a {@link ScheduledTask}.
+     * @param scheduledTask The {@link ScheduledTask}, or null if the task was never scheduled.
+     */
+    private record Task(@Nullable ScheduledTask scheduledTask) implements MarketTask {
+        @Override
+        public void cancel() {
+            if(scheduledTask != null) scheduledTask.cancel();
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return scheduledTask == null || scheduledTask.isCancelled();
+        }
+    }
+}
@@ -0,0 +1,248 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.sync;
+
+import com.github.lukesky19.skylib.api.adventure.AdventureUtil;
+import net.kyori.adventure.text.logger.slf4j.ComponentLogger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * A {@link MarketSyncBus} that exchanges messages through a directory shared by every server, for example a network drive.
+ * Each message is written to its own file and every server polls the directory for new files. Files are deleted once they are older than a minute.
+ * The leader is the server holding the lock on the directory's leader.lock file. The other servers keep trying to take the lock, so one takes over if the leader stops.
+ */
+public class FileSyncBus implements MarketSyncBus {
+    private static final long POLL_INTERVAL_MILLIS = 250L;
+    private static final long RETENTION_MILLIS = 60000L;
+    private static final String MESSAGE_SUFFIX = ".msg";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final @NotNull ComponentLogger logger;
+    private final @NotNull Path directory;
+    private final @NotNull UUID nodeId;
+    private final @NotNull AtomicLong sequence = new AtomicLong();
+    private final @NotNull Set<String> seen = new HashSet<>();
+    private @Nullable ScheduledExecutorService executor;
+    private @Nullable FileChannel lockChannel;
+    private @Nullable FileLock leaderLock;
+    private @Nullable Consumer<byte[]> receiver;
+    private volatile boolean leader;
+
+    /**
+     * Default Constructor. You should use {@link FileSyncBus#FileSyncBus(ComponentLogger, Path, UUID)} instead.
+     * @deprecated You should use {@link FileSyncBus#FileSyncBus(ComponentLogger, Path, UUID)} instead.
+     * @throws RuntimeException if this method is used.
+     */
+    @Deprecated
+    public FileSyncBus() {
+        throw new RuntimeException("The use of the default constructor is not allowed.");
+    }
+
+    /**
+     * Constructor
+     * @param logger A {@link ComponentLogger} to log errors with.
+     * @param directory The shared directory.
+     * @param nodeId The id of this server. Used to name the message files this server writes.
+     */
+    public FileSyncBus(@NotNull ComponentLogger logger, @NotNull Path directory, @NotNull UUID nodeId) {
+        this.logger = logger;
+        this.directory = directory;
+        this.nodeId = nodeId;
+    }
+
+    @Override
+    public void start(@NotNull Consumer<byte[]> receiver, @NotNull Runnable onConnected) throws IOException {
+        Files.createDirectories(directory);
+        this.receiver = receiver;
+        lockChannel = FileChannel.open(directory.resolve("leader.lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+
+        // Messages written before this server started are skipped. The leader sends the current rotations in reply to this server's hello.
+        try(Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString()).filter(name -> name.endsWith(MESSAGE_SUFFIX)).forEach(seen::add);
+        }
+
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "SkyMarket-Sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::poll, 0L, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+
+        // Every server reads the shared directory, so messages can be sent as soon as it is started.
+        onConnected.run();
+    }
+
+    @Override
+    public void publish(byte @NotNull [] message) {
+        ScheduledExecutorService currentExecutor = executor;
+        if(currentExecutor == null || currentExecutor.isShutdown()) return;
+
+        currentExecutor.execute(() -> write(message));
+    }
+
+    @Override
+    public boolean isLeader() {
+        return leader;
+    }
+
+    @Override
+    public void close() {
+        if(executor != null) {
+            // Polling stops, but messages that are still queued are written before the executor terminates.
+            executor.shutdown();
+            try {
+                if(!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                    logger.warn(AdventureUtil.serialize("Timed out waiting for the sync bus to stop."));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            executor = null;
+        }
+
+        leader = false;
+        try {
+            if(leaderLock != null) leaderLock.release();
+            if(lockChannel != null) lockChannel.close();
+        } catch (IOException e) {
+            logger.warn(AdventureUtil.serialize("Failed to release the sync leader lock. " + e.getMessage()));
+        }
+
+        leaderLock = null;
+        lockChannel = null;
+        seen.clear();
+    }
+
+    /**
+     * Tries to become the leader, then delivers every message file that has not been seen yet in the order they were written.
+     * Runs on the bus thread.
+     */
+    private void poll() {
+        tryLead();
+
+        List<String> names;
+        try(Stream<Path> files = Files.list(directory)) {
+            names = files.map(path -> path.getFileName().toString()).filter(name -> name.endsWith(MESSAGE_SUFFIX)).sorted().toList();
+        } catch (IOException e) {
+            logger.warn(AdventureUtil.serialize("Failed to read the sync directory. " + e.getMessage()));
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        for(String name : names) {
+            if(!seen.add(name)) continue;
+
+            Path path = directory.resolve(name);
+            if(now - getWriteTime(name) > RETENTION_MILLIS) continue;
+
+            try {
+                byte[] message = Files.readAllBytes(path);
+                if(receiver != null) receiver.accept(message);
+            } catch (NoSuchFileException ignored) {
+                // Another server deleted the file because it expired.
+            } catch (IOException e) {
+                logger.warn(AdventureUtil.serialize("Failed to read the sync message " + name + ". " + e.getMessage()));
+            }
+        }
+
+        // Names of files that no longer exist are forgotten, so the set only holds the files in the directory.
+        seen.retainAll(new HashSet<>(names));
+
+        // Expired files are deleted by whichever server sees them first.
+        for(String name : names) {
+            if(now - getWriteTime(name) > RETENTION_MILLIS) deleteQuietly(directory.resolve(name));
+        }
+    }
+
+    /**
+     * Takes the leader lock if no other server holds it. Runs on the bus thread.
+     */
+    private void tryLead() {
+        if(leaderLock != null && leaderLock.isValid()) return;
+        if(lockChannel == null) return;
+
+        try {
+            leaderLock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException | IOException e) {
+            leaderLock = null;
+        }
+
+        leader = leaderLock != null;
+    }
+
+    /**
+     * Writes a message to a new file. The file is written under a temporary name and then renamed, so other servers never read part of a message.
+     * Runs on the bus thread.
+     * @param message The encoded message.
+     */
+    private void write(byte @NotNull [] message) {
+        // The names start with the time written, so sorting the names sorts the messages by when they were sent.
+        String name = String.format("%013d-%s-%010d%s", System.currentTimeMillis(), nodeId, sequence.incrementAndGet(), MESSAGE_SUFFIX);
+        Path temp = directory.resolve(name + TEMP_SUFFIX);
+
+        try {
+            Files.write(temp, message);
+            Files.move(temp, directory.resolve(name), StandardCopyOption.ATOMIC_MOVE);
+            seen.add(name);
+        } catch (IOException e) {
+            logger.warn(AdventureUtil.serialize("Failed to write a sync message. " + e.getMessage()));
+            deleteQuietly(temp);
+        }
+    }
+
+    /**
+     * Gets the time a message file was written from its name.
+     * @param name The name of the message file.
+     * @return The milliseconds since epoch when the file was written, or 0 if the name is not a message file name.
+     */
+    private long getWriteTime(@NotNull String name) {
+        int separator = name.indexOf('-');
+        if(separator <= 0) return 0L;
+
+        try {
+            return Long.parseLong(name.substring(0, separator));
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    /**
+     * Deletes a file, ignoring any errors.
+     * @param path The {@link Path} of the file to delete.
+     */
+    private void deleteQuietly(@NotNull Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {}
+    }
+}
@@ -0,0 +1,55 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.sync;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * This interface sends encoded {@link SyncMessage}s between the servers of a network and elects one of them as the leader.
+ * The leader is the only server that publishes rotations, so every server shows the same items and prices.
+ */
+public interface MarketSyncBus {
+    /**
+     * Connects to the bus and starts delivering messages from other servers.
+     * @param receiver Called with each message received. Called from the bus's own thread.
+     * @param onConnected Called each time this server is connected and can send messages to the leader, including after reconnecting.
+     *                    May be called from the bus's own thread.
+     * @throws IOException if the bus could not be started.
+     */
+    void start(@NotNull Consumer<byte[]> receiver, @NotNull Runnable onConnected) throws IOException;
+
+    /**
+     * Sends a message to the other servers. The message is sent on the bus's own thread, so this never blocks.
+     * @param message The encoded message.
+     */
+    void publish(byte @NotNull [] message);
+
+    /**
+     * Checks if this server is currently the leader. Safe to call from any thread.
+     * @return true if this server is the leader.
+     */
+    boolean isLeader();
+
+    /**
+     * Disconnects from the bus and stops its threads. If this server was the leader, another server can take over.
+     */
+    void close();
+}
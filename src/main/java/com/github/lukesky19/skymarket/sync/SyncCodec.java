@@ -0,0 +1,155 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.sync;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * This class converts {@link SyncMessage}s to and from the compact binary form sent through a {@link MarketSyncBus}.
+ */
+public final class SyncCodec {
+    private static final int VERSION = 1;
+    private static final byte HELLO = 0;
+    private static final byte ROTATION = 1;
+    private static final byte LIMIT_DELTAS = 2;
+
+    /**
+     * Default Constructor. All methods in this class are static.
+     * @deprecated All methods in this class are static.
+     * @throws RuntimeException if this method is used.
+     */
+    @Deprecated
+    public SyncCodec() {
+        throw new RuntimeException("The use of the default constructor is not allowed.");
+    }
+
+    /**
+     * Encodes a {@link SyncMessage}.
+     * @param message The {@link SyncMessage} to encode.
+     * @return The encoded message.
+     */
+    public static byte @NotNull [] encode(@NotNull SyncMessage message) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try(DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            writeUUID(out, message.nodeId());
+
+            switch(message) {
+                case SyncMessage.Hello ignored -> out.writeByte(HELLO);
+
+                case SyncMessage.Rotation rotation -> {
+                    out.writeByte(ROTATION);
+                    out.writeUTF(rotation.marketId());
+                    out.writeLong(rotation.rotationSeed());
+                    out.writeLong(rotation.refreshTime());
+                }
+
+                case SyncMessage.LimitDeltas limitDeltas -> {
+                    out.writeByte(LIMIT_DELTAS);
+                    out.writeInt(limitDeltas.markets().size());
+                    for(SyncMessage.MarketDeltas marketDeltas : limitDeltas.markets()) {
+                        out.writeUTF(marketDeltas.marketId());
+                        out.writeLong(marketDeltas.rotationSeed());
+                        out.writeInt(marketDeltas.deltas().size());
+                        for(SyncMessage.LimitDelta delta : marketDeltas.deltas()) {
+                            writeUUID(out, delta.uuid());
+                            out.writeInt(delta.slot());
+                            out.writeInt(delta.buyDelta());
+                            out.writeInt(delta.sellDelta());
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // Writing to a ByteArrayOutputStream never fails.
+            throw new UncheckedIOException(e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a {@link SyncMessage}.
+     * @param data The encoded message.
+     * @return The decoded {@link SyncMessage}.
+     * @throws IOException if the message is malformed or was encoded by an incompatible version.
+     */
+    public static @NotNull SyncMessage decode(byte @NotNull [] data) throws IOException {
+        try(DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            int version = in.readUnsignedByte();
+            if(version != VERSION) throw new IOException("Unsupported sync message version " + version + ".");
+
+            UUID nodeId = readUUID(in);
+            byte type = in.readByte();
+
+            return switch(type) {
+                case HELLO -> new SyncMessage.Hello(nodeId);
+
+                case ROTATION -> new SyncMessage.Rotation(nodeId, in.readUTF(), in.readLong(), in.readLong());
+
+                case LIMIT_DELTAS -> {
+                    int marketCount = in.readInt();
+                    List<SyncMessage.MarketDeltas> markets = new ArrayList<>(marketCount);
+                    for(int i = 0; i < marketCount; i++) {
+                        String marketId = in.readUTF();
+                        long rotationSeed = in.readLong();
+                        int deltaCount = in.readInt();
+
+                        List<SyncMessage.LimitDelta> deltas = new ArrayList<>(deltaCount);
+                        for(int j = 0; j < deltaCount; j++) {
+                            deltas.add(new SyncMessage.LimitDelta(readUUID(in), in.readInt(), in.readInt(), in.readInt()));
+                        }
+
+                        markets.add(new SyncMessage.MarketDeltas(marketId, rotationSeed, deltas));
+                    }
+
+                    yield new SyncMessage.LimitDeltas(nodeId, markets);
+                }
+
+                default -> throw new IOException("Unknown sync message type " + type + ".");
+            };
+        }
+    }
+
+    /**
+     * Writes a {@link UUID} as two longs.
+     * @param out The {@link DataOutputStream} to write to.
+     * @param uuid The {@link UUID} to write.
+     * @throws IOException if the write fails.
+     */
+    private static void writeUUID(@NotNull DataOutputStream out, @NotNull UUID uuid) throws IOException {
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * Reads a {@link UUID} written by {@link #writeUUID(DataOutputStream, UUID)}.
+     * @param in The {@link DataInputStream} to read from.
+     * @return The {@link UUID}.
+     * @throws IOException if the read fails.
+     */
+    private static @NotNull UUID readUUID(@NotNull DataInputStream in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+}
@@ -0,0 +1,73 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.sync;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * This interface is a message sent between servers through a {@link MarketSyncBus}.
+ */
+public sealed interface SyncMessage permits SyncMessage.Hello, SyncMessage.Rotation, SyncMessage.LimitDeltas {
+    /**
+     * Get the id of the server that sent the message.
+     * @return The sender's node id.
+     */
+    @NotNull UUID nodeId();
+
+    /**
+     * Sent by a server when it starts so the leader publishes the current rotation of every market.
+     * @param nodeId The id of the server that sent the message.
+     */
+    record Hello(@NotNull UUID nodeId) implements SyncMessage {}
+
+    /**
+     * Sent by the leader when a market starts a new rotation. Rotations are generated from their seed, so the seed is all that is needed to recreate one.
+     * @param nodeId The id of the server that sent the message.
+     * @param marketId The market id.
+     * @param rotationSeed The seed of the rotation.
+     * @param refreshTime The milliseconds since epoch when the rotation ends.
+     */
+    record Rotation(@NotNull UUID nodeId, @NotNull String marketId, long rotationSeed, long refreshTime) implements SyncMessage {}
+
+    /**
+     * Sent by every server with the changes made to players' buy and sell limits since its last batch.
+     * @param nodeId The id of the server that sent the message.
+     * @param markets The {@link List} of {@link MarketDeltas}.
+     */
+    record LimitDeltas(@NotNull UUID nodeId, @NotNull List<MarketDeltas> markets) implements SyncMessage {}
+
+    /**
+     * The limit changes made in a single market's rotation.
+     * @param marketId The market id.
+     * @param rotationSeed The seed of the rotation the changes were made in. Changes for any other rotation are ignored.
+     * @param deltas The {@link List} of {@link LimitDelta}s.
+     */
+    record MarketDeltas(@NotNull String marketId, long rotationSeed, @NotNull List<LimitDelta> deltas) {}
+
+    /**
+     * The change to one player's limits of one slot.
+     * @param uuid The {@link UUID} of the player.
+     * @param slot The slot, numbered across pages.
+     * @param buyDelta The change in the amount purchased.
+     * @param sellDelta The change in the amount sold.
+     */
+    record LimitDelta(@NotNull UUID uuid, int slot, int buyDelta, int sellDelta) {}
+}
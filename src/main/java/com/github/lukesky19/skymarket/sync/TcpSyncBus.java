@@ -0,0 +1,294 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.sync;
+
+import com.github.lukesky19.skylib.api.adventure.AdventureUtil;
+import net.kyori.adventure.text.logger.slf4j.ComponentLogger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.net.*;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * A {@link MarketSyncBus} that exchanges messages over TCP on the loopback interface. Intended for testing several servers on one machine.
+ * The first server to bind the port is the leader and relays every message it receives to the other connected servers.
+ * The other servers connect to it and try to bind the port themselves if the connection is lost, so one takes over if the leader stops.
+ * Each message is sent as its length followed by its bytes.
+ */
+public class TcpSyncBus implements MarketSyncBus {
+    private static final int MAX_MESSAGE_BYTES = 1 << 20;
+    private static final long RECONNECT_DELAY_MILLIS = 1000L;
+
+    private final @NotNull ComponentLogger logger;
+    private final int port;
+    private final @NotNull Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private @Nullable ExecutorService executor;
+    private @Nullable ExecutorService writer;
+    private volatile @Nullable ServerSocket serverSocket;
+    private volatile @Nullable Consumer<byte[]> receiver;
+    private volatile @Nullable Runnable onConnected;
+    private volatile boolean running;
+    private volatile boolean leader;
+
+    /**
+     * Default Constructor. You should use {@link TcpSyncBus#TcpSyncBus(ComponentLogger, int)} instead.
+     * @deprecated You should use {@link TcpSyncBus#TcpSyncBus(ComponentLogger, int)} instead.
+     * @throws RuntimeException if this method is used.
+     */
+    @Deprecated
+    public TcpSyncBus() {
+        throw new RuntimeException("The use of the default constructor is not allowed.");
+    }
+
+    /**
+     * Constructor
+     * @param logger A {@link ComponentLogger} to log errors with.
+     * @param port The loopback port every server uses.
+     */
+    public TcpSyncBus(@NotNull ComponentLogger logger, int port) {
+        this.logger = logger;
+        this.port = port;
+    }
+
+    @Override
+    public void start(@NotNull Consumer<byte[]> receiver, @NotNull Runnable onConnected) {
+        this.receiver = receiver;
+        this.onConnected = onConnected;
+        running = true;
+
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "SkyMarket-Sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "SkyMarket-Sync-Writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        executor.execute(this::run);
+    }
+
+    @Override
+    public void publish(byte @NotNull [] message) {
+        ExecutorService currentWriter = writer;
+        if(currentWriter == null || currentWriter.isShutdown()) return;
+
+        currentWriter.execute(() -> {
+            for(Connection connection : connections) {
+                connection.send(message);
+            }
+        });
+    }
+
+    @Override
+    public boolean isLeader() {
+        return leader;
+    }
+
+    @Override
+    public void close() {
+        // Messages that are still queued are sent before the connections are closed.
+        if(writer != null) {
+            writer.shutdown();
+            try {
+                if(!writer.awaitTermination(5, TimeUnit.SECONDS)) {
+                    logger.warn(AdventureUtil.serialize("Timed out waiting for the sync bus to send its messages."));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            writer = null;
+        }
+
+        running = false;
+        leader = false;
+
+        closeQuietly(serverSocket);
+        serverSocket = null;
+        for(Connection connection : connections) {
+            connection.close();
+        }
+        connections.clear();
+
+        if(executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * Leads by binding the port, or follows by connecting to the server that has. Repeats until the bus is closed.
+     * Runs on a bus thread.
+     */
+    private void run() {
+        while(running) {
+            try {
+                lead();
+            } catch (BindException e) {
+                follow();
+            } catch (IOException e) {
+                if(running) logger.warn(AdventureUtil.serialize("The sync bus stopped leading. " + e.getMessage()));
+            }
+
+            leader = false;
+            if(!running) return;
+
+            try {
+                Thread.sleep(RECONNECT_DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Binds the port and accepts connections from the other servers until the bus is closed.
+     * @throws BindException if another server has already bound the port.
+     * @throws IOException if accepting a connection fails.
+     */
+    private void lead() throws IOException {
+        try(ServerSocket socket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            serverSocket = socket;
+            leader = true;
+
+            while(running) {
+                Connection connection = new Connection(socket.accept());
+                connections.add(connection);
+
+                ExecutorService currentExecutor = executor;
+                if(currentExecutor != null) currentExecutor.execute(() -> read(connection, true));
+            }
+        } finally {
+            serverSocket = null;
+        }
+    }
+
+    /**
+     * Connects to the leader and reads its messages until the connection is lost.
+     * Messages published before the connection exists are dropped, so the connected callback is run once the leader can receive messages.
+     */
+    private void follow() {
+        try {
+            Connection connection = new Connection(new Socket(InetAddress.getLoopbackAddress(), port));
+            connections.add(connection);
+
+            @Nullable Runnable currentOnConnected = onConnected;
+            if(currentOnConnected != null) currentOnConnected.run();
+
+            read(connection, false);
+        } catch (IOException e) {
+            if(running) logger.warn(AdventureUtil.serialize("Failed to connect to the sync bus leader. " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Reads messages from a connection until it is closed and passes them to the receiver.
+     * @param connection The {@link Connection} to read from.
+     * @param relay Whether each message should also be sent to every other connection. Used by the leader.
+     */
+    private void read(@NotNull Connection connection, boolean relay) {
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(connection.socket.getInputStream()))) {
+            while(running) {
+                int length = in.readInt();
+                if(length <= 0 || length > MAX_MESSAGE_BYTES) throw new IOException("Invalid sync message length " + length + ".");
+
+                byte[] message = new byte[length];
+                in.readFully(message);
+
+                @Nullable Consumer<byte[]> currentReceiver = receiver;
+                if(currentReceiver != null) currentReceiver.accept(message);
+
+                if(relay) {
+                    for(Connection other : connections) {
+                        if(other != connection) other.send(message);
+                    }
+                }
+            }
+        } catch (EOFException | SocketException ignored) {
+            // The other server disconnected or the bus was closed.
+        } catch (IOException e) {
+            if(running) logger.warn(AdventureUtil.serialize("Failed to read from the sync bus. " + e.getMessage()));
+        } finally {
+            connections.remove(connection);
+            connection.close();
+        }
+    }
+
+    /**
+     * Closes a {@link Closeable}, ignoring any errors.
+     * @param closeable The {@link Closeable} to close, or null.
+     */
+    private void closeQuietly(@Nullable Closeable closeable) {
+        if(closeable == null) return;
+
+        try {
+            closeable.close();
+        } catch (IOException ignored) {}
+    }
+
+    /**
+     * A connection to another server. Writes are synchronized so messages from different threads are never interleaved.
+     */
+    private class Connection {
+        private final @NotNull Socket socket;
+        private final @NotNull DataOutputStream out;
+
+        /**
+         * Constructor
+         * @param socket The connected {@link Socket}.
+         * @throws IOException if the socket's output stream could not be opened.
+         */
+        private Connection(@NotNull Socket socket) throws IOException {
+            this.socket = socket;
+            this.socket.setTcpNoDelay(true);
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        /**
+         * Sends a message. The connection is closed if the write fails.
+         * @param message The encoded message.
+         */
+        private synchronized void send(byte @NotNull [] message) {
+            try {
+                out.writeInt(message.length);
+                out.write(message);
+                out.flush();
+            } catch (IOException e) {
+                connections.remove(this);
+                close();
+            }
+        }
+
+        /**
+         * Closes the connection.
+         */
+        private void close() {
+            closeQuietly(socket);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.util;
+
+import com.github.lukesky19.skymarket.data.config.Locale;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * This enum lists the messages of a {@link Locale} that are compiled into templates when the locale is loaded.
+ */
+public enum LocaleMessage {
+    /**
+     * The message sent when the plugin is reloaded.
+     */
+    CONFIG_RELOAD(Locale::configReload, true, List.of()),
+    /**
+     * The message sent when the player doesn't have enough items to sell.
+     */
+    NOT_ENOUGH_ITEMS(Locale::notEnoughItems, true, List.of()),
+    /**
+     * The message sent when the player lacks the funds to purchase an item.
+     */
+    INSUFFICIENT_FUNDS(Locale::insufficientFunds, true, List.of()),
+    /**
+     * The message sent when the player lacks the items to purchase an item.
+     */
+    INSUFFICIENT_ITEMS(Locale::insufficientItems, true, List.of()),
+    /**
+     * The message sent when a purchase succeeds. The items taken in exchange are numbered, starting with &lt;item0&gt;.
+     */
+    BUY_SUCCESS(Locale::buySuccess, true, List.of("item", "price", "bal")),
+    /**
+     * The message sent when a sale succeeds.
+     */
+    SELL_SUCCESS(Locale::sellSuccess, true, List.of("item", "price", "bal")),
+    /**
+     * The message sent when something cannot be purchased.
+     */
+    UNBUYABLE(Locale::unbuyable, true, List.of()),
+    /**
+     * The message sent when something cannot be sold.
+     */
+    UNSELLABLE(Locale::unsellable, true, List.of()),
+    /**
+     * The message sent when something cannot be purchased due to a limit.
+     */
+    BUY_LIMIT_REACHED(Locale::buyLimitReached, true, List.of()),
+    /**
+     * The message sent when something cannot be sold due to a limit.
+     */
+    SELL_LIMIT_REACHED(Locale::sellLimitReached, true, List.of()),
+    /**
+     * The message sent when a market is refreshed.
+     */
+    MARKET_REFRESHED(Locale::marketRefreshed, true, List.of("market_name")),
+    /**
+     * The message sent to display when a market will refresh.
+     */
+    MARKET_REFRESH_TIME(Locale::marketRefreshTime, true, List.of("market_name", "time")),
+    /**
+     * The message sent when a market doesn't exist for a specific market id.
+     */
+    INVALID_MARKET_ID(Locale::invalidMarketId, true, List.of()),
+    /**
+     * The message sent to the player when a gui fails to open.
+     */
+    GUI_OPEN_ERROR(Locale::guiOpenError, true, List.of()),
+    /**
+     * The format used to display an item with.
+     */
+    ITEM_FORMAT(Locale::itemFormat, false, List.of("item_name", "item_amount")),
+    /**
+     * The message sent when a player turns market refresh messages on.
+     */
+    BROADCASTS_ENABLED(Locale::broadcastsEnabled, true, List.of()),
+    /**
+     * The message sent when a player turns market refresh messages off.
+     */
+    BROADCASTS_DISABLED(Locale::broadcastsDisabled, true, List.of()),
+    /**
+     * The message sent when something cannot be purchased because the global stock has run out.
+     */
+    OUT_OF_STOCK(Locale::outOfStock, true, List.of()),
+    /**
+     * The message sent to display the size and lag of the command queue.
+     */
+    COMMAND_QUEUE_STATUS(Locale::commandQueueStatus, true, List.of("depth", "lag")),
+    /**
+     * The message sent before the metrics of a market.
+     */
+    STATS_HEADER(Locale::statsHeader, true, List.of("market_id")),
+    /**
+     * The message sent for each operation of a market's metrics.
+     */
+    STATS_LINE(Locale::statsLine, false, List.of("operation", "count", "failures", "mean", "p50", "p99", "max")),
+    /**
+     * The message sent when no metrics have been recorded.
+     */
+    STATS_NONE(Locale::statsNone, true, List.of()),
+    /**
+     * The name of the GUI that shows search results.
+     */
+    SEARCH_GUI_NAME(Locale::searchGuiName, false, List.of()),
+    /**
+     * The lore line of a search result that shows the market it is in.
+     */
+    SEARCH_RESULT_MARKET(Locale::searchResultMarket, false, List.of("market_name")),
+    /**
+     * The lore line of a search result that shows its prices.
+     */
+    SEARCH_RESULT_PRICE(Locale::searchResultPrice, false, List.of("buy_price", "sell_price")),
+    /**
+     * The lore line of a search result that tells the player they can click it to open the market.
+     */
+    SEARCH_RESULT_OPEN(Locale::searchResultOpen, false, List.of()),
+    /**
+     * The name of the button that closes the search results GUI.
+     */
+    SEARCH_EXIT(Locale::searchExit, false, List.of()),
+    /**
+     * The message sent when a search finds nothing.
+     */
+    SEARCH_NO_RESULTS(Locale::searchNoResults, true, List.of("query")),
+    /**
+     * The text PlaceholderAPI placeholders show for stock and limits that are unlimited.
+     */
+    PLACEHOLDER_UNLIMITED(Locale::placeholderUnlimited, false, List.of());
+
+    private final @NotNull Function<Locale, String> getter;
+    private final boolean prefixed;
+    private final @NotNull List<String> placeholders;
+
+    /**
+     * Constructor
+     * @param getter The function that gets the message from a {@link Locale}.
+     * @param prefixed true if the message is sent in chat with the locale's prefix in front of it.
+     * @param placeholders The names of the placeholders the message supports. A name followed by a number, like &lt;item0&gt;, is also supported.
+     */
+    LocaleMessage(@NotNull Function<Locale, String> getter, boolean prefixed, @NotNull List<String> placeholders) {
+        this.getter = getter;
+        this.prefixed = prefixed;
+        this.placeholders = placeholders;
+    }
+
+    /**
+     * Gets the message from a {@link Locale}, with the locale's prefix in front of it if the message is sent in chat.
+     * @param locale The {@link Locale}.
+     * @return The MiniMessage text of the message.
+     */
+    public @NotNull String getText(@NotNull Locale locale) {
+        String message = getter.apply(locale);
+        if(message == null) message = "";
+
+        return prefixed && locale.prefix() != null ? locale.prefix() + message : message;
+    }
+
+    /**
+     * Get the names of the placeholders the message supports.
+     * @return A {@link List} of placeholder names.
+     */
+    public @NotNull List<String> getPlaceholders() {
+        return placeholders;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+    SkyMarket is a shop that rotates it's inventory after a set period of time.
+    Copyright (C) 2024 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymarket.util;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * This enum is the type of market operation that metrics are recorded for.
+ */
+public enum MarketOperation {
+    /**
+     * A market GUI being opened for a player.
+     */
+    OPEN("open"),
+    /**
+     * A market being refreshed.
+     */
+    REFRESH("refresh"),
+    /**
+     * An item being purchased.
+     */
+    BUY_ITEM("buy_item"),
+    /**
+     * An item being sold.
+     */
+    SELL_ITEM("sell_item"),
+    /**
+     * A command being purchased.
+     */
+    BUY_COMMAND("buy_command"),
+    /**
+     * A command being sold.
+     */
+    SELL_COMMAND("sell_command");
+
+    private final @NotNull String metricName;
+
+    /**
+     * Constructor
+     * @param metricName The name used for the operation in metrics.
+     */
+    MarketOperation(@NotNull String metricName) {
+        this.metricName = metricName;
+    }
+
+    /**
+     * Get the name used for the operation in metrics.
+     * @return The metric name.
+     */
+    public @NotNull String getMetricName() {
+        return metricName;
+    }
+}
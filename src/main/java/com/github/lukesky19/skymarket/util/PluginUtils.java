@@ -20,6 +20,7 @@ package com.github.lukesky19.skymarket.util;
 import com.github.lukesky19.skylib.api.itemstack.ItemStackBuilder;
 import com.github.lukesky19.skylib.api.itemstack.ItemStackConfig;
 import com.github.lukesky19.skylib.api.registry.RegistryUtil;
+import com.github.lukesky19.skylib.api.time.Time;
 import com.github.lukesky19.skymarket.data.config.item.AmountConfig;
 import com.github.lukesky19.skymarket.data.config.item.RandomEnchantConfig;
 import net.kyori.adventure.text.logger.slf4j.ComponentLogger;
@@ -33,9 +34,10 @@ import org.jetbrains.annotations.Nullable;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
- * This class contains methods to calculate a random price, and create {@link ItemStack}s.
+ * This class contains methods to calculate a random price, create {@link ItemStack}s and format refresh times.
  */
 public class PluginUtils {
     /**
@@ -55,11 +57,22 @@ public class PluginUtils {
      * @return A double representing a price.
      */
     public static double calculatePrice(double min, double max) {
+        return calculatePrice(ThreadLocalRandom.current(), min, max);
+    }
+
+    /**
+     * Calculates a random price from a min and max.
+     * @param random The {@link Random} to roll the price with.
+     * @param min The min price.
+     * @param max The max price.
+     * @return A double representing a price.
+     */
+    public static double calculatePrice(@NotNull Random random, double min, double max) {
         double price;
         if (max <= 0.0 && min <= 0.0) {
             price = 0.0;
         } else {
-            price = BigDecimal.valueOf(Math.random() * (max - min) + min).setScale(2, RoundingMode.CEILING).doubleValue();
+            price = BigDecimal.valueOf(random.nextDouble() * (max - min) + min).setScale(2, RoundingMode.CEILING).doubleValue();
         }
 
         return price;
@@ -75,6 +88,20 @@ public class PluginUtils {
      * @return An {@link Optional} containing an {@link ItemStack}.
      */
     public static @NotNull Optional<ItemStack> createItemStack(@NotNull ComponentLogger logger, @NotNull ItemStackConfig itemStackConfig, @NotNull AmountConfig amountConfig, @NotNull RandomEnchantConfig randomEnchantConfig, @NotNull List<TagResolver.Single> placeholders) {
+        return createItemStack(ThreadLocalRandom.current(), logger, itemStackConfig, amountConfig, randomEnchantConfig, placeholders);
+    }
+
+    /**
+     * Create an {@link ItemStack}.
+     * @param random The {@link Random} to roll the amount and enchantments with.
+     * @param logger A {@link ComponentLogger}.
+     * @param itemStackConfig An {@link ItemStackConfig}
+     * @param amountConfig An {@link AmountConfig}
+     * @param randomEnchantConfig A {@link RandomEnchantConfig}
+     * @param placeholders A {@link List} of {@link TagResolver.Single} placeholders.
+     * @return An {@link Optional} containing an {@link ItemStack}.
+     */
+    public static @NotNull Optional<ItemStack> createItemStack(@NotNull Random random, @NotNull ComponentLogger logger, @NotNull ItemStackConfig itemStackConfig, @NotNull AmountConfig amountConfig, @NotNull RandomEnchantConfig randomEnchantConfig, @NotNull List<TagResolver.Single> placeholders) {
         // If the ItemType is null, lets assume it is not configured
         // An error is logged on config load so we don't log an error here
         if(itemStackConfig.itemType() == null) return Optional.empty();
@@ -83,8 +110,8 @@ public class PluginUtils {
         if(optionalItemType.isEmpty()) return Optional.empty();
         ItemType itemType = optionalItemType.get();
 
-        @Nullable Integer randomAmount = getRandomAmount(amountConfig.fixed(), amountConfig.min(), amountConfig.max());
-        @Nullable Map<Enchantment, Integer> randomEnchantments = getRandomEnchantments(itemType, randomEnchantConfig.enchantRandomly(), randomEnchantConfig.min(), randomEnchantConfig.max(), randomEnchantConfig.enchantRandomly());
+        @Nullable Integer randomAmount = getRandomAmount(random, amountConfig.fixed(), amountConfig.min(), amountConfig.max());
+        @Nullable Map<Enchantment, Integer> randomEnchantments = getRandomEnchantments(random, itemType, randomEnchantConfig.enchantRandomly(), randomEnchantConfig.min(), randomEnchantConfig.max(), randomEnchantConfig.enchantRandomly());
 
         return createItemStack(logger, itemStackConfig, randomAmount, randomEnchantments, placeholders);
     }
@@ -116,12 +143,24 @@ public class PluginUtils {
      * @return An {@link Integer} representing the amount of items the {@link ItemStack} should have, or null.
      */
     public static @Nullable Integer getRandomAmount(@Nullable Integer fixed, @Nullable Integer min, @Nullable Integer max) {
+        return getRandomAmount(ThreadLocalRandom.current(), fixed, min, max);
+    }
+
+    /**
+     * Calculate the amount of items an {@link ItemStack} should have.
+     * @param random The {@link Random} to roll the amount with.
+     * @param fixed The fixed amount.
+     * @param min The minimum amount.
+     * @param max The maximum amount.
+     * @return An {@link Integer} representing the amount of items the {@link ItemStack} should have, or null.
+     */
+    public static @Nullable Integer getRandomAmount(@NotNull Random random, @Nullable Integer fixed, @Nullable Integer min, @Nullable Integer max) {
         // Calculate the amount of items the stack should contain
         if(fixed != null) {
             return fixed;
         } else {
             if(max != null && min != null) {
-                return (int) (Math.random() * (max - min) + min);
+                return (int) (random.nextDouble() * (max - min) + min);
             }
         }
 
@@ -138,13 +177,61 @@ public class PluginUtils {
      * @return A {@link Map} mapping {@link Enchantment}s to a level as an {@link Integer}, or null.
      */
     public static @Nullable Map<Enchantment, Integer> getRandomEnchantments(@NotNull ItemType itemType, @Nullable Boolean enchantRandomly, @Nullable Integer min, @Nullable Integer max, @Nullable Boolean treasure) {
+        return getRandomEnchantments(ThreadLocalRandom.current(), itemType, enchantRandomly, min, max, treasure);
+    }
+
+    /**
+     * Generate the {@link Map} mapping {@link Enchantment}s to a level as an {@link Integer}.
+     * @param random The {@link Random} to roll the enchantments with.
+     * @param itemType The {@link ItemType} to use for the dummy {@link ItemStack} to enchant.
+     * @param enchantRandomly Should the item be enchanted randomly?
+     * @param min The minimum exp level.
+     * @param max The maximum exp level.
+     * @param treasure Should tresure enchantments be included?
+     * @return A {@link Map} mapping {@link Enchantment}s to a level as an {@link Integer}, or null.
+     */
+    public static @Nullable Map<Enchantment, Integer> getRandomEnchantments(@NotNull Random random, @NotNull ItemType itemType, @Nullable Boolean enchantRandomly, @Nullable Integer min, @Nullable Integer max, @Nullable Boolean treasure) {
         if((enchantRandomly == null || !enchantRandomly) || (min == null || min <= 0) || (max == null || max <= 0) || (treasure == null)) return null;
 
         // Calculate the random enchantments to add
         ItemStack dummyStack = itemType.createItemStack();
 
-        dummyStack.enchantWithLevels(new Random().nextInt(min, max), treasure, new Random());
+        dummyStack.enchantWithLevels(random.nextInt(min, max), treasure, random);
 
         return dummyStack.getEnchantments();
     }
+
+    /**
+     * Formats a {@link Time} as text, for example "1 hour 30 minutes 5 seconds ". Units that are 0 are left out.
+     * @param time The {@link Time} to format.
+     * @return The formatted time.
+     */
+    public static @NotNull String formatTime(@NotNull Time time) {
+        StringBuilder stringBuilder = new StringBuilder();
+
+        appendTimeUnit(stringBuilder, time.years(), "year", "years", " ");
+        appendTimeUnit(stringBuilder, time.months(), "month", "months", " ");
+        appendTimeUnit(stringBuilder, time.weeks(), "week", "weeks", " ");
+        appendTimeUnit(stringBuilder, time.days(), "day", "days", " ");
+        appendTimeUnit(stringBuilder, time.hours(), "hour", "hours", " ");
+        appendTimeUnit(stringBuilder, time.minutes(), "minute", "minutes", " ");
+        appendTimeUnit(stringBuilder, time.seconds(), "second", "seconds", " ");
+        appendTimeUnit(stringBuilder, time.milliseconds(), "millisecond", "milliseconds", "");
+
+        return stringBuilder.toString();
+    }
+
+    /**
+     * Appends an amount of a unit of time if it is greater than 0.
+     * @param stringBuilder The {@link StringBuilder} to append to.
+     * @param amount The amount of the unit.
+     * @param singular The name of the unit when the amount is 1.
+     * @param plural The name of the unit when the amount is greater than 1.
+     * @param separator The text appended after the unit.
+     */
+    private static void appendTimeUnit(@NotNull StringBuilder stringBuilder, long amount, @NotNull String singular, @NotNull String plural, @NotNull String separator) {
+        if(amount <= 0) return;
+
+        stringBuilder.append(amount).append(' ').append(amount > 1 ? plural : singular).append(separator);
+    }
 }
\ No newline at end of file